@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.n52.iceland.request.operator.BatchRequestExecutor;
+import org.n52.iceland.service.operator.ServiceOperator;
+import org.n52.iceland.service.operator.ServiceOperatorRepository;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.ows.service.OwsServiceKey;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+import org.n52.shetland.ogc.sos.Sos2Constants;
+import org.n52.shetland.ogc.sos.SosConstants;
+import org.n52.shetland.ogc.sos.request.BatchRequest;
+import org.n52.shetland.ogc.sos.request.DescribeSensorRequest;
+import org.n52.shetland.ogc.sos.request.GetObservationRequest;
+import org.n52.shetland.ogc.sos.request.InsertObservationRequest;
+import org.n52.shetland.ogc.sos.response.BatchResponse;
+import org.n52.shetland.ogc.sos.response.GetObservationResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the execution of a {@link BatchRequest} of 32 sub-requests, every eighth of them transactional, by a
+ * {@link BatchRequestExecutor} with a varying number of threads. The stub operator sleeps for a millisecond per
+ * sub-request to simulate the latency of the datasource.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchRequestBenchmark {
+    private static final int SUB_REQUESTS = 32;
+    private static final int TRANSACTION_INTERVAL = 8;
+    private static final long LATENCY = 1;
+
+    @Param({ "1", "4", "16" })
+    private int threads;
+
+    private BatchRequestExecutor executor;
+    private BatchRequest batch;
+
+    @Setup
+    public void setup() {
+        ServiceOperatorRepository repository = new ServiceOperatorRepository();
+        repository.setServiceOperators(Collections.singleton(new SleepingServiceOperator()));
+        repository.init();
+        this.executor = new BatchRequestExecutor();
+        this.executor.setServiceOperatorRepository(repository);
+        this.executor.setThreads(threads);
+        this.batch = new BatchRequest();
+        for (int i = 0; i < SUB_REQUESTS; i++) {
+            if (i % TRANSACTION_INTERVAL == TRANSACTION_INTERVAL - 1) {
+                batch.add(new InsertObservationRequest(SosConstants.SOS, Sos2Constants.SERVICEVERSION));
+            } else if (i % 2 == 0) {
+                batch.add(new GetObservationRequest(SosConstants.SOS, Sos2Constants.SERVICEVERSION));
+            } else {
+                batch.add(new DescribeSensorRequest(SosConstants.SOS, Sos2Constants.SERVICEVERSION));
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.destroy();
+    }
+
+    @Benchmark
+    public BatchResponse execute() throws OwsExceptionReport {
+        return executor.execute(batch);
+    }
+
+    private static class SleepingServiceOperator implements ServiceOperator {
+        @Override
+        public Set<OwsServiceKey> getKeys() {
+            return Collections.singleton(new OwsServiceKey(SosConstants.SOS, Sos2Constants.SERVICEVERSION));
+        }
+
+        @Override
+        public OwsServiceResponse receiveRequest(OwsServiceRequest request) {
+            try {
+                Thread.sleep(LATENCY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new GetObservationResponse(request.getService(), request.getVersion());
+        }
+    }
+}
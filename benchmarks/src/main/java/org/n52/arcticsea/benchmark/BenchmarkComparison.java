@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import org.n52.janmayen.Json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Compares two JMH result files (created with {@code -rf json}) and reports the relative change of every benchmark
+ * that is present in both files. A benchmark is reported as a regression if it got slower (or, for throughput
+ * benchmarks, lost throughput) by more than the threshold and the difference exceeds the combined error margins.
+ *
+ * <pre>
+ * java -cp benchmarks.jar org.n52.arcticsea.benchmark.BenchmarkComparison baseline.json current.json [threshold]
+ * </pre>
+ *
+ * The process exits with status {@code 1} if at least one regression was found.
+ *
+ * @since 9.9.0
+ */
+public class BenchmarkComparison {
+    private static final double DEFAULT_THRESHOLD = 0.10;
+    private static final String THROUGHPUT = "thrpt";
+
+    private final double threshold;
+    private final PrintStream out;
+
+    public BenchmarkComparison(double threshold, PrintStream out) {
+        this.threshold = threshold;
+        this.out = out;
+    }
+
+    /**
+     * Compares the results and prints the report.
+     *
+     * @param baseline the baseline results
+     * @param current  the current results
+     *
+     * @return the number of regressions
+     */
+    public int compare(JsonNode baseline, JsonNode current) {
+        Map<String, JsonNode> baselineResults = index(baseline);
+        Map<String, JsonNode> currentResults = index(current);
+        int regressions = 0;
+        out.println(String.format(Locale.ROOT, "%-80s %15s %15s %9s  %s",
+                                  "Benchmark", "Baseline", "Current", "Change", ""));
+        for (Map.Entry<String, JsonNode> entry : currentResults.entrySet()) {
+            JsonNode before = baselineResults.get(entry.getKey());
+            if (before == null) {
+                out.println(String.format(Locale.ROOT, "%-80s %15s %15s %9s  %s", entry.getKey(), "-",
+                                          format(entry.getValue()), "-", "NEW"));
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            double baseScore = score(before);
+            double currentScore = score(after);
+            double change = baseScore == 0 ? 0 : (currentScore - baseScore) / baseScore;
+            // positive values are always regressions, regardless of the benchmark mode
+            double worsening = THROUGHPUT.equals(after.path("mode").asText()) ? -change : change;
+            double margin = error(before) + error(after);
+            boolean significant = Math.abs(currentScore - baseScore) > margin;
+            String verdict = "";
+            if (significant && worsening > threshold) {
+                verdict = "REGRESSION";
+                ++regressions;
+            } else if (significant && worsening < -threshold) {
+                verdict = "IMPROVEMENT";
+            }
+            out.println(String.format(Locale.ROOT, "%-80s %15s %15s %+8.1f%%  %s", entry.getKey(), format(before),
+                                      format(after), change * 100, verdict));
+        }
+        baselineResults.keySet().stream().filter(key -> !currentResults.containsKey(key))
+                .forEach(key -> out.println(String.format(Locale.ROOT, "%-80s %15s %15s %9s  %s", key,
+                                                          format(baselineResults.get(key)), "-", "-", "REMOVED")));
+        out.println(String.format(Locale.ROOT, "%d regression(s) above %.0f%%", regressions, threshold * 100));
+        return regressions;
+    }
+
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> index = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            index.put(name(result), result);
+        }
+        return index;
+    }
+
+    private static String name(JsonNode result) {
+        StringJoiner joiner = new StringJoiner(",", "(", ")").setEmptyValue("");
+        Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+        while (params.hasNext()) {
+            Map.Entry<String, JsonNode> param = params.next();
+            joiner.add(param.getKey() + "=" + param.getValue().asText());
+        }
+        String benchmark = result.path("benchmark").asText();
+        return benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1) + joiner;
+    }
+
+    private static double score(JsonNode result) {
+        return result.path("primaryMetric").path("score").asDouble();
+    }
+
+    private static double error(JsonNode result) {
+        double error = result.path("primaryMetric").path("scoreError").asDouble();
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static String format(JsonNode result) {
+        return String.format(Locale.ROOT, "%.3f %s", score(result),
+                             result.path("primaryMetric").path("scoreUnit").asText());
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkComparison <baseline.json> <current.json> [threshold]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        PrintStream out = new PrintStream(System.out, true, StandardCharsets.UTF_8.name());
+        int regressions = new BenchmarkComparison(threshold, out)
+                .compare(Json.loadPath(Paths.get(args[0])), Json.loadPath(Paths.get(args[1])));
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.n52.iceland.binding.kvp.AbstractKvpDecoder;
+import org.n52.iceland.binding.kvp.KvpBinding;
+import org.n52.iceland.binding.pox.PoxBinding;
+import org.n52.iceland.binding.soap.SoapBinding;
+import org.n52.iceland.coding.DocumentBuilderProvider;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.sos.Sos2Constants;
+import org.n52.shetland.ogc.sos.SosConstants;
+import org.n52.shetland.ogc.sos.request.GetObservationRequest;
+import org.n52.shetland.w3c.soap.SoapRequest;
+import org.n52.svalbard.decode.DecoderRepository;
+import org.n52.svalbard.decode.Soap12Decoder;
+import org.n52.svalbard.decode.Soap12StringDecoder;
+import org.n52.svalbard.decode.SosDecoderv20;
+import org.n52.svalbard.decode.SosStringDecoderv20;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+/**
+ * Measures the request decoding of the KVP, POX and SOAP bindings for a {@code GetObservation} request, from the
+ * servlet request to the decoded {@link OwsServiceRequest}.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BindingDecodingBenchmark {
+    private static final String OFFERING = ObservationGenerator.NAMESPACE + "offering/0";
+    private static final String PROCEDURE = ObservationGenerator.NAMESPACE + "procedure/0";
+    private static final String OBSERVED_PROPERTY = ObservationGenerator.NAMESPACE + "temperature";
+    private static final String FEATURE = ObservationGenerator.NAMESPACE + "feature/0";
+    private static final String RESPONSE_FORMAT = "http://www.opengis.net/om/2.0";
+
+    private static final String GET_OBSERVATION = new StringBuilder()
+            .append("<sos:GetObservation service=\"SOS\" version=\"2.0.0\"")
+            .append(" xmlns:sos=\"http://www.opengis.net/sos/2.0\">")
+            .append("<sos:procedure>").append(PROCEDURE).append("</sos:procedure>")
+            .append("<sos:offering>").append(OFFERING).append("</sos:offering>")
+            .append("<sos:observedProperty>").append(OBSERVED_PROPERTY).append("</sos:observedProperty>")
+            .append("<sos:featureOfInterest>").append(FEATURE).append("</sos:featureOfInterest>")
+            .append("<sos:responseFormat>").append(RESPONSE_FORMAT).append("</sos:responseFormat>")
+            .append("</sos:GetObservation>")
+            .toString();
+
+    private static final byte[] POX_REQUEST = new StringBuilder()
+            .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+            .append(GET_OBSERVATION)
+            .toString().getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] SOAP_REQUEST = new StringBuilder()
+            .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+            .append("<env:Envelope xmlns:env=\"http://www.w3.org/2003/05/soap-envelope\">")
+            .append("<env:Body>").append(GET_OBSERVATION).append("</env:Body>")
+            .append("</env:Envelope>")
+            .toString().getBytes(StandardCharsets.UTF_8);
+
+    private BenchmarkKvpBinding kvpBinding;
+    private BenchmarkPoxBinding poxBinding;
+    private BenchmarkSoapBinding soapBinding;
+
+    @Setup
+    public void setup() {
+        DecoderRepository decoderRepository = Codecs.decoders(new GetObservationKvpDecoder(),
+                                                              new SosStringDecoderv20(),
+                                                              new SosDecoderv20(),
+                                                              new Soap12StringDecoder(),
+                                                              new Soap12Decoder());
+        DocumentBuilderProvider documentFactory = new DocumentBuilderProvider();
+        documentFactory.init();
+
+        this.kvpBinding = new BenchmarkKvpBinding();
+        this.kvpBinding.setDecoderRepository(decoderRepository);
+
+        this.poxBinding = new BenchmarkPoxBinding();
+        this.poxBinding.setDecoderRepository(decoderRepository);
+        this.poxBinding.setDocumentFactory(documentFactory);
+
+        this.soapBinding = new BenchmarkSoapBinding();
+        this.soapBinding.setDecoderRepository(decoderRepository);
+        this.soapBinding.setDocumentFactory(documentFactory);
+    }
+
+    @Benchmark
+    public OwsServiceRequest kvp() throws OwsExceptionReport {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/service");
+        request.addParameter("service", SosConstants.SOS);
+        request.addParameter("version", Sos2Constants.SERVICEVERSION);
+        request.addParameter("request", SosConstants.Operations.GetObservation.name());
+        request.addParameter("offering", OFFERING);
+        request.addParameter("procedure", PROCEDURE);
+        request.addParameter("observedProperty", OBSERVED_PROPERTY);
+        request.addParameter("featureOfInterest", FEATURE);
+        request.addParameter("responseFormat", RESPONSE_FORMAT);
+        return kvpBinding.parseRequest(request);
+    }
+
+    @Benchmark
+    public OwsServiceRequest pox() throws OwsExceptionReport {
+        return poxBinding.parseRequest(post("application/xml", POX_REQUEST));
+    }
+
+    @Benchmark
+    public SoapRequest soap() throws OwsExceptionReport {
+        return soapBinding.decode(post("application/soap+xml", SOAP_REQUEST));
+    }
+
+    private static MockHttpServletRequest post(String contentType, byte[] content) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/service");
+        request.setContentType(contentType);
+        request.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        request.setContent(content);
+        return request;
+    }
+
+    /**
+     * Minimal KVP decoder, as the concrete SOS KVP decoders are not part of this project.
+     */
+    private static class GetObservationKvpDecoder extends AbstractKvpDecoder<GetObservationRequest> {
+        GetObservationKvpDecoder() {
+            super(GetObservationRequest::new, SosConstants.SOS, Sos2Constants.SERVICEVERSION,
+                  SosConstants.Operations.GetObservation);
+        }
+
+        @Override
+        protected void getRequestParameterDefinitions(Builder<GetObservationRequest> builder) {
+            builder.add("offering", decodeList(GetObservationRequest::setOfferings));
+            builder.add("procedure", decodeList(GetObservationRequest::setProcedures));
+            builder.add("observedproperty", decodeList(GetObservationRequest::setObservedProperties));
+            builder.add("featureofinterest", decodeList(GetObservationRequest::setFeatureIdentifiers));
+            builder.add("responseformat", GetObservationRequest::setResponseFormat);
+        }
+    }
+
+    /**
+     * Exposes the request parsing. The service operator repository is not needed, as there is only one service.
+     */
+    private static class BenchmarkKvpBinding extends KvpBinding {
+        @Override
+        public OwsServiceRequest parseRequest(HttpServletRequest req) throws OwsExceptionReport {
+            return super.parseRequest(req);
+        }
+
+        @Override
+        protected boolean isServiceSupported(String service) {
+            return SosConstants.SOS.equals(service);
+        }
+
+        @Override
+        protected boolean isVersionSupported(String service, String acceptVersion) {
+            return Sos2Constants.SERVICEVERSION.equals(acceptVersion);
+        }
+    }
+
+    /**
+     * Exposes the request parsing.
+     */
+    private static class BenchmarkPoxBinding extends PoxBinding {
+        @Override
+        public OwsServiceRequest parseRequest(HttpServletRequest request) throws OwsExceptionReport {
+            return super.parseRequest(request);
+        }
+    }
+
+    /**
+     * Exposes the request decoding.
+     */
+    private static class BenchmarkSoapBinding extends SoapBinding {
+        @Override
+        public SoapRequest decode(HttpServletRequest request) throws OwsExceptionReport {
+            return super.decode(request);
+        }
+    }
+}
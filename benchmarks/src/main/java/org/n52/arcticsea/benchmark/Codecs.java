@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.util.Arrays;
+
+import org.apache.xmlbeans.XmlOptions;
+import org.n52.svalbard.decode.AbstractDelegatingDecoder;
+import org.n52.svalbard.decode.AbstractStringRequestDecoder;
+import org.n52.svalbard.decode.AbstractXmlDecoder;
+import org.n52.svalbard.decode.Decoder;
+import org.n52.svalbard.decode.DecoderRepository;
+import org.n52.svalbard.encode.AbstractDelegatingEncoder;
+import org.n52.svalbard.encode.AbstractXmlEncoder;
+import org.n52.svalbard.encode.Encoder;
+import org.n52.svalbard.encode.EncoderRepository;
+import org.n52.svalbard.encode.json.JSONEncoder;
+
+/**
+ * Wires encoder and decoder repositories the way the dependency injection container would do it in a service.
+ *
+ * @since 9.9.0
+ */
+public final class Codecs {
+
+    private Codecs() {
+    }
+
+    /**
+     * Creates an initialized encoder repository containing the supplied encoders.
+     *
+     * @param encoders the encoders
+     *
+     * @return the repository
+     */
+    public static EncoderRepository encoders(Encoder<?, ?>... encoders) {
+        EncoderRepository repository = new EncoderRepository();
+        for (Encoder<?, ?> encoder : encoders) {
+            if (encoder instanceof AbstractXmlEncoder) {
+                ((AbstractXmlEncoder<?, ?>) encoder).setXmlOptions(XmlOptions::new);
+            }
+            if (encoder instanceof AbstractDelegatingEncoder) {
+                ((AbstractDelegatingEncoder<?, ?>) encoder).setEncoderRepository(repository);
+            } else if (encoder instanceof JSONEncoder) {
+                ((JSONEncoder<?>) encoder).setEncoderRepository(repository);
+            }
+        }
+        repository.setEncoders(Arrays.asList(encoders));
+        repository.init();
+        return repository;
+    }
+
+    /**
+     * Creates an initialized decoder repository containing the supplied decoders.
+     *
+     * @param decoders the decoders
+     *
+     * @return the repository
+     */
+    public static DecoderRepository decoders(Decoder<?, ?>... decoders) {
+        DecoderRepository repository = new DecoderRepository();
+        for (Decoder<?, ?> decoder : decoders) {
+            if (decoder instanceof AbstractXmlDecoder) {
+                ((AbstractXmlDecoder<?, ?>) decoder).setXmlOptions(XmlOptions::new);
+            }
+            if (decoder instanceof AbstractDelegatingDecoder) {
+                ((AbstractDelegatingDecoder<?, ?>) decoder).setDecoderRepository(repository);
+            } else if (decoder instanceof AbstractStringRequestDecoder) {
+                ((AbstractStringRequestDecoder) decoder).setDecoderRepository(repository);
+            }
+        }
+        repository.setDecoders(Arrays.asList(decoders));
+        repository.init();
+        return repository;
+    }
+}
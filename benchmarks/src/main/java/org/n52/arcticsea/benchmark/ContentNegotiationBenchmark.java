@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.n52.iceland.binding.pox.PoxBinding;
+import org.n52.iceland.exception.HTTPException;
+import org.n52.janmayen.http.HTTPHeaders;
+import org.n52.janmayen.http.MediaType;
+import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+import org.n52.shetland.ogc.sos.Sos2Constants;
+import org.n52.shetland.ogc.sos.SosConstants;
+import org.n52.shetland.ogc.sos.response.GetObservationResponse;
+import org.n52.svalbard.encode.json.GetObservationResponseEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the parsing of the {@code Content-Type} and {@code Accept} headers and the negotiation of the response
+ * content type for typical SOAP, KVP and JSON requests. The {@code *Uncached} benchmarks parse the header values
+ * with Guava for every request.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentNegotiationBenchmark {
+
+    @Param({ "soap", "kvp", "json" })
+    private String binding;
+
+    private String contentType;
+    private String accept;
+    private OwsServiceResponse response;
+    private BenchmarkBinding negotiatingBinding;
+
+    @Setup
+    public void setup() {
+        switch (binding) {
+            case "soap":
+                this.contentType = "application/soap+xml; charset=UTF-8";
+                this.accept = "application/soap+xml, application/xml;q=0.9, */*;q=0.8";
+                break;
+            case "kvp":
+                this.contentType = "application/x-www-form-urlencoded";
+                this.accept = "text/html,application/xhtml+xml,application/xml;q=0.9,image/webp,*/*;q=0.8";
+                break;
+            case "json":
+                this.contentType = "application/json; charset=UTF-8";
+                this.accept = "application/json";
+                break;
+            default:
+                throw new IllegalArgumentException(binding);
+        }
+        this.response = new GetObservationResponse(SosConstants.SOS, Sos2Constants.SERVICEVERSION);
+        this.negotiatingBinding = new BenchmarkBinding();
+        this.negotiatingBinding.setEncoderRepository(Codecs.encoders(new GetObservationResponseEncoder()));
+    }
+
+    @Benchmark
+    public MediaType contentType() {
+        return MediaType.parse(contentType);
+    }
+
+    @Benchmark
+    public com.google.common.net.MediaType contentTypeUncached() {
+        return com.google.common.net.MediaType.parse(contentType.trim());
+    }
+
+    @Benchmark
+    public List<MediaType> acceptHeader() {
+        return HTTPHeaders.getAcceptHeader(accept);
+    }
+
+    @Benchmark
+    public List<com.google.common.net.MediaType> acceptHeaderUncached() {
+        return Arrays.stream(accept.split(",")).map(String::trim).map(com.google.common.net.MediaType::parse)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public MediaType negotiate() throws HTTPException {
+        return negotiatingBinding.negotiate(response, HTTPHeaders.getAcceptHeader(accept));
+    }
+
+    /**
+     * Exposes the content type negotiation.
+     */
+    private static class BenchmarkBinding extends PoxBinding {
+        MediaType negotiate(OwsServiceResponse response, List<MediaType> acceptHeader) throws HTTPException {
+            return chooseResponseContentType(response, acceptHeader, getDefaultContentType());
+        }
+    }
+}
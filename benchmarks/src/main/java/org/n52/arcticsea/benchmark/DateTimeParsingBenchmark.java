@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.n52.shetland.ogc.gml.time.Time;
+import org.n52.shetland.util.DateTimeHelper;
+import org.n52.shetland.util.DateTimeParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the parsing and formatting of ISO 8601 time stamps by {@link DateTimeHelper}.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DateTimeParsingBenchmark {
+    private static final int COUNT = 1024;
+
+    private String[] timestamps;
+    private DateTime[] times;
+    private int index;
+
+    @Setup
+    public void setup() throws DateTimeParseException {
+        List<String> generated = new ObservationGenerator().isoTimestamps(COUNT);
+        this.timestamps = generated.toArray(new String[COUNT]);
+        this.times = new DateTime[COUNT];
+        for (int i = 0; i < COUNT; ++i) {
+            this.times[i] = DateTimeHelper.parseIsoString2DateTime(timestamps[i]);
+        }
+    }
+
+    @Benchmark
+    public DateTime parse() throws DateTimeParseException {
+        return DateTimeHelper.parseIsoString2DateTime(timestamps[next()]);
+    }
+
+    @Benchmark
+    public Time parseTime() throws DateTimeParseException {
+        return DateTimeHelper.parseIsoString2DateTime2Time(timestamps[next()]);
+    }
+
+    @Benchmark
+    public String format() {
+        return DateTimeHelper.formatDateTime2IsoString(times[next()]);
+    }
+
+    private int next() {
+        index = (index + 1) & (COUNT - 1);
+        return index;
+    }
+}
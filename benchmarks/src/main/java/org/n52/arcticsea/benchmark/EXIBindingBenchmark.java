@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.apache.xmlbeans.XmlObject;
+import org.n52.iceland.binding.exi.EXIBinding;
+import org.n52.iceland.binding.exi.EXIUtils;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import com.siemens.ct.exi.core.EXIFactory;
+import com.siemens.ct.exi.main.api.sax.EXIResult;
+import com.siemens.ct.exi.main.api.sax.EXISource;
+
+/**
+ * Compares the decoding of an EXI encoded {@code InsertObservation} request by the {@link EXIBinding}, which passes
+ * the SAX events directly to XmlBeans, with the former approach of transforming the EXI stream to XML text and
+ * parsing it again.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EXIBindingBenchmark {
+
+    @Param({ "100", "1000" })
+    private int observations;
+
+    private EXIUtils exiUtils;
+    private BenchmarkEXIBinding binding;
+    private byte[] request;
+
+    @Setup
+    public void setup() throws Exception {
+        this.exiUtils = new EXIUtils();
+        this.exiUtils.init();
+        this.binding = new BenchmarkEXIBinding(exiUtils);
+        this.request = encode(createInsertObservation(observations));
+    }
+
+    @Benchmark
+    public XmlObject saxToXmlBeans() throws OwsExceptionReport {
+        MockHttpServletRequest req = new MockHttpServletRequest("POST", "/service");
+        req.setContentType("application/exi");
+        req.setContent(request);
+        return binding.decode(req);
+    }
+
+    @Benchmark
+    public XmlObject transformToText() throws Exception {
+        EXIFactory factory = exiUtils.newEXIFactory();
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SAXSource source = new SAXSource(new InputSource(new ByteArrayInputStream(request)));
+        source.setXMLReader(new EXISource(factory).getXMLReader());
+        transformer.transform(source, new StreamResult(out));
+        return XmlObject.Factory.parse(out.toString(StandardCharsets.UTF_8.name()));
+    }
+
+    private byte[] encode(String xml) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EXIResult result = new EXIResult(exiUtils.getEXIFactory());
+        result.setOutputStream(out);
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        XMLReader reader = factory.newSAXParser().getXMLReader();
+        reader.setContentHandler(result.getHandler());
+        reader.parse(new InputSource(new StringReader(xml)));
+        return out.toByteArray();
+    }
+
+    private static String createInsertObservation(int size) {
+        StringBuilder builder = new StringBuilder()
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>")
+                .append("<sos:InsertObservation service=\"SOS\" version=\"2.0.0\"")
+                .append(" xmlns:sos=\"http://www.opengis.net/sos/2.0\"")
+                .append(" xmlns:om=\"http://www.opengis.net/om/2.0\"")
+                .append(" xmlns:gml=\"http://www.opengis.net/gml/3.2\"")
+                .append(" xmlns:xlink=\"http://www.w3.org/1999/xlink\"")
+                .append(" xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">")
+                .append("<sos:offering>").append(ObservationGenerator.NAMESPACE).append("offering/0</sos:offering>");
+        for (int i = 0; i < size; i++) {
+            builder.append("<sos:observation><om:OM_Observation gml:id=\"o").append(i).append("\">")
+                    .append("<om:type xlink:href=\"http://www.opengis.net/def/observationType/OGC-OM/2.0/")
+                    .append("OM_Measurement\"/>")
+                    .append("<om:phenomenonTime><gml:TimeInstant gml:id=\"t").append(i).append("\">")
+                    .append("<gml:timePosition>2020-01-01T00:").append(String.format("%02d:%02d", i / 60 % 60, i % 60))
+                    .append("Z</gml:timePosition></gml:TimeInstant></om:phenomenonTime>")
+                    .append("<om:resultTime xlink:href=\"#t").append(i).append("\"/>")
+                    .append("<om:procedure xlink:href=\"").append(ObservationGenerator.NAMESPACE)
+                    .append("procedure/0\"/>")
+                    .append("<om:observedProperty xlink:href=\"").append(ObservationGenerator.NAMESPACE)
+                    .append("temperature\"/>")
+                    .append("<om:featureOfInterest xlink:href=\"").append(ObservationGenerator.NAMESPACE)
+                    .append("feature/0\"/>")
+                    .append("<om:result xsi:type=\"gml:MeasureType\" uom=\"degC\">").append(i * 0.1)
+                    .append("</om:result></om:OM_Observation></sos:observation>");
+        }
+        return builder.append("</sos:InsertObservation>").toString();
+    }
+
+    /**
+     * Exposes the request decoding.
+     */
+    private static class BenchmarkEXIBinding extends EXIBinding {
+        BenchmarkEXIBinding(EXIUtils exiUtils) {
+            super(exiUtils);
+        }
+
+        @Override
+        public XmlObject decode(HttpServletRequest request) throws OwsExceptionReport {
+            return super.decode(request);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlOptions;
+import org.n52.iceland.binding.exi.EXIGrammars;
+import org.n52.iceland.binding.exi.EXIUtils;
+import org.n52.iceland.response.EXIResponseWriter;
+import org.n52.shetland.exi.EXIObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import com.siemens.ct.exi.core.grammars.Grammars;
+import com.siemens.ct.exi.main.api.sax.EXIResult;
+
+/**
+ * Measures the startup cost of compiling an XML schema to EXI grammars compared to loading a grammar snapshot, and
+ * the per-response overhead of the {@link EXIResponseWriter} using a pooled EXI writer compared to the former
+ * approach of creating a new factory and writer for every response and reparsing the serialized document.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EXIUtilsBenchmark {
+    private static final String NAMESPACE = "http://www.example.org/benchmark";
+    private static final int TYPES = 200;
+    private static final int ELEMENTS = 10;
+
+    private Path schema;
+    private byte[] snapshot;
+    private EXIUtils exiUtils;
+    private EXIResponseWriter writer;
+    private XmlOptions xmlOptions;
+    private XmlObject document;
+
+    @Setup
+    public void setup() throws Exception {
+        this.schema = Files.createTempFile("benchmark", ".xsd");
+        try (Writer out = Files.newBufferedWriter(schema, StandardCharsets.UTF_8)) {
+            writeSchema(out);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EXIGrammars.write(EXIGrammars.compile(schema.toUri().toString()), out);
+        this.snapshot = out.toByteArray();
+        this.exiUtils = new EXIUtils();
+        this.exiUtils.init();
+        this.xmlOptions = new XmlOptions();
+        this.writer = new EXIResponseWriter(null, exiUtils, () -> xmlOptions);
+        this.document = XmlObject.Factory.parse(createDocument());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(schema);
+    }
+
+    @Benchmark
+    public Grammars compileGrammars() throws Exception {
+        return EXIGrammars.compile(schema.toUri().toString());
+    }
+
+    @Benchmark
+    public Grammars loadGrammarSnapshot() throws Exception {
+        return EXIGrammars.read(new ByteArrayInputStream(snapshot));
+    }
+
+    @Benchmark
+    public int writeWithNewFactory() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] bytes = document.xmlText(xmlOptions).getBytes(StandardCharsets.UTF_8);
+        try (InputStream is = new ByteArrayInputStream(bytes)) {
+            EXIResult result = new EXIResult(exiUtils.newEXIFactory());
+            result.setOutputStream(out);
+            SAXParserFactory parserFactory = SAXParserFactory.newInstance();
+            parserFactory.setNamespaceAware(true);
+            XMLReader xmlReader = parserFactory.newSAXParser().getXMLReader();
+            xmlReader.setContentHandler(result.getHandler());
+            xmlReader.parse(new InputSource(is));
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    public int writeWithPooledResult() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(new EXIObject<>(document), out);
+        return out.size();
+    }
+
+    private static void writeSchema(Writer out) throws IOException {
+        out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        out.write("<xs:schema xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" xmlns:b=\"" + NAMESPACE + "\"");
+        out.write(" targetNamespace=\"" + NAMESPACE + "\" elementFormDefault=\"qualified\">\n");
+        for (int i = 0; i < TYPES; i++) {
+            out.write("<xs:complexType name=\"Type" + i + "\"><xs:sequence>");
+            for (int j = 0; j < ELEMENTS; j++) {
+                String type = j == 0 && i > 0 ? "b:Type" + (i - 1) : j % 2 == 0 ? "xs:double" : "xs:string";
+                out.write("<xs:element name=\"e" + j + "\" type=\"" + type + "\" minOccurs=\"0\"/>");
+            }
+            out.write("</xs:sequence><xs:attribute name=\"id\" type=\"xs:ID\"/></xs:complexType>\n");
+            out.write("<xs:element name=\"Element" + i + "\" type=\"b:Type" + i + "\"/>\n");
+        }
+        out.write("</xs:schema>\n");
+    }
+
+    private static String createDocument() {
+        StringBuilder builder = new StringBuilder("<b:Values xmlns:b=\"").append(NAMESPACE).append("\">");
+        for (int i = 0; i < 100; i++) {
+            builder.append("<b:value time=\"2020-01-01T00:00:").append(String.format("%02d", i % 60))
+                    .append("Z\">").append(i * 0.1).append("</b:value>");
+        }
+        return builder.append("</b:Values>").toString();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.n52.shetland.ogc.gml.GmlConstants;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.om.OmConstants;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.om.features.samplingFeatures.SamplingFeature;
+import org.n52.svalbard.encode.Encoder;
+import org.n52.svalbard.encode.EncoderKey;
+import org.n52.svalbard.encode.EncoderRepository;
+import org.n52.svalbard.encode.GmlEncoderv321;
+import org.n52.svalbard.encode.OmEncoderv20;
+import org.n52.svalbard.encode.SamplingEncoderv20;
+import org.n52.svalbard.encode.SensorMLEncoderv20;
+import org.n52.svalbard.encode.SweCommonEncoderv20;
+import org.n52.svalbard.encode.WmlTVPEncoderv20;
+import org.n52.svalbard.encode.XmlEncoderKey;
+import org.n52.svalbard.encode.json.FeatureOfInterestEncoder;
+import org.n52.svalbard.encode.json.FieldEncoder;
+import org.n52.svalbard.encode.json.GeoJSONEncoder;
+import org.n52.svalbard.encode.json.JSONEncoderKey;
+import org.n52.svalbard.encode.json.ObservationEncoder;
+import org.n52.svalbard.encode.json.base.TimeJSONEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link EncoderRepository} lookups for exactly registered keys, keys that have to be resolved by class
+ * hierarchy similarity, composite keys and keys without a matching encoder. The lookups are executed by several
+ * threads, as they are in a service.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class EncoderRepositoryBenchmark {
+    private static final EncoderKey EXACT = new XmlEncoderKey(OmConstants.NS_OM_2, OmObservation.class);
+    private static final EncoderKey SIMILAR = new JSONEncoderKey(TimeInstant.class);
+    private static final EncoderKey COMPOSITE_FIRST = new XmlEncoderKey(GmlConstants.NS_GML_32, SamplingFeature.class);
+    private static final EncoderKey COMPOSITE_SECOND = new JSONEncoderKey(SamplingFeature.class);
+    private static final EncoderKey MISSING = new XmlEncoderKey(ObservationGenerator.NAMESPACE, OmObservation.class);
+
+    private EncoderRepository repository;
+
+    @Setup
+    public void setup() {
+        this.repository = Codecs.encoders(new OmEncoderv20(), new WmlTVPEncoderv20(), new GmlEncoderv321(),
+                                          new SweCommonEncoderv20(), new SamplingEncoderv20(),
+                                          new SensorMLEncoderv20(), new ObservationEncoder(),
+                                          new FeatureOfInterestEncoder(), new GeoJSONEncoder(), new FieldEncoder(),
+                                          new TimeJSONEncoder());
+    }
+
+    @Benchmark
+    public Encoder<?, ?> exact() {
+        return repository.getEncoder(EXACT);
+    }
+
+    @Benchmark
+    public Encoder<?, ?> similar() {
+        return repository.getEncoder(SIMILAR);
+    }
+
+    @Benchmark
+    public Encoder<?, ?> composite() {
+        return repository.getEncoder(COMPOSITE_FIRST, COMPOSITE_SECOND);
+    }
+
+    @Benchmark
+    public Encoder<?, ?> missing() {
+        return repository.getEncoder(MISSING);
+    }
+}
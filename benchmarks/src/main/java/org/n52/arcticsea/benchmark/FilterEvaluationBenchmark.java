@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.n52.shetland.ogc.filter.BinaryLogicFilter;
+import org.n52.shetland.ogc.filter.ComparisonFilter;
+import org.n52.shetland.ogc.filter.Filter;
+import org.n52.shetland.ogc.filter.FilterConstants.BinaryLogicOperator;
+import org.n52.shetland.ogc.filter.FilterConstants.ComparisonOperator;
+import org.n52.shetland.ogc.filter.FilterConstants.TimeOperator;
+import org.n52.shetland.ogc.filter.TemporalFilter;
+import org.n52.shetland.ogc.filter.predicate.CompiledFilter;
+import org.n52.shetland.ogc.filter.predicate.ObservationFilterCompiler;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.gml.time.TimePeriod;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.om.values.QuantityValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the in-memory evaluation of a FES filter on a stream of observations, compiled by the
+ * {@link ObservationFilterCompiler} and interpreted by walking the filter tree for every observation. The stream
+ * cycles through a pool of generated observations to keep the memory footprint independent of the stream length.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterEvaluationBenchmark {
+    private static final int POOL_SIZE = 10_000;
+
+    @Param({ "1000000" })
+    private int observations;
+
+    private OmObservation[] pool;
+    private Filter<?> filter;
+    private CompiledFilter<OmObservation> compiled;
+
+    @Setup
+    public void setup() throws Exception {
+        List<OmObservation> generated = new ObservationGenerator().measurements(10, POOL_SIZE / 10);
+        this.pool = generated.toArray(new OmObservation[0]);
+        DateTime start = new DateTime(2022, 1, 1, 0, 0, DateTimeZone.UTC);
+        TemporalFilter temporal = new TemporalFilter(TimeOperator.TM_During,
+                                                     new TimePeriod(start.plusMinutes(100), start.plusMinutes(900)),
+                                                     "om:phenomenonTime");
+        ComparisonFilter range = new ComparisonFilter(ComparisonOperator.PropertyIsBetween, "om:result", "0", "25");
+        ComparisonFilter procedure = new ComparisonFilter(ComparisonOperator.PropertyIsNotEqualTo, "om:procedure",
+                                                          ObservationGenerator.NAMESPACE + "procedure/3");
+        this.filter = new BinaryLogicFilter(BinaryLogicOperator.And, temporal,
+                                            new BinaryLogicFilter(BinaryLogicOperator.And, range, procedure));
+        this.compiled = new ObservationFilterCompiler().compile(filter);
+    }
+
+    @Benchmark
+    public long compile() {
+        return new ObservationFilterCompiler().compile(filter).filter(stream()).count();
+    }
+
+    @Benchmark
+    public long compiled() {
+        return compiled.filter(stream()).count();
+    }
+
+    @Benchmark
+    public long interpreted() {
+        return stream().filter(o -> interpret(filter, o)).count();
+    }
+
+    private Stream<OmObservation> stream() {
+        return IntStream.range(0, observations).mapToObj(i -> pool[i % POOL_SIZE]);
+    }
+
+    /**
+     * Straightforward evaluation of the filter tree as it is done without a compiler: the tree is walked and the
+     * literals are parsed for every observation.
+     */
+    private static boolean interpret(Filter<?> filter, OmObservation observation) {
+        if (filter instanceof BinaryLogicFilter) {
+            BinaryLogicFilter logic = (BinaryLogicFilter) filter;
+            boolean and = logic.getOperator() == BinaryLogicOperator.And;
+            for (Filter<?> predicate : logic.getFilterPredicates()) {
+                if (interpret(predicate, observation) != and) {
+                    return !and;
+                }
+            }
+            return and;
+        } else if (filter instanceof TemporalFilter) {
+            TimePeriod period = (TimePeriod) ((TemporalFilter) filter).getTime();
+            DateTime time = ((TimeInstant) observation.getPhenomenonTime()).getValue();
+            return time.isAfter(period.getStart()) && time.isBefore(period.getEnd());
+        } else if (filter instanceof ComparisonFilter) {
+            ComparisonFilter comparison = (ComparisonFilter) filter;
+            if (comparison.getOperator() == ComparisonOperator.PropertyIsBetween) {
+                BigDecimal value = ((QuantityValue) observation.getValue().getValue()).getValue();
+                return value.compareTo(new BigDecimal(comparison.getValue())) >= 0
+                       && value.compareTo(new BigDecimal(comparison.getValueUpper())) <= 0;
+            }
+            return !comparison.getValue().equals(observation.getObservationConstellation().getProcedureIdentifier());
+        }
+        throw new IllegalArgumentException(String.valueOf(filter));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.n52.iceland.statistics.api.interfaces.geolocation.IAdminStatisticsLocation.LocationDatabaseType;
+import org.n52.iceland.statistics.impl.geolocation.MaxMindDatabaseWriter;
+import org.n52.iceland.statistics.impl.geolocation.StatisticsLocationUtil;
+import org.n52.janmayen.net.IPAddress;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the geo location lookup of client addresses for the statistics. With a cache size of {@code 0} every
+ * lookup is answered by the location database; otherwise {@link #knownAddress()} and {@link #unknownAddress()} are
+ * cache hits and {@link #distinctAddresses()} cycles through more addresses than fit into the cache.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeoLocationBenchmark {
+    private static final int DISTINCT_ADDRESSES = 1 << 16;
+
+    @Param({ "0", "10000" })
+    private int cacheSize;
+
+    private Path database;
+    private StatisticsLocationUtil locationUtil;
+    private IPAddress known;
+    private IPAddress unknown;
+    private IPAddress[] distinct;
+    private int index;
+
+    @Setup
+    public void setup() throws IOException {
+        this.database = Files.createTempFile("GeoLite2-City", ".mmdb");
+        MaxMindDatabaseWriter writer = new MaxMindDatabaseWriter(LocationDatabaseType.CITY.getGeoLite2Name());
+        // a few hundred networks, so that the search tree has a realistic depth
+        for (int i = 0; i < 256; ++i) {
+            writer.insert(String.format("%d.%d.0.0/16", 100 + i % 100, i), MaxMindDatabaseWriter
+                          .city("C" + i % 26, "City " + i, i % 90, i % 180));
+        }
+        writer.insert("67.20.172.0/24", MaxMindDatabaseWriter.city("US", "Provo", 40.2181, -111.6133));
+        writer.insert("52.0.0.0/8", MaxMindDatabaseWriter.city("DE", "Münster", 51.9625, 7.6256));
+        writer.write(database);
+
+        this.locationUtil = new StatisticsLocationUtil();
+        this.locationUtil.setEnabled(true);
+        this.locationUtil.setCacheSize(cacheSize);
+        this.locationUtil.initDatabase(LocationDatabaseType.CITY, database.toString());
+        this.known = new IPAddress("67.20.172.183");
+        this.unknown = new IPAddress("127.0.0.1");
+        this.distinct = new IPAddress[DISTINCT_ADDRESSES];
+        for (int i = 0; i < DISTINCT_ADDRESSES; ++i) {
+            this.distinct[i] = new IPAddress(new byte[] { 52, 1, (byte) (i >>> 8), (byte) i });
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.locationUtil.destroy();
+        Files.deleteIfExists(database);
+    }
+
+    @Benchmark
+    public Map<String, Object> knownAddress() {
+        return locationUtil.ip2SpatialData(known);
+    }
+
+    @Benchmark
+    public Map<String, Object> unknownAddress() {
+        return locationUtil.ip2SpatialData(unknown);
+    }
+
+    @Benchmark
+    public Map<String, Object> distinctAddresses() {
+        index = (index + 1) % DISTINCT_ADDRESSES;
+        return locationUtil.ip2SpatialData(distinct[index]);
+    }
+}
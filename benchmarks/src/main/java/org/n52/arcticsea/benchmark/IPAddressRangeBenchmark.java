@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.n52.janmayen.net.IPAddress;
+import org.n52.janmayen.net.IPAddressRange;
+import org.n52.janmayen.net.IPAddressRangeSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the membership test of an address in a list of {@link IPAddressRange}s, tested one after another, with
+ * the prefix trie of an {@link IPAddressRangeSet}. Roughly half of the looked up addresses are contained in a range.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IPAddressRangeBenchmark {
+    private static final int ADDRESSES = 1024;
+
+    @Param({ "10000" })
+    private int ranges;
+
+    private List<IPAddressRange> list;
+    private IPAddressRangeSet set;
+    private IPAddress[] addresses;
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        this.list = new ArrayList<>(ranges);
+        for (int i = 0; i < ranges; ++i) {
+            list.add(new IPAddressRange(new IPAddress(random.nextInt()), 16 + random.nextInt(17)));
+        }
+        this.set = new IPAddressRangeSet(list);
+        this.addresses = new IPAddress[ADDRESSES];
+        for (int i = 0; i < ADDRESSES; ++i) {
+            if (i % 2 == 0) {
+                addresses[i] = list.get(random.nextInt(ranges)).getHigh();
+            } else {
+                addresses[i] = new IPAddress(random.nextInt());
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean linear() {
+        IPAddress address = next();
+        for (IPAddressRange range : list) {
+            if (range.test(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean trie() {
+        return set.test(next());
+    }
+
+    private IPAddress next() {
+        index = (index + 1) % ADDRESSES;
+        return addresses[index];
+    }
+}
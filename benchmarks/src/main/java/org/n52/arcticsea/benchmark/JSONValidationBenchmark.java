@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.n52.janmayen.Json;
+import org.n52.shetland.ogc.sos.request.GetObservationRequest;
+import org.n52.shetland.ogc.sos.request.InsertObservationRequest;
+import org.n52.svalbard.coding.json.JSONValidator;
+import org.n52.svalbard.coding.json.SchemaConstants;
+import org.n52.svalbard.decode.exception.DecodingException;
+import org.n52.svalbard.decode.json.FeatureDecoder;
+import org.n52.svalbard.decode.json.GeoJSONDecoder;
+import org.n52.svalbard.decode.json.GetObservationRequestDecoder;
+import org.n52.svalbard.decode.json.InsertObservationRequestDecoder;
+import org.n52.svalbard.decode.json.ObservationDecoder;
+import org.n52.svalbard.decode.json.SpatialFilterDecoder;
+import org.n52.svalbard.decode.json.TemporalFilterDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+
+/**
+ * Measures the schema validation of JSON {@code InsertObservation} and {@code GetObservation} requests. The
+ * {@code *SchemaPerCall} benchmarks obtain the schema from the schema factory for every validation, the
+ * {@code *Revalidating} benchmarks decode the request without a validation scope, so that the nested observations and
+ * filters are validated again by their decoders.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JSONValidationBenchmark {
+
+    @Param({ "1", "10" })
+    private int observations;
+
+    private JSONValidator validator;
+    private JsonNode insertObservation;
+    private JsonNode getObservation;
+    private InsertObservationRequestDecoder insertObservationDecoder;
+    private GetObservationRequestDecoder getObservationDecoder;
+
+    @Setup
+    public void setup() throws IOException {
+        this.validator = JSONValidator.getInstance();
+        this.validator.precompile();
+
+        ClassLoader classLoader = getClass().getClassLoader();
+        JsonNode observation = Json.loadURL(classLoader.getResource("examples/measurement-geometry-inline.json"));
+        ObjectNode request = Json.nodeFactory().objectNode()
+                .put("request", "InsertObservation")
+                .put("service", "SOS")
+                .put("version", "2.0.0")
+                .put("offering", ObservationGenerator.NAMESPACE + "offering/0");
+        ArrayNode array = request.putArray("observation");
+        for (int i = 0; i < observations; ++i) {
+            array.add(observation.deepCopy());
+        }
+        this.insertObservation = request;
+        this.getObservation = Json.loadURL(classLoader.getResource("examples/sos/GetObservationRequest-multiple.json"));
+
+        this.insertObservationDecoder = new InsertObservationRequestDecoder();
+        this.getObservationDecoder = new GetObservationRequestDecoder();
+        Codecs.decoders(insertObservationDecoder, getObservationDecoder, new ObservationDecoder(),
+                        new FeatureDecoder(), new GeoJSONDecoder(), new SpatialFilterDecoder(),
+                        new TemporalFilterDecoder());
+    }
+
+    @Benchmark
+    public ProcessingReport validateInsertObservationSchemaPerCall() throws ProcessingException {
+        return validator.getJsonSchemaFactory().getJsonSchema(SchemaConstants.Request.INSERT_OBSERVATION)
+                .validate(insertObservation);
+    }
+
+    @Benchmark
+    public ProcessingReport validateInsertObservation() {
+        return validator.validate(insertObservation, SchemaConstants.Request.INSERT_OBSERVATION);
+    }
+
+    @Benchmark
+    public InsertObservationRequest decodeInsertObservationRevalidating() throws DecodingException {
+        validator.validateAndThrow(insertObservation, SchemaConstants.Request.INSERT_OBSERVATION);
+        return insertObservationDecoder.decodeJSON(insertObservation, false);
+    }
+
+    @Benchmark
+    public InsertObservationRequest decodeInsertObservation() throws DecodingException {
+        return insertObservationDecoder.decodeJSON(insertObservation, true);
+    }
+
+    @Benchmark
+    public ProcessingReport validateGetObservationSchemaPerCall() throws ProcessingException {
+        return validator.getJsonSchemaFactory().getJsonSchema(SchemaConstants.Request.GET_OBSERVATION)
+                .validate(getObservation);
+    }
+
+    @Benchmark
+    public ProcessingReport validateGetObservation() {
+        return validator.validate(getObservation, SchemaConstants.Request.GET_OBSERVATION);
+    }
+
+    @Benchmark
+    public GetObservationRequest decodeGetObservationRevalidating() throws DecodingException {
+        validator.validateAndThrow(getObservation, SchemaConstants.Request.GET_OBSERVATION);
+        return getObservationDecoder.decodeJSON(getObservation, false);
+    }
+
+    @Benchmark
+    public GetObservationRequest decodeGetObservation() throws DecodingException {
+        return getObservationDecoder.decodeJSON(getObservation, true);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.n52.janmayen.Json;
+import org.n52.shetland.ogc.sos.request.InsertObservationRequest;
+import org.n52.svalbard.decode.exception.DecodingException;
+import org.n52.svalbard.decode.json.InsertObservationRequestDecoder;
+import org.n52.svalbard.decode.json.InsertObservationRequestStreamingDecoder;
+import org.n52.svalbard.decode.json.ObservationDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Compares the decoding of bulk JSON {@code InsertObservation} requests from a completely parsed tree with the
+ * decoding from a stream of tokens. Run with {@code -prof gc} to compare the allocations.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class JsonBulkInsertBenchmark {
+    private static final String MEASUREMENT = "http://www.opengis.net/def/observationType/OGC-OM/2.0/OM_Measurement";
+
+    @Param({ "100", "1000" })
+    private int observations;
+
+    private byte[] request;
+    private InsertObservationRequestDecoder decoder;
+    private InsertObservationRequestStreamingDecoder streamingDecoder;
+
+    @Setup
+    public void setup() {
+        this.request = createRequest(observations);
+        this.decoder = new InsertObservationRequestDecoder();
+        this.streamingDecoder = new InsertObservationRequestStreamingDecoder();
+        Codecs.decoders(decoder, streamingDecoder, new ObservationDecoder());
+    }
+
+    @Benchmark
+    public InsertObservationRequest tree() throws IOException, DecodingException {
+        try (Reader reader = reader()) {
+            return decoder.decode(Json.loadReader(reader));
+        }
+    }
+
+    @Benchmark
+    public InsertObservationRequest streaming() throws IOException, DecodingException {
+        try (JsonParser parser = Json.createParser(reader())) {
+            return streamingDecoder.decode(parser);
+        }
+    }
+
+    private Reader reader() {
+        return new InputStreamReader(new ByteArrayInputStream(request), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates an {@code InsertObservation} request containing measurements of a single time series.
+     *
+     * @param observations the number of observations
+     *
+     * @return the encoded request
+     */
+    public static byte[] createRequest(int observations) {
+        ObjectNode request = Json.nodeFactory().objectNode()
+                .put("request", "InsertObservation")
+                .put("service", "SOS")
+                .put("version", "2.0.0")
+                .put("offering", ObservationGenerator.NAMESPACE + "offering/0");
+        ArrayNode array = request.putArray("observation");
+        DateTime time = new DateTime(2020, 1, 1, 0, 0, DateTimeZone.UTC);
+        for (int i = 0; i < observations; ++i) {
+            String timestamp = time.plusMinutes(i).toString();
+            ObjectNode observation = array.addObject()
+                    .put("type", MEASUREMENT)
+                    .put("procedure", ObservationGenerator.NAMESPACE + "procedure/0")
+                    .put("observedProperty", ObservationGenerator.NAMESPACE + "temperature")
+                    .put("featureOfInterest", ObservationGenerator.NAMESPACE + "feature/0")
+                    .put("phenomenonTime", timestamp)
+                    .put("resultTime", timestamp);
+            observation.putObject("result").put("uom", "degC").put("value", 20.0 + (i % 100) / 10.0);
+        }
+        return Json.print(request).getBytes(StandardCharsets.UTF_8);
+    }
+}
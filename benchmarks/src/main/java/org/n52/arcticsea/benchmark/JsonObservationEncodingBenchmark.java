@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.n52.janmayen.Json;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.svalbard.encode.exception.EncodingException;
+import org.n52.svalbard.encode.json.FeatureOfInterestEncoder;
+import org.n52.svalbard.encode.json.FieldEncoder;
+import org.n52.svalbard.encode.json.GeoJSONEncoder;
+import org.n52.svalbard.encode.json.ObservationEncoder;
+import org.n52.svalbard.encode.json.base.TimeJSONEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the JSON {@link ObservationEncoder} for a single time series and for a list of single value
+ * measurements, including the serialization of the resulting tree.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonObservationEncodingBenchmark {
+    private static final int SERIES = 10;
+
+    @Param({ "100", "10000" })
+    private int values;
+
+    private ObservationEncoder encoder;
+    private OmObservation timeSeries;
+    private List<OmObservation> measurements;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setup() {
+        this.encoder = new ObservationEncoder();
+        Codecs.encoders(encoder, new FeatureOfInterestEncoder(), new GeoJSONEncoder(), new FieldEncoder(),
+                        new TimeJSONEncoder());
+        ObservationGenerator generator = new ObservationGenerator();
+        this.timeSeries = generator.timeSeries(0, values);
+        this.measurements = generator.measurements(SERIES, values / SERIES);
+        this.out = new ByteArrayOutputStream(values * 128);
+    }
+
+    @Benchmark
+    public int timeSeries() throws EncodingException, IOException {
+        out.reset();
+        Json.print(out, encoder.encode(timeSeries));
+        return out.size();
+    }
+
+    @Benchmark
+    public int measurements() throws EncodingException, IOException {
+        out.reset();
+        for (OmObservation observation : measurements) {
+            Json.print(out, encoder.encode(observation));
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.n52.shetland.ogc.gml.CodeWithAuthority;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.gml.time.TimePeriod;
+import org.n52.shetland.ogc.om.MultiObservationValues;
+import org.n52.shetland.ogc.om.OmConstants;
+import org.n52.shetland.ogc.om.OmObservableProperty;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.om.OmObservationConstellation;
+import org.n52.shetland.ogc.om.SingleObservationValue;
+import org.n52.shetland.ogc.om.TimeValuePair;
+import org.n52.shetland.ogc.om.features.samplingFeatures.SamplingFeature;
+import org.n52.shetland.ogc.om.series.DefaultPointMetadata;
+import org.n52.shetland.ogc.om.series.wml.DefaultTVPMeasurementMetadata;
+import org.n52.shetland.ogc.om.values.QuantityValue;
+import org.n52.shetland.ogc.om.values.TVPValue;
+import org.n52.shetland.ogc.sos.SosProcedureDescriptionUnknownType;
+import org.n52.shetland.util.DateTimeHelper;
+
+/**
+ * Creates deterministic synthetic observations, time stamps and SWE text blocks. All values are derived from a
+ * fixed seed, so that subsequent benchmark runs operate on identical data.
+ *
+ * @since 9.9.0
+ */
+public class ObservationGenerator {
+    public static final String NAMESPACE = "http://www.52north.org/benchmark/";
+    public static final String CODE_SPACE = NAMESPACE + "codespace";
+    public static final String UNIT = "degC";
+    public static final String TOKEN_SEPARATOR = ",";
+    public static final String TUPLE_SEPARATOR = "@@";
+    private static final DateTime START = new DateTime(2022, 1, 1, 0, 0, DateTimeZone.UTC);
+    private static final long INTERVAL = 60_000L;
+    private static final long SEED = 52L;
+
+    private final SplittableRandom random;
+
+    public ObservationGenerator() {
+        this(SEED);
+    }
+
+    public ObservationGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Creates a time series observation with a {@link TVPValue} result, as produced for WaterML 2.0 responses.
+     *
+     * @param series the index of the series
+     * @param values the number of time value pairs
+     *
+     * @return the observation
+     */
+    public OmObservation timeSeries(int series, int values) {
+        OmObservation observation = createObservation(series);
+        TVPValue tvp = new TVPValue();
+        tvp.setUnit(UNIT);
+        for (int i = 0; i < values; ++i) {
+            tvp.addValue(new TimeValuePair(new TimeInstant(time(i)), quantity()));
+        }
+        MultiObservationValues<List<TimeValuePair>> value = new MultiObservationValues<>();
+        value.setValue(tvp);
+        observation.setValue(value);
+        observation.setResultTime(new TimeInstant(time(values - 1)));
+        observation.setValidTime(new TimePeriod(time(0), time(values - 1)));
+        return observation;
+    }
+
+    /**
+     * Creates single value measurements for the given number of series. The measurements are interleaved by time, as
+     * they would be returned by a database query ordered by phenomenon time.
+     *
+     * @param series the number of series
+     * @param values the number of measurements per series
+     *
+     * @return the observations
+     */
+    public List<OmObservation> measurements(int series, int values) {
+        List<OmObservation> observations = new ArrayList<>(series * values);
+        for (int i = 0; i < values; ++i) {
+            for (int s = 0; s < series; ++s) {
+                OmObservation observation = createObservation(s);
+                TimeInstant time = new TimeInstant(time(i));
+                observation.setValue(new SingleObservationValue<>(time, quantity()));
+                observation.setResultTime(time);
+                observations.add(observation);
+            }
+        }
+        return observations;
+    }
+
+    /**
+     * Creates ISO 8601 time stamps in the formats accepted by the services (with and without fractional seconds,
+     * UTC and with offsets).
+     *
+     * @param count the number of time stamps
+     *
+     * @return the time stamps
+     */
+    public List<String> isoTimestamps(int count) {
+        List<String> timestamps = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            DateTime time = time(random.nextInt(1_000_000)).plusMillis(random.nextInt(1000));
+            switch (i % 4) {
+                case 0:
+                    timestamps.add(DateTimeHelper.formatDateTime2IsoString(time));
+                    break;
+                case 1:
+                    timestamps.add(time.toDateTime(DateTimeZone.forOffsetHours(2)).toString());
+                    break;
+                case 2:
+                    timestamps.add(time.toString("yyyy-MM-dd'T'HH:mm:ss'Z'"));
+                    break;
+                default:
+                    timestamps.add(time.toString("yyyy-MM-dd'T'HH:mm:ssZZ"));
+                    break;
+            }
+        }
+        return timestamps;
+    }
+
+    /**
+     * Creates a {@code swe:DataArray} document with a time and a quantity field and the given number of text encoded
+     * blocks.
+     *
+     * @param blocks the number of blocks
+     *
+     * @return the XML document
+     */
+    public String sweDataArray(int blocks) {
+        StringBuilder values = new StringBuilder(blocks * 40);
+        for (int i = 0; i < blocks; ++i) {
+            if (i > 0) {
+                values.append(TUPLE_SEPARATOR);
+            }
+            values.append(DateTimeHelper.formatDateTime2IsoString(time(i)))
+                    .append(TOKEN_SEPARATOR)
+                    .append(quantity().getValue().toPlainString());
+        }
+        return new StringBuilder()
+                .append("<swe:DataArray xmlns:swe=\"http://www.opengis.net/swe/2.0\">")
+                .append("<swe:elementCount><swe:Count><swe:value>").append(blocks)
+                .append("</swe:value></swe:Count></swe:elementCount>")
+                .append("<swe:elementType name=\"values\"><swe:DataRecord>")
+                .append("<swe:field name=\"phenomenonTime\">")
+                .append("<swe:Time definition=\"").append(OmConstants.PHENOMENON_TIME).append("\">")
+                .append("<swe:uom xlink:href=\"").append(OmConstants.PHEN_UOM_ISO8601)
+                .append("\" xmlns:xlink=\"http://www.w3.org/1999/xlink\"/></swe:Time></swe:field>")
+                .append("<swe:field name=\"temperature\">")
+                .append("<swe:Quantity definition=\"").append(NAMESPACE).append("temperature\">")
+                .append("<swe:uom code=\"").append(UNIT).append("\"/></swe:Quantity></swe:field>")
+                .append("</swe:DataRecord></swe:elementType>")
+                .append("<swe:encoding><swe:TextEncoding tokenSeparator=\"").append(TOKEN_SEPARATOR)
+                .append("\" blockSeparator=\"").append(TUPLE_SEPARATOR).append("\"/></swe:encoding>")
+                .append("<swe:values>").append(values).append("</swe:values>")
+                .append("</swe:DataArray>")
+                .toString();
+    }
+
+    private OmObservation createObservation(int series) {
+        OmObservationConstellation constellation = new OmObservationConstellation();
+        constellation.setFeatureOfInterest(new SamplingFeature(
+                new CodeWithAuthority(NAMESPACE + "feature/" + series, CODE_SPACE)));
+        constellation.setObservableProperty(new OmObservableProperty(NAMESPACE + "temperature"));
+        constellation.setObservationType(OmConstants.OBS_TYPE_MEASUREMENT);
+        constellation.addOffering(NAMESPACE + "offering/" + series);
+        constellation.setProcedure(new SosProcedureDescriptionUnknownType(NAMESPACE + "procedure/" + series));
+        constellation.setDefaultPointMetadata(new DefaultPointMetadata());
+        constellation.getDefaultPointMetadata().setDefaultTVPMeasurementMetadata(new DefaultTVPMeasurementMetadata());
+        OmObservation observation = new OmObservation();
+        observation.setObservationConstellation(constellation);
+        observation.setTokenSeparator(TOKEN_SEPARATOR);
+        observation.setTupleSeparator(TUPLE_SEPARATOR);
+        return observation;
+    }
+
+    private QuantityValue quantity() {
+        // temperatures between -20.00 and 40.00 with two decimal places
+        return new QuantityValue(Math.round(random.nextDouble(-20, 40) * 100) / 100.0, UNIT);
+    }
+
+    private static DateTime time(int i) {
+        return START.plus(i * INTERVAL);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.n52.shetland.ogc.om.ObservationStream;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link ObservationStream#merge()} of single value measurements into time series. Merging modifies the
+ * observations, so every invocation operates on freshly generated observations.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ObservationMergeBenchmark {
+
+    @Param({ "1", "10", "100" })
+    private int series;
+
+    @Param({ "10000" })
+    private int observations;
+
+    private List<OmObservation> measurements;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        this.measurements = new ObservationGenerator().measurements(series, observations / series);
+    }
+
+    @Benchmark
+    public int merge() throws OwsExceptionReport {
+        int count = 0;
+        try (ObservationStream stream = ObservationStream.of(measurements).merge()) {
+            while (stream.hasNext()) {
+                stream.next();
+                ++count;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.n52.iceland.convert.ObservationStreamModifier;
+import org.n52.iceland.convert.RequestResponseModifierFacilitator;
+import org.n52.iceland.convert.RequestResponseModifierKey;
+import org.n52.iceland.convert.RequestResponseModifierRepository;
+import org.n52.shetland.ogc.om.AbstractObservationStream;
+import org.n52.shetland.ogc.om.ObservationStream;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.sos.Sos2Constants;
+import org.n52.shetland.ogc.sos.SosConstants;
+import org.n52.shetland.ogc.sos.request.GetObservationRequest;
+import org.n52.shetland.ogc.sos.response.GetObservationResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures pulling a lazily generated observation stream through an {@link ObservationStreamModifier}. As the
+ * observations are modified one at a time, the fork runs with a small heap that a materialized stream of the larger
+ * size would not fit into; run with {@code -prof gc} to see the allocation rate.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xmx64m" })
+public class ObservationStreamModifierBenchmark {
+
+    @Param({ "10000", "1000000" })
+    private int observations;
+
+    private RequestResponseModifierRepository repository;
+
+    private GetObservationRequest request;
+
+    @Setup
+    public void setup() {
+        this.repository = new RequestResponseModifierRepository();
+        this.repository.setRequestResponseModifiers(Collections.singleton(new PrefixModifier()));
+        this.repository.init();
+        this.request = new GetObservationRequest(SosConstants.SOS, Sos2Constants.SERVICEVERSION);
+    }
+
+    @Benchmark
+    public int modify(Blackhole blackhole) throws OwsExceptionReport {
+        GetObservationResponse response = new GetObservationResponse(SosConstants.SOS, Sos2Constants.SERVICEVERSION);
+        response.setObservationCollection(new GeneratingStream(observations));
+        repository.getResponseModifierChain(request, response).modifyResponse(request, response);
+        int count = 0;
+        try (ObservationStream stream = response.getObservationCollection()) {
+            while (stream.hasNext()) {
+                blackhole.consume(stream.next().getObservationID());
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    private static class PrefixModifier implements ObservationStreamModifier {
+        @Override
+        public Set<RequestResponseModifierKey> getKeys() {
+            return Collections.singleton(new RequestResponseModifierKey(
+                    SosConstants.SOS, Sos2Constants.SERVICEVERSION,
+                    GetObservationRequest.class, GetObservationResponse.class));
+        }
+
+        @Override
+        public OwsServiceRequest modifyRequest(OwsServiceRequest request) {
+            return request;
+        }
+
+        @Override
+        public OmObservation modifyObservation(OwsServiceRequest request, OmObservation observation) {
+            observation.setObservationID("modified-" + observation.getObservationID());
+            return observation;
+        }
+
+        @Override
+        public RequestResponseModifierFacilitator getFacilitator() {
+            return new RequestResponseModifierFacilitator();
+        }
+    }
+
+    private static class GeneratingStream extends AbstractObservationStream {
+        private final int size;
+        private int count;
+
+        GeneratingStream(int size) {
+            this.size = size;
+        }
+
+        @Override
+        protected OmObservation computeNext() {
+            if (count == size) {
+                return endOfData();
+            }
+            OmObservation observation = new OmObservation();
+            observation.setObservationID(Integer.toString(count++));
+            return observation;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.xmlbeans.XmlObject;
+import org.n52.shetland.ogc.om.ObservationStream;
+import org.n52.shetland.ogc.om.OmConstants;
+import org.n52.shetland.ogc.sos.Sos2Constants;
+import org.n52.shetland.ogc.sos.SosConstants;
+import org.n52.shetland.ogc.sos.response.GetObservationResponse;
+import org.n52.svalbard.encode.EncoderRepository;
+import org.n52.svalbard.encode.EncodingExecutor;
+import org.n52.svalbard.encode.GetObservationResponseEncoder;
+import org.n52.svalbard.encode.GmlEncoderv321;
+import org.n52.svalbard.encode.OmEncoderv20;
+import org.n52.svalbard.encode.SamplingEncoderv20;
+import org.n52.svalbard.encode.SchemaRepository;
+import org.n52.svalbard.encode.SensorMLEncoderv20;
+import org.n52.svalbard.encode.SweCommonEncoderv20;
+import org.n52.svalbard.encode.exception.EncodingException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the XmlBeans based encoding of a GetObservation response with 5000 observations depending on the number
+ * of threads of the {@link EncodingExecutor}. A single thread corresponds to the sequential encoding.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelObservationEncodingBenchmark {
+
+    private static final int SERIES = 100;
+    private static final int VALUES = 50;
+
+    @Param({ "1", "4", "8", "16", "32" })
+    private int threads;
+
+    @Param({ "128" })
+    private int batchSize;
+
+    private GetObservationResponseEncoder encoder;
+    private EncodingExecutor executor;
+    private GetObservationResponse response;
+
+    @Setup
+    public void setup() {
+        this.executor = new EncodingExecutor();
+        this.executor.setThreads(threads);
+        this.executor.setBatchSize(batchSize);
+        this.encoder = new GetObservationResponseEncoder();
+        this.encoder.setEncodingExecutor(Optional.of(executor));
+        EncoderRepository encoderRepository = Codecs.encoders(encoder, new OmEncoderv20(), new GmlEncoderv321(),
+                                                              new SweCommonEncoderv20(), new SamplingEncoderv20(),
+                                                              new SensorMLEncoderv20());
+        SchemaRepository schemaRepository = new SchemaRepository();
+        schemaRepository.setEncoderRepository(encoderRepository);
+        schemaRepository.init();
+        this.encoder.setSchemaRepository(schemaRepository);
+    }
+
+    @Setup(Level.Invocation)
+    public void createResponse() {
+        // the observations are modified during the encoding
+        this.response = new GetObservationResponse();
+        this.response.setService(SosConstants.SOS);
+        this.response.setVersion(Sos2Constants.SERVICEVERSION);
+        this.response.setResponseFormat(OmConstants.NS_OM_2);
+        this.response.setObservationCollection(
+                ObservationStream.of(new ObservationGenerator().measurements(SERIES, VALUES)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.destroy();
+    }
+
+    @Benchmark
+    public XmlObject encode() throws EncodingException {
+        return encoder.encode(response);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.n52.bjornoya.schedule.HarvestCheckpoints;
+import org.n52.bjornoya.schedule.HarvestEngine;
+import org.n52.bjornoya.schedule.HarvestPartition;
+import org.n52.bjornoya.schedule.HarvestResult;
+import org.n52.bjornoya.schedule.PartitionedHarvesterJob;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the throughput in pages per second of the {@link HarvestEngine} of a {@link PartitionedHarvesterJob}
+ * against a data source with a fixed latency per page. As the latency dominates, the throughput should scale with the
+ * parallelism up to the number of partitions.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartitionedHarvestBenchmark {
+    private static final int PARTITIONS = 16;
+    private static final int PAGES = 4;
+
+    @Param({ "1", "2", "4", "8", "16" })
+    private int parallelism;
+
+    @Param({ "5" })
+    private long latency;
+
+    private List<String> partitions;
+
+    @Setup
+    public void setup() {
+        this.partitions = IntStream.range(0, PARTITIONS).mapToObj(i -> "procedure-" + i)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PARTITIONS * PAGES)
+    public HarvestResult harvest() throws InterruptedException {
+        HarvestEngine engine = new HarvestEngine("benchmark", parallelism);
+        HarvestResult result = engine.harvest(partitions, new HarvestCheckpoints(new HashMap<>()), this::read);
+        if (!result.isComplete()) {
+            throw new IllegalStateException("incomplete harvest: " + result);
+        }
+        return result;
+    }
+
+    private void read(HarvestPartition partition) throws InterruptedException {
+        int page = partition.getCheckpoint().map(Integer::parseInt).orElse(0);
+        for (; page < PAGES; ++page) {
+            Thread.sleep(latency);
+            partition.checkpoint(Integer.toString(page + 1));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.n52.iceland.convert.RequestResponseModifier;
+import org.n52.iceland.convert.RequestResponseModifierFacilitator;
+import org.n52.iceland.convert.RequestResponseModifierKey;
+import org.n52.iceland.convert.RequestResponseModifierRepository;
+import org.n52.iceland.request.operator.GenericRequestOperator;
+import org.n52.janmayen.event.EventBus;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+import org.n52.shetland.ogc.sos.Sos2Constants;
+import org.n52.shetland.ogc.sos.SosConstants;
+import org.n52.shetland.ogc.sos.request.GetObservationRequest;
+import org.n52.shetland.ogc.sos.response.GetObservationResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the overhead of the {@link GenericRequestOperator} for a GetObservation request with a varying number of
+ * registered {@link RequestResponseModifier}s, compared to the former lookup and sorting of the modifiers for every
+ * request.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestOperatorBenchmark {
+
+    @Param({ "0", "3", "10" })
+    private int modifiers;
+
+    private RequestResponseModifierRepository repository;
+    private GenericRequestOperator<GetObservationRequest, GetObservationResponse> operator;
+    private GetObservationRequest request;
+    private GetObservationResponse response;
+
+    @Setup
+    public void setup() {
+        this.request = new GetObservationRequest(SosConstants.SOS, Sos2Constants.SERVICEVERSION);
+        this.response = new GetObservationResponse(SosConstants.SOS, Sos2Constants.SERVICEVERSION);
+        List<RequestResponseModifier> list = new ArrayList<>(modifiers);
+        for (int i = 0; i < modifiers; i++) {
+            list.add(new NoopModifier(i));
+        }
+        this.repository = new RequestResponseModifierRepository();
+        this.repository.setRequestResponseModifiers(list);
+        this.repository.init();
+        this.operator = new GenericRequestOperator<GetObservationRequest, GetObservationResponse>(
+                SosConstants.SOS, Sos2Constants.SERVICEVERSION, SosConstants.Operations.GetObservation.name(),
+                GetObservationRequest.class, r -> { }) {
+            @Override
+            protected GetObservationResponse receive(GetObservationRequest request) {
+                return response;
+            }
+        };
+        this.operator.setRequestResponseModifierRepository(repository);
+        this.operator.setEventBus(new EventBus());
+    }
+
+    @Benchmark
+    public OwsServiceResponse operator() throws OwsExceptionReport {
+        return operator.receiveRequest(request);
+    }
+
+    @Benchmark
+    public OwsServiceResponse compiledChains() throws OwsExceptionReport {
+        repository.getRequestModifierChain(request).modifyRequest(request);
+        repository.getResponseModifierChain(request, response).modifyResponse(request, response);
+        return response;
+    }
+
+    @Benchmark
+    public OwsServiceResponse perRequestLookup() throws OwsExceptionReport {
+        if (repository.hasRequestResponseModifier(request)) {
+            for (RequestResponseModifier modifier : sort(repository.getRequestResponseModifier(request))) {
+                modifier.modifyRequest(request);
+            }
+        }
+        if (repository.hasRequestResponseModifier(request, response)) {
+            for (RequestResponseModifier modifier : sort(repository.getRequestResponseModifier(request, response))) {
+                modifier.modifyResponse(request, response);
+            }
+        }
+        return response;
+    }
+
+    private static List<RequestResponseModifier> sort(List<RequestResponseModifier> modifiers) {
+        // the grouping the operator performed for every request
+        List<RequestResponseModifier> first = new LinkedList<>();
+        List<RequestResponseModifier> second = new LinkedList<>();
+        List<RequestResponseModifier> third = new LinkedList<>();
+        modifiers.forEach(modifier -> {
+            if (modifier.getFacilitator().isSplitter()) {
+                third.add(modifier);
+            } else if (modifier.getFacilitator().isAdderRemover()) {
+                first.add(modifier);
+            } else {
+                second.add(modifier);
+            }
+        });
+        first.addAll(second);
+        first.addAll(third);
+        return first;
+    }
+
+    private static class NoopModifier implements RequestResponseModifier {
+        private final RequestResponseModifierFacilitator facilitator;
+
+        NoopModifier(int i) {
+            this.facilitator = new RequestResponseModifierFacilitator()
+                    .setAdderRemover(i % 3 == 0).setSplitter(i % 3 == 1).setMerger(i % 3 == 2);
+        }
+
+        @Override
+        public Set<RequestResponseModifierKey> getKeys() {
+            return new HashSet<>(Arrays.asList(
+                    new RequestResponseModifierKey(SosConstants.SOS, Sos2Constants.SERVICEVERSION,
+                                                   GetObservationRequest.class),
+                    new RequestResponseModifierKey(SosConstants.SOS, Sos2Constants.SERVICEVERSION,
+                                                   GetObservationRequest.class, GetObservationResponse.class)));
+        }
+
+        @Override
+        public OwsServiceRequest modifyRequest(OwsServiceRequest request) {
+            return request;
+        }
+
+        @Override
+        public OwsServiceResponse modifyResponse(OwsServiceRequest request, OwsServiceResponse response) {
+            return response;
+        }
+
+        @Override
+        public RequestResponseModifierFacilitator getFacilitator() {
+            return facilitator;
+        }
+    }
+}
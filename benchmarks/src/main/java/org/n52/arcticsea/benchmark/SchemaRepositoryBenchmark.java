@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.xmlbeans.XmlOptions;
+import org.n52.shetland.ogc.gml.GmlConstants;
+import org.n52.shetland.ogc.om.OmConstants;
+import org.n52.svalbard.encode.EncoderRepository;
+import org.n52.svalbard.encode.GmlEncoderv321;
+import org.n52.svalbard.encode.OmEncoderv20;
+import org.n52.svalbard.encode.SamplingEncoderv20;
+import org.n52.svalbard.encode.SchemaRepository;
+import org.n52.svalbard.encode.SensorMLEncoderv20;
+import org.n52.svalbard.encode.SweCommonEncoderv20;
+import org.n52.svalbard.encode.WmlTVPEncoderv20;
+import org.n52.svalbard.util.XmlOptionsHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the namespace and prefix lookups of the {@link SchemaRepository} and the retrieval of the shared
+ * {@link XmlOptions}, which are performed for every encoded XML document.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class SchemaRepositoryBenchmark {
+
+    private SchemaRepository schemaRepository;
+    private XmlOptionsHelper xmlOptionsHelper;
+
+    @Setup
+    public void setup() {
+        EncoderRepository encoderRepository = Codecs.encoders(new OmEncoderv20(), new WmlTVPEncoderv20(),
+                                                              new GmlEncoderv321(), new SweCommonEncoderv20(),
+                                                              new SamplingEncoderv20(), new SensorMLEncoderv20());
+        this.schemaRepository = new SchemaRepository();
+        this.schemaRepository.setEncoderRepository(encoderRepository);
+        this.schemaRepository.init();
+        this.xmlOptionsHelper = new XmlOptionsHelper();
+        this.xmlOptionsHelper.setEncoderRepository(encoderRepository);
+    }
+
+    @Benchmark
+    public String prefixForNamespace() {
+        return schemaRepository.getPrefixFor(OmConstants.NS_OM_2);
+    }
+
+    @Benchmark
+    public String namespaceForPrefix() {
+        return schemaRepository.getNamespaceFor(GmlConstants.NS_GML_PREFIX);
+    }
+
+    @Benchmark
+    public XmlOptions xmlOptions() {
+        return xmlOptionsHelper.getXmlOptions();
+    }
+}
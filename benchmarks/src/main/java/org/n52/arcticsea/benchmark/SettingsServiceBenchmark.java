@@ -0,0 +1,264 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.n52.faroe.SettingDefinition;
+import org.n52.faroe.SettingValue;
+import org.n52.faroe.SettingValueFactory;
+import org.n52.faroe.SettingsDao;
+import org.n52.faroe.SettingsServiceImpl;
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
+import org.n52.faroe.json.JsonSettingValueFactory;
+import org.n52.faroe.settings.IntegerSettingDefinition;
+import org.n52.faroe.settings.StringSettingDefinition;
+import org.n52.janmayen.event.EventBus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the {@link SettingsServiceImpl} with 1,000 configured beans of 20 settings each: the configuration of
+ * 1,000 beans, and the change of all 20 settings one by one and as a batch.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SettingsServiceBenchmark {
+    private static final int BEANS = 1000;
+    private static final String STRING_SETTING = "benchmark.string.";
+    private static final String INTEGER_SETTING = "benchmark.integer.";
+    private static final int SETTINGS_PER_TYPE = 10;
+
+    private final List<Bean> beans = new ArrayList<>(BEANS);
+    private SettingsServiceImpl settingsService;
+    private SettingValueFactory settingValueFactory;
+    private int generation;
+
+    @Setup
+    public void setup() {
+        List<SettingDefinition<?>> definitions = new ArrayList<>();
+        for (int i = 0; i < SETTINGS_PER_TYPE; ++i) {
+            definitions.add(new StringSettingDefinition().setKey(STRING_SETTING + i).setDefaultValue("default"));
+            definitions.add(new IntegerSettingDefinition().setKey(INTEGER_SETTING + i).setDefaultValue(0));
+        }
+        this.settingValueFactory = new JsonSettingValueFactory();
+        this.settingsService = new SettingsServiceImpl();
+        this.settingsService.setServiceEventBus(new EventBus());
+        this.settingsService.setSettingValueFactory(settingValueFactory);
+        this.settingsService.setSettingsManagerDao(new InMemorySettingsDao());
+        this.settingsService.setSettingDefinitions(Optional.of(definitions));
+        for (int i = 0; i < BEANS; ++i) {
+            Bean bean = new Bean();
+            this.settingsService.configure(bean);
+            this.beans.add(bean);
+        }
+    }
+
+    @Benchmark
+    public void configure(Blackhole blackhole) {
+        for (int i = 0; i < BEANS; ++i) {
+            Bean bean = new Bean();
+            settingsService.configureOnce(bean);
+            blackhole.consume(bean);
+        }
+    }
+
+    @Benchmark
+    public void changeSettingIndividually() {
+        for (SettingValue<?> value : nextValues()) {
+            settingsService.changeSetting(value);
+        }
+    }
+
+    @Benchmark
+    public void changeSettingsBatch() {
+        Map<SettingDefinition<?>, SettingValue<?>> values = new HashMap<>();
+        for (SettingValue<?> value : nextValues()) {
+            values.put(settingsService.getDefinitionByKey(value.getKey()), value);
+        }
+        settingsService.changeSettings(values);
+    }
+
+    private List<SettingValue<?>> nextValues() {
+        int value = ++generation;
+        List<SettingValue<?>> values = new ArrayList<>(2 * SETTINGS_PER_TYPE);
+        for (int i = 0; i < SETTINGS_PER_TYPE; ++i) {
+            values.add(settingValueFactory.newStringSettingValue(STRING_SETTING + i, Integer.toString(value)));
+            values.add(settingValueFactory.newIntegerSettingValue(INTEGER_SETTING + i, Integer.toString(value)));
+        }
+        return values;
+    }
+
+    private static class InMemorySettingsDao implements SettingsDao {
+        private final Map<String, SettingValue<?>> values = new ConcurrentHashMap<>();
+
+        @Override
+        public Set<SettingValue<?>> getSettingValues() {
+            return Collections.unmodifiableSet(new HashSet<>(values.values()));
+        }
+
+        @Override
+        public SettingValue<?> getSettingValue(String key) {
+            return values.get(key);
+        }
+
+        @Override
+        public void deleteSettingValue(String key) {
+            values.remove(key);
+        }
+
+        @Override
+        public void saveSettingValue(SettingValue<?> setting) {
+            values.put(setting.getKey(), setting);
+        }
+
+        @Override
+        public void deleteAll() {
+            values.clear();
+        }
+    }
+
+    @Configurable
+    public static class Bean {
+        private final String[] strings = new String[SETTINGS_PER_TYPE];
+        private final int[] integers = new int[SETTINGS_PER_TYPE];
+
+        @Setting(STRING_SETTING + 0)
+        public void setString0(String value) {
+            strings[0] = value;
+        }
+
+        @Setting(STRING_SETTING + 1)
+        public void setString1(String value) {
+            strings[1] = value;
+        }
+
+        @Setting(STRING_SETTING + 2)
+        public void setString2(String value) {
+            strings[2] = value;
+        }
+
+        @Setting(STRING_SETTING + 3)
+        public void setString3(String value) {
+            strings[3] = value;
+        }
+
+        @Setting(STRING_SETTING + 4)
+        public void setString4(String value) {
+            strings[4] = value;
+        }
+
+        @Setting(STRING_SETTING + 5)
+        public void setString5(String value) {
+            strings[5] = value;
+        }
+
+        @Setting(STRING_SETTING + 6)
+        public void setString6(String value) {
+            strings[6] = value;
+        }
+
+        @Setting(STRING_SETTING + 7)
+        public void setString7(String value) {
+            strings[7] = value;
+        }
+
+        @Setting(STRING_SETTING + 8)
+        public void setString8(String value) {
+            strings[8] = value;
+        }
+
+        @Setting(STRING_SETTING + 9)
+        public void setString9(String value) {
+            strings[9] = value;
+        }
+
+        @Setting(INTEGER_SETTING + 0)
+        public void setInteger0(int value) {
+            integers[0] = value;
+        }
+
+        @Setting(INTEGER_SETTING + 1)
+        public void setInteger1(int value) {
+            integers[1] = value;
+        }
+
+        @Setting(INTEGER_SETTING + 2)
+        public void setInteger2(int value) {
+            integers[2] = value;
+        }
+
+        @Setting(INTEGER_SETTING + 3)
+        public void setInteger3(int value) {
+            integers[3] = value;
+        }
+
+        @Setting(INTEGER_SETTING + 4)
+        public void setInteger4(int value) {
+            integers[4] = value;
+        }
+
+        @Setting(INTEGER_SETTING + 5)
+        public void setInteger5(int value) {
+            integers[5] = value;
+        }
+
+        @Setting(INTEGER_SETTING + 6)
+        public void setInteger6(int value) {
+            integers[6] = value;
+        }
+
+        @Setting(INTEGER_SETTING + 7)
+        public void setInteger7(int value) {
+            integers[7] = value;
+        }
+
+        @Setting(INTEGER_SETTING + 8)
+        public void setInteger8(int value) {
+            integers[8] = value;
+        }
+
+        @Setting(INTEGER_SETTING + 9)
+        public void setInteger9(int value) {
+            integers[9] = value;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.xmlbeans.XmlException;
+import org.n52.svalbard.decode.SweCommonDecoderV20;
+import org.n52.svalbard.decode.exception.DecodingException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.opengis.swe.x20.DataArrayDocument;
+
+/**
+ * Measures the decoding of text encoded {@code swe:DataArray} values, with and without parsing the XML document.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SweTextDecodingBenchmark {
+
+    @Param({ "100", "10000" })
+    private int blocks;
+
+    private SweCommonDecoderV20 decoder;
+    private String xml;
+    private DataArrayDocument document;
+
+    @Setup
+    public void setup() throws XmlException {
+        this.decoder = new SweCommonDecoderV20();
+        Codecs.decoders(decoder);
+        this.xml = new ObservationGenerator().sweDataArray(blocks);
+        this.document = DataArrayDocument.Factory.parse(xml);
+    }
+
+    @Benchmark
+    public Object decode() throws DecodingException {
+        return decoder.decode(document.getDataArray1());
+    }
+
+    @Benchmark
+    public Object parseAndDecode() throws DecodingException, XmlException {
+        return decoder.decode(DataArrayDocument.Factory.parse(xml).getDataArray1());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.arcticsea.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.xmlbeans.XmlObject;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.svalbard.encode.EncodingContext;
+import org.n52.svalbard.encode.GmlEncoderv321;
+import org.n52.svalbard.encode.OmEncoderv20;
+import org.n52.svalbard.encode.SamplingEncoderv20;
+import org.n52.svalbard.encode.SensorMLEncoderv20;
+import org.n52.svalbard.encode.SweCommonEncoderv20;
+import org.n52.svalbard.encode.WmlTVPEncoderv20;
+import org.n52.svalbard.encode.XmlBeansEncodingFlags;
+import org.n52.svalbard.encode.exception.EncodingException;
+import org.n52.svalbard.util.SweHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the XmlBeans based encoding of observations with the streaming ({@code XMLStreamWriter} based) encoding
+ * for O&amp;M 2.0 and WaterML 2.0 time series.
+ *
+ * @since 9.9.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class XmlObservationEncodingBenchmark {
+
+    @Param({ "100", "10000" })
+    private int values;
+
+    private OmEncoderv20 omEncoder;
+    private WmlTVPEncoderv20 wmlEncoder;
+    private OmObservation observation;
+    private ByteArrayOutputStream out;
+
+    @Setup
+    public void setup() {
+        SweHelper sweHelper = new SweHelper();
+        sweHelper.setTokenSeparator(ObservationGenerator.TOKEN_SEPARATOR);
+        sweHelper.setTupleSeparator(ObservationGenerator.TUPLE_SEPARATOR);
+        sweHelper.setDecimalSeparator(".");
+        this.omEncoder = new OmEncoderv20();
+        this.omEncoder.setSweHelper(sweHelper);
+        this.wmlEncoder = new WmlTVPEncoderv20();
+        Codecs.encoders(omEncoder, wmlEncoder, new GmlEncoderv321(), new SweCommonEncoderv20(),
+                        new SamplingEncoderv20(), new SensorMLEncoderv20());
+        this.observation = new ObservationGenerator().timeSeries(0, values);
+        this.out = new ByteArrayOutputStream(values * 256);
+    }
+
+    @Benchmark
+    public int omXmlBeans() throws EncodingException, IOException {
+        return save(omEncoder.encode(observation, EncodingContext.of(XmlBeansEncodingFlags.DOCUMENT)));
+    }
+
+    @Benchmark
+    public int omStreaming() throws EncodingException {
+        out.reset();
+        omEncoder.encode(observation, out, EncodingContext.empty());
+        return out.size();
+    }
+
+    @Benchmark
+    public int wmlXmlBeans() throws EncodingException, IOException {
+        return save(wmlEncoder.encode(observation, EncodingContext.of(XmlBeansEncodingFlags.DOCUMENT)));
+    }
+
+    @Benchmark
+    public int wmlStreaming() throws EncodingException {
+        out.reset();
+        wmlEncoder.encode(observation, out, EncodingContext.empty());
+        return out.size();
+    }
+
+    private int save(XmlObject xml) throws IOException {
+        out.reset();
+        xml.save(out);
+        return out.size();
+    }
+}
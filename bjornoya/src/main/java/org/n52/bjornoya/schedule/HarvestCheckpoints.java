@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.bjornoya.schedule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.MoreObjects;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * The per-partition progress of a {@link PartitionedHarvesterJob}. A partition is either completed or has an optional
+ * checkpoint token from which its harvest can be resumed. The state is always written to the job data map of the job,
+ * which Quartz persists after every execution. If a checkpoint file is configured, the state is additionally written
+ * to that file on every change, so that a harvest can be resumed after a crash of the JVM, too.
+ *
+ * <p>
+ * All methods are thread-safe.
+ *
+ * @since 9.9.0
+ */
+public class HarvestCheckpoints {
+    /**
+     * The key of the checkpoint tokens in the job data map.
+     */
+    public static final String CHECKPOINTS = "harvestCheckpoints";
+    /**
+     * The key of the completed partitions in the job data map.
+     */
+    public static final String COMPLETED = "harvestCompleted";
+    private static final Logger LOGGER = LoggerFactory.getLogger(HarvestCheckpoints.class);
+    private static final String CHECKPOINT_PREFIX = "checkpoint.";
+    private static final String COMPLETED_PREFIX = "completed.";
+    private final Map<String, Object> jobDataMap;
+    private final Path file;
+    private final Map<String, String> checkpoints = new HashMap<>();
+    private final Set<String> completed = new HashSet<>();
+
+    /**
+     * Creates checkpoints that are only kept in the job data map.
+     *
+     * @param jobDataMap the job data map
+     */
+    public HarvestCheckpoints(Map<String, Object> jobDataMap) {
+        this(jobDataMap, null);
+    }
+
+    /**
+     * Creates checkpoints that are kept in the job data map and in the supplied file. If the file exists, its state
+     * takes precedence over the state in the job data map.
+     *
+     * @param jobDataMap the job data map
+     * @param file       the checkpoint file (may be {@code null})
+     */
+    @SuppressFBWarnings({ "EI_EXPOSE_REP2" })
+    public HarvestCheckpoints(Map<String, Object> jobDataMap, Path file) {
+        this.jobDataMap = jobDataMap;
+        this.file = file;
+        if (file != null && Files.exists(file)) {
+            load(file);
+        } else {
+            load(jobDataMap);
+        }
+    }
+
+    /**
+     * Get the partitions that are already completed.
+     *
+     * @return the completed partitions
+     */
+    public synchronized Set<String> getCompleted() {
+        return Collections.unmodifiableSet(new HashSet<>(completed));
+    }
+
+    /**
+     * Get the checkpoint token of an uncompleted partition.
+     *
+     * @param partition the partition
+     *
+     * @return the token or an empty optional if the partition has to be harvested from the start
+     */
+    public synchronized Optional<String> getCheckpoint(String partition) {
+        return Optional.ofNullable(checkpoints.get(partition));
+    }
+
+    /**
+     * Records the progress of a partition.
+     *
+     * @param partition the partition
+     * @param token     the token to resume the partition from
+     */
+    public synchronized void checkpoint(String partition, String token) {
+        if (token == null) {
+            checkpoints.remove(partition);
+        } else {
+            checkpoints.put(partition, token);
+        }
+        store();
+    }
+
+    /**
+     * Marks a partition as completed.
+     *
+     * @param partition the partition
+     */
+    public synchronized void complete(String partition) {
+        checkpoints.remove(partition);
+        completed.add(partition);
+        store();
+    }
+
+    /**
+     * Removes all checkpoints, e.g. after all partitions of a harvest have been completed.
+     */
+    public synchronized void clear() {
+        checkpoints.clear();
+        completed.clear();
+        jobDataMap.remove(CHECKPOINTS);
+        jobDataMap.remove(COMPLETED);
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return checkpoints.isEmpty() && completed.isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void load(Map<String, Object> map) {
+        Object storedCheckpoints = map.get(CHECKPOINTS);
+        if (storedCheckpoints instanceof Map) {
+            checkpoints.putAll((Map<String, String>) storedCheckpoints);
+        }
+        Object storedCompleted = map.get(COMPLETED);
+        if (storedCompleted instanceof Set) {
+            completed.addAll((Set<String>) storedCompleted);
+        }
+    }
+
+    private void load(Path path) {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(CHECKPOINT_PREFIX)) {
+                checkpoints.put(key.substring(CHECKPOINT_PREFIX.length()), properties.getProperty(key));
+            } else if (key.startsWith(COMPLETED_PREFIX)) {
+                completed.add(key.substring(COMPLETED_PREFIX.length()));
+            }
+        }
+        LOGGER.debug("Loaded {} completed and {} started partitions from {}", completed.size(), checkpoints.size(),
+                     path);
+    }
+
+    private void store() {
+        // store copies, so that the job data map is marked as dirty and no state is shared with other threads
+        jobDataMap.put(CHECKPOINTS, new HashMap<>(checkpoints));
+        jobDataMap.put(COMPLETED, new HashSet<>(completed));
+        if (file != null) {
+            store(file);
+        }
+    }
+
+    private void store(Path path) {
+        Properties properties = new Properties();
+        checkpoints.forEach((partition, token) -> properties.setProperty(CHECKPOINT_PREFIX + partition, token));
+        completed.forEach(partition -> properties.setProperty(COMPLETED_PREFIX + partition, Boolean.TRUE.toString()));
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, null);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return MoreObjects.toStringHelper(this).omitNullValues()
+                .add("completed", completed.size())
+                .add("checkpoints", checkpoints.size())
+                .add("file", file)
+                .toString();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.bjornoya.schedule;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.n52.janmayen.GroupedAndNamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Harvests partitions on a bounded pool of worker threads. Partitions that are marked as completed in the
+ * {@link HarvestCheckpoints} are skipped, and a partition is only marked as completed after it has been harvested
+ * successfully. A failure of one partition does not abort the others.
+ *
+ * @since 9.9.0
+ */
+public class HarvestEngine {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HarvestEngine.class);
+    private final int parallelism;
+    private final String name;
+
+    public HarvestEngine(String name, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism has to be positive");
+        }
+        this.name = name;
+        this.parallelism = parallelism;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Harvests all partitions that are not yet completed.
+     *
+     * @param partitions  the partitions
+     * @param checkpoints the checkpoints
+     * @param harvester   the harvester of a single partition
+     *
+     * @return the result
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the workers; running
+     *                              partitions are interrupted as well and are resumed at the next run
+     */
+    public HarvestResult harvest(Collection<String> partitions, HarvestCheckpoints checkpoints,
+                                 PartitionHarvester harvester) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        Set<String> pending = new LinkedHashSet<>(partitions);
+        int total = pending.size();
+        pending.removeAll(checkpoints.getCompleted());
+        int skipped = total - pending.size();
+        Map<String, Throwable> failures = new LinkedHashMap<>();
+        if (!pending.isEmpty()) {
+            LOGGER.debug("Harvesting {} partitions ({} already completed) with {} threads", pending.size(), skipped,
+                         Math.min(parallelism, pending.size()));
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, pending.size()),
+                                                                    new GroupedAndNamedThreadFactory(name));
+            try {
+                Map<String, Future<?>> futures = new LinkedHashMap<>(pending.size());
+                for (String partition : pending) {
+                    futures.put(partition, executor.submit(() -> {
+                        harvester.harvest(new HarvestPartition(partition, checkpoints));
+                        checkpoints.complete(partition);
+                        return null;
+                    }));
+                }
+                for (Map.Entry<String, Future<?>> future : futures.entrySet()) {
+                    try {
+                        future.getValue().get();
+                    } catch (ExecutionException e) {
+                        LOGGER.warn("Could not harvest partition {}", future.getKey(), e.getCause());
+                        failures.put(future.getKey(), e.getCause());
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        HarvestResult result = new HarvestResult(pending.size() - failures.size(), skipped, failures,
+                                                 System.currentTimeMillis() - start);
+        LOGGER.debug("Finished harvest: {}", result);
+        return result;
+    }
+}
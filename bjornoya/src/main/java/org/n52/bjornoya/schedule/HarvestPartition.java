@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.bjornoya.schedule;
+
+import java.util.Objects;
+import java.util.Optional;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * A single unit of work of a {@link PartitionedHarvesterJob}, e.g. a procedure or a time window.
+ *
+ * @since 9.9.0
+ */
+public class HarvestPartition {
+    private final String id;
+    private final HarvestCheckpoints checkpoints;
+
+    public HarvestPartition(String id, HarvestCheckpoints checkpoints) {
+        this.id = Objects.requireNonNull(id, "id");
+        this.checkpoints = Objects.requireNonNull(checkpoints, "checkpoints");
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Get the token of the last checkpoint of this partition.
+     *
+     * @return the token or an empty optional if the partition has to be harvested from the start
+     */
+    public Optional<String> getCheckpoint() {
+        return checkpoints.getCheckpoint(id);
+    }
+
+    /**
+     * Records the progress of this partition. If the harvest of the partition fails or is interrupted, the next
+     * execution of the job resumes the partition from this token.
+     *
+     * @param token the token, e.g. the last harvested time stamp or page
+     */
+    public void checkpoint(String token) {
+        checkpoints.checkpoint(id, token);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("id", id).toString();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.bjornoya.schedule;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * The outcome of a run of the {@link HarvestEngine}.
+ *
+ * @since 9.9.0
+ */
+public class HarvestResult {
+    private final int harvested;
+    private final int skipped;
+    private final Map<String, Throwable> failures;
+    private final long duration;
+
+    public HarvestResult(int harvested, int skipped, Map<String, Throwable> failures, long duration) {
+        this.harvested = harvested;
+        this.skipped = skipped;
+        this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+        this.duration = duration;
+    }
+
+    /**
+     * @return the number of partitions harvested in this run
+     */
+    public int getHarvested() {
+        return harvested;
+    }
+
+    /**
+     * @return the number of partitions skipped because they were completed by a previous run
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * @return the failed partitions and their causes
+     */
+    public Map<String, Throwable> getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return the duration of the run in milliseconds
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return if all partitions are completed
+     */
+    public boolean isComplete() {
+        return failures.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("harvested", harvested)
+                .add("skipped", skipped)
+                .add("failed", failures.keySet())
+                .add("duration", duration)
+                .toString();
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.bjornoya.schedule;
+
+/**
+ * Harvests a single {@link HarvestPartition}.
+ *
+ * @since 9.9.0
+ */
+@FunctionalInterface
+public interface PartitionHarvester {
+    /**
+     * Harvests the partition, starting at its {@linkplain HarvestPartition#getCheckpoint() checkpoint}.
+     *
+     * @param partition the partition
+     *
+     * @throws Exception if the harvest fails; the partition is retried at the next execution
+     */
+    void harvest(HarvestPartition partition) throws Exception;
+}
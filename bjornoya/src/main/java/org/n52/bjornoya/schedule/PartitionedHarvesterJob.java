@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.bjornoya.schedule;
+
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.JobDataMap;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.PersistJobDataAfterExecution;
+
+/**
+ * A job that splits a harvest into partitions, e.g. procedures or time windows, and harvests them on a bounded pool
+ * of worker threads. The progress of every partition is recorded in {@link HarvestCheckpoints}: if a partition fails,
+ * the next execution of the job skips the completed partitions and resumes the others from their last checkpoint. The
+ * checkpoints are removed after all partitions have been harvested.
+ *
+ * <p>
+ * The checkpoints are stored in the job data map, which Quartz persists after every execution. To resume a harvest
+ * that was interrupted by a crash of the JVM, a {@linkplain #setCheckpointFile(String) checkpoint file} has to be
+ * configured, as the job data map is not persisted while the job is running.
+ *
+ * <p>
+ * The {@link HarvestResult} of an execution is available as the {@linkplain JobExecutionContext#getResult() result}
+ * of the job execution context.
+ *
+ * @since 9.9.0
+ */
+@PersistJobDataAfterExecution
+@DisallowConcurrentExecution
+public abstract class PartitionedHarvesterJob extends ScheduledJob {
+    protected static final String PARALLELISM = "parallelism";
+    protected static final String CHECKPOINT_FILE = "checkpointFile";
+    private static final int DEFAULT_PARALLELISM = 4;
+
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    private String checkpointFile;
+
+    @Override
+    protected void process(JobExecutionContext context) throws JobExecutionException {
+        JobDetail jobDetail = context.getJobDetail();
+        HarvestCheckpoints checkpoints = new HarvestCheckpoints(jobDetail.getJobDataMap(), getCheckpointFile() == null
+                ? null
+                : Paths.get(getCheckpointFile()));
+        HarvestEngine engine = new HarvestEngine(jobDetail.getKey().getName(), getParallelism());
+        HarvestResult result;
+        try {
+            result = engine.harvest(getPartitions(context), checkpoints, partition -> harvest(partition, context));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JobExecutionException("Harvest interrupted", e);
+        }
+        context.setResult(result);
+        if (!result.isComplete()) {
+            throw new JobExecutionException(String.format(
+                    "Could not harvest the partitions %s, they are resumed at the next execution",
+                    result.getFailures().keySet()));
+        }
+        checkpoints.clear();
+    }
+
+    /**
+     * Get the partitions of the harvest. The identifiers have to be stable between executions, as they are used to
+     * match the checkpoints of previous executions.
+     *
+     * @param context the job execution context
+     *
+     * @return the partition identifiers
+     *
+     * @throws JobExecutionException if the partitions can not be determined
+     */
+    protected abstract List<String> getPartitions(JobExecutionContext context) throws JobExecutionException;
+
+    /**
+     * Harvests a single partition. This method is called concurrently for different partitions.
+     *
+     * @param partition the partition
+     * @param context   the job execution context
+     *
+     * @throws Exception if the harvest of the partition fails
+     */
+    protected abstract void harvest(HarvestPartition partition, JobExecutionContext context) throws Exception;
+
+    @Override
+    public JobDetail createJobDetails() {
+        // re-execute the job if the scheduler crashed while it was running
+        return super.createJobDetails().getJobBuilder().requestRecovery(true).build();
+    }
+
+    @Override
+    protected JobDataMap getJobDataMap() {
+        JobDataMap dataMap = super.getJobDataMap();
+        dataMap.put(PARALLELISM, getParallelism());
+        if (getCheckpointFile() != null) {
+            dataMap.put(CHECKPOINT_FILE, getCheckpointFile());
+        }
+        return dataMap;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Set the maximum number of partitions that are harvested concurrently.
+     *
+     * @param parallelism the number of worker threads
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism has to be positive");
+        }
+        this.parallelism = parallelism;
+    }
+
+    public String getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    /**
+     * Set the file in which the checkpoints are stored in addition to the job data map.
+     *
+     * @param checkpointFile the path of the file
+     */
+    public void setCheckpointFile(String checkpointFile) {
+        this.checkpointFile = checkpointFile == null || checkpointFile.isEmpty() ? null : checkpointFile;
+    }
+}
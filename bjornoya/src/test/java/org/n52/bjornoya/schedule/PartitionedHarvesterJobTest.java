@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.bjornoya.schedule;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.quartz.Job;
+import org.quartz.JobDetail;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.impl.StdSchedulerFactory;
+import org.quartz.listeners.JobListenerSupport;
+import org.quartz.simpl.RAMJobStore;
+
+/**
+ * Runs a {@link PartitionedHarvesterJob} in a Quartz scheduler with a {@link RAMJobStore} against a fake data source
+ * with a fixed latency per page.
+ */
+public class PartitionedHarvesterJobTest {
+    private static final int PROCEDURES = 16;
+    private static final int PAGES = 4;
+    private static final long LATENCY = 5;
+    private static final long TIMEOUT = 30;
+    private static final FakeDataSource SOURCE = new FakeDataSource();
+
+    private Scheduler scheduler;
+    private BlockingQueue<JobExecutionContext> executions;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    public void setUp() throws SchedulerException {
+        SOURCE.reset();
+        startScheduler();
+    }
+
+    @AfterEach
+    public void tearDown() throws SchedulerException {
+        scheduler.shutdown(true);
+    }
+
+    @Test
+    public void shouldHarvestPartitionsConcurrently() throws Exception {
+        HarvestResult serial = execute(addJob("serial", 1, null));
+        assertThat(SOURCE.getMaxConcurrency(), is(1));
+        SOURCE.reset();
+        HarvestResult parallel = execute(addJob("parallel", 4, null));
+        assertThat(SOURCE.getMaxConcurrency(), is(lessThanOrEqualTo(4)));
+        assertThat(SOURCE.getMaxConcurrency(), is(greaterThan(1)));
+
+        assertThat(serial.isComplete(), is(true));
+        assertThat(parallel.isComplete(), is(true));
+        assertThat(parallel.getHarvested(), is(PROCEDURES));
+        assertHarvestedExactlyOnce();
+    }
+
+    @Test
+    public void shouldResumeFromTheJobDataMap() throws Exception {
+        SOURCE.failOnce("procedure-3", 2);
+        SOURCE.failOnce("procedure-7", 0);
+        JobDetail job = addJob("harvest", 4, null);
+
+        HarvestResult first = execute(job);
+        assertThat(first.isComplete(), is(false));
+        assertThat(first.getFailures().keySet(), is(set("procedure-3", "procedure-7")));
+        assertThat(first.getHarvested(), is(PROCEDURES - 2));
+        Map<String, Object> dataMap = scheduler.getJobDetail(job.getKey()).getJobDataMap();
+        assertThat((Set<?>) dataMap.get(HarvestCheckpoints.COMPLETED), hasSize(PROCEDURES - 2));
+        assertThat(checkpoints(dataMap), hasEntry("procedure-3", "2"));
+
+        HarvestResult second = execute(job);
+        assertThat(second.isComplete(), is(true));
+        assertThat(second.getSkipped(), is(PROCEDURES - 2));
+        assertThat(second.getHarvested(), is(2));
+        assertHarvestedExactlyOnce();
+        assertThat(new HarvestCheckpoints(scheduler.getJobDetail(job.getKey()).getJobDataMap()).isEmpty(), is(true));
+
+        // the next harvest starts from scratch
+        SOURCE.reset();
+        assertThat(execute(job).getHarvested(), is(PROCEDURES));
+        assertHarvestedExactlyOnce();
+    }
+
+    @Test
+    public void shouldResumeFromTheCheckpointFileAfterARestart() throws Exception {
+        Path file = directory.resolve("checkpoints.properties");
+        SOURCE.failOnce("procedure-0", 1);
+        SOURCE.failOnce("procedure-5", 3);
+        assertThat(execute(addJob("harvest", 4, file)).isComplete(), is(false));
+        assertThat(Files.exists(file), is(true));
+
+        // the RAMJobStore and with it the job data map are lost
+        scheduler.shutdown(true);
+        startScheduler();
+
+        HarvestResult result = execute(addJob("harvest", 4, file));
+        assertThat(result.isComplete(), is(true));
+        assertThat(result.getSkipped(), is(PROCEDURES - 2));
+        assertThat(result.getHarvested(), is(2));
+        assertHarvestedExactlyOnce();
+        assertThat(Files.exists(file), is(false));
+    }
+
+    private void startScheduler() throws SchedulerException {
+        Properties properties = new Properties();
+        properties.setProperty(StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, UUID.randomUUID().toString());
+        properties.setProperty(StdSchedulerFactory.PROP_JOB_STORE_CLASS, RAMJobStore.class.getName());
+        properties.setProperty("org.quartz.threadPool.threadCount", "1");
+        this.scheduler = new StdSchedulerFactory(properties).getScheduler();
+        this.executions = new LinkedBlockingQueue<>();
+        this.scheduler.getListenerManager().addJobListener(new JobListenerSupport() {
+            @Override
+            public String getName() {
+                return "test";
+            }
+
+            @Override
+            public void jobWasExecuted(JobExecutionContext context, JobExecutionException exception) {
+                executions.add(context);
+            }
+        });
+        this.scheduler.start();
+    }
+
+    private JobDetail addJob(String name, int parallelism, Path checkpointFile) throws SchedulerException {
+        FakeHarvesterJob job = new FakeHarvesterJob();
+        job.setJobName(name);
+        job.setJobGroup("test");
+        job.setParallelism(parallelism);
+        job.setCheckpointFile(checkpointFile == null ? null : checkpointFile.toString());
+        JobDetail details = job.createJobDetails().getJobBuilder().storeDurably().build();
+        scheduler.addJob(details, true);
+        return details;
+    }
+
+    private HarvestResult execute(JobDetail job) throws Exception {
+        scheduler.triggerJob(job.getKey());
+        JobExecutionContext context = executions.poll(TIMEOUT, TimeUnit.SECONDS);
+        assertThat("the job was not executed", context != null, is(true));
+        // the listeners are notified before the job store persists the job data map and removes the trigger
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT);
+        while (scheduler.checkExists(context.getTrigger().getKey())) {
+            assertThat("the job did not complete", System.currentTimeMillis() < deadline, is(true));
+            Thread.sleep(1);
+        }
+        return (HarvestResult) context.getResult();
+    }
+
+    private static void assertHarvestedExactlyOnce() {
+        assertThat(SOURCE.getHarvested().keySet(), hasSize(PROCEDURES * PAGES));
+        assertThat(SOURCE.getHarvested().values().stream().map(AtomicInteger::get).collect(Collectors.toList()),
+                   everyItem(is(1)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> checkpoints(Map<String, Object> dataMap) {
+        return (Map<String, String>) dataMap.get(HarvestCheckpoints.CHECKPOINTS);
+    }
+
+    private static Set<String> set(String... values) {
+        return Arrays.stream(values).collect(Collectors.toSet());
+    }
+
+    public static class FakeHarvesterJob extends PartitionedHarvesterJob {
+        @Override
+        protected List<String> getPartitions(JobExecutionContext context) {
+            return SOURCE.getProcedures();
+        }
+
+        @Override
+        protected void harvest(HarvestPartition partition, JobExecutionContext context) throws Exception {
+            int page = partition.getCheckpoint().map(Integer::parseInt).orElse(0);
+            for (; page < PAGES; ++page) {
+                SOURCE.read(partition.getId(), page);
+                partition.checkpoint(Integer.toString(page + 1));
+            }
+        }
+
+        @Override
+        protected Class<? extends Job> getClazz() {
+            return FakeHarvesterJob.class;
+        }
+    }
+
+    private static class FakeDataSource {
+        private final Map<String, AtomicInteger> harvested = new ConcurrentHashMap<>();
+        private final Set<String> failures = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger concurrency = new AtomicInteger();
+        private final AtomicInteger maxConcurrency = new AtomicInteger();
+
+        List<String> getProcedures() {
+            return Collections.unmodifiableList(IntStream.range(0, PROCEDURES).mapToObj(i -> "procedure-" + i)
+                    .collect(Collectors.toList()));
+        }
+
+        void read(String procedure, int page) throws InterruptedException {
+            int current = concurrency.incrementAndGet();
+            maxConcurrency.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(LATENCY);
+                if (failures.remove(key(procedure, page))) {
+                    throw new IllegalStateException("connection lost");
+                }
+                harvested.computeIfAbsent(key(procedure, page), k -> new AtomicInteger()).incrementAndGet();
+            } finally {
+                concurrency.decrementAndGet();
+            }
+        }
+
+        void failOnce(String procedure, int page) {
+            failures.add(key(procedure, page));
+        }
+
+        Map<String, AtomicInteger> getHarvested() {
+            return harvested;
+        }
+
+        int getMaxConcurrency() {
+            return maxConcurrency.get();
+        }
+
+        void reset() {
+            harvested.clear();
+            failures.clear();
+            maxConcurrency.set(0);
+        }
+
+        private static String key(String procedure, int page) {
+            return procedure + "/" + page;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.faroe;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.n52.faroe.annotation.Setting;
+
+/**
+ * A compiled {@link Setting} method of a configurable class. The annotated methods of a class are scanned only once and
+ * are invoked through a {@link MethodHandle}, which avoids the access checks and argument array of a reflective
+ * invocation.
+ *
+ * @since 9.9.0
+ */
+final class SettingInjector {
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final ClassValue<List<SettingInjector>> INJECTORS = new ClassValue<List<SettingInjector>>() {
+        @Override
+        protected List<SettingInjector> computeValue(Class<?> type) {
+            return compile(type);
+        }
+    };
+
+    private final Method method;
+    private final MethodHandle handle;
+    private final String key;
+    private final boolean required;
+
+    private SettingInjector(Method method, MethodHandle handle, String key, boolean required) {
+        this.method = method;
+        this.handle = handle;
+        this.key = key;
+        this.required = required;
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    boolean isRequired() {
+        return required;
+    }
+
+    /**
+     * Invokes the setter.
+     *
+     * @param target the object to configure
+     * @param value  the value
+     *
+     * @throws Throwable the exception thrown by the setter or if the value can not be converted to the parameter type
+     */
+    void inject(Object target, Object value) throws Throwable {
+        if (handle != null) {
+            handle.invokeExact(target, value);
+        } else {
+            try {
+                method.invoke(target, value);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+
+    /**
+     * Get the injectors for all {@link Setting} methods of the class. The result is computed once per class.
+     *
+     * @param type the class
+     *
+     * @return the injectors
+     *
+     * @throws ConfigurationError if a {@code Setting} annotation or method is invalid
+     */
+    static List<SettingInjector> of(Class<?> type) throws ConfigurationError {
+        return INJECTORS.get(type);
+    }
+
+    private static List<SettingInjector> compile(Class<?> type) throws ConfigurationError {
+        List<SettingInjector> injectors = new ArrayList<>();
+        for (Method method : type.getMethods()) {
+            Setting s = method.getAnnotation(Setting.class);
+            if (s != null) {
+                String key = s.value();
+                if (key == null || key.isEmpty()) {
+                    throw new ConfigurationError(String.format("Invalid value for @Setting: '%s'", key));
+                } else if (method.getParameterTypes().length != 1) {
+                    throw new ConfigurationError(String.format(
+                            "Method %s annotated with @Setting in %s has a invalid method signature", method, type));
+                } else if (!Modifier.isPublic(method.getModifiers())) {
+                    throw new ConfigurationError(
+                            String.format("Non-public method %s annotated with @Setting in %s", method, type));
+                }
+                injectors.add(new SettingInjector(method, unreflect(method), key, s.required()));
+            }
+        }
+        return Collections.unmodifiableList(injectors);
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            return MethodHandles.publicLookup().unreflect(method).asType(SETTER);
+        } catch (IllegalAccessException e) {
+            // e.g. a public method of a non-public class, fall back to reflection
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SettingInjector[key=%s, method=%s]", key, method);
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.n52.faroe;
 
+import java.util.Collection;
 import java.util.Set;
 
 /**
@@ -51,6 +52,17 @@ public interface SettingsDao {
      */
     void saveSettingValue(SettingValue<?> setting);
 
+    /**
+     * Saves the setting values. Implementations should persist all values at once.
+     *
+     * @param settings the values
+     *
+     * @since 9.9.0
+     */
+    default void saveSettingValues(Collection<SettingValue<?>> settings) {
+        settings.forEach(this::saveSettingValue);
+    }
+
     void deleteAll();
 
 }
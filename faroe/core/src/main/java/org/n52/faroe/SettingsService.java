@@ -17,6 +17,7 @@ package org.n52.faroe;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import org.n52.faroe.annotation.Configurable;
@@ -37,6 +38,19 @@ public interface SettingsService {
      */
     void changeSetting(SettingValue<?> newValue) throws ConfigurationError;
 
+    /**
+     * Changes several settings at once, e.g. the values of {@link #getSettings()} after they were edited. Definitions
+     * without a value are ignored.
+     *
+     * @param newValues the new values by definition
+     *
+     * @throws ConfigurationError if there is a problem changing the settings.
+     * @since 9.9.0
+     */
+    default void changeSettings(Map<SettingDefinition<?>, SettingValue<?>> newValues) throws ConfigurationError {
+        newValues.values().stream().filter(Objects::nonNull).forEach(this::changeSetting);
+    }
+
     /**
      * Configure {@code o} with the required settings. All changes to a setting required by the object will be applied.
      *
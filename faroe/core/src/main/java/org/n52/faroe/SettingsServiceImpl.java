@@ -15,12 +15,12 @@
  */
 package org.n52.faroe;
 
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 
 import java.lang.ref.WeakReference;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -152,37 +152,28 @@ public class SettingsServiceImpl implements SettingsService {
             return;
         }
         LOG.debug("Configuring object {}", object);
-        for (Method method : clazz.getMethods()) {
-            Setting s = method.getAnnotation(Setting.class);
-            if (s != null) {
-                String key = s.value();
-                if (key == null || key.isEmpty()) {
-                    throw new ConfigurationError(String.format("Invalid value for @Setting: '%s'", key));
-                } else if (getDefinitionByKey(key) == null && s.required()) {
-                    throw noSettingDefinitionFound(key);
-                } else if (method.getParameterTypes().length != 1) {
-                    throw new ConfigurationError(String.format(
-                            "Method %s annotated with @Setting in %s has a invalid method signature", method, clazz));
-                } else if (!Modifier.isPublic(method.getModifiers())) {
-                    throw new ConfigurationError(
-                            String.format("Non-public method %s annotated with @Setting in %s", method, clazz));
-                } else {
-                    configure(new ConfigurableObject(method, object, key, s.required()), persist);
-                }
+        List<SettingInjector> injectors = SettingInjector.of(clazz);
+        List<ConfigurableObject> cos = new ArrayList<>(injectors.size());
+        for (SettingInjector injector : injectors) {
+            if (getDefinitionByKey(injector.getKey()) == null && injector.isRequired()) {
+                throw noSettingDefinitionFound(injector.getKey());
             }
+            cos.add(new ConfigurableObject(injector, object));
         }
-    }
-
-    private void configure(ConfigurableObject co, boolean persist) {
-        LOG.debug("Configuring {}", co);
         if (persist) {
             this.configurableObjectsLock.writeLock().lock();
             try {
-                this.configurableObjects.computeIfAbsent(co.getKey(), Functions.forSupplier(HashSet::new)).add(co);
+                cos.forEach(co -> this.configurableObjects
+                        .computeIfAbsent(co.getKey(), Functions.forSupplier(HashSet::new)).add(co));
             } finally {
                 this.configurableObjectsLock.writeLock().unlock();
             }
         }
+        cos.forEach(this::configure);
+    }
+
+    private void configure(ConfigurableObject co) {
+        LOG.debug("Configuring {}", co);
         try {
             co.configure(getSettingValue(co));
         } catch (RuntimeException cpe) {
@@ -307,42 +298,52 @@ public class SettingsServiceImpl implements SettingsService {
      */
     private void applySetting(SettingDefinition<?> setting, SettingValue<?> oldValue, SettingValue<?> newValue)
             throws ConfigurationError {
-        List<ConfigurableObject> changed = new LinkedList<>();
-        ConfigurationError e = null;
         configurableObjectsLock.readLock().lock();
         try {
-            Set<ConfigurableObject> cos = configurableObjects.get(setting.getKey());
-            if (cos != null) {
-                for (ConfigurableObject co : cos) {
-                    try {
-                        if (newValue != null) {
-                            co.configure(newValue.getValue());
-                        }
-                    } catch (ConfigurationError ce) {
-                        e = ce;
-                        break;
-                    } finally {
-                        changed.add(co);
+            applySettingLocked(setting.getKey(), oldValue, newValue);
+        } finally {
+            configurableObjectsLock.readLock().unlock();
+        }
+    }
+
+    private void applySettingLocked(String key, SettingValue<?> oldValue, SettingValue<?> newValue)
+            throws ConfigurationError {
+        List<ConfigurableObject> changed = new LinkedList<>();
+        ConfigurationError e = null;
+        Set<ConfigurableObject> cos = configurableObjects.get(key);
+        if (cos != null) {
+            for (ConfigurableObject co : cos) {
+                try {
+                    if (newValue != null) {
+                        co.configure(newValue.getValue());
                     }
-                }
-                if (e != null) {
-                    LOG.debug("Reverting setting...");
-                    changed.stream().forEach(co -> {
-                        try {
-                            co.configure(oldValue.getValue());
-                        } catch (ConfigurationError ce) {
-                            /* there is nothing we can do... */
-                            LOG.error("Error reverting setting!", ce);
-                        }
-                    });
-                    throw e;
+                } catch (ConfigurationError ce) {
+                    e = ce;
+                    break;
+                } finally {
+                    changed.add(co);
                 }
             }
-        } finally {
-            configurableObjectsLock.readLock().unlock();
+            if (e != null) {
+                revertSettingLocked(changed, oldValue);
+                throw e;
+            }
         }
     }
 
+    private void revertSettingLocked(Collection<ConfigurableObject> cos, SettingValue<?> oldValue) {
+        LOG.debug("Reverting setting...");
+        Object value = oldValue == null ? null : oldValue.getValue();
+        cos.forEach(co -> {
+            try {
+                co.configure(value);
+            } catch (ConfigurationError ce) {
+                /* there is nothing we can do... */
+                LOG.error("Error reverting setting!", ce);
+            }
+        });
+    }
+
     private SettingValue<Object> getSettingValue(ConfigurableObject co) {
         return getSettingValue(co.getKey(), co.isRequired());
     }
@@ -390,6 +391,72 @@ public class SettingsServiceImpl implements SettingsService {
     @Override
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public void changeSetting(SettingValue<?> newValue) throws ConfigurationError {
+        SettingDefinition<?> def = checkSettingValue(newValue);
+        SettingValue<?> oldValue = this.settingsManagerDao.getSettingValue(newValue.getKey());
+
+        if (oldValue == null || !oldValue.equals(newValue)) {
+            applySetting(def, oldValue, newValue);
+            this.settingsManagerDao.saveSettingValue(newValue);
+            this.serviceEventBus.submit(new SettingsChangeEvent(def, oldValue, newValue));
+        }
+    }
+
+    /**
+     * Changes several settings at once. All values are validated before any object is configured, the changes are
+     * propagated while holding the lock on the configured objects only once and are saved in a single call to the
+     * {@link SettingsDao}. If the change fails for one of the objects, all settings are reverted to their old values.
+     * Definitions without a value are ignored.
+     *
+     * @param newValues
+     *            the new values by definition
+     *
+     * @throws ConfigurationError
+     *             if there is a problem changing the settings.
+     */
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void changeSettings(Map<SettingDefinition<?>, SettingValue<?>> newValues) throws ConfigurationError {
+        Objects.requireNonNull(newValues, "newValues can not be null");
+        List<SettingChange> changes = new ArrayList<>(newValues.size());
+        for (Map.Entry<SettingDefinition<?>, SettingValue<?>> entry : newValues.entrySet()) {
+            SettingValue<?> newValue = entry.getValue();
+            if (newValue != null) {
+                SettingDefinition<?> def = checkSettingValue(newValue);
+                if (!def.getKey().equals(entry.getKey().getKey())) {
+                    throw new IllegalArgumentException(String.format("Value for %s supplied for definition %s",
+                                                                     newValue.getKey(), entry.getKey().getKey()));
+                }
+                SettingValue<?> oldValue = this.settingsManagerDao.getSettingValue(newValue.getKey());
+                if (oldValue == null || !oldValue.equals(newValue)) {
+                    changes.add(new SettingChange(def, oldValue, newValue));
+                }
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        configurableObjectsLock.readLock().lock();
+        try {
+            List<SettingChange> applied = new ArrayList<>(changes.size());
+            for (SettingChange change : changes) {
+                try {
+                    applySettingLocked(change.getKey(), change.oldValue, change.newValue);
+                    applied.add(change);
+                } catch (ConfigurationError e) {
+                    applied.forEach(c -> revertSettingLocked(
+                            configurableObjects.getOrDefault(c.getKey(), Collections.emptySet()), c.oldValue));
+                    throw e;
+                }
+            }
+        } finally {
+            configurableObjectsLock.readLock().unlock();
+        }
+        this.settingsManagerDao.saveSettingValues(changes.stream().map(c -> c.newValue).collect(toList()));
+        changes.forEach(c -> this.serviceEventBus.submit(new SettingsChangeEvent(c.definition, c.oldValue,
+                                                                                 c.newValue)));
+    }
+
+    private SettingDefinition<?> checkSettingValue(SettingValue<?> newValue) {
         if (newValue == null) {
             throw new NullPointerException("newValue can not be null");
         }
@@ -406,14 +473,7 @@ public class SettingsServiceImpl implements SettingsService {
             throw new IllegalArgumentException(
                     String.format("Invalid type for definition (%s vs. %s)", def.getType(), newValue.getType()));
         }
-
-        SettingValue<?> oldValue = this.settingsManagerDao.getSettingValue(newValue.getKey());
-
-        if (oldValue == null || !oldValue.equals(newValue)) {
-            applySetting(def, oldValue, newValue);
-            this.settingsManagerDao.saveSettingValue(newValue);
-            this.serviceEventBus.submit(new SettingsChangeEvent(def, oldValue, newValue));
-        }
+        return def;
     }
 
     /**
@@ -487,37 +547,45 @@ public class SettingsServiceImpl implements SettingsService {
 
     }
 
+    private static final class SettingChange {
+        private final SettingDefinition<?> definition;
+        private final SettingValue<?> oldValue;
+        private final SettingValue<?> newValue;
+
+        SettingChange(SettingDefinition<?> definition, SettingValue<?> oldValue, SettingValue<?> newValue) {
+            this.definition = definition;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+
+        String getKey() {
+            return definition.getKey();
+        }
+    }
+
     private static class ConfigurableObject {
 
-        private final Method method;
+        private final SettingInjector injector;
         private final WeakReference<Object> target;
-        private final String key;
-        private final boolean required;
 
         /**
          * Constructs a new {@code ConfigurableObject}.
          *
-         * @param method
-         *            the method of the target
+         * @param injector
+         *            the injector of the setting
          * @param target
          *            the target object
-         * @param key
-         *            the settings key
-         * @param required
-         *            if the setting is required
          */
-        ConfigurableObject(Method method, Object target, String key, boolean required) {
-            this.method = method;
+        ConfigurableObject(SettingInjector injector, Object target) {
+            this.injector = injector;
             this.target = new WeakReference<>(target);
-            this.key = key;
-            this.required = required;
         }
 
         /**
          * @return the method
          */
         public Method getMethod() {
-            return method;
+            return injector.getMethod();
         }
 
         /**
@@ -531,7 +599,7 @@ public class SettingsServiceImpl implements SettingsService {
          * @return the settings key
          */
         public String getKey() {
-            return key;
+            return injector.getKey();
         }
 
         /**
@@ -558,15 +626,14 @@ public class SettingsServiceImpl implements SettingsService {
          *             if an error occurs
          */
         public void configure(Object val) throws ConfigurationError {
-            try {
-                if (getTarget().get() != null) {
-                    LOG.debug("Setting value '{}' for {}", val, this);
-                    getMethod().invoke(getTarget().get(), val);
+            Object object = getTarget().get();
+            if (object != null) {
+                LOG.debug("Setting value '{}' for {}", val, this);
+                try {
+                    injector.inject(object, val);
+                } catch (Throwable t) {
+                    logAndThrowError(val, t);
                 }
-            } catch (IllegalAccessException | IllegalArgumentException ex) {
-                logAndThrowError(val, ex);
-            } catch (InvocationTargetException ex) {
-                logAndThrowError(val, ex.getTargetException());
             }
         }
 
@@ -610,7 +677,7 @@ public class SettingsServiceImpl implements SettingsService {
          * @return if this setting is required
          */
         public boolean isRequired() {
-            return required;
+            return injector.isRequired();
         }
     }
 
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.faroe;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
+import org.n52.faroe.settings.IntegerSettingDefinition;
+import org.n52.faroe.settings.IntegerSettingValueForTesting;
+import org.n52.faroe.settings.StringSettingDefinition;
+import org.n52.faroe.settings.StringSettingValueForTesting;
+import org.n52.janmayen.event.EventBus;
+
+public class SettingsServiceImplTest {
+    private static final String NAME = "test.name";
+    private static final String SIZE = "test.size";
+
+    private final StringSettingDefinition name = new StringSettingDefinition();
+    private final IntegerSettingDefinition size = new IntegerSettingDefinition();
+    private InMemorySettingsDao dao;
+    private SettingsServiceImpl settingsService;
+
+    @BeforeEach
+    public void setUp() {
+        name.setKey(NAME);
+        size.setKey(SIZE);
+        this.dao = new InMemorySettingsDao();
+        dao.saveSettingValue(stringValue(NAME, "initial"));
+        dao.saveSettingValue(integerValue(SIZE, 1));
+        dao.saved = 0;
+        this.settingsService = new SettingsServiceImpl();
+        this.settingsService.setServiceEventBus(new EventBus());
+        this.settingsService.setSettingsManagerDao(dao);
+        this.settingsService.setSettingDefinitions(Optional.of(Arrays.asList(name, size)));
+    }
+
+    @Test
+    public void shouldConfigureAndPropagateChanges() {
+        Bean bean = new Bean();
+        settingsService.configure(bean);
+        assertThat(bean.name, is("initial"));
+        assertThat(bean.size, is(1));
+
+        settingsService.changeSetting(integerValue(SIZE, 2));
+        assertThat(bean.size, is(2));
+
+        Bean once = new Bean();
+        settingsService.configureOnce(once);
+        settingsService.changeSetting(stringValue(NAME, "changed"));
+        assertThat(bean.name, is("changed"));
+        assertThat(once.name, is("initial"));
+    }
+
+    @Test
+    public void shouldChangeSettingsInABatch() {
+        Bean bean = new Bean();
+        settingsService.configure(bean);
+        Map<SettingDefinition<?>, SettingValue<?>> values = new HashMap<>();
+        values.put(name, stringValue(NAME, "batch"));
+        values.put(size, integerValue(SIZE, 3));
+        settingsService.changeSettings(values);
+        assertThat(bean.name, is("batch"));
+        assertThat(bean.size, is(3));
+        assertThat(dao.saved, is(1));
+        assertThat(dao.getSettingValue(SIZE).getValue(), is(3));
+    }
+
+    @Test
+    public void shouldRevertAllSettingsOfAFailedBatch() {
+        Bean bean = new Bean();
+        settingsService.configure(bean);
+        Map<SettingDefinition<?>, SettingValue<?>> values = new LinkedHashMap<>();
+        values.put(name, stringValue(NAME, "batch"));
+        values.put(size, integerValue(SIZE, -1));
+        assertThrows(ConfigurationError.class, () -> settingsService.changeSettings(values));
+        assertThat(bean.name, is("initial"));
+        assertThat(bean.size, is(1));
+        assertThat(dao.saved, is(0));
+    }
+
+    @Test
+    public void shouldRejectInvalidBatches() {
+        Map<SettingDefinition<?>, SettingValue<?>> values = new HashMap<>();
+        values.put(name, integerValue(SIZE, 2));
+        assertThrows(IllegalArgumentException.class, () -> settingsService.changeSettings(values));
+        values.put(name, null);
+        settingsService.changeSettings(values);
+        assertThat(dao.saved, is(0));
+    }
+
+    @Test
+    public void shouldRejectInvalidSettingMethods() {
+        assertThrows(ConfigurationError.class, () -> settingsService.configure(new InvalidBean()));
+    }
+
+    @Test
+    public void shouldInjectNullIntoOptionalReferenceSettings() {
+        dao.deleteSettingValue(NAME);
+        dao.saveSettingValue(stringValue(NAME, null));
+        Bean bean = new Bean();
+        settingsService.configure(bean);
+        assertThat(bean.name, is(nullValue()));
+    }
+
+    private static SettingValue<String> stringValue(String key, String value) {
+        StringSettingValueForTesting settingValue = new StringSettingValueForTesting();
+        settingValue.setKey(key);
+        settingValue.setValue(value);
+        return settingValue;
+    }
+
+    private static SettingValue<Integer> integerValue(String key, Integer value) {
+        IntegerSettingValueForTesting settingValue = new IntegerSettingValueForTesting();
+        settingValue.setKey(key);
+        settingValue.setValue(value);
+        return settingValue;
+    }
+
+    @Configurable
+    public static class Bean {
+        private String name;
+        private int size;
+
+        @Setting(NAME)
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        @Setting(SIZE)
+        public void setSize(int size) {
+            if (size < 0) {
+                throw new IllegalArgumentException("size");
+            }
+            this.size = size;
+        }
+    }
+
+    @Configurable
+    public static class InvalidBean {
+        @Setting(NAME)
+        public void setName(String name, String other) {
+        }
+    }
+
+    private static class InMemorySettingsDao implements SettingsDao {
+        private final Map<String, SettingValue<?>> values = new HashMap<>();
+        private int saved;
+
+        @Override
+        public Set<SettingValue<?>> getSettingValues() {
+            return new HashSet<>(values.values());
+        }
+
+        @Override
+        public SettingValue<?> getSettingValue(String key) {
+            return values.get(key);
+        }
+
+        @Override
+        public void deleteSettingValue(String key) {
+            values.remove(key);
+        }
+
+        @Override
+        public void saveSettingValue(SettingValue<?> setting) {
+            saveSettingValues(Arrays.asList(setting));
+        }
+
+        @Override
+        public void saveSettingValues(Collection<SettingValue<?>> settings) {
+            settings.forEach(setting -> values.put(setting.getKey(), setting));
+            ++saved;
+        }
+
+        @Override
+        public void deleteAll() {
+            values.clear();
+        }
+    }
+}
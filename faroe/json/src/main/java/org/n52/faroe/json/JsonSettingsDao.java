@@ -15,6 +15,8 @@
  */
 package org.n52.faroe.json;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.Set;
 
@@ -92,14 +94,21 @@ public class JsonSettingsDao extends AbstractJsonDao implements SettingsDao {
 
     @Override
     public void saveSettingValue(SettingValue<?> value) {
+        saveSettingValues(Collections.singleton(value));
+    }
+
+    @Override
+    public void saveSettingValues(Collection<SettingValue<?>> values) {
         writeLock().lock();
         try {
             ObjectNode settings = getConfiguration().with(JSONSettingConstants.SETTINGS_KEY);
-            JsonNode node = settings.path(value.getKey());
-            ObjectNode settingNode = (ObjectNode) Optional.ofNullable(node.isObject() ? node : null)
-                    .orElseGet(() -> settings.putObject(value.getKey()));
-            settingNode.put(JSONSettingConstants.TYPE_KEY, value.getType().toString());
-            settingNode.set(JSONSettingConstants.VALUE_KEY, getSettingsEncoder().encodeValue(value));
+            values.forEach(value -> {
+                JsonNode node = settings.path(value.getKey());
+                ObjectNode settingNode = (ObjectNode) Optional.ofNullable(node.isObject() ? node : null)
+                        .orElseGet(() -> settings.putObject(value.getKey()));
+                settingNode.put(JSONSettingConstants.TYPE_KEY, value.getType().toString());
+                settingNode.set(JSONSettingConstants.VALUE_KEY, getSettingsEncoder().encodeValue(value));
+            });
         } finally {
             writeLock().unlock();
         }
@@ -42,6 +42,7 @@ import org.n52.shetland.ogc.ows.exception.MissingParameterValueException;
 import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.shetland.ogc.ows.service.OwsOperationKey;
+import org.n52.shetland.ogc.ows.service.RequestTimings;
 import org.n52.shetland.util.StringHelper;
 import org.n52.shetland.w3c.W3CConstants;
 import org.n52.svalbard.decode.Decoder;
@@ -76,12 +77,17 @@ public abstract class AbstractXmlBinding<T> extends SimpleBinding {
     }
 
     protected T decode(HttpServletRequest request) throws OwsExceptionReport {
+        RequestTimings timings = getRequestTimings(request);
         String characterEncoding = getCharacterEncoding(request);
+        long start = timings.start();
         String xmlString = xmlToString(request, characterEncoding);
+        timings.stop(RequestTimings.Phase.READ, start);
         LOGGER.debug("XML-REQUEST: {}", xmlString);
+        start = timings.start();
         DecoderKey key = getDecoderKey(xmlString, characterEncoding);
         LOGGER.trace("Found decoder key: {}", key);
         Decoder<T, String> decoder = getDecoder(key);
+        timings.stop(RequestTimings.Phase.DECODER_LOOKUP, start);
         if (decoder == null) {
             // the service or version parameter is not set or not supported
             Optional<String> service = Optional.empty();
@@ -114,12 +120,15 @@ public abstract class AbstractXmlBinding<T> extends SimpleBinding {
         } else {
             LOGGER.trace("Using decoder: {}", decoder);
         }
+        start = timings.start();
         try {
             return decoder.decode(xmlString);
         } catch (OwsDecodingException ex) {
             throw ex.getCause();
         } catch (DecodingException ex) {
             throw new NoApplicableCodeException().withMessage(ex.getMessage()).causedBy(ex);
+        } finally {
+            timings.stop(RequestTimings.Phase.DECODE, start);
         }
     }
 
@@ -18,6 +18,7 @@ package org.n52.iceland.binding;
 import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 
 import javax.inject.Inject;
@@ -36,6 +37,7 @@ import org.n52.iceland.exception.ows.concrete.InvalidAcceptVersionsParameterExce
 import org.n52.iceland.exception.ows.concrete.InvalidServiceOrVersionException;
 import org.n52.iceland.exception.ows.concrete.InvalidServiceParameterException;
 import org.n52.iceland.exception.ows.concrete.VersionNotSupportedException;
+import org.n52.iceland.service.AdmissionController;
 import org.n52.iceland.service.operator.ServiceOperator;
 import org.n52.iceland.service.operator.ServiceOperatorRepository;
 import org.n52.iceland.util.http.HttpUtils;
@@ -54,6 +56,7 @@ import org.n52.shetland.ogc.ows.service.OwsServiceKey;
 import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
 import org.n52.shetland.ogc.ows.service.OwsServiceRequestContext;
 import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+import org.n52.shetland.ogc.ows.service.RequestTimings;
 import org.n52.svalbard.decode.Decoder;
 import org.n52.svalbard.decode.DecoderKey;
 import org.n52.svalbard.decode.DecoderRepository;
@@ -66,6 +69,10 @@ import org.n52.svalbard.encode.OperationResponseEncoderKey;
 import org.n52.svalbard.encode.exception.EncodingException;
 import org.n52.svalbard.encode.exception.NoEncoderForKeyException;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
 /**
  * TODO JavaDoc
  *
@@ -76,12 +83,16 @@ import org.n52.svalbard.encode.exception.NoEncoderForKeyException;
 public abstract class SimpleBinding implements Binding {
     private static final String HTTP_MEDIA_TYPE_QUALITY_PARAM = "q";
     private static final Logger LOG = LoggerFactory.getLogger(SimpleBinding.class);
+    private static final int NEGOTIATION_CACHE_SIZE = 1000;
+    private final Cache<NegotiationKey, Optional<MediaType>> negotiatedContentTypes = CacheBuilder.newBuilder()
+            .maximumSize(NEGOTIATION_CACHE_SIZE).build();
 
     private EventBus eventBus;
     private ServiceOperatorRepository serviceOperatorRepository;
     private EncoderRepository encoderRepository;
     private DecoderRepository decoderRepository;
     private HttpUtils httpUtils;
+    private AdmissionController admissionController;
 
     @SuppressFBWarnings({ "EI_EXPOSE_REP" })
     public HttpUtils getHttpUtils() {
@@ -134,6 +145,17 @@ public abstract class SimpleBinding implements Binding {
         return decoderRepository;
     }
 
+    @Inject
+    @SuppressFBWarnings({"EI_EXPOSE_REP2"})
+    public void setAdmissionController(Optional<AdmissionController> admissionController) {
+        this.admissionController = admissionController.orElse(null);
+    }
+
+    @SuppressFBWarnings({"EI_EXPOSE_REP"})
+    public AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
     @Override
     public Object handleEncodingException(HttpServletRequest request,
                                           HttpServletResponse response,
@@ -166,6 +188,10 @@ public abstract class SimpleBinding implements Binding {
         return OwsServiceRequestContext.fromRequest(req);
     }
 
+    protected RequestTimings getRequestTimings(HttpServletRequest req) {
+        return RequestTimings.fromRequest(req);
+    }
+
     protected boolean isVersionSupported(String service, String acceptVersion) {
         return getServiceOperatorRepository().isVersionSupported(service, acceptVersion);
     }
@@ -214,16 +240,16 @@ public abstract class SimpleBinding implements Binding {
          */
         if (!acceptHeader.isEmpty()) {
             if (!response.isSetContentType()) {
-                for (MediaType mt : acceptHeader) {
-                    MediaType mediaType = mt.withoutParameter(HTTP_MEDIA_TYPE_QUALITY_PARAM);
-                    if (defaultContentType.isCompatible(mediaType)) {
-                        return defaultContentType;
-                    } else if (hasEncoder(response, mediaType)) {
-                        return mediaType;
-                    }
+                // the result only depends on the operation, the header and the encoders, so it is negotiated once
+                NegotiationKey key = new NegotiationKey(new OwsOperationKey(response), acceptHeader,
+                                                        defaultContentType, encoderRepository.getGeneration());
+                Optional<MediaType> contentType = negotiatedContentTypes.getIfPresent(key);
+                if (contentType == null) {
+                    contentType = negotiateContentType(key);
+                    negotiatedContentTypes.put(key.withImmutableAcceptHeader(), contentType);
                 }
                 // no encoder for any accept header content type
-                throw new HTTPException(HTTPStatus.NOT_ACCEPTABLE);
+                return contentType.orElseThrow(() -> new HTTPException(HTTPStatus.NOT_ACCEPTABLE));
             } else {
                 for (MediaType mt : acceptHeader) {
                     MediaType mediaType = mt.withoutParameter(HTTP_MEDIA_TYPE_QUALITY_PARAM);
@@ -248,6 +274,18 @@ public abstract class SimpleBinding implements Binding {
         }
     }
 
+    private Optional<MediaType> negotiateContentType(NegotiationKey key) {
+        for (MediaType mt : key.acceptHeader) {
+            MediaType mediaType = mt.withoutParameter(HTTP_MEDIA_TYPE_QUALITY_PARAM);
+            if (key.defaultContentType.isCompatible(mediaType)) {
+                return Optional.of(key.defaultContentType);
+            } else if (hasEncoder(key.operation, mediaType)) {
+                return Optional.of(mediaType);
+            }
+        }
+        return Optional.empty();
+    }
+
     protected MediaType chooseResponseContentTypeForExceptionReport(List<MediaType> acceptHeader,
                                                                     MediaType defaultContentType) throws HTTPException {
         /*
@@ -313,6 +351,55 @@ public abstract class SimpleBinding implements Binding {
         }
     }
 
+    /**
+     * Processes the request and writes the response while holding a permit of the {@link AdmissionController}.
+     *
+     * @param request        the HTTP request
+     * @param response       the HTTP response
+     * @param serviceRequest the decoded request
+     *
+     * @throws OwsExceptionReport if the request could not be processed
+     * @throws HTTPException      if the request was rejected or the response could not be written
+     * @throws IOException        if the response could not be written
+     */
+    protected void processRequest(HttpServletRequest request,
+                                  HttpServletResponse response,
+                                  OwsServiceRequest serviceRequest)
+            throws OwsExceptionReport, HTTPException, IOException {
+        ServiceOperator operator = getServiceOperator(serviceRequest);
+        AdmissionController.Permit permit = admit(response, serviceRequest);
+        try {
+            writeResponse(request, response, operator.receiveRequest(serviceRequest));
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * Acquires a permit to process the request from the {@link AdmissionController}. The permit has to be closed
+     * after the response was written.
+     *
+     * @param response       the HTTP response
+     * @param serviceRequest the decoded request
+     *
+     * @return the permit
+     *
+     * @throws HTTPException with status {@code 503} and a {@code Retry-After} header if the request was rejected
+     */
+    protected AdmissionController.Permit admit(HttpServletResponse response, OwsServiceRequest serviceRequest)
+            throws HTTPException {
+        if (admissionController == null) {
+            return () -> { };
+        }
+        Optional<AdmissionController.Permit> permit
+                = admissionController.admit(getClass().getSimpleName(), new OwsOperationKey(serviceRequest));
+        if (!permit.isPresent()) {
+            response.setHeader(HTTPHeaders.RETRY_AFTER, Integer.toString(admissionController.getRetryAfter()));
+            throw new HTTPException(HTTPStatus.SERVICE_UNAVAILABLE);
+        }
+        return permit.get();
+    }
+
     protected void writeResponse(HttpServletRequest request,
                                  HttpServletResponse response,
                                  OwsServiceResponse serviceResponse) throws HTTPException, IOException {
@@ -378,4 +465,41 @@ public abstract class SimpleBinding implements Binding {
             throw new NoApplicableCodeException().withMessage(ex.getMessage()).causedBy(ex);
         }
     }
-}
\ No newline at end of file
+
+    private static final class NegotiationKey {
+        private final OwsOperationKey operation;
+        private final List<MediaType> acceptHeader;
+        private final MediaType defaultContentType;
+        private final long encoderGeneration;
+
+        NegotiationKey(OwsOperationKey operation, List<MediaType> acceptHeader, MediaType defaultContentType,
+                       long encoderGeneration) {
+            this.operation = operation;
+            this.acceptHeader = acceptHeader;
+            this.defaultContentType = defaultContentType;
+            this.encoderGeneration = encoderGeneration;
+        }
+
+        NegotiationKey withImmutableAcceptHeader() {
+            return new NegotiationKey(operation, ImmutableList.copyOf(acceptHeader), defaultContentType,
+                                      encoderGeneration);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(operation, acceptHeader, defaultContentType, encoderGeneration);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof NegotiationKey)) {
+                return false;
+            }
+            NegotiationKey that = (NegotiationKey) obj;
+            return encoderGeneration == that.encoderGeneration &&
+                   Objects.equals(operation, that.operation) &&
+                   Objects.equals(acceptHeader, that.acceptHeader) &&
+                   Objects.equals(defaultContentType, that.defaultContentType);
+        }
+    }
+}
@@ -15,24 +15,18 @@
  */
 package org.n52.iceland.binding.exi;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Set;
 
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.sax.SAXSource;
-import javax.xml.transform.stream.StreamResult;
 
+import org.apache.xmlbeans.XmlException;
 import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlSaxHandler;
 import org.n52.iceland.binding.BindingKey;
 import org.n52.iceland.binding.MediaTypeBindingKey;
 import org.n52.iceland.binding.SimpleBinding;
@@ -45,21 +39,18 @@ import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.shetland.ogc.ows.service.OwsOperationKey;
 import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
-import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+import org.n52.shetland.ogc.ows.service.RequestTimings;
 import org.n52.svalbard.decode.Decoder;
 import org.n52.svalbard.decode.exception.DecodingException;
 import org.n52.svalbard.util.CodingHelper;
-import org.n52.svalbard.util.XmlHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.InputSource;
-import org.xml.sax.SAXNotRecognizedException;
-import org.xml.sax.SAXNotSupportedException;
+import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
+import org.xml.sax.ext.LexicalHandler;
 
-import com.siemens.ct.exi.core.EXIFactory;
 import com.siemens.ct.exi.core.exceptions.EXIException;
-import com.siemens.ct.exi.main.api.sax.EXISource;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
@@ -76,6 +67,7 @@ public class EXIBinding extends SimpleBinding {
     private static final Logger LOGGER = LoggerFactory.getLogger(EXIBinding.class);
     private static final Set<BindingKey> KEYS =
             Collections.singleton(new MediaTypeBindingKey(MediaTypes.APPLICATION_EXI));
+    private static final String LEXICAL_HANDLER = "http://xml.org/sax/properties/lexical-handler";
     private final EXIUtils exiUtils;
 
     @Inject
@@ -106,8 +98,7 @@ public class EXIBinding extends SimpleBinding {
         OwsServiceRequest sosRequest = null;
         try {
             sosRequest = parseRequest(req);
-            OwsServiceResponse sosResponse = getServiceOperator(sosRequest).receiveRequest(sosRequest);
-            writeResponse(req, res, sosResponse);
+            processRequest(req, res, sosRequest);
         } catch (OwsExceptionReport oer) {
             oer.setVersion(sosRequest != null ? sosRequest.getVersion() : null);
             writeOwsExceptionReport(req, res, oer);
@@ -126,11 +117,17 @@ public class EXIBinding extends SimpleBinding {
      */
     protected OwsServiceRequest parseRequest(HttpServletRequest request)
             throws OwsExceptionReport {
+        RequestTimings timings = getRequestTimings(request);
+        long start = timings.start();
         XmlObject doc = decode(request);
+        timings.stop(RequestTimings.Phase.READ, start);
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("EXI-REQUEST: {}", doc.xmlText());
         }
+        start = timings.start();
         Decoder<OwsServiceRequest, XmlObject> decoder = getDecoder(CodingHelper.getDecoderKey(doc));
+        timings.stop(RequestTimings.Phase.DECODER_LOOKUP, start);
+        start = timings.start();
         try {
             return decoder.decode(doc).setRequestContext(getRequestContext(request));
         } catch (OwsDecodingException ex) {
@@ -138,12 +135,14 @@ public class EXIBinding extends SimpleBinding {
         } catch (DecodingException ex) {
             throw new InvalidParameterValueException().withMessage(ex.getMessage()).causedBy(ex)
                     .at(ex.getLocation().orElse(null));
+        } finally {
+            timings.stop(RequestTimings.Phase.DECODE, start);
         }
     }
 
     /**
-     * Parse the incoming EXI encoded {@link InputStream} transform to
-     * {@link XmlObject}
+     * Parse the incoming EXI encoded {@link InputStream} to an {@link XmlObject}. The SAX events of the EXI decoder
+     * are passed directly to XmlBeans, without creating an intermediate XML document.
      *
      * @param request
      *            {@link HttpServletRequest} with EXI encoded
@@ -155,36 +154,21 @@ public class EXIBinding extends SimpleBinding {
      */
     protected XmlObject decode(HttpServletRequest request)
             throws OwsExceptionReport {
-        try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
-
-            EXIFactory ef = this.exiUtils.newEXIFactory();
-
-            TransformerFactory tf = TransformerFactory.newInstance();
-            Transformer transformer = tf.newTransformer();
-            if (ef.isFragment()) {
-                transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-            }
-            transformer.setOutputProperty(OutputKeys.METHOD, "xml");
-            transformer.setOutputProperty(OutputKeys.ENCODING, StandardCharsets.UTF_8.name());
-            // decode EXI encoded InputStream
-            EXISource exiSource = new EXISource(ef);
-            XMLReader exiReader = exiSource.getXMLReader();
-            exiReader.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        // decode EXI encoded InputStream using a pooled reader
+        try (EXIUtils.Lease<XMLReader> lease = this.exiUtils.borrowReader()) {
+            XmlSaxHandler handler = XmlObject.Factory.newXmlSaxHandler();
+            XMLReader exiReader = lease.get();
+            exiReader.setContentHandler(handler.getContentHandler());
+            exiReader.setProperty(LEXICAL_HANDLER, new DoctypeRejectingLexicalHandler(handler.getLexicalHandler()));
             InputSource inputSource = new InputSource(request.getInputStream());
             inputSource.setEncoding(request.getCharacterEncoding());
-            SAXSource saxSource = new SAXSource(inputSource);
-            saxSource.setXMLReader(exiReader);
-            transformer.transform(saxSource, new StreamResult(os));
-
-            // create XmlObject from OutputStream
-            return XmlHelper.parseXmlString(os.toString(StandardCharsets.UTF_8.name()));
-        } catch (IOException | EXIException | SAXNotRecognizedException | SAXNotSupportedException ex) {
+            exiReader.parse(inputSource);
+            lease.complete();
+            return handler.getObject();
+        } catch (IOException | EXIException ex) {
             throw new NoApplicableCodeException().causedBy(ex).withMessage("Error while reading request! Message: %s",
                     ex.getMessage());
-        } catch (TransformerException ex) {
-            throw new NoApplicableCodeException().causedBy(ex)
-                    .withMessage("Error while transforming request! Message: %s", ex.getMessage());
-        } catch (DecodingException ex) {
+        } catch (SAXException | XmlException ex) {
             throw new NoApplicableCodeException().causedBy(ex).withMessage("Error while parsing request! Message: %s",
                     ex.getMessage());
         }
@@ -194,4 +178,51 @@ public class EXIBinding extends SimpleBinding {
     public Set<BindingKey> getKeys() {
         return Collections.unmodifiableSet(KEYS);
     }
+
+    /**
+     * The EXI reader does not support the {@code disallow-doctype-decl} feature, so document type declarations, which
+     * are only reported if the DTD fidelity option is enabled, are rejected here.
+     */
+    private static class DoctypeRejectingLexicalHandler implements LexicalHandler {
+        private final LexicalHandler delegate;
+
+        DoctypeRejectingLexicalHandler(LexicalHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void startDTD(String name, String publicId, String systemId) throws SAXException {
+            throw new SAXException("DOCTYPE is disallowed");
+        }
+
+        @Override
+        public void endDTD() throws SAXException {
+            delegate.endDTD();
+        }
+
+        @Override
+        public void startEntity(String name) throws SAXException {
+            delegate.startEntity(name);
+        }
+
+        @Override
+        public void endEntity(String name) throws SAXException {
+            delegate.endEntity(name);
+        }
+
+        @Override
+        public void startCDATA() throws SAXException {
+            delegate.startCDATA();
+        }
+
+        @Override
+        public void endCDATA() throws SAXException {
+            delegate.endCDATA();
+        }
+
+        @Override
+        public void comment(char[] ch, int start, int length) throws SAXException {
+            delegate.comment(ch, start, length);
+        }
+    }
 }
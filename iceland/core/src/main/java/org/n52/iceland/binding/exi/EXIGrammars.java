@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.binding.exi;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.stream.StreamResult;
+
+import com.siemens.ct.exi.core.exceptions.EXIException;
+import com.siemens.ct.exi.core.grammars.Grammars;
+import com.siemens.ct.exi.core.grammars.SchemaInformedGrammars;
+import com.siemens.ct.exi.grammars.GrammarFactory;
+import com.siemens.ct.exi.grammars.persistency.Grammars2X;
+
+/**
+ * Reads and writes snapshots of compiled schema informed EXI {@link Grammars}. Loading a snapshot avoids fetching
+ * and compiling the XML schemas at startup. Snapshots can be created at build time using the {@link #main(String[])}
+ * method, e.g. with the {@code exec-maven-plugin}, and put on the class path as
+ * {@value #CLASSPATH_PREFIX}{@code <name>}{@value #SUFFIX}.
+ *
+ * @since 9.9.0
+ */
+public final class EXIGrammars {
+    public static final String CLASSPATH_PREFIX = "META-INF/exi/";
+    public static final String SUFFIX = ".exig";
+
+    private EXIGrammars() {
+    }
+
+    /**
+     * Compiles the grammars of an XML schema.
+     *
+     * @param schemaLocation the schema location
+     *
+     * @return the grammars
+     *
+     * @throws EXIException if the schema can not be compiled
+     */
+    public static Grammars compile(String schemaLocation) throws EXIException {
+        return GrammarFactory.newInstance().createGrammars(schemaLocation);
+    }
+
+    /**
+     * Reads a snapshot.
+     *
+     * @param in the stream to read from
+     *
+     * @return the grammars
+     *
+     * @throws EXIException if the snapshot can not be read
+     */
+    public static Grammars read(InputStream in) throws EXIException {
+        try {
+            return Grammars2X.toGrammars(Grammars2X.unmarshal(new BufferedInputStream(in)));
+        } catch (JAXBException e) {
+            throw new EXIException("Could not read grammar snapshot", e);
+        }
+    }
+
+    /**
+     * Writes a snapshot of schema informed grammars.
+     *
+     * @param grammars the grammars
+     * @param out      the stream to write to
+     *
+     * @throws EXIException if the grammars are not schema informed or can not be written
+     */
+    public static void write(Grammars grammars, OutputStream out) throws EXIException {
+        if (!(grammars instanceof SchemaInformedGrammars)) {
+            throw new EXIException("Only schema informed grammars can be written");
+        }
+        try {
+            OutputStream buffered = new BufferedOutputStream(out);
+            Grammars2X.marshal(new Grammars2X().toGrammarsX((SchemaInformedGrammars) grammars),
+                               new StreamResult(buffered));
+            buffered.flush();
+        } catch (JAXBException | IOException | ParserConfigurationException | DatatypeConfigurationException e) {
+            throw new EXIException("Could not write grammar snapshot", e);
+        }
+    }
+
+    /**
+     * Writes a snapshot of schema informed grammars to a file.
+     *
+     * @param grammars the grammars
+     * @param file     the file
+     *
+     * @throws EXIException if the grammars are not schema informed or can not be written
+     * @throws IOException  if the file can not be written
+     */
+    public static void write(Grammars grammars, Path file) throws EXIException, IOException {
+        Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), null);
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                write(grammars, out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Compiles the schema and writes the snapshot.
+     *
+     * @param args the schema location and the output file
+     *
+     * @throws EXIException if the schema can not be compiled or the snapshot can not be written
+     * @throws IOException  if the snapshot can not be written
+     */
+    public static void main(String[] args) throws EXIException, IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("usage: EXIGrammars <schema location> <output file>");
+        }
+        Path file = Paths.get(args[1]);
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        write(compile(args[0]), file);
+    }
+}
@@ -41,4 +41,6 @@ public interface EXISettings {
     String EXI_GRAMMAR_SCHEMA = "exi.grammar.schema";
     String EXI_GRAMMAR_SCHEMA_SOS_10 = "exi.grammar.schema.sos.10";
     String EXI_GRAMMAR_SCHEMA_SOS_20 = "exi.grammar.schema.sos.20";
+    String EXI_GRAMMAR_SNAPSHOT_DIRECTORY = "exi.grammar.snapshot.directory";
+    String EXI_POOL_SIZE = "exi.pool.size";
 }
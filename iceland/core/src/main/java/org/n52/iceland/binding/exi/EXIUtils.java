@@ -15,6 +15,20 @@
  */
 package org.n52.iceland.binding.exi;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.n52.faroe.Validation;
 import org.n52.faroe.annotation.Configurable;
 import org.n52.faroe.annotation.Setting;
@@ -24,7 +38,11 @@ import org.n52.shetland.ogc.sos.Sos1Constants;
 import org.n52.shetland.ogc.sos.Sos2Constants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.ext.DefaultHandler2;
 
+import com.google.common.io.ByteStreams;
 import com.siemens.ct.exi.core.CodingMode;
 import com.siemens.ct.exi.core.EXIFactory;
 import com.siemens.ct.exi.core.FidelityOptions;
@@ -33,10 +51,18 @@ import com.siemens.ct.exi.core.exceptions.UnsupportedOption;
 import com.siemens.ct.exi.core.grammars.Grammars;
 import com.siemens.ct.exi.core.helpers.DefaultEXIFactory;
 import com.siemens.ct.exi.grammars.GrammarFactory;
+import com.siemens.ct.exi.main.api.sax.EXIResult;
+import com.siemens.ct.exi.main.api.sax.EXISource;
+import com.siemens.ct.exi.main.helpers.DefaultSchemaIdResolver;
 
 
 /**
- * TODO JavaDoc
+ * Provides the {@link EXIFactory} and EXI readers and writers configured according the service configuration.
+ * <p>
+ * The grammars of the SOS schemas are loaded once and are read from snapshots (see {@link EXIGrammars}) in
+ * {@value EXISettings#EXI_GRAMMAR_SNAPSHOT_DIRECTORY} or on the class path if available. The {@link EXIFactory} and
+ * pools of EXI readers and writers are created once per configuration and are replaced as a whole if the
+ * configuration changes.
  *
  * @author <a href="mailto:e.h.juerrens@52north.org">Eike Hinderk
  *         J&uuml;rrens</a>
@@ -46,6 +72,11 @@ import com.siemens.ct.exi.grammars.GrammarFactory;
 public class EXIUtils
         implements Constructable, Producer<EXIFactory> {
     private static final Logger LOGGER = LoggerFactory.getLogger(EXIUtils.class);
+    private static final String LEXICAL_HANDLER = "http://xml.org/sax/properties/lexical-handler";
+    private static final String GRAMMAR_SOS_20 = "sos-2.0";
+    private static final String GRAMMAR_SOS_10 = "sos-1.0.0";
+    private static final String GRAMMAR_BASE_TYPES = "xsd-types";
+    private static final int DEFAULT_POOL_SIZE = 16;
     private boolean isSchemaLessGrammar;
     private boolean isXSBaseTypeGrammar;
     private boolean isSOS20Schema;
@@ -60,56 +91,49 @@ public class EXIUtils
     private boolean preserveLexicalValue;
     private final GrammarFactory grammarFactory = GrammarFactory.newInstance();
     private final Grammars grammarSchemaLess = grammarFactory.createSchemaLessGrammars();
-    private Grammars grammarSos20;
-    private Grammars grammarSos10;
-    private Grammars grammarBaseTypes;
+    private final ConcurrentMap<String, Grammars> grammars = new ConcurrentHashMap<>();
+    private final AtomicReference<Pool> pool = new AtomicReference<>();
+    private final AtomicLong generation = new AtomicLong();
+    private File snapshotDirectory;
+    private int poolSize = DEFAULT_POOL_SIZE;
 
     @Override
     public void init() {
-        // FIXME isSchemaLessGrammar can be set during runtime. if that's the
-        // case the SOS1/2 grammes won't be loaded
-        try {
-            // Pre-load Grammars from URL to save time
-            // TODO does this result in any race conditions?
-            if (!isSchemaLessGrammar()) {
-                if (isXSBaseTypeGrammar()) {
-                    grammarBaseTypes = grammarFactory.createXSDTypesOnlyGrammars();
-                } else if (isSOS10Schema()) {
-                    grammarSos10 = grammarFactory.createGrammars(Sos1Constants.SCHEMA_LOCATION_SOS);
-                } else if (isSOS20Schema()) {
-                    grammarSos20 = grammarFactory.createGrammars(Sos2Constants.SCHEMA_LOCATION_URL_SOS);
-                }
-            }
-
-        } catch (EXIException e) {
-            LOGGER.error("Could not load XSD schema for EXI binding. "
-                    + "Using default schema less grammar. Please update your settings.", e);
-        }
+        invalidate();
+        // Pre-load the grammars to save time
+        long start = System.nanoTime();
+        getGrammars();
+        LOGGER.info("Loaded EXI grammars in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
     }
 
     @Setting(EXISettings.EXI_FIDELITY_LEXICAL_VALUE)
     public void setFidelityLexicalValue(boolean preserveLexicalValue) {
         this.preserveLexicalValue = preserveLexicalValue;
+        invalidate();
     }
 
     @Setting(EXISettings.EXI_FIDELITY_PREFIXES)
     public void setFidelityPrefixes(boolean preservePrefixes) {
         this.preservePrefixes = preservePrefixes;
+        invalidate();
     }
 
     @Setting(EXISettings.EXI_FIDELITY_DTD)
     public void setFidelityDTD(boolean preserveDTD) {
         this.preserveDTD = preserveDTD;
+        invalidate();
     }
 
     @Setting(EXISettings.EXI_FIDELITY_PROCESSING_INSTRUCTIONS)
     public void setFidelityProcessingInstructions(boolean preserveProcessingInstructions) {
         this.preserveProcessingInstructions = preserveProcessingInstructions;
+        invalidate();
     }
 
     @Setting(EXISettings.EXI_FIDELITY_COMMENTS)
     public void setFidelityComments(boolean preserveComments) {
         this.preserveComments = preserveComments;
+        invalidate();
     }
 
     @Setting(EXISettings.EXI_FIDELITY)
@@ -120,12 +144,14 @@ public class EXIUtils
         } else if (fidelity.equalsIgnoreCase(EXISettings.EXI_FIDELITY_DEFAULT)) {
             this.isDefault = true;
         }
+        invalidate();
     }
 
     @Setting(EXISettings.EXI_ALIGNMENT)
     public void setCodingMode(String codingMode) {
         Validation.notNullOrEmpty(EXISettings.EXI_ALIGNMENT, codingMode);
         this.alignment = CodingMode.valueOf(codingMode);
+        invalidate();
     }
 
     @Setting(EXISettings.EXI_GRAMMAR)
@@ -136,6 +162,7 @@ public class EXIUtils
         } else if (grammar.equalsIgnoreCase(EXISettings.EXI_GRAMMAR_BASETYPES)) {
             setXSBaseTypeGrammar(true);
         }
+        invalidate();
     }
 
     @Setting(EXISettings.EXI_GRAMMAR_SCHEMA)
@@ -146,6 +173,19 @@ public class EXIUtils
         } else if (grammarSchema.equalsIgnoreCase(EXISettings.EXI_GRAMMAR_SCHEMA_SOS_10)) {
             setSOS10Schema(true);
         }
+        invalidate();
+    }
+
+    @Setting(value = EXISettings.EXI_GRAMMAR_SNAPSHOT_DIRECTORY, required = false)
+    public void setSnapshotDirectory(File snapshotDirectory) {
+        this.snapshotDirectory = snapshotDirectory;
+    }
+
+    @Setting(value = EXISettings.EXI_POOL_SIZE, required = false)
+    public void setPoolSize(Integer poolSize) {
+        this.poolSize = poolSize == null ? DEFAULT_POOL_SIZE
+                : Validation.greaterEqualZero(EXISettings.EXI_POOL_SIZE, poolSize);
+        invalidate();
     }
 
     @Override
@@ -157,6 +197,81 @@ public class EXIUtils
         }
     }
 
+    /**
+     * Get the shared {@link EXIFactory} configured according the service configuration. The factory is created once
+     * per configuration and must not be modified, so that it can be used concurrently to create EXI readers and
+     * writers.
+     *
+     * @return the shared {@link EXIFactory}
+     *
+     * @throws UnsupportedOption
+     *             if one of the fidelity options is not supported.
+     */
+    public EXIFactory getEXIFactory()
+            throws UnsupportedOption {
+        return getPool().factory;
+    }
+
+    /**
+     * Borrows an EXI decoding {@link XMLReader} of the current configuration. The reader is returned to the pool if
+     * the lease is {@linkplain Lease#complete() completed} before it is closed.
+     *
+     * @return the lease of the reader
+     *
+     * @throws EXIException
+     *             if the reader can not be created
+     */
+    public Lease<XMLReader> borrowReader() throws EXIException {
+        Pool p = getPool();
+        XMLReader reader = p.readers == null ? null : p.readers.poll();
+        if (reader == null) {
+            reader = new EXISource(p.factory).getXMLReader();
+        }
+        return new Lease<>(reader, p.readers, EXIUtils::reset);
+    }
+
+    /**
+     * Borrows an {@link EXIResult} of the current configuration. The result is returned to the pool if the lease is
+     * {@linkplain Lease#complete() completed} before it is closed.
+     *
+     * @return the lease of the result
+     *
+     * @throws EXIException
+     *             if the result can not be created
+     */
+    public Lease<EXIResult> borrowResult() throws EXIException {
+        Pool p = getPool();
+        EXIResult result = p.results == null ? null : p.results.poll();
+        if (result == null) {
+            result = new EXIResult(p.factory);
+        }
+        return new Lease<>(result, p.results, EXIUtils::reset);
+    }
+
+    private Pool getPool() throws UnsupportedOption {
+        while (true) {
+            Pool p = this.pool.get();
+            // read the generation before the configuration, so that a concurrent change is detected
+            long current = this.generation.get();
+            if (p != null && p.generation == current) {
+                return p;
+            }
+            EXIFactory factory = newEXIFactory();
+            // the SAX decoder would otherwise set it lazily on the shared instance
+            factory.setSchemaIdResolver(new DefaultSchemaIdResolver());
+            Pool created = new Pool(factory, poolSize, current);
+            if (this.pool.compareAndSet(p, created) && this.generation.get() == current) {
+                return created;
+            }
+        }
+    }
+
+    private void invalidate() {
+        // called after the changed setting is assigned
+        this.generation.incrementAndGet();
+        this.pool.set(null);
+    }
+
     /**
      * @return An {@link EXIFactory} instance configured according the service
      *         configuration.
@@ -206,17 +321,77 @@ public class EXIUtils
         if (isSchemaLessGrammar()) {
             return grammarSchemaLess;
         } else if (isXSBaseTypeGrammar()) {
-            return grammarBaseTypes;
+            return grammars.computeIfAbsent(GRAMMAR_BASE_TYPES, name -> load(name, null));
         } else if (isSOS20Schema()) {
-            return grammarSos20;
+            return grammars.computeIfAbsent(GRAMMAR_SOS_20, name -> load(name, Sos2Constants.SCHEMA_LOCATION_URL_SOS));
         } else if (isSOS10Schema()) {
-            return grammarSos10;
+            return grammars.computeIfAbsent(GRAMMAR_SOS_10, name -> load(name, Sos1Constants.SCHEMA_LOCATION_SOS));
         } else {
             // default to schema less grammar
             return grammarSchemaLess;
         }
     }
 
+    private Grammars load(String name, String schemaLocation) {
+        try {
+            if (schemaLocation == null) {
+                return grammarFactory.createXSDTypesOnlyGrammars();
+            }
+            Path snapshot = snapshotDirectory == null ? null
+                    : snapshotDirectory.toPath().resolve(name + EXIGrammars.SUFFIX);
+            if (snapshot != null && Files.isReadable(snapshot)) {
+                try (InputStream in = Files.newInputStream(snapshot)) {
+                    LOGGER.debug("Loading EXI grammars from {}", snapshot);
+                    return EXIGrammars.read(in);
+                }
+            }
+            InputStream resource = EXIUtils.class.getClassLoader()
+                    .getResourceAsStream(EXIGrammars.CLASSPATH_PREFIX + name + EXIGrammars.SUFFIX);
+            if (resource != null) {
+                try (InputStream in = resource) {
+                    LOGGER.debug("Loading EXI grammars {} from the class path", name);
+                    return EXIGrammars.read(in);
+                }
+            }
+            Grammars compiled = EXIGrammars.compile(schemaLocation);
+            if (snapshot != null) {
+                try {
+                    Files.createDirectories(snapshotDirectory.toPath());
+                    EXIGrammars.write(compiled, snapshot);
+                } catch (IOException | EXIException e) {
+                    LOGGER.warn("Could not write EXI grammar snapshot {}", snapshot, e);
+                }
+            }
+            return compiled;
+        } catch (IOException | EXIException e) {
+            LOGGER.error("Could not load XSD schema for EXI binding. "
+                    + "Using default schema less grammar. Please update your settings.", e);
+            return grammarSchemaLess;
+        }
+    }
+
+    private static boolean reset(XMLReader reader) {
+        // do not keep the handlers of the last request
+        DefaultHandler2 handler = new DefaultHandler2();
+        reader.setContentHandler(handler);
+        try {
+            reader.setProperty(LEXICAL_HANDLER, handler);
+            return true;
+        } catch (SAXException e) {
+            return false;
+        }
+    }
+
+    private static boolean reset(EXIResult result) {
+        // do not keep the output stream of the last request
+        try {
+            result.setOutputStream(ByteStreams.nullOutputStream());
+            return true;
+        } catch (EXIException | IOException e) {
+            return false;
+        }
+    }
+
     /**
      * @return the isSchemaLessGrammar
      */
@@ -230,6 +405,7 @@ public class EXIUtils
      */
     private void setSchemaLessGrammar(boolean isSchemaLessGrammar) {
         this.isSchemaLessGrammar = isSchemaLessGrammar;
+        invalidate();
     }
 
     /**
@@ -245,6 +421,7 @@ public class EXIUtils
      */
     public void setXSBaseTypeGrammar(boolean isXSBaseTypeGrammar) {
         this.isXSBaseTypeGrammar = isXSBaseTypeGrammar;
+        invalidate();
     }
 
     /**
@@ -260,6 +437,7 @@ public class EXIUtils
      */
     public void setSOS20Schema(boolean isSOS20Schema) {
         this.isSOS20Schema = isSOS20Schema;
+        invalidate();
     }
 
     /**
@@ -275,5 +453,113 @@ public class EXIUtils
      */
     public void setSOS10Schema(boolean isSOS10Schema) {
         this.isSOS10Schema = isSOS10Schema;
+        invalidate();
+    }
+
+    /**
+     * Creates an instance that neither pools EXI readers and writers nor reads the service configuration, but
+     * creates them from a new {@link EXIFactory} of {@code producer} every time.
+     *
+     * @param producer the producer of the EXI factory
+     *
+     * @return the unpooled instance
+     *
+     * @since 9.9.0
+     */
+    public static EXIUtils unpooled(Producer<EXIFactory> producer) {
+        return new Unpooled(producer);
+    }
+
+    /**
+     * A lease of a pooled EXI reader or writer.
+     *
+     * @param <T> the type of the leased object
+     */
+    public static final class Lease<T> implements AutoCloseable {
+        private final T value;
+        private final Queue<T> pool;
+        private final Reset<T> reset;
+        private boolean complete;
+
+        Lease(T value, Queue<T> pool, Reset<T> reset) {
+            this.value = value;
+            this.pool = pool;
+            this.reset = reset;
+        }
+
+        /**
+         * @return the leased object
+         */
+        public T get() {
+            return value;
+        }
+
+        /**
+         * Marks the leased object as successfully used, so that it is returned to the pool on {@link #close()}.
+         * Objects that were used for a failed encoding or decoding are discarded.
+         */
+        public void complete() {
+            this.complete = true;
+        }
+
+        @Override
+        public void close() {
+            if (complete && pool != null && reset.reset(value)) {
+                pool.offer(value);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Reset<T> {
+        boolean reset(T value);
+    }
+
+    /**
+     * The factory and the idle readers and writers of a configuration.
+     */
+    private static final class Pool {
+        private final EXIFactory factory;
+        private final Queue<XMLReader> readers;
+        private final Queue<EXIResult> results;
+        private final long generation;
+
+        Pool(EXIFactory factory, int size, long generation) {
+            this.factory = factory;
+            this.generation = generation;
+            this.readers = size == 0 ? null : new ArrayBlockingQueue<>(size);
+            this.results = size == 0 ? null : new ArrayBlockingQueue<>(size);
+        }
+    }
+
+    /**
+     * Creates every reader and writer from a new factory of a producer.
+     */
+    private static final class Unpooled extends EXIUtils {
+        private final Producer<EXIFactory> producer;
+
+        Unpooled(Producer<EXIFactory> producer) {
+            this.producer = Objects.requireNonNull(producer);
+        }
+
+        @Override
+        public EXIFactory newEXIFactory() {
+            return producer.get();
+        }
+
+        @Override
+        public EXIFactory getEXIFactory() {
+            return producer.get();
+        }
+
+        @Override
+        public Lease<XMLReader> borrowReader() throws EXIException {
+            return new Lease<>(new EXISource(producer.get()).getXMLReader(), null, EXIUtils::reset);
+        }
+
+        @Override
+        public Lease<EXIResult> borrowResult() throws EXIException {
+            return new Lease<>(new EXIResult(producer.get()), null, EXIUtils::reset);
+        }
     }
 }
@@ -22,12 +22,15 @@ import java.util.Set;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
 import org.n52.iceland.binding.Binding;
 import org.n52.iceland.binding.BindingKey;
 import org.n52.iceland.binding.MediaTypeBindingKey;
 import org.n52.iceland.binding.SimpleBinding;
 import org.n52.iceland.coding.decode.OwsDecodingException;
 import org.n52.iceland.exception.HTTPException;
+import org.n52.iceland.service.StreamingSettings;
 import org.n52.janmayen.Json;
 import org.n52.janmayen.http.MediaType;
 import org.n52.janmayen.http.MediaTypes;
@@ -35,15 +38,21 @@ import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.shetland.ogc.ows.service.OwsOperationKey;
 import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
-import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+import org.n52.shetland.ogc.ows.service.RequestTimings;
 import org.n52.svalbard.decode.Decoder;
 import org.n52.svalbard.decode.OperationDecoderKey;
+import org.n52.svalbard.decode.StreamingOperationDecoderKey;
 import org.n52.svalbard.decode.exception.DecodingException;
 import org.n52.svalbard.decode.exception.NoDecoderForKeyException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 
 /**
  * {@link Binding} implementation for JSON encoded requests
@@ -51,6 +60,7 @@ import com.fasterxml.jackson.databind.JsonNode;
  * @author <a href="mailto:c.autermann@52north.org">Christian Autermann</a>
  * @since 1.0.0
  */
+@Configurable
 public class JSONBinding extends SimpleBinding {
     private static final Logger LOG = LoggerFactory.getLogger(JSONBinding.class);
     private static final String SERVICE = "service";
@@ -58,6 +68,20 @@ public class JSONBinding extends SimpleBinding {
     private static final String REQUEST = "request";
     private static final Set<BindingKey> KEYS =
             Collections.singleton(new MediaTypeBindingKey(MediaTypes.APPLICATION_JSON));
+    private static final int DEFAULT_STREAMING_DECODING_THRESHOLD = 8 * 1024 * 1024;
+
+    private int streamingDecodingThreshold = DEFAULT_STREAMING_DECODING_THRESHOLD;
+
+    /**
+     * Sets the content length in bytes from which on requests are decoded while they are read, if there is a
+     * streaming decoder for the operation. Negative values disable the streaming decoding.
+     *
+     * @param threshold the threshold in bytes
+     */
+    @Setting(value = StreamingSettings.JSON_STREAMING_DECODING_THRESHOLD, required = false)
+    public void setStreamingDecodingThreshold(int threshold) {
+        this.streamingDecodingThreshold = threshold;
+    }
 
     @Override
     public Set<BindingKey> getKeys() {
@@ -86,8 +110,7 @@ public class JSONBinding extends SimpleBinding {
         try {
             request = parseRequest(req);
             checkServiceOperatorKeyTypes(request);
-            OwsServiceResponse response = getServiceOperator(request).receiveRequest(request);
-            writeResponse(req, res, response);
+            processRequest(req, res, request);
         } catch (OwsExceptionReport oer) {
             oer.setVersion(request != null ? request.getVersion() : null);
             LOG.warn("Unexpected error", oer);
@@ -95,30 +118,18 @@ public class JSONBinding extends SimpleBinding {
         }
     }
 
-    private OwsServiceRequest parseRequest(HttpServletRequest request)
+    protected OwsServiceRequest parseRequest(HttpServletRequest request)
             throws OwsExceptionReport {
+        RequestTimings timings = getRequestTimings(request);
         try {
-            JsonNode json = Json.loadReader(request.getReader());
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("JSON-REQUEST: {}", Json.print(json));
-            }
-            OperationDecoderKey key = new OperationDecoderKey(
-                    json.path(SERVICE).textValue(),
-                    json.path(VERSION).textValue(),
-                    json.path(REQUEST).textValue(),
-                    MediaTypes.APPLICATION_JSON);
-            Decoder<OwsServiceRequest, JsonNode> decoder = getDecoder(key);
-            if (decoder == null) {
-                NoDecoderForKeyException cause = new NoDecoderForKeyException(key);
-                throw new NoApplicableCodeException().withMessage(cause.getMessage()).causedBy(cause);
-            }
             OwsServiceRequest sosRequest;
-            try {
-                sosRequest = decoder.decode(json);
-            } catch (OwsDecodingException ex) {
-                throw ex.getCause();
-            } catch (DecodingException ex) {
-                throw new NoApplicableCodeException().withMessage(ex.getMessage()).causedBy(ex);
+            if (isStreamingDecoding(request)) {
+                sosRequest = parseRequestStreaming(request, timings);
+            } else {
+                long start = timings.start();
+                JsonNode json = Json.loadReader(request.getReader());
+                timings.stop(RequestTimings.Phase.READ, start);
+                sosRequest = decode(json, timings);
             }
             sosRequest.setRequestContext(getRequestContext(request));
             return sosRequest;
@@ -127,4 +138,113 @@ public class JSONBinding extends SimpleBinding {
                     "Error while reading request! Message: %s", ioe.getMessage());
         }
     }
+
+    /**
+     * Reads the request fields until the operation is known and decodes the request using a
+     * {@link StreamingOperationDecoderKey streaming decoder}. The fields read so far are replayed to the decoder. If
+     * there is no streaming decoder for the operation, the request is parsed completely and decoded as usual.
+     *
+     * @see #readOperationKey(JsonParser, TokenBuffer)
+     */
+    private OwsServiceRequest parseRequestStreaming(HttpServletRequest request, RequestTimings timings)
+            throws IOException, OwsExceptionReport {
+        try (JsonParser parser = Json.createParser(request.getReader())) {
+            long start = timings.start();
+            TokenBuffer buffer = new TokenBuffer(parser);
+            OwsOperationKey key = readOperationKey(parser, buffer);
+            JsonParser replay = JsonParserSequence.createFlattened(false, buffer.asParser(parser.getCodec()), parser);
+            timings.stop(RequestTimings.Phase.READ, start);
+            start = timings.start();
+            Decoder<OwsServiceRequest, JsonParser> decoder =
+                    getDecoder(new StreamingOperationDecoderKey(key, MediaTypes.APPLICATION_JSON));
+            timings.stop(RequestTimings.Phase.DECODER_LOOKUP, start);
+            if (decoder == null) {
+                start = timings.start();
+                JsonNode json = replay.readValueAsTree();
+                timings.stop(RequestTimings.Phase.READ, start);
+                return decode(json, timings);
+            }
+            LOG.debug("Decoding {} request with {}", key, decoder);
+            return decode(decoder, replay, timings);
+        }
+    }
+
+    /**
+     * Reads the top level fields of the request until {@code service}, {@code version} and {@code request} are known.
+     * All fields read so far, including arrays and objects, are copied to the buffer. The streaming decoding therefore
+     * only bounds the memory usage if these fields precede the bulk of the request: a request that starts with a large
+     * {@code observations} array is buffered completely before it is decoded.
+     */
+    private OwsOperationKey readOperationKey(JsonParser parser, TokenBuffer buffer)
+            throws IOException {
+        String service = null;
+        String version = null;
+        String operation = null;
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a JSON object");
+        }
+        buffer.copyCurrentEvent(parser);
+        while ((service == null || version == null || operation == null)
+                   && parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            buffer.copyCurrentEvent(parser);
+            if (parser.nextToken() == JsonToken.VALUE_STRING) {
+                if (SERVICE.equals(name)) {
+                    service = parser.getText();
+                } else if (VERSION.equals(name)) {
+                    version = parser.getText();
+                } else if (REQUEST.equals(name)) {
+                    operation = parser.getText();
+                }
+            }
+            buffer.copyCurrentStructure(parser);
+        }
+        if (parser.currentToken() == JsonToken.END_OBJECT) {
+            buffer.copyCurrentEvent(parser);
+        }
+        return new OwsOperationKey(service, version, operation);
+    }
+
+    private OwsServiceRequest decode(JsonNode json, RequestTimings timings)
+            throws OwsExceptionReport {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("JSON-REQUEST: {}", Json.print(json));
+        }
+        long start = timings.start();
+        OperationDecoderKey key = new OperationDecoderKey(
+                json.path(SERVICE).textValue(),
+                json.path(VERSION).textValue(),
+                json.path(REQUEST).textValue(),
+                MediaTypes.APPLICATION_JSON);
+        Decoder<OwsServiceRequest, JsonNode> decoder = getDecoder(key);
+        timings.stop(RequestTimings.Phase.DECODER_LOOKUP, start);
+        if (decoder == null) {
+            NoDecoderForKeyException cause = new NoDecoderForKeyException(key);
+            throw new NoApplicableCodeException().withMessage(cause.getMessage()).causedBy(cause);
+        }
+        return decode(decoder, json, timings);
+    }
+
+    private <S> OwsServiceRequest decode(Decoder<OwsServiceRequest, S> decoder, S source, RequestTimings timings)
+            throws OwsExceptionReport {
+        long start = timings.start();
+        try {
+            return decoder.decode(source);
+        } catch (OwsDecodingException ex) {
+            throw ex.getCause();
+        } catch (DecodingException ex) {
+            throw new NoApplicableCodeException().withMessage(ex.getMessage()).causedBy(ex);
+        } finally {
+            timings.stop(RequestTimings.Phase.DECODE, start);
+        }
+    }
+
+    private boolean isStreamingDecoding(HttpServletRequest request) {
+        if (streamingDecodingThreshold < 0) {
+            return false;
+        }
+        long length = request.getContentLengthLong();
+        // the length of chunked requests is unknown
+        return length < 0 || length >= streamingDecodingThreshold;
+    }
 }
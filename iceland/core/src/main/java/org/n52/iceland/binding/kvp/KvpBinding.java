@@ -51,7 +51,7 @@ import org.n52.shetland.ogc.ows.exception.OperationNotSupportedException;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.shetland.ogc.ows.service.OwsOperationKey;
 import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
-import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+import org.n52.shetland.ogc.ows.service.RequestTimings;
 import org.n52.svalbard.decode.Decoder;
 import org.n52.svalbard.decode.OperationDecoderKey;
 import org.n52.svalbard.decode.exception.DecodingException;
@@ -110,8 +110,7 @@ public class KvpBinding extends SimpleBinding {
             serviceRequest = parseRequest(req);
             // add request context information
             serviceRequest.setRequestContext(getRequestContext(req));
-            OwsServiceResponse response = getServiceOperator(serviceRequest).receiveRequest(serviceRequest);
-            writeResponse(req, res, response);
+            processRequest(req, res, serviceRequest);
         } catch (OwsExceptionReport oer) {
             oer.setVersion(serviceRequest != null ? serviceRequest.getVersion() : null);
             writeOwsExceptionReport(req, res, oer);
@@ -152,20 +151,26 @@ public class KvpBinding extends SimpleBinding {
             throw new VersionNotSupportedException();
         }
 
+        RequestTimings timings = getRequestTimings(req);
+        long start = timings.start();
         Decoder<OwsServiceRequest, Map<String, String>> decoder
                 = getDecoder(new OperationDecoderKey(service, version, operation, MediaTypes.APPLICATION_KVP));
+        timings.stop(RequestTimings.Phase.DECODER_LOOKUP, start);
 
         if (decoder == null) {
             throw new OperationNotSupportedException(operation);
         }
 
         OwsServiceRequest request;
+        start = timings.start();
         try {
             request = decoder.decode(parameters);
         } catch (OwsDecodingException ex) {
             throw ex.getCause();
         } catch (DecodingException ex) {
             throw toOwsExceptionReport(ex);
+        } finally {
+            timings.stop(RequestTimings.Phase.DECODE, start);
         }
         if (this.includeOriginalRequest) {
             request.setOriginalRequest(String.join("?", req.getRequestURL(), req.getQueryString()));
@@ -35,7 +35,6 @@ import org.n52.janmayen.http.MediaTypes;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.shetland.ogc.ows.service.OwsOperationKey;
 import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
-import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -81,9 +80,7 @@ public class PoxBinding extends AbstractXmlBinding<OwsServiceRequest> {
         OwsServiceRequest request = null;
         try {
             request = parseRequest(req);
-            OwsServiceResponse response = getServiceOperator(request)
-                    .receiveRequest(request);
-            writeResponse(req, res, response);
+            processRequest(req, res, request);
         } catch (OwsExceptionReport oer) {
             oer.setVersion(request != null ? request.getVersion() : null);
             LOG.warn("Unexpected error", oer);
@@ -34,6 +34,7 @@ import org.n52.iceland.binding.MediaTypeBindingKey;
 import org.n52.iceland.coding.encode.OwsEncodingException;
 import org.n52.iceland.event.events.ExceptionEvent;
 import org.n52.iceland.exception.HTTPException;
+import org.n52.iceland.service.AdmissionController;
 import org.n52.iceland.service.CommunicationObjectWithSoapHeader;
 import org.n52.janmayen.http.HTTPHeaders;
 import org.n52.janmayen.http.HTTPStatus;
@@ -101,8 +102,14 @@ public class SoapBinding extends AbstractXmlBinding<SoapRequest> {
             createSoapResponse(chain);
             if (!chain.getSoapResponse().isSetSoapFault()) {
                 // parseBodyRequest(chain);
-                createBodyResponse(chain);
-                writeResponse(chain);
+                OwsServiceRequest bodyRequest = chain.getSoapRequest().getSoapBodyContent();
+                AdmissionController.Permit permit = admit(httpResponse, bodyRequest);
+                try {
+                    createBodyResponse(chain);
+                    writeResponse(chain);
+                } finally {
+                    permit.close();
+                }
             } else {
                 writeFault(chain);
             }
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.cache;
+
+import java.util.Collections;
+import java.util.Set;
+
+import javax.inject.Inject;
+
+import org.n52.iceland.event.events.ContentCacheUpdateEvent;
+import org.n52.janmayen.event.Event;
+import org.n52.janmayen.event.EventListener;
+import org.n52.svalbard.encode.EncodedObjectCache;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Invalidates the {@link EncodedObjectCache} after the content cache was updated, as procedure descriptions and
+ * features may have changed.
+ *
+ * @since 9.9.0
+ */
+public class EncodedObjectCacheInvalidator implements EventListener {
+    private EncodedObjectCache encodedObjectCache;
+
+    @Inject
+    @SuppressFBWarnings({ "EI_EXPOSE_REP2" })
+    public void setEncodedObjectCache(EncodedObjectCache encodedObjectCache) {
+        this.encodedObjectCache = encodedObjectCache;
+    }
+
+    @Override
+    public Set<Class<? extends Event>> getTypes() {
+        return Collections.singleton(ContentCacheUpdateEvent.class);
+    }
+
+    @Override
+    public void handle(Event event) {
+        encodedObjectCache.invalidate();
+    }
+}
@@ -33,6 +33,8 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.n52.iceland.cache.ContentCachePersistenceStrategy;
 import org.n52.iceland.cache.ContentCacheUpdate;
 import org.n52.iceland.cache.WritableContentCache;
+import org.n52.iceland.event.events.ContentCacheUpdateEvent;
+import org.n52.janmayen.event.EventBus;
 import org.n52.janmayen.lifecycle.Constructable;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 
@@ -51,6 +53,7 @@ public class ContentCacheControllerImpl extends AbstractSchedulingContentCacheCo
     private ContentCachePersistenceStrategy persistenceStrategy;
     private ContentCacheFactory cacheFactory;
     private CompleteCacheUpdateFactory completeCacheUpdateFactory;
+    private EventBus eventBus;
 
     @Inject
     public void setCacheFactory(ContentCacheFactory cacheFactory) {
@@ -68,6 +71,12 @@ public class ContentCacheControllerImpl extends AbstractSchedulingContentCacheCo
         this.completeCacheUpdateFactory = factory;
     }
 
+    @Inject
+    @SuppressFBWarnings({ "EI_EXPOSE_REP2" })
+    public void setEventBus(Optional<EventBus> eventBus) {
+        this.eventBus = eventBus.orElse(null);
+    }
+
     @Override
     public void init() {
         loadOrCreateCache();
@@ -124,6 +133,9 @@ public class ContentCacheControllerImpl extends AbstractSchedulingContentCacheCo
                 executePartial(new PartialUpdate(update));
             }
             cache.setLastUpdateTime(DateTime.now());
+            if (eventBus != null) {
+                eventBus.submit(new ContentCacheUpdateEvent(update));
+            }
         } else {
             throw new IllegalArgumentException("update may not be null");
         }
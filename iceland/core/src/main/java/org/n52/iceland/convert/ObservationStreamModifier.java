@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.convert;
+
+import org.n52.shetland.ogc.om.ObservationStream;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+import org.n52.shetland.ogc.sos.response.AbstractObservationResponse;
+
+/**
+ * {@link RequestResponseModifier} that modifies the observations of an {@link AbstractObservationResponse} one at a
+ * time while they are pulled from the {@link ObservationStream} by the encoder, instead of requiring the complete
+ * response to be materialized. Other responses are passed to {@link #modifyOtherResponse(OwsServiceRequest,
+ * OwsServiceResponse)}.
+ *
+ * @since 9.9.0
+ */
+public interface ObservationStreamModifier extends RequestResponseModifier {
+
+    /**
+     * Modifies a single observation. This is called lazily while the response is encoded, possibly after the
+     * request was completely processed.
+     *
+     * @param request     the request
+     * @param observation the observation
+     *
+     * @return the modified observation
+     *
+     * @throws OwsExceptionReport if the modification fails
+     */
+    OmObservation modifyObservation(OwsServiceRequest request, OmObservation observation) throws OwsExceptionReport;
+
+    /**
+     * Wraps the observation stream of a response. The default implementation maps every observation using
+     * {@link #modifyObservation(OwsServiceRequest, OmObservation)}; splitting modifiers may override this to use
+     * {@link ObservationStream#flatMap}.
+     *
+     * @param request      the request
+     * @param observations the observations of the response
+     *
+     * @return the lazily modified observations
+     *
+     * @throws OwsExceptionReport if the stream can not be wrapped
+     */
+    default ObservationStream modifyObservations(OwsServiceRequest request, ObservationStream observations)
+            throws OwsExceptionReport {
+        return observations.map(observation -> modifyObservation(request, observation));
+    }
+
+    /**
+     * Modifies a response that does not contain an observation stream. The default implementation returns the
+     * response unchanged.
+     *
+     * @param request  the request
+     * @param response the response
+     *
+     * @return the modified response
+     *
+     * @throws OwsExceptionReport if the modification fails
+     */
+    default OwsServiceResponse modifyOtherResponse(OwsServiceRequest request, OwsServiceResponse response)
+            throws OwsExceptionReport {
+        return response;
+    }
+
+    @Override
+    default OwsServiceResponse modifyResponse(OwsServiceRequest request, OwsServiceResponse response)
+            throws OwsExceptionReport {
+        if (response instanceof AbstractObservationResponse) {
+            AbstractObservationResponse observationResponse = (AbstractObservationResponse) response;
+            observationResponse.setObservationCollection(
+                    modifyObservations(request, observationResponse.getObservationCollection()));
+            return observationResponse;
+        }
+        return modifyOtherResponse(request, response);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.convert;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Immutable, ordered sequence of {@link RequestResponseModifier}s that are applied to a request or to a response.
+ * Chains are compiled once per {@link RequestResponseModifierKey} by the {@link RequestResponseModifierRepository}, so
+ * that applying the modifiers does not require any lookups, allocations or sorting. {@link ObservationStreamModifier}s
+ * only wrap the observation stream of a response, so their modifications are applied while the response is encoded.
+ *
+ * @since 9.9.0
+ */
+public final class RequestResponseModifierChain {
+    private static final RequestResponseModifierChain EMPTY
+            = new RequestResponseModifierChain(new RequestResponseModifier[0]);
+
+    private final RequestResponseModifier[] modifiers;
+
+    private RequestResponseModifierChain(RequestResponseModifier[] modifiers) {
+        this.modifiers = modifiers;
+    }
+
+    /**
+     * Apply the modifiers of this chain to the request.
+     *
+     * @param request the request
+     *
+     * @throws OwsExceptionReport if a modifier fails
+     */
+    public void modifyRequest(OwsServiceRequest request) throws OwsExceptionReport {
+        for (RequestResponseModifier modifier : modifiers) {
+            modifier.modifyRequest(request);
+        }
+    }
+
+    /**
+     * Apply the modifiers of this chain to the response.
+     *
+     * @param request  the request
+     * @param response the response
+     *
+     * @throws OwsExceptionReport if a modifier fails
+     */
+    public void modifyResponse(OwsServiceRequest request, OwsServiceResponse response) throws OwsExceptionReport {
+        for (RequestResponseModifier modifier : modifiers) {
+            modifier.modifyResponse(request, response);
+        }
+    }
+
+    public boolean isEmpty() {
+        return modifiers.length == 0;
+    }
+
+    public int size() {
+        return modifiers.length;
+    }
+
+    /**
+     * @return the modifiers in the order they are applied
+     */
+    public List<RequestResponseModifier> getModifiers() {
+        return Collections.unmodifiableList(Arrays.asList(modifiers));
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("modifiers", Arrays.toString(modifiers)).toString();
+    }
+
+    /**
+     * @return the chain without modifiers
+     */
+    public static RequestResponseModifierChain empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates a chain for requests: adders/removers are applied first, followed by the default modifiers and the
+     * splitters.
+     *
+     * @param modifiers the modifiers
+     *
+     * @return the chain
+     */
+    public static RequestResponseModifierChain forRequest(Collection<? extends RequestResponseModifier> modifiers) {
+        List<RequestResponseModifier> splitter = new ArrayList<>();
+        List<RequestResponseModifier> remover = new ArrayList<>();
+        List<RequestResponseModifier> defaultModifier = new ArrayList<>();
+        for (RequestResponseModifier modifier : modifiers) {
+            if (modifier.getFacilitator().isSplitter()) {
+                splitter.add(modifier);
+            } else if (modifier.getFacilitator().isAdderRemover()) {
+                remover.add(modifier);
+            } else {
+                defaultModifier.add(modifier);
+            }
+        }
+        return of(Arrays.asList(remover, defaultModifier, splitter));
+    }
+
+    /**
+     * Creates a chain for responses: mergers are applied first, followed by the default modifiers and the
+     * adders/removers.
+     *
+     * @param modifiers the modifiers
+     *
+     * @return the chain
+     */
+    public static RequestResponseModifierChain forResponse(Collection<? extends RequestResponseModifier> modifiers) {
+        List<RequestResponseModifier> defaultModifier = new ArrayList<>();
+        List<RequestResponseModifier> remover = new ArrayList<>();
+        List<RequestResponseModifier> merger = new ArrayList<>();
+        for (RequestResponseModifier modifier : modifiers) {
+            if (modifier.getFacilitator().isMerger()) {
+                merger.add(modifier);
+            } else if (modifier.getFacilitator().isAdderRemover()) {
+                remover.add(modifier);
+            } else {
+                defaultModifier.add(modifier);
+            }
+        }
+        return of(Arrays.asList(merger, defaultModifier, remover));
+    }
+
+    private static RequestResponseModifierChain of(List<List<RequestResponseModifier>> groups) {
+        RequestResponseModifier[] modifiers = groups.stream().flatMap(List::stream)
+                .toArray(RequestResponseModifier[]::new);
+        return modifiers.length == 0 ? EMPTY : new RequestResponseModifierChain(modifiers);
+    }
+}
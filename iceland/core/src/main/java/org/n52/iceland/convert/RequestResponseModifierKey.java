@@ -189,11 +189,7 @@ public class RequestResponseModifierKey implements Comparable<RequestResponseMod
 
     @Override
     public int hashCode() {
-        int hashCode = Objects.hash(getService(), getVersion(), getRequest().getClass());
-        if (isSetResponse()) {
-            return Objects.hash(hashCode, getResponse().getClass());
-        }
-        return hashCode;
+        return Objects.hash(getService(), getVersion(), getRequest(), getResponse());
     }
 
     @SuppressWarnings("unchecked")
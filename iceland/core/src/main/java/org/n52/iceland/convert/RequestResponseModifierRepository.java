@@ -22,8 +22,12 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
 import javax.inject.Inject;
 
@@ -33,6 +37,8 @@ import org.n52.janmayen.lifecycle.Constructable;
 import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
 import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
 
+import com.google.common.annotations.VisibleForTesting;
+
 public class RequestResponseModifierRepository
         extends
         AbstractComponentRepository<RequestResponseModifierKey, RequestResponseModifier, RequestResponseModifierFactory>
@@ -41,6 +47,12 @@ public class RequestResponseModifierRepository
     private final Map<RequestResponseModifierKey, Set<Producer<RequestResponseModifier>>> requestResponseModifier
             = new HashMap<>();
 
+    private final ConcurrentMap<RequestResponseModifierKey, RequestResponseModifierChain> requestChains
+            = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<RequestResponseModifierKey, RequestResponseModifierChain> responseChains
+            = new ConcurrentHashMap<>();
+
     @Inject
     private Optional<Collection<RequestResponseModifier>> components = Optional.of(Collections.emptyList());
 
@@ -54,6 +66,75 @@ public class RequestResponseModifierRepository
                 = getProviders(this.components, this.componentFactories);
         this.requestResponseModifier.clear();
         this.requestResponseModifier.putAll(implementations);
+        this.requestChains.clear();
+        this.responseChains.clear();
+    }
+
+    @VisibleForTesting
+    public void setRequestResponseModifiers(Collection<RequestResponseModifier> modifiers) {
+        this.components = Optional.of(modifiers);
+    }
+
+    /**
+     * Get the compiled chain of modifiers for the request. The chain is created on first use and reused until the
+     * repository is reinitialized.
+     *
+     * @param request the request
+     *
+     * @return the chain, which is empty if there are no modifiers for the request
+     *
+     * @since 9.9.0
+     */
+    public RequestResponseModifierChain getRequestModifierChain(OwsServiceRequest request) {
+        if (this.requestResponseModifier.isEmpty()) {
+            return RequestResponseModifierChain.empty();
+        }
+        RequestResponseModifierKey key
+                = new RequestResponseModifierKey(request.getService(), request.getVersion(), request);
+        return getChain(this.requestChains, key, RequestResponseModifierChain::forRequest);
+    }
+
+    /**
+     * Get the compiled chain of modifiers for the response. The chain is created on first use and reused until the
+     * repository is reinitialized.
+     *
+     * @param request  the request
+     * @param response the response
+     *
+     * @return the chain, which is empty if there are no modifiers for the response
+     *
+     * @since 9.9.0
+     */
+    public RequestResponseModifierChain getResponseModifierChain(OwsServiceRequest request,
+                                                                 OwsServiceResponse response) {
+        if (this.requestResponseModifier.isEmpty()) {
+            return RequestResponseModifierChain.empty();
+        }
+        RequestResponseModifierKey key
+                = new RequestResponseModifierKey(response.getService(), response.getVersion(), request, response);
+        if (!Objects.equals(request.getService(), response.getService()) ||
+            !Objects.equals(request.getVersion(), response.getVersion())) {
+            if (!hasRequestResponseModifier(request, response)) {
+                return RequestResponseModifierChain.empty();
+            }
+        }
+        return getChain(this.responseChains, key, RequestResponseModifierChain::forResponse);
+    }
+
+    private RequestResponseModifierChain getChain(
+            ConcurrentMap<RequestResponseModifierKey, RequestResponseModifierChain> chains,
+            RequestResponseModifierKey key,
+            Function<List<RequestResponseModifier>, RequestResponseModifierChain> compiler) {
+        RequestResponseModifierChain chain = chains.get(key);
+        if (chain == null) {
+            List<RequestResponseModifier> modifiers = getRequestResponseModifier(key);
+            chain = modifiers == null ? RequestResponseModifierChain.empty() : compiler.apply(modifiers);
+            RequestResponseModifierChain previous = chains.putIfAbsent(key, chain);
+            if (previous != null) {
+                chain = previous;
+            }
+        }
+        return chain;
     }
 
     public List<RequestResponseModifier> getRequestResponseModifier(OwsServiceRequest request) {
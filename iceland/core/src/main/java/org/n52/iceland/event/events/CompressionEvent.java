@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.event.events;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Event is fired after a response was written using a content coding.
+ *
+ * @since 9.9.0
+ */
+public class CompressionEvent extends AbstractFlowEvent {
+
+    private final String coding;
+    private final boolean compressed;
+    private final long uncompressedBytes;
+    private final long compressedBytes;
+    private final long compressionTime;
+
+    /**
+     * Creates a new {@code CompressionEvent}.
+     *
+     * @param coding            the negotiated content coding
+     * @param compressed        if the response was encoded (or was below the threshold)
+     * @param uncompressedBytes the size of the response
+     * @param compressedBytes   the number of bytes that were sent
+     * @param compressionTime   the time spent encoding in nanoseconds
+     */
+    public CompressionEvent(String coding, boolean compressed, long uncompressedBytes, long compressedBytes,
+                            long compressionTime) {
+        super(Thread.currentThread().getId());
+        this.coding = coding;
+        this.compressed = compressed;
+        this.uncompressedBytes = uncompressedBytes;
+        this.compressedBytes = compressedBytes;
+        this.compressionTime = compressionTime;
+    }
+
+    public String getCoding() {
+        return coding;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    public long getUncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    public long getCompressionTime() {
+        return compressionTime;
+    }
+
+    /**
+     * @return the compressed size divided by the uncompressed size
+     */
+    public double getCompressionRatio() {
+        return uncompressedBytes == 0 ? 1.0 : (double) compressedBytes / uncompressedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects
+                .toStringHelper(this)
+                .add("coding", this.coding)
+                .add("compressed", this.compressed)
+                .add("uncompressedBytes", this.uncompressedBytes)
+                .add("compressedBytes", this.compressedBytes)
+                .add("compressionTime", this.compressionTime)
+                .toString();
+    }
+
+}
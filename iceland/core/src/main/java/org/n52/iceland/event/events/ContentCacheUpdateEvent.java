@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.event.events;
+
+import org.n52.iceland.cache.ContentCacheUpdate;
+import org.n52.janmayen.event.Event;
+
+import com.google.common.base.MoreObjects;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Event that is fired after an update of the content cache was executed.
+ *
+ * @since 9.9.0
+ */
+public class ContentCacheUpdateEvent implements Event {
+    private final ContentCacheUpdate update;
+
+    @SuppressFBWarnings({ "EI_EXPOSE_REP2" })
+    public ContentCacheUpdateEvent(ContentCacheUpdate update) {
+        this.update = update;
+    }
+
+    @SuppressFBWarnings({ "EI_EXPOSE_REP" })
+    public ContentCacheUpdate getUpdate() {
+        return update;
+    }
+
+    public boolean isCompleteUpdate() {
+        return update.isCompleteUpdate();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("update", update).toString();
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.event.events;
+
+import java.util.Optional;
+
+import org.n52.shetland.ogc.ows.service.RequestTimings;
+
+import com.google.common.base.MoreObjects;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Event is fired after a response was sent back if request timing is enabled.
+ *
+ * @since 9.9.0
+ */
+public class RequestTimingEvent extends AbstractFlowEvent {
+
+    private final RequestTimings timings;
+    private final Optional<String> contentType;
+    private final long elapsedTime;
+
+    /**
+     * Creates a new {@code RequestTimingEvent}.
+     *
+     * @param timings     the timings of the individual phases
+     * @param contentType the content type of the response
+     * @param elapsedTime the total time in nanoseconds
+     */
+    @SuppressFBWarnings({ "EI_EXPOSE_REP2" })
+    public RequestTimingEvent(RequestTimings timings, String contentType, long elapsedTime) {
+        super(Thread.currentThread().getId());
+        this.timings = timings;
+        this.contentType = Optional.ofNullable(contentType);
+        this.elapsedTime = elapsedTime;
+    }
+
+    @SuppressFBWarnings({ "EI_EXPOSE_REP" })
+    public RequestTimings getTimings() {
+        return timings;
+    }
+
+    public Optional<String> getContentType() {
+        return contentType;
+    }
+
+    public long getElapsedTime() {
+        return elapsedTime;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects
+                .toStringHelper(this)
+                .add("timings", this.timings)
+                .add("contentType", this.contentType.orElse(null))
+                .add("elapsedTime", this.elapsedTime)
+                .toString();
+    }
+
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.i18n;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.n52.iceland.i18n.metadata.AbstractI18NMetadata;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * {@link I18NDAO} decorator that caches the metadata per identifier and locale. Bulk requests only load the
+ * metadata of identifiers that are not cached, so that e.g. the metadata of all offerings can be loaded with a single
+ * call to the store and subsequent lookups of single objects are served from the cache. Absent metadata is cached as
+ * well.
+ * <p>
+ * Saved metadata is written to the delegate and the cached entries of the identifier are discarded afterwards, as the
+ * store may merge the saved metadata with the existing one. Every invalidation increments a version; metadata loaded
+ * while the version changed is not cached, so a concurrent load can not cache the metadata from before the save.
+ *
+ * @param <T> the metadata type
+ *
+ * @since 9.9.0
+ */
+public class CachingI18NDAO<T extends AbstractI18NMetadata> implements I18NDAO<T> {
+    private final I18NDAO<T> delegate;
+    private final Cache<Key, Optional<T>> cache;
+    private final long ttl;
+    private final AtomicLong version = new AtomicLong();
+    private volatile Collection<Locale> availableLocales;
+    private volatile long availableLocalesLoaded;
+
+    /**
+     * Creates a new {@code CachingI18NDAO}.
+     *
+     * @param delegate the decorated DAO
+     * @param size     the maximum number of cached entries
+     * @param ttl      the time to live of the cached entries in seconds, {@code 0} to keep them until they are
+     *                 evicted
+     */
+    public CachingI18NDAO(I18NDAO<T> delegate, long size, long ttl) {
+        this.delegate = Objects.requireNonNull(delegate);
+        this.ttl = TimeUnit.SECONDS.toNanos(ttl);
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().maximumSize(size).recordStats();
+        if (ttl > 0) {
+            builder.expireAfterWrite(ttl, TimeUnit.SECONDS);
+        }
+        this.cache = builder.build();
+    }
+
+    /**
+     * @return the decorated DAO
+     */
+    public I18NDAO<T> getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Set<I18NDAOKey> getKeys() {
+        return delegate.getKeys();
+    }
+
+    @Override
+    public boolean isSupported() {
+        return delegate.isSupported();
+    }
+
+    @Override
+    public T getMetadata(String id) throws OwsExceptionReport {
+        return getMetadata(id, (Locale) null);
+    }
+
+    @Override
+    public T getMetadata(String id, Locale locale) throws OwsExceptionReport {
+        Key key = new Key(id, locale);
+        Optional<T> metadata = cache.getIfPresent(key);
+        if (metadata == null) {
+            long loaded = version.get();
+            metadata = Optional.ofNullable(locale == null ? delegate.getMetadata(id)
+                                                          : delegate.getMetadata(id, locale));
+            put(key, metadata, loaded);
+        }
+        return metadata.orElse(null);
+    }
+
+    @Override
+    public Collection<T> getMetadata() throws OwsExceptionReport {
+        long loaded = version.get();
+        Collection<T> metadata = delegate.getMetadata();
+        metadata.forEach(m -> put(new Key(m.getIdentifier(), null), Optional.of(m), loaded));
+        return metadata;
+    }
+
+    @Override
+    public Collection<T> getMetadata(Collection<String> ids) throws OwsExceptionReport {
+        return getMetadata(ids, null);
+    }
+
+    @Override
+    public Collection<T> getMetadata(Collection<String> ids, Locale locale) throws OwsExceptionReport {
+        List<T> metadata = new ArrayList<>(ids.size());
+        Set<String> missing = new LinkedHashSet<>();
+        for (String id : ids) {
+            Optional<T> cached = cache.getIfPresent(new Key(id, locale));
+            if (cached == null) {
+                missing.add(id);
+            } else {
+                cached.ifPresent(metadata::add);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long current = version.get();
+            Collection<T> loaded = locale == null ? delegate.getMetadata(missing)
+                                                  : delegate.getMetadata(missing, locale);
+            for (T m : loaded) {
+                if (missing.remove(m.getIdentifier())) {
+                    put(new Key(m.getIdentifier(), locale), Optional.of(m), current);
+                }
+                metadata.add(m);
+            }
+            missing.forEach(id -> put(new Key(id, locale), Optional.empty(), current));
+        }
+        return metadata;
+    }
+
+    @Override
+    public void saveMetadata(T i18n) throws OwsExceptionReport {
+        try {
+            delegate.saveMetadata(i18n);
+        } finally {
+            invalidate(i18n.getIdentifier());
+        }
+    }
+
+    @Override
+    public Collection<Locale> getAvailableLocales() throws OwsExceptionReport {
+        Collection<Locale> locales = this.availableLocales;
+        if (locales == null || ttl > 0 && System.nanoTime() - availableLocalesLoaded > ttl) {
+            long loaded = version.get();
+            locales = Collections.unmodifiableList(new ArrayList<>(delegate.getAvailableLocales()));
+            if (version.get() == loaded) {
+                this.availableLocalesLoaded = System.nanoTime();
+                this.availableLocales = locales;
+                if (version.get() != loaded) {
+                    this.availableLocales = null;
+                }
+            }
+        }
+        return locales;
+    }
+
+    private void put(Key key, Optional<T> metadata, long loaded) {
+        if (version.get() == loaded) {
+            cache.put(key, metadata);
+            // an invalidation between the check and the put may not have seen the entry
+            if (version.get() != loaded) {
+                cache.asMap().remove(key, metadata);
+            }
+        }
+    }
+
+    /**
+     * Discards the cached metadata of the identifier in all locales.
+     *
+     * @param id the identifier
+     */
+    public void invalidate(String id) {
+        version.incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> Objects.equals(key.id, id));
+        this.availableLocales = null;
+    }
+
+    /**
+     * Discards all cached metadata.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        cache.invalidateAll();
+        this.availableLocales = null;
+    }
+
+    /**
+     * @return the number of cached entries
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * @return the statistics of the cache
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("delegate", delegate)
+                .add("size", cache.size())
+                .add("stats", cache.stats())
+                .toString();
+    }
+
+    private static final class Key {
+        private final String id;
+        private final Locale locale;
+
+        Key(String id, Locale locale) {
+            this.id = id;
+            this.locale = locale;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, locale);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) obj;
+            return Objects.equals(this.id, that.id) && Objects.equals(this.locale, that.locale);
+        }
+    }
+}
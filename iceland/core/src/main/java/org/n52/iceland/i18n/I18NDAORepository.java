@@ -17,37 +17,129 @@ package org.n52.iceland.i18n;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.inject.Inject;
 
+import org.n52.faroe.Validation;
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
 import org.n52.iceland.i18n.metadata.AbstractI18NMetadata;
+import org.n52.iceland.util.LazyThreadSafeProducer;
 import org.n52.janmayen.Producer;
 import org.n52.janmayen.component.AbstractComponentRepository;
 import org.n52.janmayen.lifecycle.Constructable;
 
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.Maps;
 
 /**
- * I18N DAO repository
+ * I18N DAO repository. The DAOs are decorated with a {@link CachingI18NDAO} unless
+ * {@value I18NSettings#I18N_CACHE_SIZE} is {@code 0}.
  *
  * @author <a href="mailto:c.hollmann@52north.org">Carsten Hollmann</a>
  * @since 1.0.0
  */
+@Configurable
 public class I18NDAORepository extends AbstractComponentRepository<I18NDAOKey, I18NDAO<?>, I18NDAOFactory>
         implements Constructable {
-    private final Map<I18NDAOKey, Producer<I18NDAO<?>>> daos = Maps.newHashMap();
+    private static final int DEFAULT_CACHE_SIZE = 10000;
+    private static final int DEFAULT_CACHE_TTL = 300;
+    private final Map<I18NDAOKey, Producer<I18NDAO<?>>> producers = Maps.newHashMap();
+    private final Map<I18NDAOKey, Producer<I18NDAO<?>>> daos = new ConcurrentHashMap<>();
+    private final ConcurrentMap<I18NDAOKey, CachingI18NDAO<?>> caches = new ConcurrentHashMap<>();
+    private int cacheSize = DEFAULT_CACHE_SIZE;
+    private int cacheTtl = DEFAULT_CACHE_TTL;
 
     @Inject
     private Optional<Collection<I18NDAO<?>>> components = Optional.of(Collections.emptyList());
     @Inject
     private Optional<Collection<I18NDAOFactory>> componentFactories = Optional.of(Collections.emptyList());
 
+    /**
+     * Set the maximum number of cached metadata objects per DAO. A size of {@code 0} disables the cache.
+     *
+     * @param size the size
+     */
+    @Setting(value = I18NSettings.I18N_CACHE_SIZE, required = false)
+    public void setCacheSize(Integer size) {
+        this.cacheSize = size == null ? DEFAULT_CACHE_SIZE : Validation.greaterEqualZero(I18NSettings.I18N_CACHE_SIZE,
+                                                                                          size);
+        decorate();
+    }
+
+    /**
+     * Set the time to live of cached metadata in seconds. A time to live of {@code 0} keeps the metadata until it is
+     * evicted or saved.
+     *
+     * @param ttl the time to live
+     */
+    @Setting(value = I18NSettings.I18N_CACHE_TTL, required = false)
+    public void setCacheTtl(Integer ttl) {
+        this.cacheTtl = ttl == null ? DEFAULT_CACHE_TTL : Validation.greaterEqualZero(I18NSettings.I18N_CACHE_TTL,
+                                                                                       ttl);
+        decorate();
+    }
+
     @Override
     public void init() {
-        this.daos.clear();
-        this.daos.putAll(getUniqueProviders(this.components, this.componentFactories));
+        synchronized (this.producers) {
+            this.producers.clear();
+            this.producers.putAll(getUniqueProviders(this.components, this.componentFactories));
+        }
+        decorate();
+    }
+
+    private void decorate() {
+        synchronized (this.producers) {
+            this.caches.clear();
+            this.daos.clear();
+            if (cacheSize == 0) {
+                this.daos.putAll(this.producers);
+            } else {
+                this.producers.forEach((key, producer) -> this.daos.put(key, decorate(key, producer)));
+            }
+        }
+    }
+
+    private Producer<I18NDAO<?>> decorate(I18NDAOKey key, Producer<I18NDAO<?>> producer) {
+        long size = this.cacheSize;
+        long ttl = this.cacheTtl;
+        // an absent DAO is not remembered, so that it is looked up again on the next call
+        return new LazyThreadSafeProducer<I18NDAO<?>>() {
+            @Override
+            protected I18NDAO<?> create() {
+                I18NDAO<?> dao = producer.get();
+                if (dao == null) {
+                    return null;
+                }
+                CachingI18NDAO<?> cachingDao = new CachingI18NDAO<>(dao, size, ttl);
+                caches.put(key, cachingDao);
+                return cachingDao;
+            }
+        };
+    }
+
+    /**
+     * Get the statistics of the metadata caches of the DAOs that were used so far.
+     *
+     * @return the statistics per DAO key
+     */
+    public Map<I18NDAOKey, CacheStats> getCacheStats() {
+        Map<I18NDAOKey, CacheStats> stats = new LinkedHashMap<>(caches.size());
+        caches.forEach((key, dao) -> stats.put(key, dao.getStats()));
+        return stats;
+    }
+
+    /**
+     * Discards the cached metadata of all DAOs.
+     */
+    public void invalidateCaches() {
+        caches.values().forEach(CachingI18NDAO::invalidate);
     }
 
     /**
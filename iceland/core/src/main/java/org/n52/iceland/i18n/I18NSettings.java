@@ -29,4 +29,8 @@ public interface I18NSettings {
     String I18N_SHOW_ALL_LANGUAGE_VALUES
             = "i18n.showAllLanguageValues";
 
+    String I18N_CACHE_SIZE = "i18n.cache.size";
+
+    String I18N_CACHE_TTL = "i18n.cache.ttl";
+
 }
@@ -0,0 +1,308 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.request.operator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.n52.faroe.Validation;
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
+import org.n52.iceland.service.ServiceSettings;
+import org.n52.iceland.service.operator.ServiceOperator;
+import org.n52.iceland.service.operator.ServiceOperatorRepository;
+import org.n52.janmayen.GroupedAndNamedThreadFactory;
+import org.n52.janmayen.lifecycle.Destroyable;
+import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
+import org.n52.shetland.ogc.ows.exception.OperationNotSupportedException;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+import org.n52.shetland.ogc.sos.request.BatchRequest;
+import org.n52.shetland.ogc.sos.response.BatchResponse;
+import org.n52.shetland.ogc.sos.response.BatchResponse.ExceptionOrResponse;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Splitter;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Executes the sub-requests of a {@link BatchRequest} using the {@link ServiceOperator}s of the
+ * {@link ServiceOperatorRepository}.
+ * <p>
+ * Sub-requests of the operations listed in {@value ServiceSettings#BATCH_READ_ONLY_OPERATIONS} are dispatched in
+ * parallel on a pool of at most {@value ServiceSettings#BATCH_THREADS} threads. All other sub-requests are considered
+ * transactional: a transactional sub-request is started after all previously submitted sub-requests completed, and
+ * read-only sub-requests submitted after it are started after it completed, so every sub-request observes the
+ * effects of the transactions submitted before it. With a single thread (the default), or if the batch should stop
+ * at the first failure, the sub-requests are executed sequentially on the calling thread.
+ * <p>
+ * If {@value ServiceSettings#BATCH_TIMEOUT} is set, read-only sub-requests that did not complete within this number
+ * of milliseconds after the start of the batch are reported as exceptions and sub-requests that were not started yet
+ * are skipped. Transactional sub-requests that were already started are awaited, so that their actual outcome is
+ * reported. The responses are always returned in the order of the sub-requests.
+ *
+ * @since 9.9.0
+ */
+@Configurable
+public class BatchRequestExecutor implements Destroyable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchRequestExecutor.class);
+    private static final String DEFAULT_READ_ONLY_OPERATIONS = "GetObservation,DescribeSensor,GetFeatureOfInterest";
+    private volatile ExecutorService pool;
+    private int threads = 1;
+    private long timeout;
+    private Set<String> readOnlyOperations = parseOperations(DEFAULT_READ_ONLY_OPERATIONS);
+    private ServiceOperatorRepository serviceOperatorRepository;
+
+    @Inject
+    @SuppressFBWarnings({ "EI_EXPOSE_REP2" })
+    public void setServiceOperatorRepository(ServiceOperatorRepository serviceOperatorRepository) {
+        this.serviceOperatorRepository = serviceOperatorRepository;
+    }
+
+    /**
+     * Set the maximum number of threads used to execute the sub-requests of all batches. Values less than {@code 2}
+     * disable the parallel execution.
+     *
+     * @param threads the number of threads
+     */
+    @Setting(value = ServiceSettings.BATCH_THREADS, required = false)
+    public synchronized void setThreads(Integer threads) {
+        ExecutorService old = this.pool;
+        this.threads = threads == null || threads < 2 ? 1 : threads;
+        this.pool = this.threads < 2 ? null
+                : Executors.newFixedThreadPool(this.threads, new GroupedAndNamedThreadFactory("batch-request"));
+        if (old != null) {
+            old.shutdown();
+        }
+        LOGGER.debug("Executing batch requests with {} threads", this.threads);
+    }
+
+    /**
+     * Set the deadline of a batch in milliseconds. {@code 0} disables the deadline.
+     *
+     * @param timeout the timeout
+     */
+    @Setting(value = ServiceSettings.BATCH_TIMEOUT, required = false)
+    public void setTimeout(Integer timeout) {
+        this.timeout = timeout == null ? 0 : Validation.greaterEqualZero(ServiceSettings.BATCH_TIMEOUT, timeout);
+    }
+
+    @Setting(value = ServiceSettings.BATCH_READ_ONLY_OPERATIONS, required = false)
+    public void setReadOnlyOperations(String operations) {
+        this.readOnlyOperations = parseOperations(operations == null ? DEFAULT_READ_ONLY_OPERATIONS : operations);
+    }
+
+    /**
+     * Checks if the sub-request can be executed concurrently to other read-only sub-requests.
+     *
+     * @param request the sub-request
+     *
+     * @return if the request does not modify any data
+     */
+    public boolean isReadOnly(OwsServiceRequest request) {
+        return readOnlyOperations.contains(request.getOperationName());
+    }
+
+    /**
+     * Execute the sub-requests of the batch. Failures of sub-requests are reported in the response.
+     *
+     * @param batch the batch request
+     *
+     * @return the responses in the order of the sub-requests
+     *
+     * @throws OwsExceptionReport if the calling thread was interrupted
+     */
+    public BatchResponse execute(BatchRequest batch) throws OwsExceptionReport {
+        long deadline = timeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) : Long.MAX_VALUE;
+        ExecutorService p = this.pool;
+        List<ExceptionOrResponse> responses;
+        if (p == null || batch.isStopAtFailure() || batch.getRequests().size() < 2) {
+            responses = executeSequentially(batch, deadline);
+        } else {
+            responses = executeConcurrently(batch, deadline, p);
+        }
+        return new BatchResponse(batch.getService(), batch.getVersion(), responses);
+    }
+
+    private List<ExceptionOrResponse> executeSequentially(BatchRequest batch, long deadline) {
+        List<ExceptionOrResponse> responses = new ArrayList<>(batch.getRequests().size());
+        for (OwsServiceRequest request : batch) {
+            if (System.nanoTime() - deadline > 0) {
+                responses.add(deadlineExceeded(request));
+                continue;
+            }
+            ExceptionOrResponse response = dispatch(request);
+            responses.add(response);
+            if (response.isException() && batch.isStopAtFailure()) {
+                break;
+            }
+        }
+        return responses;
+    }
+
+    private List<ExceptionOrResponse> executeConcurrently(BatchRequest batch, long deadline, ExecutorService p)
+            throws OwsExceptionReport {
+        AtomicBoolean expired = new AtomicBoolean();
+        int size = batch.getRequests().size();
+        List<CompletableFuture<ExceptionOrResponse>> futures = new ArrayList<>(size);
+        List<AtomicBoolean> claims = new ArrayList<>(size);
+        CompletableFuture<?> barrier = CompletableFuture.completedFuture(null);
+        List<CompletableFuture<?>> sinceBarrier = new ArrayList<>();
+        for (OwsServiceRequest request : batch) {
+            AtomicBoolean claimed = new AtomicBoolean();
+            CompletableFuture<ExceptionOrResponse> future;
+            if (isReadOnly(request)) {
+                future = submit(barrier, request, claimed, expired, p);
+                sinceBarrier.add(future);
+            } else {
+                sinceBarrier.add(barrier);
+                future = submit(CompletableFuture.allOf(sinceBarrier.toArray(new CompletableFuture<?>[0])),
+                                request, claimed, expired, p);
+                barrier = future;
+                sinceBarrier = new ArrayList<>();
+            }
+            futures.add(future);
+            claims.add(claimed);
+        }
+        List<ExceptionOrResponse> responses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            responses.add(await(futures.get(i), batch.getRequests().get(i), claims.get(i), deadline, expired));
+        }
+        return responses;
+    }
+
+    private CompletableFuture<ExceptionOrResponse> submit(CompletableFuture<?> after, OwsServiceRequest request,
+                                                          AtomicBoolean claimed, AtomicBoolean expired,
+                                                          ExecutorService p) {
+        try {
+            return after.thenApplyAsync(x -> dispatch(request, claimed, expired), p);
+        } catch (RejectedExecutionException e) {
+            // the pool was shut down by a concurrent change of the number of threads
+            CompletableFuture<ExceptionOrResponse> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    private ExceptionOrResponse await(CompletableFuture<ExceptionOrResponse> future, OwsServiceRequest request,
+                                      AtomicBoolean claimed, long deadline, AtomicBoolean expired)
+            throws OwsExceptionReport {
+        try {
+            if (deadline == Long.MAX_VALUE) {
+                return future.get();
+            }
+            try {
+                return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                expired.set(true);
+                if (claimed.compareAndSet(false, true) || isReadOnly(request)) {
+                    // the sub-request was not started yet or has no effects that have to be reported
+                    return deadlineExceeded(request);
+                }
+                LOGGER.debug("Waiting for the running sub-request {} after the deadline of the batch",
+                             request.getOperationName());
+                return future.get();
+            }
+        } catch (ExecutionException e) {
+            return failed(request, e.getCause() instanceof CompletionException ? e.getCause().getCause()
+                                           : e.getCause());
+        } catch (InterruptedException e) {
+            expired.set(true);
+            Thread.currentThread().interrupt();
+            throw new NoApplicableCodeException().causedBy(e).withMessage("Interrupted while executing the batch");
+        }
+    }
+
+    private ExceptionOrResponse dispatch(OwsServiceRequest request, AtomicBoolean claimed, AtomicBoolean expired) {
+        // the claim is taken by await() if the sub-request is skipped after the deadline
+        if (expired.get() || !claimed.compareAndSet(false, true)) {
+            return deadlineExceeded(request);
+        }
+        return dispatch(request);
+    }
+
+    private ExceptionOrResponse dispatch(OwsServiceRequest request) {
+        try {
+            ServiceOperator operator = serviceOperatorRepository.getServiceOperator(request.getService(),
+                                                                                    request.getVersion());
+            if (operator == null) {
+                throw new OperationNotSupportedException(request.getOperationName());
+            }
+            OwsServiceResponse response = operator.receiveRequest(request);
+            if (response == null) {
+                throw new OperationNotSupportedException(request.getOperationName());
+            }
+            return new ExceptionOrResponse(response);
+        } catch (OwsExceptionReport e) {
+            return new ExceptionOrResponse(e);
+        } catch (RuntimeException e) {
+            return failed(request, e);
+        }
+    }
+
+    private static ExceptionOrResponse failed(OwsServiceRequest request, Throwable cause) {
+        LOGGER.error("Error executing sub-request {}", request.getOperationName(), cause);
+        return new ExceptionOrResponse(new NoApplicableCodeException().causedBy(cause)
+                .withMessage("Error executing sub-request %s", request.getOperationName()));
+    }
+
+    private static ExceptionOrResponse deadlineExceeded(OwsServiceRequest request) {
+        return new ExceptionOrResponse(new NoApplicableCodeException()
+                .withMessage("The sub-request %s did not complete before the deadline of the batch",
+                             request.getOperationName()));
+    }
+
+    private static Set<String> parseOperations(String operations) {
+        return Collections.unmodifiableSet(Splitter.on(',').trimResults().omitEmptyStrings().splitToList(operations)
+                .stream().collect(Collectors.toSet()));
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("threads", threads)
+                .add("timeout", timeout)
+                .add("readOnlyOperations", readOnlyOperations)
+                .toString();
+    }
+}
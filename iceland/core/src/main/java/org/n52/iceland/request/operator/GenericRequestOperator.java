@@ -16,15 +16,12 @@
 package org.n52.iceland.request.operator;
 
 import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
 import javax.inject.Inject;
 
-import org.n52.iceland.convert.RequestResponseModifier;
 import org.n52.iceland.convert.RequestResponseModifierRepository;
 import org.n52.iceland.event.events.RequestEvent;
 import org.n52.iceland.event.events.ResponseEvent;
@@ -38,6 +35,7 @@ import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.shetland.ogc.ows.service.OwsOperationKey;
 import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
 import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+import org.n52.shetland.ogc.ows.service.RequestTimings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -116,70 +114,18 @@ public class GenericRequestOperator<Q extends OwsServiceRequest, A extends OwsSe
 
     private void checkForModifierAndProcess(OwsServiceRequest request)
             throws OwsExceptionReport {
-        if (!this.modifierRepository.hasRequestResponseModifier(request)) {
-            return;
-        }
-        List<RequestResponseModifier> splitter = new LinkedList<>();
-        List<RequestResponseModifier> remover = new LinkedList<>();
-        List<RequestResponseModifier> defaultModifier = new LinkedList<>();
-        this.modifierRepository
-                .getRequestResponseModifier(request).stream()
-                .forEach(modifier -> {
-                    if (modifier.getFacilitator().isSplitter()) {
-                        splitter.add(modifier);
-                    } else if (modifier.getFacilitator().isAdderRemover()) {
-                        remover.add(modifier);
-                    } else {
-                        defaultModifier.add(modifier);
-                    }
-                });
-        // execute adder/remover
-        for (RequestResponseModifier modifier : remover) {
-            modifier.modifyRequest(request);
-        }
-        // execute default
-        for (RequestResponseModifier modifier : defaultModifier) {
-            modifier.modifyRequest(request);
-        }
-        // execute splitter
-        for (RequestResponseModifier modifier : splitter) {
-            modifier.modifyRequest(request);
-        }
+        this.modifierRepository.getRequestModifierChain(request).modifyRequest(request);
     }
 
     private void checkForModifierAndProcess(
             OwsServiceRequest request,
             OwsServiceResponse response)
             throws OwsExceptionReport {
-        if (!this.modifierRepository.hasRequestResponseModifier(request, response)) {
-            return;
-        }
-        List<RequestResponseModifier> defaultModifier = new LinkedList<>();
-        List<RequestResponseModifier> remover = new LinkedList<>();
-        List<RequestResponseModifier> merger = new LinkedList<>();
-        this.modifierRepository.getRequestResponseModifier(request, response).stream()
-                .forEach(modifier -> {
-                    if (modifier.getFacilitator().isMerger()) {
-                        merger.add(modifier);
-                    } else if (modifier.getFacilitator().isAdderRemover()) {
-                        remover.add(modifier);
-                    } else {
-                        defaultModifier.add(modifier);
-                    }
-                });
-
-        // execute merger
-        for (RequestResponseModifier modifier : merger) {
-            modifier.modifyResponse(request, response);
-        }
-        // execute default
-        for (RequestResponseModifier modifier : defaultModifier) {
-            modifier.modifyResponse(request, response);
-        }
-        // execute adder/remover
-        for (RequestResponseModifier modifier : remover) {
-            modifier.modifyResponse(request, response);
-        }
+        this.modifierRepository.getResponseModifierChain(request, response).modifyResponse(request, response);
+    }
+
+    private RequestTimings getRequestTimings(OwsServiceRequest request) {
+        return request.isSetRequestContext() ? request.getRequestContext().getTimings() : RequestTimings.disabled();
     }
 
     @Override
@@ -189,12 +135,21 @@ public class GenericRequestOperator<Q extends OwsServiceRequest, A extends OwsSe
         this.eventBus.submit(new RequestEvent(abstractRequest));
         if (requestType.isAssignableFrom(abstractRequest.getClass())) {
             Q request = requestType.cast(abstractRequest);
-            checkForModifierAndProcess(request);
-            this.validator.validate(request);
-            A response = receive(request);
-            this.eventBus.submit(new ResponseEvent(response));
-            checkForModifierAndProcess(request, response);
-            return response;
+            RequestTimings timings = getRequestTimings(request);
+            if (timings.isEnabled()) {
+                timings.setOperation(new OwsOperationKey(request));
+            }
+            long start = timings.start();
+            try {
+                checkForModifierAndProcess(request);
+                this.validator.validate(request);
+                A response = receive(request);
+                this.eventBus.submit(new ResponseEvent(response));
+                checkForModifierAndProcess(request, response);
+                return response;
+            } finally {
+                timings.stop(RequestTimings.Phase.OPERATION, start);
+            }
         } else {
             throw new OperationNotSupportedException(abstractRequest.getOperationName());
         }
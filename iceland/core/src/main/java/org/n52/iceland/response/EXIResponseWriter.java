@@ -15,9 +15,7 @@
  */
 package org.n52.iceland.response;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Collections;
 import java.util.Set;
@@ -25,6 +23,7 @@ import java.util.Set;
 import org.apache.xmlbeans.XmlObject;
 import org.apache.xmlbeans.XmlOptions;
 import org.n52.iceland.binding.exi.EXISettings;
+import org.n52.iceland.binding.exi.EXIUtils;
 import org.n52.iceland.coding.encode.AbstractResponseWriter;
 import org.n52.iceland.coding.encode.ResponseProxy;
 import org.n52.iceland.coding.encode.ResponseWriterKey;
@@ -34,12 +33,8 @@ import org.n52.janmayen.http.MediaTypes;
 import org.n52.shetland.exi.EXIObject;
 import org.n52.svalbard.encode.EncoderRepository;
 import org.n52.svalbard.encode.exception.EncodingException;
-import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
-import org.xml.sax.XMLReader;
-import org.xml.sax.helpers.XMLReaderFactory;
 
-import com.google.common.base.Charsets;
 import com.siemens.ct.exi.core.EXIFactory;
 import com.siemens.ct.exi.core.exceptions.EXIException;
 import com.siemens.ct.exi.main.api.sax.EXIResult;
@@ -47,7 +42,8 @@ import com.siemens.ct.exi.main.api.sax.EXIResult;
 /**
  * Writer class for {@link EXIObject}
  *
- * Converts XML documents via EXI encoding using {@link EXISettings}.
+ * Converts XML documents via EXI encoding using {@link EXISettings}. The SAX events of the document are passed
+ * directly to a pooled EXI writer of the {@link EXIUtils}.
  *
  * @author <a href="mailto:c.hollmann@52north.org">Carsten Hollmann</a>
  * @since 2.0.0
@@ -58,18 +54,36 @@ public class EXIResponseWriter
 
     public static final ResponseWriterKey KEY = new ResponseWriterKey(EXIObject.class);
 
-    private final Producer<EXIFactory> exiFactory;
+    private final EXIUtils exiUtils;
     private final Producer<XmlOptions> xmlOptions;
 
     // we can not use injection in this class as it is manually created by a
     // factory
     public EXIResponseWriter(
-            EncoderRepository encoderRepository, Producer<EXIFactory> exiFactory, Producer<XmlOptions> xmlOptions) {
+            EncoderRepository encoderRepository, EXIUtils exiUtils, Producer<XmlOptions> xmlOptions) {
         super(encoderRepository);
-        this.exiFactory = exiFactory;
+        this.exiUtils = exiUtils;
         this.xmlOptions = xmlOptions;
     }
 
+    /**
+     * Creates a writer that creates a new EXI writer for every response. If the producer is an {@link EXIUtils},
+     * its pooled writers are used.
+     *
+     * @param encoderRepository the encoder repository
+     * @param exiFactory        the producer of the EXI factory
+     * @param xmlOptions        the producer of the XML options
+     *
+     * @deprecated use {@link #EXIResponseWriter(EncoderRepository, EXIUtils, Producer)}
+     */
+    @Deprecated
+    public EXIResponseWriter(
+            EncoderRepository encoderRepository, Producer<EXIFactory> exiFactory, Producer<XmlOptions> xmlOptions) {
+        this(encoderRepository,
+             exiFactory instanceof EXIUtils ? (EXIUtils) exiFactory : EXIUtils.unpooled(exiFactory),
+             xmlOptions);
+    }
+
     @Override
     public Set<ResponseWriterKey> getKeys() {
         return Collections.singleton(KEY);
@@ -83,24 +97,16 @@ public class EXIResponseWriter
 
     @Override
     public void write(EXIObject<XmlObject> exiObject, OutputStream out) throws IOException, EncodingException {
-        byte[] bytes = getBytes(exiObject);
-        try (InputStream is = new ByteArrayInputStream(bytes)) {
-            EXIResult result = new EXIResult(this.exiFactory.get());
+        try (EXIUtils.Lease<EXIResult> lease = this.exiUtils.borrowResult()) {
+            EXIResult result = lease.get();
             result.setOutputStream(out);
-            XMLReader xmlReader = XMLReaderFactory.createXMLReader();
-            xmlReader.setContentHandler(result.getHandler());
-            xmlReader.parse(new InputSource(is));
+            exiObject.getDoc().save(result.getHandler(), result.getLexicalHandler(), this.xmlOptions.get());
+            lease.complete();
         } catch (EXIException | SAXException e) {
             throw new EncodingException(e);
         }
     }
 
-    private byte[] getBytes(EXIObject<XmlObject> exi) {
-        XmlObject doc = exi.getDoc();
-        String text = doc.xmlText(this.xmlOptions.get());
-        return text.getBytes(Charsets.UTF_8);
-    }
-
     @Override
     public MediaType getContentType() {
         return MediaTypes.APPLICATION_EXI;
@@ -18,6 +18,7 @@ package org.n52.iceland.response;
 import javax.inject.Inject;
 
 import org.apache.xmlbeans.XmlOptions;
+import org.n52.iceland.binding.exi.EXIUtils;
 import org.n52.iceland.coding.encode.ResponseWriter;
 import org.n52.iceland.coding.encode.ResponseWriterFactory;
 import org.n52.iceland.coding.encode.ResponseWriterKey;
@@ -42,6 +43,7 @@ public class EXIResponseWriterFactory
 
     private static final ResponseWriterKey RESPONSE_WRITER_KEY = new ResponseWriterKey(EXIObject.class);
 
+    private EXIUtils exiUtils;
     private Producer<EXIFactory> exiFactoryProducer;
     private Producer<XmlOptions> xmlOptionsProducer;
     private EncoderRepository encoderRepository;
@@ -53,6 +55,17 @@ public class EXIResponseWriterFactory
     }
 
     @Inject
+    @SuppressFBWarnings({ "EI_EXPOSE_REP2" })
+    public void setExiUtils(EXIUtils exiUtils) {
+        this.exiUtils = exiUtils;
+    }
+
+    /**
+     * @param producer the producer of the EXI factory
+     *
+     * @deprecated use {@link #setExiUtils(EXIUtils)}
+     */
+    @Deprecated
     public void setExiFactoryProducer(Producer<EXIFactory> producer) {
         this.exiFactoryProducer = producer;
     }
@@ -69,6 +82,12 @@ public class EXIResponseWriterFactory
 
     @Override
     public EXIResponseWriter create() {
-        return new EXIResponseWriter(this.encoderRepository, this.exiFactoryProducer, this.xmlOptionsProducer);
+        EXIUtils utils = this.exiUtils;
+        if (utils == null && this.exiFactoryProducer != null) {
+            utils = this.exiFactoryProducer instanceof EXIUtils
+                    ? (EXIUtils) this.exiFactoryProducer
+                    : EXIUtils.unpooled(this.exiFactoryProducer);
+        }
+        return new EXIResponseWriter(this.encoderRepository, utils, this.xmlOptionsProducer);
     }
 }
@@ -0,0 +1,386 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.n52.faroe.ConfigurationError;
+import org.n52.faroe.Validation;
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
+import org.n52.shetland.ogc.ows.service.OwsOperationKey;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Splitter;
+
+/**
+ * Limits the number of concurrently processed requests per operation and binding. Requests exceeding the limit are
+ * queued up to {@value ServiceSettings#ADMISSION_QUEUE_LENGTH} requests for at most
+ * {@value ServiceSettings#ADMISSION_QUEUE_TIMEOUT} milliseconds and are rejected afterwards, so that the bindings can
+ * answer with a fast {@code 503 Service Unavailable}.
+ * <p>
+ * The limits are configured using {@value ServiceSettings#ADMISSION_DEFAULT_LIMIT} and
+ * {@value ServiceSettings#ADMISSION_LIMITS} (e.g. {@code GetObservation:8, DescribeSensor:32}). A limit of {@code 0}
+ * disables the admission control for an operation. If {@value ServiceSettings#ADMISSION_ADAPTIVE} is enabled, the
+ * configured limit is the upper bound of a limit that is adjusted to the observed latency: it is increased additively
+ * as long as the latency stays close to the minimal observed latency and decreased multiplicatively otherwise.
+ *
+ * @since 9.9.0
+ */
+@Configurable
+public class AdmissionController {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdmissionController.class);
+    private static final Permit UNLIMITED = () -> { };
+    private static final int DEFAULT_QUEUE_TIMEOUT = 1000;
+    private static final int DEFAULT_RETRY_AFTER = 1;
+    private final ConcurrentMap<Key, Limiter> limiters = new ConcurrentHashMap<>();
+    private Map<String, Integer> limits = Collections.emptyMap();
+    private int defaultLimit;
+    private int queueLength;
+    private long queueTimeout = TimeUnit.MILLISECONDS.toNanos(DEFAULT_QUEUE_TIMEOUT);
+    private boolean adaptive;
+    private int retryAfter = DEFAULT_RETRY_AFTER;
+
+    @Setting(value = ServiceSettings.ADMISSION_DEFAULT_LIMIT, required = false)
+    public void setDefaultLimit(Integer defaultLimit) {
+        this.defaultLimit = defaultLimit == null ? 0 : Validation.greaterEqualZero("Default limit", defaultLimit);
+        this.limiters.clear();
+    }
+
+    @Setting(value = ServiceSettings.ADMISSION_LIMITS, required = false)
+    public void setLimits(String limits) {
+        Map<String, Integer> map = new HashMap<>();
+        if (limits != null) {
+            try {
+                Splitter.on(',').trimResults().omitEmptyStrings()
+                        .withKeyValueSeparator(Splitter.on(':').trimResults()).split(limits)
+                        .forEach((operation, limit) -> map.put(operation, Integer.valueOf(limit)));
+            } catch (IllegalArgumentException e) {
+                throw new ConfigurationError(String.format("Invalid operation limits: %s", limits), e);
+            }
+            map.forEach((operation, limit) -> Validation.greaterEqualZero(operation, limit));
+        }
+        this.limits = Collections.unmodifiableMap(map);
+        this.limiters.clear();
+    }
+
+    @Setting(value = ServiceSettings.ADMISSION_QUEUE_LENGTH, required = false)
+    public void setQueueLength(Integer queueLength) {
+        this.queueLength = queueLength == null ? 0 : Validation.greaterEqualZero("Queue length", queueLength);
+        this.limiters.clear();
+    }
+
+    @Setting(value = ServiceSettings.ADMISSION_QUEUE_TIMEOUT, required = false)
+    public void setQueueTimeout(Integer queueTimeout) {
+        this.queueTimeout = TimeUnit.MILLISECONDS.toNanos(queueTimeout == null ? DEFAULT_QUEUE_TIMEOUT
+                : Validation.greaterEqualZero("Queue timeout", queueTimeout));
+    }
+
+    @Setting(value = ServiceSettings.ADMISSION_ADAPTIVE, required = false)
+    public void setAdaptive(Boolean adaptive) {
+        this.adaptive = adaptive != null && adaptive;
+        this.limiters.clear();
+    }
+
+    @Setting(value = ServiceSettings.ADMISSION_RETRY_AFTER, required = false)
+    public void setRetryAfter(Integer retryAfter) {
+        this.retryAfter = retryAfter == null ? DEFAULT_RETRY_AFTER
+                : Validation.greaterEqualZero("Retry after", retryAfter);
+    }
+
+    /**
+     * @return the number of seconds a rejected client should wait before retrying the request
+     */
+    public int getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Get the configured limit for the operation.
+     *
+     * @param operation the operation name
+     *
+     * @return the limit or {@code 0} if the operation is not limited
+     */
+    public int getLimit(String operation) {
+        return limits.getOrDefault(operation, defaultLimit);
+    }
+
+    /**
+     * Tries to admit a request, waiting in the queue of the operation if the limit is reached.
+     *
+     * @param binding   the binding name
+     * @param operation the operation
+     *
+     * @return the permit that has to be closed after the response is written or an empty optional if the request was
+     *         rejected
+     */
+    public Optional<Permit> admit(String binding, OwsOperationKey operation) {
+        int limit = getLimit(operation.getOperation());
+        if (limit == 0) {
+            return Optional.of(UNLIMITED);
+        }
+        Key key = new Key(operation, binding);
+        Limiter limiter = limiters.computeIfAbsent(key, k -> new Limiter(limit, queueLength, adaptive));
+        Optional<Permit> permit = limiter.acquire(queueTimeout);
+        if (!permit.isPresent()) {
+            LOGGER.debug("Rejected request for {}: {}", key, limiter.getStatistics());
+        }
+        return permit;
+    }
+
+    /**
+     * Creates snapshots of the current limits, queued, in-flight, admitted and rejected requests.
+     *
+     * @return the statistics per key
+     */
+    public Map<Key, Statistics> getStatistics() {
+        Map<Key, Statistics> statistics = new LinkedHashMap<>(limiters.size());
+        limiters.forEach((key, limiter) -> statistics.put(key, limiter.getStatistics()));
+        return statistics;
+    }
+
+    /**
+     * A permit to process a request. Closing the permit releases the slot and records the latency of the request.
+     */
+    @FunctionalInterface
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * An additive-increase/multiplicative-decrease limit of concurrent requests.
+     */
+    private static class Limiter {
+        private static final int MIN_LIMIT = 1;
+        private static final double BACKOFF = 0.9;
+        private static final double TOLERANCE = 2.0;
+        private static final int WINDOW = 1000;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition available = lock.newCondition();
+        private final int maxLimit;
+        private final int queueLength;
+        private final boolean adaptive;
+        private double limit;
+        private int inFlight;
+        private int queued;
+        private long admitted;
+        private long rejected;
+        private long minLatency = Long.MAX_VALUE;
+        private long windowMinLatency = Long.MAX_VALUE;
+        private int samples;
+
+        Limiter(int maxLimit, int queueLength, boolean adaptive) {
+            this.maxLimit = maxLimit;
+            this.queueLength = queueLength;
+            this.adaptive = adaptive;
+            this.limit = maxLimit;
+        }
+
+        Optional<Permit> acquire(long timeout) {
+            lock.lock();
+            try {
+                if (inFlight >= (int) limit && !await(timeout)) {
+                    ++rejected;
+                    return Optional.empty();
+                }
+                ++inFlight;
+                ++admitted;
+            } finally {
+                lock.unlock();
+            }
+            long start = System.nanoTime();
+            AtomicBoolean released = new AtomicBoolean();
+            return Optional.of(() -> {
+                if (released.compareAndSet(false, true)) {
+                    release(System.nanoTime() - start);
+                }
+            });
+        }
+
+        private boolean await(long timeout) {
+            if (queued >= queueLength || timeout <= 0) {
+                return false;
+            }
+            ++queued;
+            try {
+                long remaining = timeout;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = available.awaitNanos(remaining);
+                }
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                --queued;
+            }
+        }
+
+        private void release(long latency) {
+            lock.lock();
+            try {
+                --inFlight;
+                if (adaptive) {
+                    adapt(latency);
+                }
+                available.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void adapt(long latency) {
+            // track the minimal latency of the last window to follow changes of the baseline
+            windowMinLatency = Math.min(windowMinLatency, latency);
+            minLatency = Math.min(minLatency, latency);
+            if (++samples >= WINDOW) {
+                minLatency = windowMinLatency;
+                windowMinLatency = Long.MAX_VALUE;
+                samples = 0;
+            }
+            if (latency > minLatency * TOLERANCE) {
+                limit = Math.max(MIN_LIMIT, limit * BACKOFF);
+            } else {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+        }
+
+        Statistics getStatistics() {
+            lock.lock();
+            try {
+                return new Statistics((int) limit, inFlight, queued, admitted, rejected);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * A snapshot of the state of a limit.
+     */
+    public static final class Statistics {
+        private final int limit;
+        private final int inFlight;
+        private final int queued;
+        private final long admitted;
+        private final long rejected;
+
+        public Statistics(int limit, int inFlight, int queued, long admitted, long rejected) {
+            this.limit = limit;
+            this.inFlight = inFlight;
+            this.queued = queued;
+            this.admitted = admitted;
+            this.rejected = rejected;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public int getInFlight() {
+            return inFlight;
+        }
+
+        public int getQueued() {
+            return queued;
+        }
+
+        public long getAdmitted() {
+            return admitted;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("limit", limit)
+                    .add("inFlight", inFlight)
+                    .add("queued", queued)
+                    .add("admitted", admitted)
+                    .add("rejected", rejected)
+                    .toString();
+        }
+    }
+
+    /**
+     * The key of a limit.
+     */
+    public static final class Key {
+        private final OwsOperationKey operation;
+        private final String binding;
+
+        public Key(OwsOperationKey operation, String binding) {
+            this.operation = Objects.requireNonNull(operation);
+            this.binding = Objects.requireNonNull(binding);
+        }
+
+        public OwsOperationKey getOperation() {
+            return operation;
+        }
+
+        public String getBinding() {
+            return binding;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(operation, binding);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) obj;
+            return Objects.equals(this.operation, that.operation) &&
+                   Objects.equals(this.binding, that.binding);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("operation", operation)
+                    .add("binding", binding)
+                    .toString();
+        }
+    }
+}
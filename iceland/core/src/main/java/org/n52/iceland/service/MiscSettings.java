@@ -30,4 +30,16 @@ public interface MiscSettings {
     String COUNTING_OUTPUTSTREAM = "misc.counting-outputstream";
 
     String INCLUDE_ORIGINAL_REQUEST = "misc.includeOriginalRequest";
+
+    String REQUEST_TIMING = "misc.request-timing";
+
+    String REQUEST_TIMING_LOG_INTERVAL = "misc.request-timing.log-interval";
+
+    String COMPRESSION_ENCODINGS = "misc.compression.encodings";
+
+    String COMPRESSION_THRESHOLD = "misc.compression.threshold";
+
+    String COMPRESSION_LEVEL = "misc.compression.level";
+
+    String COMPRESSION_BUFFER_SIZE = "misc.compression.buffer-size";
 }
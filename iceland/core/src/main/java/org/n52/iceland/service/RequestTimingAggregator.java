@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.service;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
+import org.n52.iceland.event.events.RequestTimingEvent;
+import org.n52.janmayen.LatencyHistogram;
+import org.n52.janmayen.event.Event;
+import org.n52.janmayen.event.EventListener;
+import org.n52.shetland.ogc.ows.service.RequestTimings;
+import org.n52.shetland.ogc.ows.service.RequestTimings.Phase;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Aggregates {@link RequestTimingEvent}s into latency histograms per operation, binding and response content type.
+ * The histograms can be retrieved using {@link #getTotalSnapshots()} and {@link #getPhaseSnapshots()} and are
+ * periodically logged if {@value MiscSettings#REQUEST_TIMING_LOG_INTERVAL} is set to a positive number of requests.
+ *
+ * @since 9.9.0
+ */
+@Configurable
+public class RequestTimingAggregator implements EventListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestTimingAggregator.class);
+    private static final String UNKNOWN = "unknown";
+    private final ConcurrentMap<Key, Histograms> histograms = new ConcurrentHashMap<>();
+    private final AtomicLong counter = new AtomicLong();
+    private long logInterval;
+
+    @Setting(value = MiscSettings.REQUEST_TIMING_LOG_INTERVAL, required = false)
+    public void setLogInterval(Integer logInterval) {
+        this.logInterval = logInterval == null ? 0 : logInterval;
+    }
+
+    @Override
+    public Set<Class<? extends Event>> getTypes() {
+        return Collections.<Class<? extends Event>>singleton(RequestTimingEvent.class);
+    }
+
+    @Override
+    public void handle(Event event) {
+        RequestTimingEvent rte = (RequestTimingEvent) event;
+        RequestTimings timings = rte.getTimings();
+        Key key = new Key(timings.getOperation().map(Object::toString).orElse(UNKNOWN),
+                          timings.getBinding().orElse(UNKNOWN),
+                          rte.getContentType().orElse(UNKNOWN));
+        histograms.computeIfAbsent(key, k -> new Histograms()).record(timings, rte.getElapsedTime());
+        if (logInterval > 0 && counter.incrementAndGet() % logInterval == 0) {
+            log();
+        }
+    }
+
+    /**
+     * Creates snapshots of the total request time histograms.
+     *
+     * @return the snapshots per key
+     */
+    public Map<Key, LatencyHistogram.Snapshot> getTotalSnapshots() {
+        Map<Key, LatencyHistogram.Snapshot> snapshots = new LinkedHashMap<>(histograms.size());
+        histograms.forEach((key, value) -> snapshots.put(key, value.total.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * Creates snapshots of the histograms of the individual phases.
+     *
+     * @return the snapshots per key and phase
+     */
+    public Map<Key, Map<Phase, LatencyHistogram.Snapshot>> getPhaseSnapshots() {
+        Map<Key, Map<Phase, LatencyHistogram.Snapshot>> snapshots = new LinkedHashMap<>(histograms.size());
+        histograms.forEach((key, value) -> snapshots.put(key, value.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * Discards all recorded values.
+     */
+    public void reset() {
+        histograms.clear();
+    }
+
+    private void log() {
+        if (LOGGER.isInfoEnabled()) {
+            histograms.forEach((key, value) -> {
+                LOGGER.info("Request timings for {}: total={}", key, value.total.snapshot());
+                value.snapshot().forEach((phase, snapshot) -> {
+                    if (snapshot.getMax() > 0) {
+                        LOGGER.info("Request timings for {}: {}={}", key, phase, snapshot);
+                    }
+                });
+            });
+        }
+    }
+
+    private static class Histograms {
+        private final Map<Phase, LatencyHistogram> phases = new EnumMap<>(Phase.class);
+        private final LatencyHistogram total = new LatencyHistogram();
+
+        Histograms() {
+            for (Phase phase : Phase.values()) {
+                phases.put(phase, new LatencyHistogram());
+            }
+        }
+
+        void record(RequestTimings timings, long elapsed) {
+            total.record(elapsed);
+            phases.forEach((phase, histogram) -> histogram.record(timings.get(phase)));
+        }
+
+        Map<Phase, LatencyHistogram.Snapshot> snapshot() {
+            Map<Phase, LatencyHistogram.Snapshot> snapshots = new EnumMap<>(Phase.class);
+            phases.forEach((phase, histogram) -> snapshots.put(phase, histogram.snapshot()));
+            return snapshots;
+        }
+    }
+
+    /**
+     * The key of the aggregated histograms.
+     */
+    public static final class Key {
+        private final String operation;
+        private final String binding;
+        private final String contentType;
+
+        public Key(String operation, String binding, String contentType) {
+            this.operation = Objects.requireNonNull(operation);
+            this.binding = Objects.requireNonNull(binding);
+            this.contentType = Objects.requireNonNull(contentType);
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        public String getBinding() {
+            return binding;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(operation, binding, contentType);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) obj;
+            return Objects.equals(this.operation, that.operation) &&
+                   Objects.equals(this.binding, that.binding) &&
+                   Objects.equals(this.contentType, that.contentType);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("operation", operation)
+                    .add("binding", binding)
+                    .add("contentType", contentType)
+                    .toString();
+        }
+    }
+}
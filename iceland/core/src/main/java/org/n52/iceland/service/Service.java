@@ -42,6 +42,7 @@ import org.n52.iceland.binding.BindingRepository;
 import org.n52.iceland.event.events.ExceptionEvent;
 import org.n52.iceland.event.events.IncomingRequestEvent;
 import org.n52.iceland.event.events.OutgoingResponseEvent;
+import org.n52.iceland.event.events.RequestTimingEvent;
 import org.n52.iceland.exception.HTTPException;
 import org.n52.janmayen.event.EventBus;
 import org.n52.janmayen.http.HTTPHeaders;
@@ -49,6 +50,7 @@ import org.n52.janmayen.http.HTTPMethods;
 import org.n52.janmayen.http.HTTPStatus;
 import org.n52.janmayen.http.MediaType;
 import org.n52.janmayen.http.MediaTypes;
+import org.n52.shetland.ogc.ows.service.RequestTimings;
 
 import com.google.common.base.Stopwatch;
 import com.google.common.util.concurrent.SimpleTimeLimiter;
@@ -74,6 +76,7 @@ public class Service {
     private static final TimeLimiter TIME_LIMITER = SimpleTimeLimiter.create(Executors.newCachedThreadPool());
     private static final Logger LOGGER = LoggerFactory.getLogger(Service.class);
     private Integer requestTimeout = 0;
+    private boolean requestTiming;
 
     @Inject
     private transient BindingRepository bindingRepository;
@@ -85,6 +88,9 @@ public class Service {
     private transient Optional<ImplementationVersionHeaderAdder> implementationVersionHeaderAdder;
 
     private long logRequest(HttpServletRequest request) {
+        if (requestTiming) {
+            RequestTimings.create().attachTo(request);
+        }
         long count = COUNTER.incrementAndGet();
         this.serviceEventBus.submit(new IncomingRequestEvent(request, count));
 
@@ -106,6 +112,11 @@ public class Service {
                              long count, Stopwatch stopwatch) {
         long elapsed = stopwatch.stop().elapsed(TimeUnit.MILLISECONDS);
         this.serviceEventBus.submit(new OutgoingResponseEvent(request, response, count, elapsed));
+        RequestTimings timings = RequestTimings.fromRequest(request);
+        if (timings.isEnabled()) {
+            this.serviceEventBus.submit(new RequestTimingEvent(timings, response.getContentType(),
+                                                               stopwatch.elapsed(TimeUnit.NANOSECONDS)));
+        }
         LOGGER.debug("Outgoing response for request No. {} is committed = {} (took {} ms)",
                      count, response.isCommitted(), elapsed);
     }
@@ -214,6 +225,7 @@ public class Service {
                     throw new HTTPException(HTTPStatus.UNSUPPORTED_MEDIA_TYPE);
                 }
             } else {
+                RequestTimings.fromRequest(request).setBinding(binding.getClass().getSimpleName());
                 if (requestTimeout > 0) {
                     try {
                         return TIME_LIMITER.newProxy(binding, Binding.class, requestTimeout, TimeUnit.SECONDS);
@@ -310,6 +322,11 @@ public class Service {
         }
     }
 
+    @Setting(value = MiscSettings.REQUEST_TIMING, required = false)
+    public void setRequestTiming(Boolean requestTiming) {
+        this.requestTiming = requestTiming != null && requestTiming;
+    }
+
     private void addVersionHeader(HttpServletResponse response) {
         if (implementationVersionHeaderAdder.isPresent()) {
             implementationVersionHeaderAdder.get().addVersion(response);
@@ -26,4 +26,22 @@ public interface ServiceSettings {
 
     String URL = "service.url";
 
+    String ADMISSION_DEFAULT_LIMIT = "service.admission.defaultLimit";
+
+    String ADMISSION_LIMITS = "service.admission.limits";
+
+    String ADMISSION_QUEUE_LENGTH = "service.admission.queueLength";
+
+    String ADMISSION_QUEUE_TIMEOUT = "service.admission.queueTimeout";
+
+    String ADMISSION_ADAPTIVE = "service.admission.adaptive";
+
+    String ADMISSION_RETRY_AFTER = "service.admission.retryAfter";
+
+    String BATCH_THREADS = "service.batch.threads";
+
+    String BATCH_TIMEOUT = "service.batch.timeout";
+
+    String BATCH_READ_ONLY_OPERATIONS = "service.batch.readOnlyOperations";
+
 }
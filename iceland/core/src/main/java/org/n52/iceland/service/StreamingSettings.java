@@ -19,4 +19,6 @@ public interface StreamingSettings {
 
     String FORCE_STREAMING_ENCODING = "service.streaming.encoding";
 
+    String JSON_STREAMING_DECODING_THRESHOLD = "service.streaming.decoding.json.threshold";
+
 }
@@ -35,6 +35,7 @@ import org.n52.janmayen.component.AbstractComponentRepository;
 import org.n52.janmayen.lifecycle.Constructable;
 import org.n52.shetland.ogc.ows.service.OwsServiceKey;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Maps;
 
 /**
@@ -65,6 +66,11 @@ public class ServiceOperatorRepository
                 .collect(groupingBy(OwsServiceKey::getService, mapping(OwsServiceKey::getVersion, toSet()))));
     }
 
+    @VisibleForTesting
+    public void setServiceOperators(Collection<ServiceOperator> serviceOperators) {
+        this.components = Optional.of(serviceOperators);
+    }
+
     /**
      * @return the implemented request listener
      */
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.util.http;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.n52.janmayen.http.HTTPConstants;
+import org.n52.janmayen.http.HTTPHeaders;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Splitter;
+
+/**
+ * The content codings accepted by a client, as stated in the {@code Accept-Encoding} header(s) of a request including
+ * their quality values (RFC 7231, section 5.3.4).
+ *
+ * @since 9.9.0
+ */
+public final class AcceptEncoding {
+    private static final AcceptEncoding NONE = new AcceptEncoding(Collections.emptyMap());
+    private static final String ANY = "*";
+    private static final String X_GZIP = "x-gzip";
+    private static final String IDENTITY = "identity";
+    private static final String QUALITY = "q";
+    private static final Splitter CODINGS = Splitter.on(',').trimResults().omitEmptyStrings();
+    private static final Splitter PARAMETERS = Splitter.on(';').trimResults().omitEmptyStrings();
+
+    private final Map<String, Double> qualities;
+
+    private AcceptEncoding(Map<String, Double> qualities) {
+        this.qualities = qualities;
+    }
+
+    /**
+     * Get the quality the client assigned to the coding. The {@code identity} coding is acceptable unless it is
+     * excluded explicitly or by {@code *;q=0}.
+     *
+     * @param coding the coding name
+     *
+     * @return the quality between {@code 0} (not acceptable) and {@code 1}
+     */
+    public double getQuality(String coding) {
+        String name = coding.toLowerCase(Locale.ROOT);
+        Double quality = qualities.get(name);
+        if (quality == null) {
+            quality = qualities.getOrDefault(ANY, IDENTITY.equals(name) ? 1.0 : 0.0);
+        }
+        return quality;
+    }
+
+    /**
+     * Selects the acceptable coding with the highest quality. If several codings have the same quality, the first of
+     * them is chosen.
+     *
+     * @param <T>     the coding type
+     * @param codings the codings supported by the server in order of preference
+     *
+     * @return the selected coding or an empty optional if none is acceptable
+     */
+    public <T extends ContentCoding> Optional<T> select(Iterable<T> codings) {
+        T selected = null;
+        double best = 0.0;
+        for (T coding : codings) {
+            double quality = getQuality(coding.getName());
+            if (quality > best) {
+                best = quality;
+                selected = coding;
+            }
+        }
+        return Optional.ofNullable(selected);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).addValue(qualities).toString();
+    }
+
+    public static AcceptEncoding fromRequest(HttpServletRequest request) {
+        Enumeration<String> headers = request.getHeaders(HTTPHeaders.ACCEPT_ENCODING);
+        if (headers == null || !headers.hasMoreElements()) {
+            return NONE;
+        }
+        Map<String, Double> qualities = new HashMap<>(4);
+        while (headers.hasMoreElements()) {
+            parse(headers.nextElement(), qualities);
+        }
+        return new AcceptEncoding(qualities);
+    }
+
+    public static AcceptEncoding parse(String header) {
+        Map<String, Double> qualities = new HashMap<>(4);
+        parse(header, qualities);
+        return qualities.isEmpty() ? NONE : new AcceptEncoding(qualities);
+    }
+
+    private static void parse(String header, Map<String, Double> qualities) {
+        if (header == null) {
+            return;
+        }
+        for (String element : CODINGS.split(header)) {
+            String coding = null;
+            double quality = 1.0;
+            for (String parameter : PARAMETERS.split(element)) {
+                if (coding == null) {
+                    coding = parameter.toLowerCase(Locale.ROOT);
+                } else {
+                    int idx = parameter.indexOf('=');
+                    if (idx > 0 && parameter.substring(0, idx).trim().equalsIgnoreCase(QUALITY)) {
+                        quality = parseQuality(parameter.substring(idx + 1).trim());
+                    }
+                }
+            }
+            if (coding != null && !Double.isNaN(quality)) {
+                qualities.put(X_GZIP.equals(coding) ? HTTPConstants.GZIP_ENCODING : coding, quality);
+            }
+        }
+    }
+
+    private static double parseQuality(String value) {
+        try {
+            double quality = Double.parseDouble(value);
+            return quality < 0.0 || quality > 1.0 ? Double.NaN : quality;
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.util.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.io.CountingOutputStream;
+
+/**
+ * {@link OutputStream} that buffers the first {@code threshold} bytes and only applies the {@link ContentCoding} if the
+ * content exceeds them. Smaller content is written unencoded when the stream is closed. The {@link Listener} is called
+ * before the first byte is written, so that the {@code Content-Encoding} or {@code Content-Length} header can still be
+ * set. The buffer grows with the content, small responses do not allocate the full threshold.
+ *
+ * @since 9.9.0
+ */
+public class CompressingOutputStream extends OutputStream {
+    private static final int INITIAL_BUFFER_SIZE = 512;
+    private final OutputStream out;
+    private final ContentCoding coding;
+    private final int threshold;
+    private final int level;
+    private final int bufferSize;
+    private final Listener listener;
+    private byte[] buffer;
+    private int count;
+    private OutputStream encoder;
+    private CountingOutputStream encoded;
+    private TimingOutputStream downstream;
+    private long uncompressed;
+    private long elapsed;
+    private boolean closed;
+
+    /**
+     * Creates a new {@code CompressingOutputStream}.
+     *
+     * @param out        the underlying stream
+     * @param coding     the coding to apply
+     * @param threshold  the minimum number of bytes to encode the content
+     * @param level      the compression level
+     * @param bufferSize the size of the encoder's buffer
+     * @param listener   the listener to notify if the content will be encoded
+     */
+    public CompressingOutputStream(OutputStream out, ContentCoding coding, int threshold, int level, int bufferSize,
+                                   Listener listener) {
+        this.out = out;
+        this.coding = coding;
+        this.level = level;
+        this.bufferSize = bufferSize;
+        this.listener = listener;
+        this.threshold = Math.max(threshold, 0);
+    }
+
+    /**
+     * @return if the content is encoded
+     */
+    public boolean isCompressed() {
+        return encoder != null;
+    }
+
+    public ContentCoding getCoding() {
+        return coding;
+    }
+
+    /**
+     * @return the number of bytes written to this stream
+     */
+    public long getUncompressedBytes() {
+        return uncompressed;
+    }
+
+    /**
+     * @return the number of bytes written to the underlying stream
+     */
+    public long getCompressedBytes() {
+        return encoded == null ? count : encoded.getCount();
+    }
+
+    /**
+     * @return the time in nanoseconds spent encoding, excluding the time spent in the underlying stream
+     */
+    public long getCompressionTime() {
+        return downstream == null ? 0 : elapsed - downstream.getElapsed();
+    }
+
+    /**
+     * @return the compression ratio (the compressed size divided by the uncompressed size)
+     */
+    public double getCompressionRatio() {
+        return uncompressed == 0 ? 1.0 : (double) getCompressedBytes() / uncompressed;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (encoder == null && count < threshold) {
+            ensureCapacity(count + 1);
+            buffer[count++] = (byte) b;
+            uncompressed++;
+        } else {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (encoder == null) {
+            if (len <= threshold - count) {
+                ensureCapacity(count + len);
+                System.arraycopy(b, off, buffer, count, len);
+                count += len;
+                uncompressed += len;
+                return;
+            }
+            startEncoding();
+        }
+        long start = System.nanoTime();
+        try {
+            encoder.write(b, off, len);
+            uncompressed += len;
+        } finally {
+            elapsed += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // flushing before the threshold is reached would force the decision
+        if (encoder != null) {
+            encoder.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (encoder == null) {
+            try {
+                listener.onUncompressed(count);
+                if (count > 0) {
+                    out.write(buffer, 0, count);
+                }
+            } finally {
+                out.close();
+            }
+        } else {
+            long start = System.nanoTime();
+            try {
+                encoder.close();
+            } finally {
+                elapsed += System.nanoTime() - start;
+            }
+        }
+        buffer = null;
+    }
+
+    private void startEncoding() throws IOException {
+        listener.onCompression(coding);
+        this.downstream = new TimingOutputStream(out);
+        this.encoded = new CountingOutputStream(downstream);
+        long start = System.nanoTime();
+        try {
+            this.encoder = coding.encode(encoded, level, bufferSize);
+            if (count > 0) {
+                this.encoder.write(buffer, 0, count);
+            }
+        } finally {
+            elapsed += System.nanoTime() - start;
+        }
+        this.buffer = null;
+    }
+
+    private void ensureCapacity(int capacity) {
+        int length = buffer == null ? 0 : buffer.length;
+        if (capacity > length) {
+            // grow geometrically up to the threshold
+            int size = Math.min(threshold, Math.max(capacity, Math.max(INITIAL_BUFFER_SIZE, length * 2)));
+            this.buffer = buffer == null ? new byte[size] : Arrays.copyOf(buffer, size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("coding", coding.getName())
+                .add("compressed", isCompressed())
+                .add("uncompressedBytes", getUncompressedBytes())
+                .add("compressedBytes", getCompressedBytes())
+                .add("compressionTime", getCompressionTime())
+                .toString();
+    }
+
+    /**
+     * Listener that is notified whether the content is encoded, before the first byte is written.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called before the first encoded byte is written.
+         *
+         * @param coding the coding
+         *
+         * @throws IOException if the encoding can not be applied
+         */
+        void onCompression(ContentCoding coding) throws IOException;
+
+        /**
+         * Called when the stream is closed before the threshold was exceeded and the buffered content is written
+         * unencoded.
+         *
+         * @param contentLength the length of the content
+         *
+         * @throws IOException if the content can not be written
+         */
+        default void onUncompressed(int contentLength) throws IOException {
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.util.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A HTTP content coding (e.g. {@code gzip}) that can be applied to response bodies.
+ *
+ * @since 9.9.0
+ */
+public interface ContentCoding {
+
+    /**
+     * Get the name of the coding as used in the {@code Accept-Encoding} and {@code Content-Encoding} headers.
+     *
+     * @return the name
+     */
+    String getName();
+
+    /**
+     * Creates a stream that encodes everything written to it and writes the result to {@code out}. Closing the
+     * returned stream finishes the encoding and closes {@code out}.
+     *
+     * @param out        the underlying stream
+     * @param level      the compression level ({@code 0-9} or {@code -1} for the default level)
+     * @param bufferSize the size of the output buffer
+     *
+     * @return the encoding stream
+     *
+     * @throws IOException if the stream could not be created
+     */
+    OutputStream encode(OutputStream out, int level, int bufferSize) throws IOException;
+}
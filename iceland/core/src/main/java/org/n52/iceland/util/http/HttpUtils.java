@@ -18,8 +18,16 @@ package org.n52.iceland.util.http;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
@@ -28,24 +36,28 @@ import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.n52.faroe.ConfigurationError;
+import org.n52.faroe.Validation;
 import org.n52.faroe.annotation.Configurable;
 import org.n52.faroe.annotation.Setting;
 import org.n52.iceland.binding.EncodingExceptionHandler;
 import org.n52.iceland.coding.encode.ResponseProxy;
 import org.n52.iceland.coding.encode.ResponseWriter;
 import org.n52.iceland.coding.encode.ResponseWriterRepository;
+import org.n52.iceland.event.events.CompressionEvent;
 import org.n52.iceland.event.events.CountingOutputStreamEvent;
 import org.n52.iceland.exception.HTTPException;
 import org.n52.iceland.response.ServiceResponse;
 import org.n52.iceland.service.MiscSettings;
 import org.n52.janmayen.event.EventBus;
-import org.n52.janmayen.http.HTTPConstants;
 import org.n52.janmayen.http.HTTPHeaders;
 import org.n52.janmayen.http.HTTPStatus;
 import org.n52.janmayen.http.MediaType;
+import org.n52.shetland.ogc.ows.service.RequestTimings;
 import org.n52.shetland.ogc.ows.service.ResponseFormat;
 import org.n52.svalbard.encode.exception.EncodingException;
 
+import com.google.common.base.Splitter;
 import com.google.common.io.CountingOutputStream;
 
 /**
@@ -60,11 +72,32 @@ public class HttpUtils {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpUtils.class);
 
+    private static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+
+    private static final int DEFAULT_COMPRESSION_BUFFER_SIZE = 8192;
+
     private Boolean isCountingOutputStream = false;
 
     private EventBus eventBus;
     private ResponseWriterRepository responseWriterRepository;
 
+    private final Map<String, ContentCoding> availableContentCodings = new LinkedHashMap<>();
+    private List<String> contentCodingNames = Collections.emptyList();
+    private volatile List<ContentCoding> contentCodings = Collections.emptyList();
+    private int compressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private int compressionBufferSize = DEFAULT_COMPRESSION_BUFFER_SIZE;
+
+    public HttpUtils() {
+        List<String> names = new ArrayList<>();
+        for (StandardContentCoding coding : StandardContentCoding.values()) {
+            this.availableContentCodings.put(coding.getName(), coding);
+            names.add(coding.getName());
+        }
+        this.contentCodingNames = names;
+        updateContentCodings();
+    }
+
     public EventBus getEventBus() {
         return eventBus;
     }
@@ -88,6 +121,68 @@ public class HttpUtils {
         this.isCountingOutputStream = isCountingOutputStream;
     }
 
+    /**
+     * Adds further content codings, that can be enabled using {@link MiscSettings#COMPRESSION_ENCODINGS}.
+     *
+     * @param codings the codings
+     */
+    @Inject
+    public synchronized void setContentCodings(Optional<Collection<ContentCoding>> codings) {
+        codings.ifPresent(c -> c.forEach(coding -> this.availableContentCodings
+                .put(coding.getName().toLowerCase(Locale.ROOT), coding)));
+        updateContentCodings();
+    }
+
+    /**
+     * Sets the content codings that are applied to responses, in order of preference. An empty value disables the
+     * compression of responses.
+     *
+     * @param names the comma separated names of the codings
+     */
+    @Setting(value = MiscSettings.COMPRESSION_ENCODINGS, required = false)
+    public synchronized void setContentCodingNames(String names) {
+        this.contentCodingNames = names == null ? Collections.emptyList()
+                                          : Splitter.on(',').trimResults().omitEmptyStrings()
+                                                  .splitToList(names.toLowerCase(Locale.ROOT));
+        updateContentCodings();
+    }
+
+    private void updateContentCodings() {
+        List<ContentCoding> codings = new ArrayList<>(contentCodingNames.size());
+        for (String name : contentCodingNames) {
+            ContentCoding coding = availableContentCodings.get(name);
+            if (coding == null) {
+                LOGGER.warn("Unsupported content coding: {}", name);
+            } else {
+                codings.add(coding);
+            }
+        }
+        this.contentCodings = Collections.unmodifiableList(codings);
+    }
+
+    /**
+     * Sets the minimum size of a response in bytes to be compressed.
+     *
+     * @param threshold the threshold
+     */
+    @Setting(value = MiscSettings.COMPRESSION_THRESHOLD, required = false)
+    public void setCompressionThreshold(int threshold) {
+        this.compressionThreshold = Validation.greaterEqualZero("Compression threshold", threshold);
+    }
+
+    @Setting(value = MiscSettings.COMPRESSION_LEVEL, required = false)
+    public void setCompressionLevel(int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new ConfigurationError("Invalid compression level: %d", level);
+        }
+        this.compressionLevel = level;
+    }
+
+    @Setting(value = MiscSettings.COMPRESSION_BUFFER_SIZE, required = false)
+    public void setCompressionBufferSize(int bufferSize) {
+        this.compressionBufferSize = Validation.greaterZero("Compression buffer size", bufferSize);
+    }
+
     public void writeObject(HttpServletRequest request, HttpServletResponse response, MediaType contentType,
                             Object object, EncodingExceptionHandler owserHandler) throws IOException, HTTPException {
         writeObject(request, response, contentType, new GenericWritable(object, contentType), owserHandler);
@@ -108,13 +203,29 @@ public class HttpUtils {
                              Writable writable, EncodingExceptionHandler owserHandler)
             throws IOException, HTTPException {
         OutputStream out = null;
+        RequestTimings timings = RequestTimings.fromRequest(request);
+        TimingOutputStream socketTiming = null;
+        TimingOutputStream compressionTiming = null;
+        CompressingOutputStream compression = null;
+        boolean compressed = false;
         response.setContentType(writable.getEncodedContentType().toString());
 
+        long start = timings.start();
         try {
             out = response.getOutputStream();
-            if (HTTPHeaders.supportsGzipEncoding(request) && writable.supportsGZip()) {
-                out = new GZIPOutputStream(out);
-                response.setHeader(HTTPHeaders.CONTENT_ENCODING, HTTPConstants.GZIP_ENCODING);
+            if (timings.isEnabled()) {
+                out = socketTiming = new TimingOutputStream(out);
+            }
+            Optional<ContentCoding> coding = negotiateContentCoding(request, response, writable);
+            if (coding.isPresent()) {
+                out = compression = new CompressingOutputStream(out, coding.get(), compressionThreshold,
+                                                                compressionLevel, compressionBufferSize,
+                                                                new CompressionHeaders(response));
+                // the content length is unknown until the stream is closed, it is set by CompressionHeaders
+                compressed = true;
+                if (timings.isEnabled()) {
+                    out = compressionTiming = new TimingOutputStream(out);
+                }
             }
             if (isCountingOutputStream) {
                 out = new CountingOutputStream(out);
@@ -124,14 +235,14 @@ public class HttpUtils {
                 response.setStatus(writable.getForcedHttpStatus().getCode());
             }
 
-            writable.write(out, new ResponseProxy(response));
+            writable.write(out, new ResponseProxy(response), compressed);
             out.flush();
         } catch (EncodingException e) {
             Object writeOwsExceptionReport = owserHandler.handleEncodingException(request, response, e);
             if (writeOwsExceptionReport != null) {
                 Writable owserWritable = getWritable(writeOwsExceptionReport, contentType);
                 try {
-                    owserWritable.write(out, new ResponseProxy(response));
+                    owserWritable.write(out, new ResponseProxy(response), compressed);
                     if (out != null) {
                         out.flush();
                     }
@@ -148,7 +259,39 @@ public class HttpUtils {
                 LOGGER.debug("Response status = " + response.getStatus());
                 out.close();
             }
+            if (compression != null) {
+                LOGGER.debug("Response compression: {}", compression);
+                eventBus.submit(new CompressionEvent(compression.getCoding().getName(), compression.isCompressed(),
+                                                     compression.getUncompressedBytes(),
+                                                     compression.getCompressedBytes(),
+                                                     compression.getCompressionTime()));
+            }
+            recordTimings(timings, start, socketTiming, compressionTiming);
+        }
+    }
+
+    private Optional<ContentCoding> negotiateContentCoding(HttpServletRequest request, HttpServletResponse response,
+                                                           Writable writable) {
+        List<ContentCoding> codings = this.contentCodings;
+        if (codings.isEmpty() || !writable.supportsGZip()) {
+            return Optional.empty();
+        }
+        long contentLength = writable.getContentLength();
+        if (contentLength >= 0 && contentLength <= compressionThreshold) {
+            return Optional.empty();
+        }
+        return AcceptEncoding.fromRequest(request).select(codings);
+    }
 
+    private static void recordTimings(RequestTimings timings, long start, TimingOutputStream socketTiming,
+                                      TimingOutputStream compressionTiming) {
+        if (timings.isEnabled() && socketTiming != null) {
+            long total = System.nanoTime() - start;
+            long write = socketTiming.getElapsed();
+            long downstream = compressionTiming != null ? compressionTiming.getElapsed() : write;
+            timings.add(RequestTimings.Phase.WRITE, write);
+            timings.add(RequestTimings.Phase.COMPRESSION, downstream - write);
+            timings.add(RequestTimings.Phase.ENCODE, total - downstream);
         }
     }
 
@@ -167,6 +310,30 @@ public class HttpUtils {
         }
     }
 
+    /**
+     * Sets the headers depending on whether the {@link CompressingOutputStream} encodes the content.
+     */
+    private static class CompressionHeaders implements CompressingOutputStream.Listener {
+        private final HttpServletResponse response;
+
+        CompressionHeaders(HttpServletResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void onCompression(ContentCoding coding) {
+            response.setHeader(HTTPHeaders.CONTENT_ENCODING, coding.getName());
+            response.addHeader(HTTPHeaders.VARY, HTTPHeaders.ACCEPT_ENCODING);
+        }
+
+        @Override
+        public void onUncompressed(int contentLength) {
+            if (!response.isCommitted()) {
+                response.setContentLength(contentLength);
+            }
+        }
+    }
+
     private static class ServiceResponseWritable implements Writable {
 
         private final ServiceResponse response;
@@ -176,9 +343,9 @@ public class HttpUtils {
         }
 
         @Override
-        public void write(OutputStream out, ResponseProxy responseProxy) throws IOException {
+        public void write(OutputStream out, ResponseProxy responseProxy, boolean compressed) throws IOException {
             // set content length if not gzipped
-            if (!(out instanceof GZIPOutputStream) && response.getContentLength() > -1) {
+            if (!compressed && response.getContentLength() > -1) {
                 responseProxy.setContentLength(response.getContentLength());
             }
             response.writeToOutputStream(out);
@@ -189,6 +356,11 @@ public class HttpUtils {
             return response.supportsGZip();
         }
 
+        @Override
+        public long getContentLength() {
+            return response.getContentLength();
+        }
+
         @Override
         public MediaType getEncodedContentType() {
             return response.getContentType();
@@ -232,7 +404,8 @@ public class HttpUtils {
         }
 
         @Override
-        public void write(OutputStream out, ResponseProxy responseProxy) throws IOException, EncodingException {
+        public void write(OutputStream out, ResponseProxy responseProxy, boolean compressed)
+                throws IOException, EncodingException {
             writer.write(object, out, responseProxy);
         }
 
@@ -247,12 +420,17 @@ public class HttpUtils {
 
     private interface Writable {
 
-        void write(OutputStream out, ResponseProxy responseProxy) throws IOException, EncodingException;
+        void write(OutputStream out, ResponseProxy responseProxy, boolean compressed)
+                throws IOException, EncodingException;
 
         boolean supportsGZip();
 
         MediaType getEncodedContentType();
 
+        default long getContentLength() {
+            return -1;
+        }
+
         default boolean hasForcedHttpStatus() {
             return false;
         }
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.util.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.n52.janmayen.http.HTTPConstants;
+
+/**
+ * The content codings supported by the JDK.
+ *
+ * @since 9.9.0
+ */
+public enum StandardContentCoding implements ContentCoding {
+    GZIP(HTTPConstants.GZIP_ENCODING) {
+        @Override
+        public OutputStream encode(OutputStream out, int level, int bufferSize) throws IOException {
+            return new GZIPOutputStream(out, bufferSize) {
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+    },
+    DEFLATE("deflate") {
+        @Override
+        public OutputStream encode(OutputStream out, int level, int bufferSize) {
+            Deflater deflater = new Deflater(level);
+            return new DeflaterOutputStream(out, deflater, bufferSize) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        // a supplied deflater is not released by the stream
+                        deflater.end();
+                    }
+                }
+            };
+        }
+    };
+
+    private final String name;
+
+    StandardContentCoding(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.util.http;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * {@link OutputStream} that measures the time spent in the underlying stream.
+ *
+ * @since 9.9.0
+ */
+public class TimingOutputStream extends FilterOutputStream {
+    private long elapsed;
+
+    public TimingOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    /**
+     * Get the time spent writing to, flushing and closing the underlying stream.
+     *
+     * @return the time in nanoseconds
+     */
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        long start = System.nanoTime();
+        try {
+            out.write(b);
+        } finally {
+            elapsed += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        long start = System.nanoTime();
+        try {
+            out.write(b, off, len);
+        } finally {
+            elapsed += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        long start = System.nanoTime();
+        try {
+            out.flush();
+        } finally {
+            elapsed += System.nanoTime() - start;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        long start = System.nanoTime();
+        try {
+            out.close();
+        } finally {
+            elapsed += System.nanoTime() - start;
+        }
+    }
+}
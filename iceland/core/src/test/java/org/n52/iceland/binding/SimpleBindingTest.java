@@ -19,7 +19,10 @@ import static com.google.common.collect.Lists.newArrayList;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
@@ -34,6 +37,7 @@ import org.n52.janmayen.http.MediaType;
 import org.n52.janmayen.http.MediaTypes;
 import org.n52.shetland.ogc.ows.service.OwsOperationKey;
 import org.n52.svalbard.encode.Encoder;
+import org.n52.svalbard.encode.EncoderKey;
 import org.n52.svalbard.encode.EncoderRepository;
 import org.n52.svalbard.encode.OperationResponseEncoderKey;
 
@@ -127,6 +131,23 @@ public class SimpleBindingTest {
         assertThat(chosenContentTypeWithAccept(ANYTHING), is(MediaTypes.APPLICATION_NETCDF));
     }
 
+    @Test
+    public void should_Negotiate_Once_Per_Accept_Header() throws HTTPException {
+        EncoderRepository encoderRepository = binding.getEncoderRepository();
+        OperationResponseEncoderKey jsonKey =
+                new OperationResponseEncoderKey(new OwsOperationKey(response), MediaTypes.APPLICATION_JSON);
+        when(encoderRepository.hasEncoder(jsonKey)).thenReturn(true);
+        for (int i = 0; i < 3; ++i) {
+            assertThat(chosenContentTypeWithAccept(JSON), is(MediaTypes.APPLICATION_JSON));
+        }
+        verify(encoderRepository, times(1)).hasEncoder(any(EncoderKey.class));
+
+        // the encoders changed
+        when(encoderRepository.getGeneration()).thenReturn(1L);
+        when(encoderRepository.hasEncoder(jsonKey)).thenReturn(false);
+        assertThrows(HTTPException.class, () -> chosenContentTypeWithAccept(JSON));
+    }
+
     private MediaType chosenContentTypeWithAccept(List<MediaType> accept) throws HTTPException {
         return binding.chooseResponseContentType(response, accept, defaultContentType);
     }
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.binding.exi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlOptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.n52.iceland.response.EXIResponseWriter;
+import org.n52.shetland.exi.EXIObject;
+import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import com.siemens.ct.exi.main.api.sax.EXIResult;
+
+public class EXIBindingTest {
+    private static final String NAMESPACE = "http://www.example.org/test";
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<t:InsertValue xmlns:t=\"" + NAMESPACE + "\" service=\"test\">"
+            + "<t:value>1.0</t:value><t:value>2.0</t:value>"
+            + "</t:InsertValue>";
+
+    private EXIUtils exiUtils;
+    private EXIBinding binding;
+
+    @BeforeEach
+    public void setUp() {
+        this.exiUtils = new EXIUtils();
+        this.exiUtils.init();
+        this.binding = new EXIBinding(exiUtils);
+    }
+
+    @Test
+    public void shouldDecodeToXmlBeans() throws Exception {
+        XmlObject document = binding.decode(request(encode(XML)));
+        Element root = (Element) document.getDomNode().getFirstChild();
+        assertThat(root.getNamespaceURI(), is(NAMESPACE));
+        assertThat(root.getLocalName(), is("InsertValue"));
+        assertThat(root.getAttribute("service"), is("test"));
+        assertThat(root.getElementsByTagNameNS(NAMESPACE, "value").getLength(), is(2));
+        assertThat(root.getElementsByTagNameNS(NAMESPACE, "value").item(1).getFirstChild().getNodeValue(), is("2.0"));
+    }
+
+    @Test
+    public void shouldReuseTheFactory() throws Exception {
+        assertThat(exiUtils.getEXIFactory(), is(sameInstance(exiUtils.getEXIFactory())));
+        binding.decode(request(encode(XML)));
+        assertThat(binding.decode(request(encode(XML))).xmlText(), containsString("2.0"));
+    }
+
+    @Test
+    public void shouldDecodeWrittenResponses() throws Exception {
+        EXIResponseWriter writer = new EXIResponseWriter(null, exiUtils, XmlOptions::new);
+        for (int i = 0; i < 2; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writer.write(new EXIObject<>(XmlObject.Factory.parse(XML)), out);
+            Element root = (Element) binding.decode(request(out.toByteArray())).getDomNode().getFirstChild();
+            assertThat(root.getLocalName(), is("InsertValue"));
+            assertThat(root.getElementsByTagNameNS(NAMESPACE, "value").getLength(), is(2));
+        }
+    }
+
+    @Test
+    public void shouldFailOnInvalidInput() {
+        assertThrows(NoApplicableCodeException.class,
+                () -> binding.decode(request(new byte[] { (byte) 0x80, 0x40, 0x7f })));
+    }
+
+    private byte[] encode(String xml) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EXIResult result = new EXIResult(exiUtils.getEXIFactory());
+        result.setOutputStream(out);
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        XMLReader reader = factory.newSAXParser().getXMLReader();
+        reader.setContentHandler(result.getHandler());
+        reader.parse(new InputSource(new StringReader(xml)));
+        return out.toByteArray();
+    }
+
+    private static MockHttpServletRequest request(byte[] content) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/service");
+        request.setContentType("application/exi");
+        request.setContent(content);
+        return request;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.binding.exi;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import com.siemens.ct.exi.core.CodingMode;
+import com.siemens.ct.exi.core.EXIFactory;
+import com.siemens.ct.exi.core.grammars.Grammars;
+import com.siemens.ct.exi.core.helpers.DefaultEXIFactory;
+import com.siemens.ct.exi.main.api.sax.EXIResult;
+
+public class EXIUtilsTest {
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+            + "<t:InsertValue xmlns:t=\"http://www.example.org/test\" service=\"test\">"
+            + "<t:value>1.0</t:value><t:value>2.0</t:value>"
+            + "</t:InsertValue>";
+
+    private EXIUtils exiUtils;
+
+    @BeforeEach
+    public void setUp() {
+        this.exiUtils = new EXIUtils();
+        this.exiUtils.init();
+    }
+
+    @Test
+    public void shouldReuseCompletedLeases() throws Exception {
+        XMLReader reader;
+        try (EXIUtils.Lease<XMLReader> lease = exiUtils.borrowReader()) {
+            reader = lease.get();
+            lease.complete();
+        }
+        try (EXIUtils.Lease<XMLReader> lease = exiUtils.borrowReader()) {
+            assertThat(lease.get(), is(sameInstance(reader)));
+        }
+        // the lease was not completed
+        try (EXIUtils.Lease<XMLReader> lease = exiUtils.borrowReader()) {
+            assertThat(lease.get(), is(not(sameInstance(reader))));
+        }
+    }
+
+    @Test
+    public void shouldSwapThePoolOnReconfiguration() throws Exception {
+        EXIFactory factory = exiUtils.getEXIFactory();
+        EXIResult result;
+        try (EXIUtils.Lease<EXIResult> lease = exiUtils.borrowResult()) {
+            result = lease.get();
+            lease.complete();
+        }
+        exiUtils.setCodingMode(CodingMode.BYTE_PACKED.name());
+        assertThat(exiUtils.getEXIFactory(), is(not(sameInstance(factory))));
+        assertThat(exiUtils.getEXIFactory().getCodingMode(), is(CodingMode.BYTE_PACKED));
+        try (EXIUtils.Lease<EXIResult> lease = exiUtils.borrowResult()) {
+            assertThat(lease.get(), is(not(sameInstance(result))));
+        }
+    }
+
+    @Test
+    public void shouldEncodeIdenticallyWithSnapshots(@TempDir Path directory) throws Exception {
+        Grammars compiled = EXIGrammars.compile(getClass().getResource("/exi/test.xsd").toExternalForm());
+        Path snapshot = directory.resolve("test" + EXIGrammars.SUFFIX);
+        EXIGrammars.write(compiled, snapshot);
+        Grammars loaded;
+        try (InputStream in = Files.newInputStream(snapshot)) {
+            loaded = EXIGrammars.read(in);
+        }
+        assertThat(loaded.isSchemaInformed(), is(true));
+        assertThat(encode(loaded), is(encode(compiled)));
+    }
+
+    private static byte[] encode(Grammars grammars) throws Exception {
+        EXIFactory factory = DefaultEXIFactory.newInstance();
+        factory.setGrammars(grammars);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EXIResult result = new EXIResult(factory);
+        result.setOutputStream(out);
+        SAXParserFactory parserFactory = SAXParserFactory.newInstance();
+        parserFactory.setNamespaceAware(true);
+        XMLReader reader = parserFactory.newSAXParser().getXMLReader();
+        reader.setContentHandler(result.getHandler());
+        reader.parse(new InputSource(new StringReader(XML)));
+        return out.toByteArray();
+    }
+}
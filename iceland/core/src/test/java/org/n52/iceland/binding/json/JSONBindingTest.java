@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.binding.json;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.n52.janmayen.Json;
+import org.n52.janmayen.http.MediaTypes;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.svalbard.decode.Decoder;
+import org.n52.svalbard.decode.DecoderRepository;
+import org.n52.svalbard.decode.OperationDecoderKey;
+import org.n52.svalbard.decode.StreamingOperationDecoderKey;
+import org.n52.svalbard.decode.exception.DecodingException;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+
+@SuppressWarnings({ "unchecked", "rawtypes" })
+public class JSONBindingTest {
+    private static final String REQUEST = "{\"offering\":[\"a\",\"b\"],\"service\":\"SOS\",\"request\":\"Insert\","
+            + "\"extensions\":{\"x\":1},\"version\":\"2.0.0\",\"observation\":[{\"id\":1},{\"id\":2}]}";
+
+    private final OwsServiceRequest decoded = mock(OwsServiceRequest.class);
+    private Decoder<OwsServiceRequest, JsonNode> decoder;
+    private Decoder<OwsServiceRequest, JsonParser> streamingDecoder;
+    private DecoderRepository decoderRepository;
+    private JSONBinding binding;
+    private JsonNode streamed;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        this.decoder = mock(Decoder.class);
+        when(decoder.decode(any())).thenReturn(decoded);
+        this.streamingDecoder = mock(Decoder.class);
+        when(streamingDecoder.decode(any())).then(invocation -> {
+            this.streamed = invocation.<JsonParser>getArgument(0).readValueAsTree();
+            return decoded;
+        });
+        this.decoderRepository = mock(DecoderRepository.class);
+        when(decoderRepository.getDecoder(new OperationDecoderKey("SOS", "2.0.0", "Insert",
+                                                                  MediaTypes.APPLICATION_JSON)))
+                .thenReturn((Decoder) decoder);
+        this.binding = new JSONBinding();
+        this.binding.setDecoderRepository(decoderRepository);
+        this.binding.setStreamingDecodingThreshold(0);
+    }
+
+    @Test
+    public void shouldReplayTheFieldsReadBeforeTheOperation() throws OwsExceptionReport, DecodingException {
+        when(decoderRepository.getDecoder(new StreamingOperationDecoderKey("SOS", "2.0.0", "Insert",
+                                                                           MediaTypes.APPLICATION_JSON)))
+                .thenReturn((Decoder) streamingDecoder);
+        assertThat(binding.parseRequest(post(REQUEST)), is(sameInstance(decoded)));
+        assertThat(streamed, is(Json.loadString(REQUEST)));
+        verify(decoder, never()).decode(any());
+    }
+
+    @Test
+    public void shouldFallBackToTheTreeDecoder() throws OwsExceptionReport, DecodingException {
+        assertThat(binding.parseRequest(post(REQUEST)), is(sameInstance(decoded)));
+        verify(decoder).decode(Json.loadString(REQUEST));
+    }
+
+    @Test
+    public void shouldNotStreamSmallRequests() throws OwsExceptionReport, DecodingException {
+        when(decoderRepository.getDecoder(new StreamingOperationDecoderKey("SOS", "2.0.0", "Insert",
+                                                                           MediaTypes.APPLICATION_JSON)))
+                .thenReturn((Decoder) streamingDecoder);
+        binding.setStreamingDecodingThreshold(REQUEST.length() + 1);
+        assertThat(binding.parseRequest(post(REQUEST)), is(sameInstance(decoded)));
+        verify(decoder).decode(Json.loadString(REQUEST));
+        verify(streamingDecoder, never()).decode(any());
+    }
+
+    private static MockHttpServletRequest post(String content) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/service");
+        request.setContentType(MediaTypes.APPLICATION_JSON.toString());
+        request.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        request.setContent(content.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
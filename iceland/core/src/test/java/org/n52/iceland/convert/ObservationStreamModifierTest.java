@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.convert;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.n52.shetland.ogc.om.AbstractObservationStream;
+import org.n52.shetland.ogc.om.ObservationStream;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.ows.service.GetCapabilitiesResponse;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+import org.n52.shetland.ogc.sos.Sos2Constants;
+import org.n52.shetland.ogc.sos.SosConstants;
+import org.n52.shetland.ogc.sos.request.GetObservationRequest;
+import org.n52.shetland.ogc.sos.response.GetObservationResponse;
+
+public class ObservationStreamModifierTest {
+    private static final int OBSERVATIONS = 3;
+
+    @Test
+    public void shouldModifyObservationsWhilePulled() throws Exception {
+        GetObservationRequest request = new GetObservationRequest(SosConstants.SOS, Sos2Constants.SERVICEVERSION);
+        GetObservationResponse response = new GetObservationResponse(SosConstants.SOS, Sos2Constants.SERVICEVERSION);
+        GeneratingStream generator = new GeneratingStream();
+        response.setObservationCollection(generator);
+
+        createRepository().getResponseModifierChain(request, response).modifyResponse(request, response);
+        // nothing is modified or generated before the encoder pulls the observations
+        assertThat(generator.getCount(), is(0));
+
+        List<String> identifiers = new ArrayList<>(OBSERVATIONS);
+        try (ObservationStream observations = response.getObservationCollection()) {
+            while (observations.hasNext()) {
+                identifiers.add(observations.next().getObservationID());
+                // the observation was modified as soon as it was generated
+                assertThat(generator.getCount(), is(identifiers.size()));
+            }
+        }
+        assertThat(identifiers, contains("modified-0", "modified-1", "modified-2"));
+    }
+
+    @Test
+    public void shouldPassOtherResponsesToModifyOtherResponse() throws Exception {
+        PrefixModifier modifier = new PrefixModifier();
+        GetObservationRequest request = new GetObservationRequest(SosConstants.SOS, Sos2Constants.SERVICEVERSION);
+        OwsServiceResponse response = new GetCapabilitiesResponse(SosConstants.SOS, Sos2Constants.SERVICEVERSION);
+
+        assertThat(modifier.modifyResponse(request, response), is(sameInstance(response)));
+    }
+
+    private static RequestResponseModifierRepository createRepository() {
+        RequestResponseModifierRepository repository = new RequestResponseModifierRepository();
+        repository.setRequestResponseModifiers(Collections.singleton(new PrefixModifier()));
+        repository.init();
+        return repository;
+    }
+
+    private static class PrefixModifier implements ObservationStreamModifier {
+        @Override
+        public Set<RequestResponseModifierKey> getKeys() {
+            return Collections.singleton(new RequestResponseModifierKey(
+                    SosConstants.SOS, Sos2Constants.SERVICEVERSION,
+                    GetObservationRequest.class, GetObservationResponse.class));
+        }
+
+        @Override
+        public OwsServiceRequest modifyRequest(OwsServiceRequest request) {
+            return request;
+        }
+
+        @Override
+        public OmObservation modifyObservation(OwsServiceRequest request, OmObservation observation) {
+            observation.setObservationID("modified-" + observation.getObservationID());
+            return observation;
+        }
+
+        @Override
+        public RequestResponseModifierFacilitator getFacilitator() {
+            return new RequestResponseModifierFacilitator();
+        }
+    }
+
+    private static class GeneratingStream extends AbstractObservationStream {
+        private int count;
+
+        @Override
+        protected OmObservation computeNext() throws OwsExceptionReport {
+            if (count == OBSERVATIONS) {
+                return endOfData();
+            }
+            OmObservation observation = new OmObservation();
+            observation.setObservationID(Integer.toString(count++));
+            return observation;
+        }
+
+        int getCount() {
+            return count;
+        }
+    }
+}
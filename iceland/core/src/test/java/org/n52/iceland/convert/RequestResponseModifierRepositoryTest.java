@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.convert;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+
+public class RequestResponseModifierRepositoryTest {
+    private static final String SERVICE = "SOS";
+    private static final String VERSION = "2.0.0";
+
+    private final List<String> applied = new ArrayList<>();
+    private RequestImpl request;
+    private ResponseImpl response;
+    private RequestResponseModifierRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        this.request = new RequestImpl();
+        this.request.setService(SERVICE).setVersion(VERSION);
+        this.response = new ResponseImpl();
+        this.response.setService(SERVICE).setVersion(VERSION);
+        this.repository = new RequestResponseModifierRepository();
+        this.repository.setRequestResponseModifiers(Arrays.asList(
+                new Modifier("splitter", new RequestResponseModifierFacilitator().setSplitter(true)),
+                new Modifier("default", new RequestResponseModifierFacilitator()),
+                new Modifier("merger", new RequestResponseModifierFacilitator().setMerger(true)),
+                new Modifier("remover", new RequestResponseModifierFacilitator().setAdderRemover(true))));
+        this.repository.init();
+    }
+
+    @Test
+    public void shouldApplyTheModifiersInOrder() throws Exception {
+        repository.getRequestModifierChain(request).modifyRequest(request);
+        // the order within a group is unspecified
+        assertThat(applied.get(0), is("remover"));
+        assertThat(applied.subList(1, 3), containsInAnyOrder("default", "merger"));
+        assertThat(applied.get(3), is("splitter"));
+        applied.clear();
+        repository.getResponseModifierChain(request, response).modifyResponse(request, response);
+        assertThat(applied.get(0), is("merger"));
+        assertThat(applied.subList(1, 3), containsInAnyOrder("default", "splitter"));
+        assertThat(applied.get(3), is("remover"));
+    }
+
+    @Test
+    public void shouldReuseTheChainUntilReinitialized() {
+        RequestResponseModifierChain chain = repository.getRequestModifierChain(request);
+        assertThat(repository.getRequestModifierChain(request), is(sameInstance(chain)));
+        repository.setRequestResponseModifiers(Collections.emptyList());
+        repository.init();
+        RequestResponseModifierChain empty = repository.getRequestModifierChain(request);
+        assertThat(empty, is(not(sameInstance(chain))));
+        assertThat(empty.isEmpty(), is(true));
+        assertThat(repository.getResponseModifierChain(request, response).isEmpty(), is(true));
+    }
+
+    private static class RequestImpl extends OwsServiceRequest {
+    }
+
+    private static class ResponseImpl extends OwsServiceResponse {
+    }
+
+    private class Modifier implements RequestResponseModifier {
+        private final String name;
+        private final RequestResponseModifierFacilitator facilitator;
+
+        Modifier(String name, RequestResponseModifierFacilitator facilitator) {
+            this.name = name;
+            this.facilitator = facilitator;
+        }
+
+        @Override
+        public Set<RequestResponseModifierKey> getKeys() {
+            return new HashSet<>(Arrays.asList(
+                    new RequestResponseModifierKey(SERVICE, VERSION, RequestImpl.class),
+                    new RequestResponseModifierKey(SERVICE, VERSION, RequestImpl.class, ResponseImpl.class)));
+        }
+
+        @Override
+        public OwsServiceRequest modifyRequest(OwsServiceRequest request) {
+            applied.add(name);
+            return request;
+        }
+
+        @Override
+        public OwsServiceResponse modifyResponse(OwsServiceRequest request, OwsServiceResponse response) {
+            applied.add(name);
+            return response;
+        }
+
+        @Override
+        public RequestResponseModifierFacilitator getFacilitator() {
+            return facilitator;
+        }
+    }
+}
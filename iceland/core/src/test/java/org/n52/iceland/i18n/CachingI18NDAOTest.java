@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.i18n;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.n52.iceland.i18n.metadata.I18NOfferingMetadata;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+
+public class CachingI18NDAOTest {
+    private I18NDAO<I18NOfferingMetadata> delegate;
+    private CachingI18NDAO<I18NOfferingMetadata> dao;
+    private I18NOfferingMetadata a;
+    private I18NOfferingMetadata b;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() throws OwsExceptionReport {
+        this.delegate = mock(I18NDAO.class);
+        this.dao = new CachingI18NDAO<>(delegate, 100, 0);
+        this.a = new I18NOfferingMetadata("a");
+        this.b = new I18NOfferingMetadata("b");
+        when(delegate.getMetadata("a", Locale.GERMAN)).thenReturn(a);
+        when(delegate.getMetadata(anyCollection(), any(Locale.class))).thenAnswer(invocation -> {
+            Collection<String> ids = invocation.getArgument(0);
+            return Arrays.asList(a, b).stream().filter(m -> ids.contains(m.getIdentifier()))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @Test
+    public void shouldCacheSingleLookups() throws OwsExceptionReport {
+        assertThat(dao.getMetadata("a", Locale.GERMAN), is(sameInstance(a)));
+        assertThat(dao.getMetadata("a", Locale.GERMAN), is(sameInstance(a)));
+        assertThat(dao.getMetadata("x", Locale.GERMAN), is(nullValue()));
+        assertThat(dao.getMetadata("x", Locale.GERMAN), is(nullValue()));
+        verify(delegate, times(1)).getMetadata("a", Locale.GERMAN);
+        verify(delegate, times(1)).getMetadata("x", Locale.GERMAN);
+        assertThat(dao.getStats().hitCount(), is(2L));
+    }
+
+    @Test
+    public void shouldOnlyLoadMissingMetadataInBulk() throws OwsExceptionReport {
+        assertThat(dao.getMetadata(Arrays.asList("a", "b", "x"), Locale.GERMAN), containsInAnyOrder(a, b));
+        assertThat(dao.getMetadata("b", Locale.GERMAN), is(sameInstance(b)));
+        assertThat(dao.getMetadata("x", Locale.GERMAN), is(nullValue()));
+        assertThat(dao.getMetadata(Arrays.asList("a", "b", "x"), Locale.GERMAN), containsInAnyOrder(a, b));
+        verify(delegate, times(1)).getMetadata(anyCollection(), any(Locale.class));
+        verify(delegate, times(0)).getMetadata("b", Locale.GERMAN);
+    }
+
+    @Test
+    public void shouldInvalidateSavedMetadata() throws OwsExceptionReport {
+        dao.getMetadata(Collections.singleton("a"), Locale.GERMAN);
+        dao.getMetadata("a", Locale.GERMAN);
+        dao.saveMetadata(new I18NOfferingMetadata("a"));
+        dao.getMetadata("a", Locale.GERMAN);
+        verify(delegate, times(1)).saveMetadata(any());
+        verify(delegate, times(1)).getMetadata("a", Locale.GERMAN);
+        assertThat(dao.size(), is(1L));
+    }
+
+    @Test
+    public void shouldNotCacheMetadataLoadedDuringASave() throws OwsExceptionReport {
+        when(delegate.getMetadata("b", Locale.GERMAN)).thenAnswer(invocation -> {
+            // a concurrent save completes while the old metadata is loaded
+            dao.invalidate("b");
+            return b;
+        });
+        assertThat(dao.getMetadata("b", Locale.GERMAN), is(sameInstance(b)));
+        assertThat(dao.size(), is(0L));
+        dao.getMetadata("b", Locale.GERMAN);
+        verify(delegate, times(2)).getMetadata("b", Locale.GERMAN);
+    }
+}
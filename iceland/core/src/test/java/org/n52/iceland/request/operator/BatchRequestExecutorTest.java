@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.request.operator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.n52.iceland.service.operator.ServiceOperator;
+import org.n52.iceland.service.operator.ServiceOperatorRepository;
+import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.shetland.ogc.ows.service.OwsServiceResponse;
+import org.n52.shetland.ogc.sos.request.BatchRequest;
+import org.n52.shetland.ogc.sos.response.BatchResponse;
+import org.n52.shetland.ogc.sos.response.BatchResponse.ExceptionOrResponse;
+
+public class BatchRequestExecutorTest {
+    private static final String SERVICE = "SOS";
+    private static final String VERSION = "2.0.0";
+
+    private final List<String> log = Collections.synchronizedList(new ArrayList<>());
+    private BatchRequestExecutor executor;
+    private ServiceOperator operator;
+
+    @BeforeEach
+    public void setUp() {
+        this.operator = mock(ServiceOperator.class);
+        ServiceOperatorRepository repository = mock(ServiceOperatorRepository.class);
+        when(repository.getServiceOperator(SERVICE, VERSION)).thenReturn(operator);
+        this.executor = new BatchRequestExecutor();
+        this.executor.setServiceOperatorRepository(repository);
+        this.executor.setThreads(4);
+        // the operation names are numbered to identify the sub-requests
+        this.executor.setReadOnlyOperations("GetObservation#1,GetObservation#2,GetObservation#3,"
+                                            + "DescribeSensor#2,GetFeatureOfInterest#3");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.executor.destroy();
+    }
+
+    @Test
+    public void shouldExecuteReadOnlyRequestsConcurrently() throws Exception {
+        CountDownLatch latch = new CountDownLatch(3);
+        when(operator.receiveRequest(any())).thenAnswer(invocation -> {
+            latch.countDown();
+            // succeeds only if all three sub-requests run at the same time
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new NoApplicableCodeException();
+            }
+            return response(invocation.getArgument(0));
+        });
+        BatchResponse response = executor.execute(batch("GetObservation#1", "DescribeSensor#2",
+                                                        "GetFeatureOfInterest#3"));
+        assertThat(names(response), contains("GetObservation#1", "DescribeSensor#2", "GetFeatureOfInterest#3"));
+    }
+
+    @Test
+    public void shouldKeepTransactionsInOrder() throws Exception {
+        when(operator.receiveRequest(any())).thenAnswer(invocation -> {
+            OwsServiceRequest request = invocation.getArgument(0);
+            if (request.getOperationName().equals("GetObservation#1")) {
+                // a slow read must complete before the following transaction starts
+                Thread.sleep(200);
+            }
+            log.add(request.getOperationName());
+            return response(request);
+        });
+        BatchResponse response = executor.execute(batch("GetObservation#1", "InsertObservation#2",
+                                                        "GetObservation#3", "DeleteSensor#4"));
+        assertThat(log.indexOf("GetObservation#1"), is(lessThan(log.indexOf("InsertObservation#2"))));
+        assertThat(log.indexOf("InsertObservation#2"), is(lessThan(log.indexOf("GetObservation#3"))));
+        assertThat(log.indexOf("GetObservation#3"), is(lessThan(log.indexOf("DeleteSensor#4"))));
+        assertThat(names(response), contains("GetObservation#1", "InsertObservation#2",
+                                             "GetObservation#3", "DeleteSensor#4"));
+    }
+
+    @Test
+    public void shouldReportSubRequestsExceedingTheDeadline() throws Exception {
+        executor.setTimeout(100);
+        when(operator.receiveRequest(any())).thenAnswer(invocation -> {
+            OwsServiceRequest request = invocation.getArgument(0);
+            if (request.getOperationName().equals("GetObservation#2")) {
+                Thread.sleep(2000);
+            }
+            return response(request);
+        });
+        long start = System.nanoTime();
+        BatchResponse response = executor.execute(batch("GetObservation#1", "GetObservation#2",
+                                                        "InsertObservation#3"));
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), is(lessThan(1000L)));
+        List<ExceptionOrResponse> responses = response.getResponses();
+        assertThat(responses.get(0).isException(), is(false));
+        assertThat(responses.get(1).isException(), is(true));
+        assertThat(responses.get(2).isException(), is(true));
+    }
+
+    @Test
+    public void shouldWaitForRunningTransactionsAfterTheDeadline() throws Exception {
+        executor.setTimeout(100);
+        when(operator.receiveRequest(any())).thenAnswer(invocation -> {
+            OwsServiceRequest request = invocation.getArgument(0);
+            if (request.getOperationName().equals("InsertObservation#1")) {
+                Thread.sleep(500);
+            }
+            return response(request);
+        });
+        List<ExceptionOrResponse> responses = executor.execute(batch("InsertObservation#1", "InsertObservation#2",
+                                                                     "GetObservation#3")).getResponses();
+        // the outcome of the started transaction is reported, the following sub-requests are skipped
+        assertThat(responses.get(0).isException(), is(false));
+        assertThat(responses.get(1).getException().getMessage(), containsString("deadline"));
+        assertThat(responses.get(2).getException().getMessage(), containsString("deadline"));
+    }
+
+    @Test
+    public void shouldReportRejectedSubRequestsAsFailures() throws Exception {
+        when(operator.receiveRequest(any())).thenAnswer(invocation -> {
+            OwsServiceRequest request = invocation.getArgument(0);
+            if (request.getOperationName().equals("InsertObservation#1")) {
+                // shuts down the pool the following sub-request is submitted to
+                executor.setThreads(2);
+            }
+            return response(request);
+        });
+        List<ExceptionOrResponse> responses = executor.execute(batch("InsertObservation#1", "GetObservation#2"))
+                .getResponses();
+        assertThat(responses.get(0).isException(), is(false));
+        assertThat(responses.get(1).getException().getMessage(), containsString("Error executing sub-request"));
+        assertThat(responses.get(1).getException().getCause(), is(instanceOf(RejectedExecutionException.class)));
+    }
+
+    @Test
+    public void shouldStopAtTheFirstFailure() throws Exception {
+        when(operator.receiveRequest(any())).thenAnswer(invocation -> {
+            OwsServiceRequest request = invocation.getArgument(0);
+            if (request.getOperationName().equals("GetObservation#2")) {
+                throw new NoApplicableCodeException();
+            }
+            return response(request);
+        });
+        BatchRequest batch = batch("GetObservation#1", "GetObservation#2", "GetObservation#3");
+        assertThat(executor.execute(batch).getResponses().size(), is(3));
+        batch.setStopAtFailure(true);
+        List<ExceptionOrResponse> responses = executor.execute(batch).getResponses();
+        assertThat(responses.size(), is(2));
+        assertThat(responses.get(1).isException(), is(true));
+    }
+
+    private BatchRequest batch(String... names) {
+        return new BatchRequest(Arrays.stream(names).map(name -> new Request(name))
+                .collect(Collectors.toList()));
+    }
+
+    private static List<String> names(BatchResponse response) {
+        return response.getResponses().stream().map(r -> r.getResponse().getOperationName())
+                .collect(Collectors.toList());
+    }
+
+    private static OwsServiceResponse response(OwsServiceRequest request) {
+        return new OwsServiceResponse(SERVICE, VERSION, request.getOperationName()) {
+        };
+    }
+
+    private static class Request extends OwsServiceRequest {
+        Request(String operationName) {
+            super(SERVICE, VERSION, operationName);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.n52.faroe.ConfigurationError;
+import org.n52.shetland.ogc.ows.service.OwsOperationKey;
+
+public class AdmissionControllerTest {
+    private static final String BINDING = "PoxBinding";
+    private static final OwsOperationKey GET_OBSERVATION = new OwsOperationKey("SOS", "2.0.0", "GetObservation");
+    private static final OwsOperationKey DESCRIBE_SENSOR = new OwsOperationKey("SOS", "2.0.0", "DescribeSensor");
+
+    private AdmissionController controller;
+
+    @BeforeEach
+    public void setUp() {
+        this.controller = new AdmissionController();
+        this.controller.setLimits("GetObservation:2");
+    }
+
+    @Test
+    public void shouldRejectRequestsExceedingTheLimit() {
+        Optional<AdmissionController.Permit> first = controller.admit(BINDING, GET_OBSERVATION);
+        Optional<AdmissionController.Permit> second = controller.admit(BINDING, GET_OBSERVATION);
+        assertThat(first.isPresent(), is(true));
+        assertThat(second.isPresent(), is(true));
+        assertThat(controller.admit(BINDING, GET_OBSERVATION).isPresent(), is(false));
+        // other operations and bindings are limited independently
+        assertThat(controller.admit(BINDING, DESCRIBE_SENSOR).isPresent(), is(true));
+        assertThat(controller.admit("KvpBinding", GET_OBSERVATION).isPresent(), is(true));
+
+        first.get().close();
+        first.get().close();
+        assertThat(controller.admit(BINDING, GET_OBSERVATION).isPresent(), is(true));
+
+        AdmissionController.Statistics statistics = controller.getStatistics()
+                .get(new AdmissionController.Key(GET_OBSERVATION, BINDING));
+        assertThat(statistics.getInFlight(), is(2));
+        assertThat(statistics.getAdmitted(), is(3L));
+        assertThat(statistics.getRejected(), is(1L));
+    }
+
+    @Test
+    public void shouldQueueRequests() throws Exception {
+        controller.setLimits("GetObservation:1");
+        controller.setQueueLength(1);
+        controller.setQueueTimeout(10000);
+        AdmissionController.Permit permit = controller.admit(BINDING, GET_OBSERVATION).get();
+        CompletableFuture<Optional<AdmissionController.Permit>> queued
+                = CompletableFuture.supplyAsync(() -> controller.admit(BINDING, GET_OBSERVATION));
+        AdmissionController.Key key = new AdmissionController.Key(GET_OBSERVATION, BINDING);
+        while (controller.getStatistics().get(key).getQueued() == 0) {
+            Thread.sleep(1);
+        }
+        // the queue is full
+        assertThat(controller.admit(BINDING, GET_OBSERVATION).isPresent(), is(false));
+        permit.close();
+        assertThat(queued.get(10, TimeUnit.SECONDS).isPresent(), is(true));
+    }
+
+    @Test
+    public void shouldDecreaseTheLimitIfTheLatencyIncreases() throws InterruptedException {
+        controller.setLimits("GetObservation:4");
+        controller.setAdaptive(true);
+        AdmissionController.Key key = new AdmissionController.Key(GET_OBSERVATION, BINDING);
+        controller.admit(BINDING, GET_OBSERVATION).get().close();
+        assertThat(controller.getStatistics().get(key).getLimit(), is(4));
+        AdmissionController.Permit permit = controller.admit(BINDING, GET_OBSERVATION).get();
+        Thread.sleep(50);
+        permit.close();
+        assertThat(controller.getStatistics().get(key).getLimit(), is(3));
+    }
+
+    @Test
+    public void shouldNotLimitUnconfiguredOperations() {
+        for (int i = 0; i < 10; ++i) {
+            assertThat(controller.admit(BINDING, DESCRIBE_SENSOR).isPresent(), is(true));
+        }
+        assertThat(controller.getLimit("DescribeSensor"), is(0));
+        controller.setDefaultLimit(5);
+        assertThat(controller.getLimit("DescribeSensor"), is(5));
+    }
+
+    @Test
+    public void shouldRejectInvalidLimits() {
+        assertThrows(ConfigurationError.class, () -> controller.setLimits("GetObservation:many"));
+        assertThrows(ConfigurationError.class, () -> controller.setLimits("GetObservation:-1"));
+    }
+}
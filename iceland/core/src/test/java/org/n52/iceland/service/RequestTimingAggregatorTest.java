@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.n52.iceland.event.events.RequestTimingEvent;
+import org.n52.janmayen.LatencyHistogram;
+import org.n52.shetland.ogc.ows.service.OwsOperationKey;
+import org.n52.shetland.ogc.ows.service.RequestTimings;
+import org.n52.shetland.ogc.ows.service.RequestTimings.Phase;
+
+public class RequestTimingAggregatorTest {
+    private static final String OPERATION = new OwsOperationKey("SOS", "2.0.0", "GetObservation").toString();
+
+    @Test
+    public void shouldAggregatePerOperationBindingAndContentType() {
+        RequestTimingAggregator aggregator = new RequestTimingAggregator();
+        aggregator.handle(new RequestTimingEvent(timings("KvpBinding", 100L), "application/xml", 1000L));
+        aggregator.handle(new RequestTimingEvent(timings("KvpBinding", 300L), "application/xml", 3000L));
+        aggregator.handle(new RequestTimingEvent(timings("PoxBinding", 200L), "application/xml", 2000L));
+
+        Map<RequestTimingAggregator.Key, LatencyHistogram.Snapshot> totals = aggregator.getTotalSnapshots();
+        RequestTimingAggregator.Key kvp = new RequestTimingAggregator.Key(OPERATION, "KvpBinding", "application/xml");
+        RequestTimingAggregator.Key pox = new RequestTimingAggregator.Key(OPERATION, "PoxBinding", "application/xml");
+        assertThat(totals, is(aMapWithSize(2)));
+        assertThat(totals.get(kvp).getCount(), is(2L));
+        assertThat(totals.get(kvp).getSum(), is(4000L));
+        assertThat(totals.get(pox).getCount(), is(1L));
+
+        Map<Phase, LatencyHistogram.Snapshot> phases = aggregator.getPhaseSnapshots().get(kvp);
+        assertThat(phases.get(Phase.OPERATION).getSum(), is(400L));
+        assertThat(phases.get(Phase.WRITE).getMax(), is(0L));
+
+        aggregator.reset();
+        assertThat(aggregator.getTotalSnapshots(), is(aMapWithSize(0)));
+    }
+
+    @Test
+    public void shouldUseUnknownForMissingKeyParts() {
+        RequestTimingAggregator aggregator = new RequestTimingAggregator();
+        aggregator.handle(new RequestTimingEvent(RequestTimings.create(), null, 10L));
+        assertThat(aggregator.getTotalSnapshots(),
+                   hasKey(new RequestTimingAggregator.Key("unknown", "unknown", "unknown")));
+    }
+
+    private static RequestTimings timings(String binding, long operation) {
+        RequestTimings timings = RequestTimings.create();
+        timings.setOperation(new OwsOperationKey("SOS", "2.0.0", "GetObservation"));
+        timings.setBinding(binding);
+        timings.add(Phase.OPERATION, operation);
+        return timings;
+    }
+}
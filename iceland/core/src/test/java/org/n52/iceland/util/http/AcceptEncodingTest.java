@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.util.http;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.n52.janmayen.http.HTTPHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+public class AcceptEncodingTest {
+    private static final List<StandardContentCoding> CODINGS =
+            Arrays.asList(StandardContentCoding.GZIP, StandardContentCoding.DEFLATE);
+
+    @Test
+    public void shouldParseQualityValues() {
+        AcceptEncoding acceptEncoding = AcceptEncoding.parse("gzip;q=0.5, deflate ; Q=0.8, br;q=0");
+        assertThat(acceptEncoding.getQuality("gzip"), is(0.5));
+        assertThat(acceptEncoding.getQuality("DEFLATE"), is(0.8));
+        assertThat(acceptEncoding.getQuality("br"), is(0.0));
+        assertThat(acceptEncoding.select(CODINGS), is(Optional.of(StandardContentCoding.DEFLATE)));
+    }
+
+    @Test
+    public void shouldPreferTheServerOrderForEqualQualities() {
+        assertThat(AcceptEncoding.parse("deflate, gzip").select(CODINGS),
+                   is(Optional.of(StandardContentCoding.GZIP)));
+    }
+
+    @Test
+    public void shouldTreatXGzipAsGzip() {
+        assertThat(AcceptEncoding.parse("x-gzip").select(CODINGS), is(Optional.of(StandardContentCoding.GZIP)));
+    }
+
+    @Test
+    public void shouldIgnoreInvalidQualityValues() {
+        AcceptEncoding acceptEncoding = AcceptEncoding.parse("gzip;q=2, deflate;q=abc");
+        assertThat(acceptEncoding.getQuality("gzip"), is(0.0));
+        assertThat(acceptEncoding.select(CODINGS), is(Optional.empty()));
+    }
+
+    @Test
+    public void shouldAcceptIdentityUnlessExcluded() {
+        assertThat(AcceptEncoding.parse("gzip").getQuality("identity"), is(1.0));
+        assertThat(AcceptEncoding.parse("").getQuality("identity"), is(1.0));
+        assertThat(AcceptEncoding.parse("*;q=0").getQuality("identity"), is(0.0));
+        assertThat(AcceptEncoding.parse("*;q=0, identity").getQuality("identity"), is(1.0));
+        assertThat(AcceptEncoding.parse("identity").select(CODINGS), is(Optional.empty()));
+    }
+
+    @Test
+    public void shouldSelectACodingIfIdentityIsExcluded() {
+        AcceptEncoding acceptEncoding = AcceptEncoding.parse("deflate, identity;q=0");
+        assertThat(acceptEncoding.getQuality("identity"), is(0.0));
+        assertThat(acceptEncoding.select(CODINGS), is(Optional.of(StandardContentCoding.DEFLATE)));
+        assertThat(AcceptEncoding.parse("identity;q=0").select(CODINGS), is(Optional.empty()));
+    }
+
+    @Test
+    public void shouldApplyTheWildcardToUnlistedCodings() {
+        assertThat(AcceptEncoding.parse("*").select(CODINGS), is(Optional.of(StandardContentCoding.GZIP)));
+        assertThat(AcceptEncoding.parse("gzip;q=0, *").select(CODINGS),
+                   is(Optional.of(StandardContentCoding.DEFLATE)));
+        assertThat(AcceptEncoding.parse("gzip;q=0.2, *;q=0.5").select(CODINGS),
+                   is(Optional.of(StandardContentCoding.DEFLATE)));
+        assertThat(AcceptEncoding.parse("*;q=0").select(CODINGS), is(Optional.empty()));
+    }
+
+    @Test
+    public void shouldIgnoreUnknownCodings() {
+        assertThat(AcceptEncoding.parse("br, zstd").select(CODINGS), is(Optional.empty()));
+        assertThat(AcceptEncoding.parse("br, zstd, gzip;q=0.1").select(CODINGS),
+                   is(Optional.of(StandardContentCoding.GZIP)));
+    }
+
+    @Test
+    public void shouldCombineMultipleHeaders() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        assertThat(AcceptEncoding.fromRequest(request).select(CODINGS), is(Optional.empty()));
+        request.addHeader(HTTPHeaders.ACCEPT_ENCODING, "gzip;q=0.1");
+        request.addHeader(HTTPHeaders.ACCEPT_ENCODING, "deflate;q=0.9");
+        assertThat(AcceptEncoding.fromRequest(request).select(CODINGS),
+                   is(Optional.of(StandardContentCoding.DEFLATE)));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.util.http;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.base.Strings;
+import com.google.common.io.ByteStreams;
+
+public class CompressingOutputStreamTest {
+    private static final byte[] SMALL = "<small/>".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] LARGE = Strings.repeat("<value>42.0</value>", 1000).getBytes(StandardCharsets.UTF_8);
+
+    private ContentCoding notified;
+    private Integer contentLength;
+
+    @Test
+    public void shouldNotCompressBelowTheThreshold() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompressingOutputStream stream = create(out, StandardContentCoding.GZIP, 1024);
+        stream.write(SMALL);
+        stream.flush();
+        stream.close();
+        assertThat(stream.isCompressed(), is(false));
+        assertThat(notified, is(nullValue()));
+        assertThat(contentLength, is(SMALL.length));
+        assertThat(Arrays.equals(out.toByteArray(), SMALL), is(true));
+    }
+
+    @Test
+    public void shouldBufferUpToTheThreshold() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompressingOutputStream stream = create(out, StandardContentCoding.GZIP, LARGE.length);
+        // grow the buffer beyond its initial size
+        for (int i = 0; i < LARGE.length; i += 100) {
+            stream.write(LARGE, i, Math.min(100, LARGE.length - i));
+        }
+        stream.close();
+        assertThat(stream.isCompressed(), is(false));
+        assertThat(contentLength, is(LARGE.length));
+        assertThat(Arrays.equals(out.toByteArray(), LARGE), is(true));
+    }
+
+    @Test
+    public void shouldCompressAboveTheThreshold() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompressingOutputStream stream = create(out, StandardContentCoding.GZIP, 1024);
+        // write the first bytes one by one to fill the buffer
+        for (int i = 0; i < 100; i++) {
+            stream.write(LARGE[i]);
+        }
+        stream.write(LARGE, 100, LARGE.length - 100);
+        stream.close();
+        assertThat(stream.isCompressed(), is(true));
+        assertThat(notified, is(StandardContentCoding.GZIP));
+        assertThat(contentLength, is(nullValue()));
+        assertThat(stream.getUncompressedBytes(), is((long) LARGE.length));
+        assertThat(stream.getCompressedBytes(), is((long) out.size()));
+        assertThat(stream.getCompressionRatio(), is(lessThan(0.1)));
+        byte[] decompressed = ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())));
+        assertThat(Arrays.equals(decompressed, LARGE), is(true));
+    }
+
+    @Test
+    public void shouldDeflate() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompressingOutputStream stream = create(out, StandardContentCoding.DEFLATE, 0);
+        stream.write(LARGE);
+        stream.close();
+        assertThat(notified, is(StandardContentCoding.DEFLATE));
+        byte[] decompressed = ByteStreams
+                .toByteArray(new InflaterInputStream(new ByteArrayInputStream(out.toByteArray())));
+        assertThat(Arrays.equals(decompressed, LARGE), is(true));
+    }
+
+    private CompressingOutputStream create(ByteArrayOutputStream out, ContentCoding coding, int threshold) {
+        return new CompressingOutputStream(out, coding, threshold, 6, 8192, new CompressingOutputStream.Listener() {
+            @Override
+            public void onCompression(ContentCoding c) {
+                notified = c;
+            }
+
+            @Override
+            public void onUncompressed(int length) {
+                contentLength = length;
+            }
+        });
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.util.http;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import org.junit.jupiter.api.Test;
+import org.n52.iceland.coding.encode.ResponseProxy;
+import org.n52.iceland.coding.encode.ResponseWriter;
+import org.n52.iceland.coding.encode.ResponseWriterRepository;
+import org.n52.janmayen.event.EventBus;
+import org.n52.janmayen.http.HTTPHeaders;
+import org.n52.janmayen.http.MediaTypes;
+import org.n52.shetland.ogc.ows.service.RequestTimings;
+import org.n52.shetland.ogc.ows.service.RequestTimings.Phase;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.google.common.base.Strings;
+
+public class HttpUtilsTest {
+    private static final byte[] CONTENT = Strings.repeat("<value>42.0</value>", 1000)
+            .getBytes(StandardCharsets.UTF_8);
+    private static final long ENCODE_MILLIS = 50;
+    private static final long WRITE_MILLIS = 200;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldSplitTheResponseTimeIntoPhases() throws Exception {
+        ResponseWriter<Object> writer = mock(ResponseWriter.class);
+        when(writer.supportsGZip(any())).thenReturn(true);
+        when(writer.getContentType()).thenReturn(MediaTypes.APPLICATION_XML);
+        doAnswer(invocation -> {
+            // the time before the first byte is written is spent encoding
+            Thread.sleep(ENCODE_MILLIS);
+            invocation.getArgument(1, OutputStream.class).write(CONTENT);
+            return null;
+        }).when(writer).write(any(), any(OutputStream.class), any(ResponseProxy.class));
+        ResponseWriterRepository repository = mock(ResponseWriterRepository.class);
+        when(repository.getWriter(String.class)).thenReturn((ResponseWriter) writer);
+
+        HttpUtils httpUtils = new HttpUtils();
+        httpUtils.setEventBus(mock(EventBus.class));
+        httpUtils.setResponseWriterRepository(repository);
+        httpUtils.setContentCodingNames("gzip");
+        httpUtils.setCompressionThreshold(0);
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HTTPHeaders.ACCEPT_ENCODING, "gzip");
+        RequestTimings timings = RequestTimings.create();
+        timings.attachTo(request);
+
+        long start = System.nanoTime();
+        httpUtils.writeObject(request, new SlowResponse(), MediaTypes.APPLICATION_XML, "response", null);
+        long total = System.nanoTime() - start;
+
+        long encode = timings.get(Phase.ENCODE);
+        long compression = timings.get(Phase.COMPRESSION);
+        long write = timings.get(Phase.WRITE);
+        assertThat(encode, is(greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(ENCODE_MILLIS))));
+        assertThat(write, is(greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(WRITE_MILLIS))));
+        // the socket writes are not counted as encoding or compression
+        assertThat(encode, is(lessThan(TimeUnit.MILLISECONDS.toNanos(WRITE_MILLIS))));
+        assertThat(compression, is(greaterThan(0L)));
+        assertThat(encode + compression + write, is(lessThanOrEqualTo(total)));
+    }
+
+    @Test
+    public void shouldOnlySetTheCompressionHeadersIfCompressed() throws Exception {
+        HttpUtils httpUtils = createHttpUtils(CONTENT);
+        httpUtils.setCompressionThreshold(CONTENT.length);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        httpUtils.writeObject(createRequest(), response, MediaTypes.APPLICATION_XML, "response", null);
+        assertThat(response.getHeader(HTTPHeaders.CONTENT_ENCODING), is(nullValue()));
+        assertThat(response.getHeader(HTTPHeaders.VARY), is(nullValue()));
+        assertThat(response.getContentLength(), is(CONTENT.length));
+        assertThat(response.getContentAsByteArray().length, is(CONTENT.length));
+
+        httpUtils.setCompressionThreshold(CONTENT.length - 1);
+        response = new MockHttpServletResponse();
+        httpUtils.writeObject(createRequest(), response, MediaTypes.APPLICATION_XML, "response", null);
+        assertThat(response.getHeader(HTTPHeaders.CONTENT_ENCODING), is("gzip"));
+        assertThat(response.getHeader(HTTPHeaders.VARY), is(HTTPHeaders.ACCEPT_ENCODING));
+        assertThat(response.containsHeader("Content-Length"), is(false));
+    }
+
+    @Test
+    public void shouldNotSetVaryIfCompressionIsDisabled() throws Exception {
+        HttpUtils httpUtils = createHttpUtils(CONTENT);
+        httpUtils.setContentCodingNames("");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        httpUtils.writeObject(createRequest(), response, MediaTypes.APPLICATION_XML, "response", null);
+        assertThat(response.getHeader(HTTPHeaders.CONTENT_ENCODING), is(nullValue()));
+        assertThat(response.getHeader(HTTPHeaders.VARY), is(nullValue()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static HttpUtils createHttpUtils(byte[] content) throws Exception {
+        ResponseWriter<Object> writer = mock(ResponseWriter.class);
+        when(writer.supportsGZip(any())).thenReturn(true);
+        when(writer.getContentType()).thenReturn(MediaTypes.APPLICATION_XML);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write(content);
+            return null;
+        }).when(writer).write(any(), any(OutputStream.class), any(ResponseProxy.class));
+        ResponseWriterRepository repository = mock(ResponseWriterRepository.class);
+        when(repository.getWriter(String.class)).thenReturn((ResponseWriter) writer);
+        HttpUtils httpUtils = new HttpUtils();
+        httpUtils.setEventBus(mock(EventBus.class));
+        httpUtils.setResponseWriterRepository(repository);
+        httpUtils.setContentCodingNames("gzip");
+        return httpUtils;
+    }
+
+    private static MockHttpServletRequest createRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HTTPHeaders.ACCEPT_ENCODING, "gzip");
+        return request;
+    }
+
+    /**
+     * Response whose output stream blocks on every flush, like a slow client.
+     */
+    private static class SlowResponse extends MockHttpServletResponse {
+        private final ServletOutputStream out = new ServletOutputStream() {
+            private boolean flushed;
+
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (!flushed) {
+                    flushed = true;
+                    sleep(WRITE_MILLIS);
+                }
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        };
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return out;
+        }
+
+        private static void sleep(long millis) throws IOException {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+}
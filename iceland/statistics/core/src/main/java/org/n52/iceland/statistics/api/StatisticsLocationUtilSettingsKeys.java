@@ -32,4 +32,6 @@ public class StatisticsLocationUtilSettingsKeys {
     public static final String DATABASE_TYPE_CITY = "statistics.geoloc.db_type.city";
     public static final String DATABASE_TYPE_COUNTRY = "statistics.geoloc.db_type.country";
 
+    public static final String CACHE_SIZE = "statistics.geoloc.cache_size";
+
 }
@@ -19,9 +19,12 @@ import java.io.File;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 import javax.inject.Singleton;
 import javax.security.auth.Destroyable;
@@ -30,6 +33,7 @@ import org.elasticsearch.common.geo.GeoPoint;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.n52.faroe.Validation;
 import org.n52.faroe.annotation.Configurable;
 import org.n52.faroe.annotation.Setting;
 import org.n52.iceland.statistics.api.StatisticsLocationUtilSettingsKeys;
@@ -42,14 +46,22 @@ import org.n52.janmayen.lifecycle.Constructable;
 import org.n52.janmayen.net.IPAddress;
 import org.n52.shetland.ogc.ows.service.OwsServiceRequestContext;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.maxmind.db.Reader.FileMode;
 import com.maxmind.geoip2.DatabaseReader;
+import com.maxmind.geoip2.exception.AddressNotFoundException;
+import com.maxmind.geoip2.exception.GeoIp2Exception;
 import com.maxmind.geoip2.model.CityResponse;
 import com.maxmind.geoip2.record.Country;
 import com.maxmind.geoip2.record.Location;
 
 /**
- * Utility class for mapping objects to Elasticsearch specific Geolocation type objects
+ * Utility class for mapping objects to Elasticsearch specific Geolocation type objects. Resolved locations are kept in
+ * a bounded LRU cache keyed by the address bytes, as the requests usually originate from a small set of clients.
+ * Addresses that are not contained in the database are cached as well.
  *
  */
 @Singleton
@@ -58,6 +70,7 @@ public class StatisticsLocationUtil implements IStatisticsLocationUtil, IAdminSt
                                                Destroyable {
 
     private static final Logger LOG = LoggerFactory.getLogger(StatisticsLocationUtil.class);
+    private static final int DEFAULT_CACHE_SIZE = 10000;
 
     private boolean enabled;
     private boolean isAutoDownload;
@@ -65,7 +78,8 @@ public class StatisticsLocationUtil implements IStatisticsLocationUtil, IAdminSt
     private String cityDbLoc;
     private String countryDbLoc;
     private LocationDatabaseType dbType;
-    private DatabaseReader reader;
+    private volatile DatabaseReader reader;
+    private volatile Cache<ByteBuffer, Optional<Map<String, Object>>> cache = createCache(DEFAULT_CACHE_SIZE);
 
     public StatisticsLocationUtil() {
     }
@@ -93,28 +107,52 @@ public class StatisticsLocationUtil implements IStatisticsLocationUtil, IAdminSt
         if (!enabled) {
             return null;
         }
-        if (reader == null) {
+        DatabaseReader databaseReader = this.reader;
+        if (databaseReader == null) {
             LOG.warn("Location database is not initialized. Exiting.");
             return null;
         }
+        try {
+            Optional<Map<String, Object>> location;
+            Cache<ByteBuffer, Optional<Map<String, Object>>> locationCache = this.cache;
+            if (locationCache == null) {
+                location = lookup(databaseReader, ip);
+            } else {
+                // concurrent lookups of the same address are harmless, the last one wins
+                ByteBuffer key = ByteBuffer.wrap(ip.getAddress());
+                location = locationCache.getIfPresent(key);
+                if (location == null) {
+                    location = lookup(databaseReader, ip);
+                    locationCache.put(key, location);
+                }
+            }
+            return location.<Map<String, Object>> map(HashMap::new).orElse(null);
+        } catch (Throwable e) {
+            LOG.warn("Can't convert IP to GeoIp", e);
+        }
+        return null;
+    }
+
+    private Optional<Map<String, Object>> lookup(DatabaseReader databaseReader, InetAddress ip)
+            throws IOException, GeoIp2Exception {
         try {
             Map<String, Object> holder = new HashMap<>(3);
             if (dbType == LocationDatabaseType.COUNTRY) {
-                Country country = reader.country(ip).getCountry();
+                Country country = databaseReader.country(ip).getCountry();
                 holder.put(ObjectEsParameterFactory.GEOLOC_COUNTRY_CODE.getName(), country.getIsoCode());
             } else {
-                CityResponse city = reader.city(ip);
+                CityResponse city = databaseReader.city(ip);
                 Location loc = city.getLocation();
                 holder.put(ObjectEsParameterFactory.GEOLOC_COUNTRY_CODE.getName(), city.getCountry().getIsoCode());
                 holder.put(ObjectEsParameterFactory.GEOLOC_CITY_NAME.getName(), city.getCity().getName());
                 holder.put(ObjectEsParameterFactory.GEOLOC_GEO_POINT.getName(),
                            new GeoPoint(loc.getLatitude(), loc.getLongitude()));
             }
-            return holder;
-        } catch (Throwable e) {
-            LOG.warn("Can't convert IP to GeoIp", e);
+            return Optional.of(Collections.unmodifiableMap(holder));
+        } catch (AddressNotFoundException e) {
+            LOG.debug("Address {} not found in the location database", ip);
+            return Optional.empty();
         }
-        return null;
     }
 
     /**
@@ -155,6 +193,8 @@ public class StatisticsLocationUtil implements IStatisticsLocationUtil, IAdminSt
             LOG.error("Couldn't initation geolocation database ", e);
             reader = null;
         }
+        // after the swap, so that no lookup of the previous database repopulates the cache
+        invalidateCache();
     }
 
     @Override
@@ -168,9 +208,35 @@ public class StatisticsLocationUtil implements IStatisticsLocationUtil, IAdminSt
         } finally {
             enabled = false;
             reader = null;
+            invalidateCache();
         }
     }
 
+    private void invalidateCache() {
+        Cache<ByteBuffer, Optional<Map<String, Object>>> locationCache = this.cache;
+        if (locationCache != null) {
+            locationCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Set the maximum number of cached locations. A size of {@code 0} disables the cache.
+     *
+     * @param size the size
+     */
+    @Setting(value = StatisticsLocationUtilSettingsKeys.CACHE_SIZE, required = false)
+    public void setCacheSize(Integer size) {
+        int s = size == null ? DEFAULT_CACHE_SIZE
+                    : Validation.greaterEqualZero(StatisticsLocationUtilSettingsKeys.CACHE_SIZE, size);
+        this.cache = s == 0 ? null : createCache(s);
+    }
+
+    @VisibleForTesting
+    CacheStats getCacheStats() {
+        Cache<ByteBuffer, Optional<Map<String, Object>>> locationCache = this.cache;
+        return locationCache == null ? new CacheStats(0, 0, 0, 0, 0, 0) : locationCache.stats();
+    }
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -271,4 +337,8 @@ public class StatisticsLocationUtil implements IStatisticsLocationUtil, IAdminSt
         }
     }
 
+    private static Cache<ByteBuffer, Optional<Map<String, Object>>> createCache(int size) {
+        return CacheBuilder.newBuilder().maximumSize(size).recordStats().build();
+    }
+
 }
@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.statistics.impl.geolocation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal writer of IPv4 MaxMind DB files, to create location database fixtures without the GeoLite2 downloads.
+ *
+ * @see <a href="https://maxmind.github.io/MaxMind-DB/">MaxMind DB File Format Specification</a>
+ * @since 9.9.0
+ */
+public class MaxMindDatabaseWriter {
+    private static final int RECORD_SIZE = 24;
+    private static final int IPV4_BITS = 32;
+    private static final int DATA_SECTION_SEPARATOR = 16;
+    private static final byte[] METADATA_START_MARKER = { (byte) 0xAB, (byte) 0xCD, (byte) 0xEF, 'M', 'a', 'x', 'M',
+                                                          'i', 'n', 'd', '.', 'c', 'o', 'm' };
+    private static final int TYPE_STRING = 2;
+    private static final int TYPE_DOUBLE = 3;
+    private static final int TYPE_UINT16 = 5;
+    private static final int TYPE_UINT32 = 6;
+    private static final int TYPE_MAP = 7;
+    private static final int TYPE_UINT64 = 9;
+    private static final int TYPE_ARRAY = 11;
+    private static final int TYPE_BOOLEAN = 14;
+    private static final int MAX_TYPE = 7;
+    private static final int SIZE_29 = 29;
+    private static final int SIZE_30 = 30;
+    private static final int SIZE_31 = 31;
+    private static final int SIZE_285 = 285;
+    private static final int SIZE_65821 = 65821;
+
+    private final String databaseType;
+    private final Node root = new Node();
+    private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+
+    public MaxMindDatabaseWriter(String databaseType) {
+        this.databaseType = databaseType;
+    }
+
+    /**
+     * Adds the data for an IPv4 network.
+     *
+     * @param network the network in CIDR notation, e.g. {@code 67.20.172.0/24}
+     * @param record  the data, consisting of maps, lists, strings, numbers and booleans
+     *
+     * @return this
+     *
+     * @throws IOException if the network is not valid
+     */
+    public MaxMindDatabaseWriter insert(String network, Map<String, ?> record) throws IOException {
+        String[] split = network.split("/");
+        byte[] address = InetAddress.getByName(split[0]).getAddress();
+        int prefixLength = split.length > 1 ? Integer.parseInt(split[1]) : IPV4_BITS;
+        if (address.length != 4 || prefixLength < 1 || prefixLength > IPV4_BITS) {
+            throw new IOException("Not a valid IPv4 network: " + network);
+        }
+        int bits = ByteBuffer.wrap(address).getInt();
+        Integer offset = data.size();
+        encode(data, record);
+        Node node = root;
+        for (int i = 0; i < prefixLength - 1; ++i) {
+            int bit = bit(bits, i);
+            if (!(node.records[bit] instanceof Node)) {
+                node.records[bit] = new Node();
+            }
+            node = (Node) node.records[bit];
+        }
+        node.records[bit(bits, prefixLength - 1)] = offset;
+        return this;
+    }
+
+    /**
+     * Writes the database.
+     *
+     * @param path the file to write
+     *
+     * @throws IOException if the file can not be written
+     */
+    public void write(Path path) throws IOException {
+        // number the nodes breadth first, the root has to be node zero
+        Map<Node, Integer> numbers = new IdentityHashMap<>();
+        List<Node> nodes = new ArrayList<>();
+        Deque<Node> queue = new ArrayDeque<>(Collections.singleton(root));
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            numbers.put(node, nodes.size());
+            nodes.add(node);
+            for (Object child : node.records) {
+                if (child instanceof Node) {
+                    queue.add((Node) child);
+                }
+            }
+        }
+        int nodeCount = nodes.size();
+        try (OutputStream out = Files.newOutputStream(path)) {
+            for (Node node : nodes) {
+                for (Object child : node.records) {
+                    long value;
+                    if (child instanceof Node) {
+                        value = numbers.get(child);
+                    } else if (child instanceof Integer) {
+                        value = nodeCount + DATA_SECTION_SEPARATOR + (Integer) child;
+                    } else {
+                        value = nodeCount;
+                    }
+                    out.write((int) (value >>> 16));
+                    out.write((int) (value >>> 8));
+                    out.write((int) value);
+                }
+            }
+            out.write(new byte[DATA_SECTION_SEPARATOR]);
+            data.writeTo(out);
+            out.write(METADATA_START_MARKER);
+            Map<String, Object> metadata = new LinkedHashMap<>();
+            metadata.put("node_count", (long) nodeCount);
+            metadata.put("record_size", RECORD_SIZE);
+            metadata.put("ip_version", 4);
+            metadata.put("database_type", databaseType);
+            metadata.put("languages", Collections.singletonList("en"));
+            metadata.put("binary_format_major_version", 2);
+            metadata.put("binary_format_minor_version", 0);
+            metadata.put("build_epoch", BigInteger.valueOf(System.currentTimeMillis() / 1000));
+            metadata.put("description", Collections.singletonMap("en", "Test database"));
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            encode(encoded, metadata);
+            encoded.writeTo(out);
+        }
+    }
+
+    /**
+     * Creates the data of a network of a city database.
+     *
+     * @param countryCode the ISO country code
+     * @param city        the English name of the city
+     * @param latitude    the latitude
+     * @param longitude   the longitude
+     *
+     * @return the data
+     */
+    public static Map<String, Object> city(String countryCode, String city, double latitude, double longitude) {
+        Map<String, Object> location = new LinkedHashMap<>();
+        location.put("latitude", latitude);
+        location.put("longitude", longitude);
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("city", Collections.singletonMap("names", Collections.singletonMap("en", city)));
+        record.put("country", Collections.singletonMap("iso_code", countryCode));
+        record.put("location", location);
+        return record;
+    }
+
+    private static int bit(int bits, int index) {
+        return (bits >>> (IPV4_BITS - 1 - index)) & 1;
+    }
+
+    private static void encode(ByteArrayOutputStream out, Object value) throws IOException {
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            control(out, TYPE_MAP, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                encode(out, entry.getKey().toString());
+                encode(out, entry.getValue());
+            }
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            control(out, TYPE_ARRAY, list.size());
+            for (Object element : list) {
+                encode(out, element);
+            }
+        } else if (value instanceof String) {
+            byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            control(out, TYPE_STRING, bytes.length);
+            out.write(bytes);
+        } else if (value instanceof Double) {
+            control(out, TYPE_DOUBLE, Double.BYTES);
+            out.write(ByteBuffer.allocate(Double.BYTES).putDouble((Double) value).array());
+        } else if (value instanceof Integer) {
+            unsigned(out, TYPE_UINT16, (Integer) value);
+        } else if (value instanceof Long) {
+            unsigned(out, TYPE_UINT32, (Long) value);
+        } else if (value instanceof BigInteger) {
+            unsigned(out, TYPE_UINT64, ((BigInteger) value).longValueExact());
+        } else if (value instanceof Boolean) {
+            control(out, TYPE_BOOLEAN, (Boolean) value ? 1 : 0);
+        } else {
+            throw new IOException("Unsupported value: " + value);
+        }
+    }
+
+    private static void unsigned(ByteArrayOutputStream out, int type, long value) {
+        int length = (Long.SIZE - Long.numberOfLeadingZeros(value) + Byte.SIZE - 1) / Byte.SIZE;
+        control(out, type, length);
+        for (int i = length - 1; i >= 0; --i) {
+            out.write((int) (value >>> (i * Byte.SIZE)));
+        }
+    }
+
+    private static void control(ByteArrayOutputStream out, int type, int size) {
+        int typeBits = type > MAX_TYPE ? 0 : type;
+        if (size < SIZE_29) {
+            out.write(typeBits << 5 | size);
+            extendedType(out, type);
+        } else if (size < SIZE_285) {
+            out.write(typeBits << 5 | SIZE_29);
+            extendedType(out, type);
+            out.write(size - SIZE_29);
+        } else if (size < SIZE_65821) {
+            out.write(typeBits << 5 | SIZE_30);
+            extendedType(out, type);
+            out.write((size - SIZE_285) >>> 8);
+            out.write(size - SIZE_285);
+        } else {
+            out.write(typeBits << 5 | SIZE_31);
+            extendedType(out, type);
+            out.write((size - SIZE_65821) >>> 16);
+            out.write((size - SIZE_65821) >>> 8);
+            out.write(size - SIZE_65821);
+        }
+    }
+
+    private static void extendedType(ByteArrayOutputStream out, int type) {
+        if (type > MAX_TYPE) {
+            out.write(type - MAX_TYPE);
+        }
+    }
+
+    private static class Node {
+        private final Object[] records = new Object[2];
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.iceland.statistics.impl.geolocation;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.elasticsearch.common.geo.GeoPoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.n52.iceland.statistics.api.interfaces.geolocation.IAdminStatisticsLocation.LocationDatabaseType;
+import org.n52.iceland.statistics.api.parameters.ObjectEsParameterFactory;
+import org.n52.janmayen.net.IPAddress;
+
+public class StatisticsLocationUtilTest {
+    private static final String COUNTRY_CODE = ObjectEsParameterFactory.GEOLOC_COUNTRY_CODE.getName();
+    private static final String CITY_NAME = ObjectEsParameterFactory.GEOLOC_CITY_NAME.getName();
+    private static final String GEO_POINT = ObjectEsParameterFactory.GEOLOC_GEO_POINT.getName();
+
+    @TempDir
+    Path folder;
+
+    private Path database;
+    private StatisticsLocationUtil loc;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        this.database = folder.resolve("city.mmdb");
+        new MaxMindDatabaseWriter(LocationDatabaseType.CITY.getGeoLite2Name())
+                .insert("67.20.172.0/24", MaxMindDatabaseWriter.city("US", "Provo", 40.2181, -111.6133))
+                .insert("52.0.0.0/8", MaxMindDatabaseWriter.city("DE", "Münster", 51.9625, 7.6256))
+                .write(database);
+        this.loc = new StatisticsLocationUtil();
+        this.loc.setEnabled(true);
+        this.loc.initDatabase(LocationDatabaseType.CITY, database.toString());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.loc.destroy();
+    }
+
+    @Test
+    public void shouldResolveTheCity() {
+        Map<String, Object> data = loc.ip2SpatialData(new IPAddress("67.20.172.183"));
+        assertThat(data, is(notNullValue()));
+        assertThat(data.get(COUNTRY_CODE), is("US"));
+        assertThat(data.get(CITY_NAME), is("Provo"));
+        assertThat(data.get(GEO_POINT), is(new GeoPoint(40.2181, -111.6133)));
+        assertThat(loc.ip2SpatialData("52.1.2.3").get(CITY_NAME), is("Münster"));
+    }
+
+    @Test
+    public void shouldCacheTheLocation() {
+        Map<String, Object> data = loc.ip2SpatialData("67.20.172.183");
+        // the returned maps are independent of the cached one
+        data.clear();
+        assertThat(loc.ip2SpatialData(new IPAddress("67.20.172.183")).get(COUNTRY_CODE), is("US"));
+        assertThat(loc.getCacheStats().missCount(), is(1L));
+        assertThat(loc.getCacheStats().hitCount(), is(1L));
+    }
+
+    @Test
+    public void shouldCacheUnknownAddresses() {
+        assertThat(loc.ip2SpatialData("127.0.0.1"), is(nullValue()));
+        assertThat(loc.ip2SpatialData("127.0.0.1"), is(nullValue()));
+        assertThat(loc.getCacheStats().missCount(), is(1L));
+        assertThat(loc.getCacheStats().hitCount(), is(1L));
+    }
+
+    @Test
+    public void shouldResolveWithoutCache() {
+        loc.setCacheSize(0);
+        assertThat(loc.ip2SpatialData("67.20.172.183").get(COUNTRY_CODE), is("US"));
+        assertThat(loc.ip2SpatialData("127.0.0.1"), is(nullValue()));
+        assertThat(loc.getCacheStats().requestCount(), is(0L));
+    }
+
+    @Test
+    public void shouldInvalidateTheCacheWithTheDatabase() {
+        loc.ip2SpatialData("67.20.172.183");
+        loc.initDatabase(LocationDatabaseType.CITY, database.toString());
+        loc.ip2SpatialData("67.20.172.183");
+        assertThat(loc.getCacheStats().missCount(), is(2L));
+        loc.destroy();
+        assertThat(loc.ip2SpatialData("67.20.172.183"), is(nullValue()));
+    }
+}
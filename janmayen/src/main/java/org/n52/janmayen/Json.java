@@ -34,6 +34,7 @@ import java.util.Optional;
 import java.util.stream.Collector;
 import java.util.stream.Stream;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.util.DefaultIndenter;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -133,6 +134,20 @@ public class Json {
         return reader().readTree(reader);
     }
 
+    /**
+     * Creates a parser for the reader that is able to read (sub)trees.
+     *
+     * @param reader the reader
+     *
+     * @return the parser
+     *
+     * @throws IOException if the parser can not be created
+     * @since 9.9.0
+     */
+    public static JsonParser createParser(Reader reader) throws IOException {
+        return reader().createParser(reader);
+    }
+
     public static JsonNode loadString(String json) {
         try {
             return loadReader(new StringReader(json));
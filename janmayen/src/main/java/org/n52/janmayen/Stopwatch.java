@@ -88,6 +88,17 @@ public class Stopwatch {
         return exact ? toStringExact(nanos) : toString(nanos);
     }
 
+    /**
+     * Formats the given duration using the largest fitting time unit.
+     *
+     * @param nanos the duration in nanoseconds
+     *
+     * @return the formatted duration
+     */
+    public static String format(long nanos) {
+        return toString(nanos);
+    }
+
     private static String toString(long nanos) {
         if (nanos == 0) {
             return ZERO;
@@ -15,10 +15,12 @@
  */
 package org.n52.janmayen.http;
 
+import static java.util.stream.Collectors.collectingAndThen;
 import static java.util.stream.Collectors.toList;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -31,6 +33,8 @@ import org.slf4j.LoggerFactory;
 import org.n52.janmayen.stream.Streams;
 
 import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 /**
  * TODO JavaDoc
@@ -62,8 +66,19 @@ public abstract class HTTPHeaders {
 
     public static final String X_FORWARDED_FOR = "X-Forwarded-For";
 
+    public static final String VARY = "Vary";
+
+    public static final String RETRY_AFTER = "Retry-After";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(HTTPHeaders.class);
 
+    private static final int ACCEPT_HEADER_CACHE_SIZE = 256;
+
+    private static final Cache<String, List<MediaType>> ACCEPT_HEADERS = CacheBuilder.newBuilder()
+            .maximumSize(ACCEPT_HEADER_CACHE_SIZE).build();
+
+    private static final List<MediaType> ACCEPT_ANY = Collections.singletonList(MediaType.any());
+
     private HTTPHeaders() {
     }
 
@@ -85,14 +100,56 @@ public abstract class HTTPHeaders {
                 .anyMatch(value::equalsIgnoreCase);
     }
 
+    /**
+     * Get the media types of the {@code Accept} header, ordered by descending quality. Media types of equal quality
+     * keep the order of the header. The returned list is shared between requests with the same header value and can
+     * not be modified.
+     *
+     * @param req the request
+     *
+     * @return the media types
+     */
     public static List<MediaType> getAcceptHeader(HttpServletRequest req) {
-        return Optional.ofNullable(req.getHeader(HTTPHeaders.ACCEPT))
-                .map(Strings::emptyToNull)
-                .map(h -> h.split(","))
-                .map(Arrays::stream)
-                .map(s -> s.map(HTTPHeaders::parseMediaType).filter(Objects::nonNull).collect(toList()))
+        return getAcceptHeader(req.getHeader(HTTPHeaders.ACCEPT));
+    }
+
+    /**
+     * Get the media types of the {@code Accept} header value, ordered by descending quality.
+     *
+     * @param header the header value
+     *
+     * @return the media types
+     *
+     * @see #getAcceptHeader(HttpServletRequest)
+     * @since 9.9.0
+     */
+    public static List<MediaType> getAcceptHeader(String header) {
+        if (Strings.isNullOrEmpty(header)) {
+            return ACCEPT_ANY;
+        }
+        List<MediaType> mediaTypes = ACCEPT_HEADERS.getIfPresent(header);
+        if (mediaTypes == null) {
+            mediaTypes = parseAcceptHeader(header);
+            ACCEPT_HEADERS.put(header, mediaTypes);
+        }
+        return mediaTypes;
+    }
+
+    private static List<MediaType> parseAcceptHeader(String header) {
+        return Optional.of(Arrays.stream(header.split(","))
+                .map(HTTPHeaders::parseMediaType).filter(Objects::nonNull)
+                .sorted(Comparator.comparing(HTTPHeaders::getQuality).reversed())
+                .collect(collectingAndThen(toList(), Collections::unmodifiableList)))
                 .filter(l -> !l.isEmpty())
-                .orElseGet(() -> Collections.singletonList(MediaType.any()));
+                .orElse(ACCEPT_ANY);
+    }
+
+    private static float getQuality(MediaType mt) {
+        try {
+            return mt.getQuality();
+        } catch (NumberFormatException e) {
+            return 1.0f;
+        }
     }
 
     private static MediaType parseMediaType(String mt) {
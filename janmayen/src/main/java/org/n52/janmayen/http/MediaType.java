@@ -25,6 +25,8 @@ import java.util.Objects;
 import org.n52.janmayen.similar.Similar;
 
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ComparisonChain;
 import com.google.common.collect.ListMultimap;
@@ -49,6 +51,9 @@ public class MediaType implements Comparable<MediaType>, Similar<MediaType> {
     public static final String TEXT_TYPE = "text";
     public static final String WILDCARD_TYPE = "*";
     private static final String QUALITY_PARAMETER = "q";
+    private static final int PARSE_CACHE_SIZE = 512;
+    private static final Cache<String, MediaType> PARSED = CacheBuilder.newBuilder()
+            .maximumSize(PARSE_CACHE_SIZE).build();
 
     private static final MediaType ANY = new MediaType(WILDCARD_TYPE, WILDCARD_TYPE);
     private static final MediaType ANY_APPLICATION = application(WILDCARD_TYPE);
@@ -269,9 +274,24 @@ public class MediaType implements Comparable<MediaType>, Similar<MediaType> {
         return multiMap;
     }
 
+    /**
+     * Parses the media type. As media types are immutable and requests use only a few distinct content types, the
+     * parsed media types are cached by their string representation.
+     *
+     * @param string the media type string
+     *
+     * @return the media type
+     *
+     * @throws IllegalArgumentException if the string is not a valid media type
+     */
     public static MediaType parse(String string) {
         Preconditions.checkArgument(string != null);
-        return new MediaType(com.google.common.net.MediaType.parse(string.trim()));
+        MediaType mediaType = PARSED.getIfPresent(string);
+        if (mediaType == null) {
+            mediaType = new MediaType(com.google.common.net.MediaType.parse(string.trim()));
+            PARSED.put(string, mediaType);
+        }
+        return mediaType;
     }
 
     /**
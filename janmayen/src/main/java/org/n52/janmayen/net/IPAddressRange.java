@@ -102,7 +102,7 @@ public class IPAddressRange implements Predicate<IPAddress>, com.google.common.b
         byte[] lowBytes = new byte[bytes.length];
 
         for (int i = 0; i < bytes.length; ++i) {
-            highBytes[i] = (byte) (bytes[i] + ~maskBytes[i]);
+            highBytes[i] = (byte) (bytes[i] | ~maskBytes[i]);
             lowBytes[i] = (byte) (bytes[i] & maskBytes[i]);
         }
 
@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.janmayen.net;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Set of {@link IPAddressRange}s backed by a binary prefix trie per address family. Membership and longest prefix
+ * queries take at most one step per address bit, regardless of the number of ranges in the set. IPv4 addresses are
+ * only matched against IPv4 ranges and IPv6 addresses only against IPv6 ranges.
+ * <p>
+ * The set is not synchronized; it may be queried concurrently once all ranges have been added.
+ *
+ * @since 9.9.0
+ */
+public class IPAddressRangeSet implements Predicate<IPAddress> {
+    private final Node ipv4 = new Node();
+    private final Node ipv6 = new Node();
+    private int size;
+
+    /**
+     * Creates a new empty set.
+     */
+    public IPAddressRangeSet() {
+    }
+
+    /**
+     * Creates a new set containing the ranges.
+     *
+     * @param ranges the ranges
+     */
+    public IPAddressRangeSet(Iterable<IPAddressRange> ranges) {
+        addAll(ranges);
+    }
+
+    /**
+     * Creates a new set containing the ranges.
+     *
+     * @param ranges the ranges
+     */
+    public IPAddressRangeSet(IPAddressRange... ranges) {
+        this(Arrays.asList(ranges));
+    }
+
+    /**
+     * Adds a range to this set. A range with the same network and prefix replaces the previously added one.
+     *
+     * @param range the range
+     *
+     * @return if the set did not already contain a range with the same network and prefix
+     */
+    public boolean add(IPAddressRange range) {
+        Objects.requireNonNull(range);
+        byte[] bytes = range.getLow().getBytes();
+        Node node = root(range.getAddress());
+        for (int i = 0; i < range.getPrefix(); ++i) {
+            node = node.getOrCreateChild(bit(bytes, i));
+        }
+        boolean added = node.range == null;
+        if (added) {
+            ++size;
+        }
+        node.range = range;
+        return added;
+    }
+
+    /**
+     * Adds all ranges to this set.
+     *
+     * @param ranges the ranges
+     */
+    public void addAll(Iterable<IPAddressRange> ranges) {
+        ranges.forEach(this::add);
+    }
+
+    /**
+     * Checks if any range of this set contains the address.
+     *
+     * @param address the address
+     *
+     * @return whether the address is contained
+     */
+    public boolean contains(IPAddress address) {
+        byte[] bytes = address.getBytes();
+        Node node = root(address);
+        for (int i = 0; node != null; node = node.getChild(bit(bytes, i++))) {
+            if (node.range != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the most specific range of this set, i.e. the one with the longest prefix, that contains the address.
+     *
+     * @param address the address
+     *
+     * @return the range or an empty optional if no range contains the address
+     */
+    public Optional<IPAddressRange> getLongestPrefixMatch(IPAddress address) {
+        byte[] bytes = address.getBytes();
+        IPAddressRange match = null;
+        Node node = root(address);
+        for (int i = 0; node != null; node = node.getChild(bit(bytes, i++))) {
+            if (node.range != null) {
+                match = node.range;
+            }
+        }
+        return Optional.ofNullable(match);
+    }
+
+    @Override
+    public boolean test(IPAddress address) {
+        return address != null && contains(address);
+    }
+
+    /**
+     * @return the number of ranges in this set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return if this set contains no ranges
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("size", size).toString();
+    }
+
+    private Node root(IPAddress address) {
+        return address.isIPv4() ? ipv4 : ipv6;
+    }
+
+    private static int bit(byte[] bytes, int index) {
+        if (index >= bytes.length * Byte.SIZE) {
+            // past the last bit of the address, there is no further node
+            return -1;
+        }
+        return (bytes[index / Byte.SIZE] >>> (Byte.SIZE - 1 - index % Byte.SIZE)) & 1;
+    }
+
+    private static final class Node {
+        private Node zero;
+        private Node one;
+        private IPAddressRange range;
+
+        Node getChild(int bit) {
+            switch (bit) {
+                case 0:
+                    return zero;
+                case 1:
+                    return one;
+                default:
+                    return null;
+            }
+        }
+
+        Node getOrCreateChild(int bit) {
+            if (bit == 0) {
+                if (zero == null) {
+                    zero = new Node();
+                }
+                return zero;
+            } else {
+                if (one == null) {
+                    one = new Node();
+                }
+                return one;
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.janmayen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtPercentile(99));
+        assertEquals(0.0, snapshot.getMean());
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 20; ++i) {
+            histogram.record(i);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(20, snapshot.getCount());
+        assertEquals(10, snapshot.getValueAtPercentile(50));
+        assertEquals(20, snapshot.getValueAtPercentile(100));
+        assertEquals(10.5, snapshot.getMean());
+    }
+
+    @Test
+    public void testRelativePrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100_000; ++i) {
+            histogram.record(i * 1000);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100_000_000L, snapshot.getMax());
+        assertWithinPrecision(50_000_000L, snapshot.getValueAtPercentile(50));
+        assertWithinPrecision(99_000_000L, snapshot.getValueAtPercentile(99));
+        assertEquals(100_000_000L, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testBucketBoundaries() {
+        for (long value : new long[] { 0, 1, 31, 32, 33, 63, 64, 1_000_000, Long.MAX_VALUE }) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.highestValueOf(index) >= value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestValueOf(index - 1) < value);
+            }
+        }
+    }
+
+    @Test
+    public void testNegativeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.snapshot().getMax());
+    }
+
+    private static void assertWithinPrecision(long expected, long actual) {
+        assertTrue(Math.abs(expected - actual) <= expected / 16, () -> actual + " is not close to " + expected);
+    }
+}
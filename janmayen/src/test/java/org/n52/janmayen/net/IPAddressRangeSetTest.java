@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.janmayen.net;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class IPAddressRangeSetTest {
+
+    @Test
+    public void shouldFindTheLongestPrefixMatch() {
+        IPAddressRange wide = new IPAddressRange("10.0.0.0/8");
+        IPAddressRange narrow = new IPAddressRange("10.1.0.0/255.255.0.0");
+        IPAddressRange single = new IPAddressRange("10.1.2.3");
+        IPAddressRangeSet set = new IPAddressRangeSet(wide, narrow, single);
+        assertThat(set.size(), is(3));
+        assertThat(set.getLongestPrefixMatch(new IPAddress("10.2.3.4")), is(Optional.of(wide)));
+        assertThat(set.getLongestPrefixMatch(new IPAddress("10.1.3.4")), is(Optional.of(narrow)));
+        assertThat(set.getLongestPrefixMatch(new IPAddress("10.1.2.3")), is(Optional.of(single)));
+        assertThat(set.getLongestPrefixMatch(new IPAddress("11.1.2.3")), is(Optional.empty()));
+    }
+
+    @Test
+    public void shouldSeparateTheAddressFamilies() {
+        IPAddressRangeSet set = new IPAddressRangeSet(new IPAddressRange("192.168.0.0/16"),
+                                                      new IPAddressRange("2001:db8:abcd:0012::0/64"));
+        assertThat(set.contains(new IPAddress("192.168.1.1")), is(true));
+        assertThat(set.contains(new IPAddress("192.169.1.1")), is(false));
+        assertThat(set.contains(new IPAddress("2001:db8:abcd:12::1")), is(true));
+        assertThat(set.contains(new IPAddress("2001:db8:abcd:13::1")), is(false));
+        assertThat(set.contains(new IPAddress("c0a8::1")), is(false));
+        assertThat(set.test(null), is(false));
+    }
+
+    @Test
+    public void shouldMatchEverythingWithAnEmptyPrefix() {
+        IPAddressRangeSet set = new IPAddressRangeSet(new IPAddressRange("0.0.0.0/0"));
+        assertThat(set.contains(new IPAddress("255.255.255.255")), is(true));
+        assertThat(set.contains(new IPAddress("::1")), is(false));
+        assertThat(new IPAddressRangeSet().contains(new IPAddress("127.0.0.1")), is(false));
+    }
+
+    @Test
+    public void shouldReplaceEqualRanges() {
+        IPAddressRangeSet set = new IPAddressRangeSet();
+        assertThat(set.add(new IPAddressRange("192.168.1.1/24")), is(true));
+        assertThat(set.add(new IPAddressRange("192.168.1.0/24")), is(false));
+        assertThat(set.size(), is(1));
+        assertThat(set.getLongestPrefixMatch(new IPAddress("192.168.1.200")).get().getAddress(),
+                   is(new IPAddress("192.168.1.0")));
+    }
+
+    @Test
+    public void shouldAgreeWithTheRanges() {
+        Random random = new Random(42);
+        List<IPAddressRange> ranges = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) {
+            ranges.add(new IPAddressRange(new IPAddress(random.nextInt()), 8 + random.nextInt(25)));
+        }
+        IPAddressRangeSet set = new IPAddressRangeSet(ranges);
+        for (int i = 0; i < 10000; ++i) {
+            IPAddress address = new IPAddress(random.nextInt());
+            assertThat(address.toString(), set.contains(address), is(ranges.stream().anyMatch(r -> r.test(address))));
+        }
+    }
+}
@@ -254,6 +254,13 @@ public class IPAddressRangeTest {
         testGetMaskForPrefix(0, "0.0.0.0");
     }
 
+    @Test
+    public void should_ignore_host_bits_of_the_range_address() {
+        assertThat(new IPAddressRange("146.207.99.170/11").getHigh(), is(new IPAddress("146.223.255.255")));
+        assertThat(isAddressInRange("146.207.99.170/11", "146.226.85.229"), is(false));
+        assertThat(isAddressInRange("146.207.99.170/11", "146.200.0.1"), is(true));
+    }
+
     private boolean isAddressInRange(String range, String address) {
         return new IPAddressRange(range).contains(new IPAddress(address));
     }
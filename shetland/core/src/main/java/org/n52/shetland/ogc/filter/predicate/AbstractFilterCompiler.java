@@ -0,0 +1,510 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.ogc.filter.predicate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.DoublePredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.joda.time.DateTime;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+
+import org.n52.shetland.ogc.filter.BinaryLogicFilter;
+import org.n52.shetland.ogc.filter.ComparisonFilter;
+import org.n52.shetland.ogc.filter.FilterConstants.BinaryLogicOperator;
+import org.n52.shetland.ogc.filter.FilterConstants.ComparisonOperator;
+import org.n52.shetland.ogc.filter.FilterConstants.SpatialOperator;
+import org.n52.shetland.ogc.filter.FilterConstants.TimeOperator;
+import org.n52.shetland.ogc.filter.Filter;
+import org.n52.shetland.ogc.filter.IdFilter;
+import org.n52.shetland.ogc.filter.SpatialFilter;
+import org.n52.shetland.ogc.filter.TemporalFilter;
+import org.n52.shetland.ogc.filter.UnaryLogicFilter;
+import org.n52.shetland.ogc.gml.time.Time;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.gml.time.TimePeriod;
+import org.n52.shetland.ogc.sos.ResultFilter;
+
+/**
+ * Compiles FES filter trees into {@link CompiledFilter}s that can be evaluated in memory. All literals are parsed,
+ * times are converted to epoch milliseconds and geometries are prepared once during the compilation. Logical
+ * operators are folded if operands are constant and their operands are ordered by estimated selectivity and cost.
+ * <p>
+ * Subclasses resolve value references to accessors of the filtered objects. Temporal operators follow the
+ * definitions of ISO 19108, e.g. {@code During} requires the time of the object to be strictly contained in the time
+ * of the filter.
+ *
+ * @param <T> the type of the filtered objects
+ *
+ * @since 9.9.0
+ */
+public abstract class AbstractFilterCompiler<T> {
+    private static final double EQUALITY_SELECTIVITY = 0.1d;
+    private static final double RANGE_SELECTIVITY = 0.33d;
+    private static final double BETWEEN_SELECTIVITY = 0.25d;
+    private static final double LIKE_SELECTIVITY = 0.25d;
+    private static final double NULL_SELECTIVITY = 0.05d;
+    private static final double TEMPORAL_BOUNDARY_SELECTIVITY = 0.05d;
+    private static final double TEMPORAL_CONTAINMENT_SELECTIVITY = 0.25d;
+    private static final double TEMPORAL_ORDER_SELECTIVITY = 0.5d;
+    private static final double SPATIAL_SELECTIVITY = 0.25d;
+    private static final double SPATIAL_TOPOLOGY_SELECTIVITY = 0.1d;
+    private static final double NUMERIC_COST = 1.0d;
+    private static final double TEXT_COST = 2.0d;
+    private static final double LIKE_COST = 5.0d;
+    private static final double TEMPORAL_COST = 1.0d;
+    private static final double BBOX_COST = 5.0d;
+    private static final double SPATIAL_COST = 20.0d;
+    private static final String DEFAULT_WILD_CARD = "*";
+    private static final String DEFAULT_SINGLE_CHAR = ".";
+    private static final String DEFAULT_ESCAPE = "\\";
+
+    /**
+     * Compile the filter.
+     *
+     * @param filter the filter, may be {@code null}
+     *
+     * @return the compiled filter, that matches every object if {@code filter} is {@code null}
+     *
+     * @throws IllegalArgumentException if the filter or one of its value references is not supported
+     */
+    public CompiledFilter<T> compile(Filter<?> filter) {
+        if (filter == null) {
+            return CompiledFilters.constant(true);
+        } else if (filter instanceof BinaryLogicFilter) {
+            return compileBinaryLogic((BinaryLogicFilter) filter);
+        } else if (filter instanceof UnaryLogicFilter) {
+            return CompiledFilters.not(compile(((UnaryLogicFilter) filter).getFilterPredicate()));
+        } else if (filter instanceof ComparisonFilter) {
+            return compileComparison((ComparisonFilter) filter);
+        } else if (filter instanceof TemporalFilter) {
+            return compileTemporal((TemporalFilter) filter);
+        } else if (filter instanceof SpatialFilter) {
+            return compileSpatial((SpatialFilter) filter);
+        } else if (filter instanceof IdFilter) {
+            return compileId((IdFilter) filter);
+        }
+        throw new IllegalArgumentException(String.format("Filter %s is not supported", filter));
+    }
+
+    /**
+     * Compile the filter of the result filter.
+     *
+     * @param filter the result filter, may be {@code null}
+     *
+     * @return the compiled filter
+     *
+     * @throws IllegalArgumentException if the filter or one of its value references is not supported
+     */
+    public CompiledFilter<T> compile(ResultFilter filter) {
+        return compile(filter == null ? null : filter.getValue());
+    }
+
+    /**
+     * Compile the filters and combine them with a logical {@code AND}.
+     *
+     * @param filters the filters
+     *
+     * @return the compiled filter
+     *
+     * @throws IllegalArgumentException if a filter or one of its value references is not supported
+     */
+    public CompiledFilter<T> compileAll(Iterable<? extends Filter<?>> filters) {
+        List<CompiledFilter<T>> compiled = new ArrayList<>();
+        filters.forEach(filter -> compiled.add(compile(filter)));
+        return CompiledFilters.and(compiled);
+    }
+
+    /**
+     * Resolve a value reference to a numeric accessor.
+     *
+     * @param valueReference the value reference
+     *
+     * @return the accessor or an empty optional if the referenced property is not numeric
+     *
+     * @throws IllegalArgumentException if the value reference is not supported
+     */
+    protected abstract Optional<NumericProperty<T>> getNumericProperty(String valueReference);
+
+    /**
+     * Resolve a value reference to a textual accessor.
+     *
+     * @param valueReference the value reference
+     *
+     * @return the accessor, that returns {@code null} for absent values
+     *
+     * @throws IllegalArgumentException if the value reference is not supported
+     */
+    protected abstract Function<T, String> getTextProperty(String valueReference);
+
+    /**
+     * Resolve a value reference to a temporal accessor.
+     *
+     * @param valueReference the value reference
+     *
+     * @return the accessor
+     *
+     * @throws IllegalArgumentException if the value reference is not supported
+     */
+    protected abstract TimeProperty<T> getTimeProperty(String valueReference);
+
+    /**
+     * Resolve a value reference to a spatial accessor.
+     *
+     * @param valueReference the value reference
+     *
+     * @return the accessor, that returns {@code null} for absent values
+     *
+     * @throws IllegalArgumentException if the value reference is not supported
+     */
+    protected abstract Function<T, Geometry> getGeometryProperty(String valueReference);
+
+    /**
+     * Compile an identifier filter.
+     *
+     * @param filter the filter
+     *
+     * @return the compiled filter
+     *
+     * @throws IllegalArgumentException if identifier filters are not supported
+     */
+    protected CompiledFilter<T> compileId(IdFilter filter) {
+        throw new IllegalArgumentException(String.format("Filter %s is not supported", filter));
+    }
+
+    protected IllegalArgumentException unsupportedValueReference(String valueReference) {
+        return new IllegalArgumentException(String.format("Value reference %s is not supported", valueReference));
+    }
+
+    private CompiledFilter<T> compileBinaryLogic(BinaryLogicFilter filter) {
+        List<CompiledFilter<T>> operands = filter.getFilterPredicates().stream()
+                .map(this::compile).collect(Collectors.toList());
+        return filter.getOperator() == BinaryLogicOperator.Or
+                       ? CompiledFilters.or(operands)
+                       : CompiledFilters.and(operands);
+    }
+
+    private CompiledFilter<T> compileComparison(ComparisonFilter filter) {
+        String valueReference = filter.getValueReference();
+        ComparisonOperator operator = filter.getOperator();
+        if (operator == ComparisonOperator.PropertyIsNull || operator == ComparisonOperator.PropertyIsNil) {
+            Function<T, String> property = getTextProperty(valueReference);
+            return CompiledFilters.of(t -> property.apply(t) == null, NULL_SELECTIVITY, TEXT_COST);
+        }
+        if (!filter.isSetValue()) {
+            throw new IllegalArgumentException(String.format("Filter %s is missing a literal", filter));
+        }
+        if (operator == ComparisonOperator.PropertyIsLike) {
+            Function<T, String> property = getTextProperty(valueReference);
+            Pattern pattern = toPattern(filter);
+            return CompiledFilters.of(t -> {
+                String value = property.apply(t);
+                return value != null && pattern.matcher(value).matches();
+            }, LIKE_SELECTIVITY, LIKE_COST);
+        }
+        Optional<NumericProperty<T>> numeric = getNumericProperty(valueReference);
+        if (numeric.isPresent()) {
+            Optional<CompiledFilter<T>> compiled = compileNumericComparison(filter, numeric.get());
+            if (compiled.isPresent()) {
+                return compiled.get();
+            }
+        }
+        return compileTextComparison(filter, getTextProperty(valueReference));
+    }
+
+    private Optional<CompiledFilter<T>> compileNumericComparison(ComparisonFilter filter,
+                                                                 NumericProperty<T> property) {
+        double literal;
+        double upper = Double.NaN;
+        try {
+            literal = property.parse(filter.getValue());
+            if (filter.getOperator() == ComparisonOperator.PropertyIsBetween) {
+                upper = property.parse(filter.getValueUpper());
+            }
+        } catch (IllegalArgumentException | NullPointerException e) {
+            // not a numeric literal, compare the textual representation
+            return Optional.empty();
+        }
+        DoublePredicate predicate;
+        double selectivity;
+        switch (filter.getOperator()) {
+            case PropertyIsEqualTo:
+                predicate = v -> v == literal;
+                selectivity = EQUALITY_SELECTIVITY;
+                break;
+            case PropertyIsNotEqualTo:
+                predicate = v -> v != literal && !Double.isNaN(v);
+                selectivity = 1.0d - EQUALITY_SELECTIVITY;
+                break;
+            case PropertyIsLessThan:
+                predicate = v -> v < literal;
+                selectivity = RANGE_SELECTIVITY;
+                break;
+            case PropertyIsLessThanOrEqualTo:
+                predicate = v -> v <= literal;
+                selectivity = RANGE_SELECTIVITY;
+                break;
+            case PropertyIsGreaterThan:
+                predicate = v -> v > literal;
+                selectivity = RANGE_SELECTIVITY;
+                break;
+            case PropertyIsGreaterThanOrEqualTo:
+                predicate = v -> v >= literal;
+                selectivity = RANGE_SELECTIVITY;
+                break;
+            case PropertyIsBetween:
+                if (literal > upper) {
+                    return Optional.of(CompiledFilters.constant(false));
+                }
+                double lower = literal;
+                double upperBound = upper;
+                predicate = v -> v >= lower && v <= upperBound;
+                selectivity = BETWEEN_SELECTIVITY;
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("Filter %s is not supported", filter));
+        }
+        // comparisons with NaN are always false
+        return Optional.of(CompiledFilters.of(t -> predicate.test(property.get(t)), selectivity, NUMERIC_COST));
+    }
+
+    private CompiledFilter<T> compileTextComparison(ComparisonFilter filter, Function<T, String> property) {
+        boolean matchCase = filter.isMatchCase();
+        String literal = filter.getValue();
+        Predicate<String> predicate;
+        double selectivity;
+        switch (filter.getOperator()) {
+            case PropertyIsEqualTo:
+                predicate = matchCase ? literal::equals : literal::equalsIgnoreCase;
+                selectivity = EQUALITY_SELECTIVITY;
+                break;
+            case PropertyIsNotEqualTo:
+                predicate = matchCase ? v -> !literal.equals(v) : v -> !literal.equalsIgnoreCase(v);
+                selectivity = 1.0d - EQUALITY_SELECTIVITY;
+                break;
+            case PropertyIsLessThan:
+                predicate = v -> compare(v, literal, matchCase) < 0;
+                selectivity = RANGE_SELECTIVITY;
+                break;
+            case PropertyIsLessThanOrEqualTo:
+                predicate = v -> compare(v, literal, matchCase) <= 0;
+                selectivity = RANGE_SELECTIVITY;
+                break;
+            case PropertyIsGreaterThan:
+                predicate = v -> compare(v, literal, matchCase) > 0;
+                selectivity = RANGE_SELECTIVITY;
+                break;
+            case PropertyIsGreaterThanOrEqualTo:
+                predicate = v -> compare(v, literal, matchCase) >= 0;
+                selectivity = RANGE_SELECTIVITY;
+                break;
+            case PropertyIsBetween:
+                if (!filter.isSetValueUpper()) {
+                    throw new IllegalArgumentException(String.format("Filter %s is missing a literal", filter));
+                }
+                String upper = filter.getValueUpper();
+                if (compare(literal, upper, matchCase) > 0) {
+                    return CompiledFilters.constant(false);
+                }
+                predicate = v -> compare(v, literal, matchCase) >= 0 && compare(v, upper, matchCase) <= 0;
+                selectivity = BETWEEN_SELECTIVITY;
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("Filter %s is not supported", filter));
+        }
+        return CompiledFilters.of(t -> {
+            String value = property.apply(t);
+            return value != null && predicate.test(value);
+        }, selectivity, TEXT_COST);
+    }
+
+    private CompiledFilter<T> compileTemporal(TemporalFilter filter) {
+        TimeProperty<T> property = getTimeProperty(filter.getValueReference());
+        Time time = filter.getTime();
+        long start;
+        long end;
+        if (time instanceof TimeInstant) {
+            start = toMillis(filter, ((TimeInstant) time).resolveValue());
+            end = start;
+        } else if (time instanceof TimePeriod) {
+            start = toMillis(filter, ((TimePeriod) time).resolveStart());
+            end = toMillis(filter, ((TimePeriod) time).resolveEnd());
+        } else {
+            throw new IllegalArgumentException(String.format("Filter %s is not supported", filter));
+        }
+        TimeOperator operator = filter.getOperator();
+        switch (operator) {
+            case TM_Before:
+                return temporal(property, (s, e) -> e < start, TEMPORAL_ORDER_SELECTIVITY);
+            case TM_After:
+                return temporal(property, (s, e) -> s > end, TEMPORAL_ORDER_SELECTIVITY);
+            case TM_Begins:
+                return temporal(property, (s, e) -> s == start && e < end, TEMPORAL_BOUNDARY_SELECTIVITY);
+            case TM_BegunBy:
+                return temporal(property, (s, e) -> s == start && e > end, TEMPORAL_BOUNDARY_SELECTIVITY);
+            case TM_Ends:
+                return temporal(property, (s, e) -> e == end && s > start, TEMPORAL_BOUNDARY_SELECTIVITY);
+            case TM_EndedBy:
+                return temporal(property, (s, e) -> e == end && s < start, TEMPORAL_BOUNDARY_SELECTIVITY);
+            case TM_During:
+                if (start == end) {
+                    // nothing is strictly contained in an instant
+                    return CompiledFilters.constant(false);
+                }
+                return temporal(property, (s, e) -> s > start && e < end, TEMPORAL_CONTAINMENT_SELECTIVITY);
+            case TM_Contains:
+                return temporal(property, (s, e) -> s < start && e > end, TEMPORAL_CONTAINMENT_SELECTIVITY);
+            case TM_Equals:
+                return temporal(property, (s, e) -> s == start && e == end, TEMPORAL_BOUNDARY_SELECTIVITY);
+            case TM_Overlaps:
+                return temporal(property, (s, e) -> s < start && e > start && e < end,
+                                TEMPORAL_BOUNDARY_SELECTIVITY);
+            case TM_OverlappedBy:
+                return temporal(property, (s, e) -> s > start && s < end && e > end,
+                                TEMPORAL_BOUNDARY_SELECTIVITY);
+            case TM_Meets:
+                return temporal(property, (s, e) -> s != e && e == start, TEMPORAL_BOUNDARY_SELECTIVITY);
+            case TM_MetBy:
+                return temporal(property, (s, e) -> s != e && s == end, TEMPORAL_BOUNDARY_SELECTIVITY);
+            default:
+                throw new IllegalArgumentException(String.format("Filter %s is not supported", filter));
+        }
+    }
+
+    private CompiledFilter<T> temporal(TimeProperty<T> property, TemporalRelation relation, double selectivity) {
+        return CompiledFilters.of(t -> {
+            long start = property.getStart(t);
+            if (start == TimeProperty.NO_TIME) {
+                return false;
+            }
+            long end = property.getEnd(t);
+            return end != TimeProperty.NO_TIME && relation.test(start, end);
+        }, selectivity, TEMPORAL_COST);
+    }
+
+    private CompiledFilter<T> compileSpatial(SpatialFilter filter) {
+        Function<T, Geometry> property = getGeometryProperty(filter.getValueReference());
+        Geometry geometry = filter.getGeometry() == null ? null : filter.getGeometry().toGeometry();
+        SpatialOperator operator = filter.getOperator();
+        if (geometry == null || geometry.isEmpty()) {
+            // nothing interacts with the empty geometry
+            return operator == SpatialOperator.Disjoint || operator == SpatialOperator.Beyond
+                           ? CompiledFilters.of(t -> property.apply(t) != null, 1.0d, SPATIAL_COST)
+                           : CompiledFilters.constant(false);
+        }
+        PreparedGeometry prepared = PreparedGeometryFactory.prepare(geometry);
+        switch (operator) {
+            case BBOX:
+                return spatial(property, prepared::intersects, SPATIAL_SELECTIVITY, BBOX_COST);
+            case Intersects:
+                return spatial(property, prepared::intersects, SPATIAL_SELECTIVITY, SPATIAL_COST);
+            case Disjoint:
+                return spatial(property, prepared::disjoint, 1.0d - SPATIAL_SELECTIVITY, SPATIAL_COST);
+            case Within:
+                // the object is within the filter geometry
+                return spatial(property, prepared::contains, SPATIAL_SELECTIVITY, SPATIAL_COST);
+            case Contains:
+                // the object contains the filter geometry
+                return spatial(property, prepared::within, SPATIAL_TOPOLOGY_SELECTIVITY, SPATIAL_COST);
+            case Overlaps:
+                return spatial(property, prepared::overlaps, SPATIAL_TOPOLOGY_SELECTIVITY, SPATIAL_COST);
+            case Crosses:
+                return spatial(property, prepared::crosses, SPATIAL_TOPOLOGY_SELECTIVITY, SPATIAL_COST);
+            case Touches:
+                return spatial(property, prepared::touches, SPATIAL_TOPOLOGY_SELECTIVITY, SPATIAL_COST);
+            case Equals:
+                return spatial(property, geometry::equalsTopo, SPATIAL_TOPOLOGY_SELECTIVITY, SPATIAL_COST);
+            case DWithin:
+                double within = getDistance(filter);
+                return spatial(property, g -> geometry.isWithinDistance(g, within), SPATIAL_SELECTIVITY,
+                               SPATIAL_COST);
+            case Beyond:
+                double beyond = getDistance(filter);
+                return spatial(property, g -> !geometry.isWithinDistance(g, beyond), 1.0d - SPATIAL_SELECTIVITY,
+                               SPATIAL_COST);
+            default:
+                throw new IllegalArgumentException(String.format("Filter %s is not supported", filter));
+        }
+    }
+
+    private CompiledFilter<T> spatial(Function<T, Geometry> property, Predicate<Geometry> predicate,
+                                      double selectivity, double cost) {
+        return CompiledFilters.of(t -> {
+            Geometry geometry = property.apply(t);
+            return geometry != null && predicate.test(geometry);
+        }, selectivity, cost);
+    }
+
+    private static long toMillis(TemporalFilter filter, DateTime time) {
+        if (time == null) {
+            throw new IllegalArgumentException(String.format("Filter %s has an indeterminate time", filter));
+        }
+        return time.getMillis();
+    }
+
+    private static double getDistance(SpatialFilter filter) {
+        if (filter.getDistance() == null || filter.getDistance().getValue() == null) {
+            throw new IllegalArgumentException(String.format("Filter %s is missing a distance", filter));
+        }
+        // the distance is interpreted in the units of the coordinate reference system
+        return filter.getDistance().getValue();
+    }
+
+    private static int compare(String value, String literal, boolean matchCase) {
+        return matchCase ? value.compareTo(literal) : value.compareToIgnoreCase(literal);
+    }
+
+    private static Pattern toPattern(ComparisonFilter filter) {
+        String wildCard = filter.isSetWildCard() ? filter.getWildCard() : DEFAULT_WILD_CARD;
+        String singleChar = filter.isSetSingleChar() ? filter.getSingleChar() : DEFAULT_SINGLE_CHAR;
+        String escape = filter.isSetEscapeString() ? filter.getEscapeString() : DEFAULT_ESCAPE;
+        String literal = filter.getValue();
+        StringBuilder regex = new StringBuilder(literal.length() + 8);
+        int i = 0;
+        while (i < literal.length()) {
+            if (literal.startsWith(escape, i) && i + escape.length() < literal.length()) {
+                i += escape.length();
+                regex.append(Pattern.quote(literal.substring(i, i + 1)));
+                i++;
+            } else if (literal.startsWith(wildCard, i)) {
+                regex.append(".*");
+                i += wildCard.length();
+            } else if (literal.startsWith(singleChar, i)) {
+                regex.append('.');
+                i += singleChar.length();
+            } else {
+                regex.append(Pattern.quote(literal.substring(i, i + 1)));
+                i++;
+            }
+        }
+        return Pattern.compile(regex.toString(),
+                               filter.isMatchCase() ? Pattern.DOTALL
+                                                    : Pattern.DOTALL | Pattern.CASE_INSENSITIVE
+                                                                     | Pattern.UNICODE_CASE);
+    }
+
+    @FunctionalInterface
+    private interface TemporalRelation {
+        boolean test(long start, long end);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.ogc.filter.predicate;
+
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A {@link Predicate} compiled from a FES filter tree by an {@link AbstractFilterCompiler}.
+ *
+ * @param <T> the type of the filtered objects
+ *
+ * @since 9.9.0
+ */
+public interface CompiledFilter<T> extends Predicate<T> {
+
+    /**
+     * @return the estimated fraction of objects that match this filter, in the range {@code [0, 1]}
+     */
+    double getSelectivity();
+
+    /**
+     * @return the estimated relative cost to evaluate this filter for a single object
+     */
+    double getCost();
+
+    /**
+     * @return the result of this filter if it does not depend on the filtered object
+     */
+    default Optional<Boolean> getConstant() {
+        return Optional.empty();
+    }
+
+    /**
+     * Filter the stream.
+     *
+     * @param stream the stream
+     *
+     * @return the filtered stream
+     */
+    default Stream<T> filter(Stream<T> stream) {
+        return getConstant().map(c -> c ? stream : Stream.<T>empty()).orElseGet(() -> stream.filter(this));
+    }
+}
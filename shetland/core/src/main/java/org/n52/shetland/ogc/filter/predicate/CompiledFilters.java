@@ -0,0 +1,335 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.ogc.filter.predicate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Factory methods for {@link CompiledFilter}s. The logical combinations are folded if operands are constant and
+ * order their operands so that the evaluation short-circuits as early as possible.
+ *
+ * @since 9.9.0
+ */
+public final class CompiledFilters {
+    private static final CompiledFilter<?> TRUE = new ConstantFilter<>(true);
+    private static final CompiledFilter<?> FALSE = new ConstantFilter<>(false);
+
+    private CompiledFilters() {
+    }
+
+    /**
+     * @param <T>   the type of the filtered objects
+     * @param value the constant result
+     *
+     * @return a filter that always returns {@code value}
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> CompiledFilter<T> constant(boolean value) {
+        return (CompiledFilter<T>) (value ? TRUE : FALSE);
+    }
+
+    /**
+     * @param <T>         the type of the filtered objects
+     * @param predicate   the predicate
+     * @param selectivity the estimated selectivity
+     * @param cost        the estimated cost
+     *
+     * @return the filter
+     */
+    public static <T> CompiledFilter<T> of(Predicate<T> predicate, double selectivity, double cost) {
+        return new SimpleFilter<>(predicate, selectivity, cost);
+    }
+
+    /**
+     * @param <T>      the type of the filtered objects
+     * @param operands the operands
+     *
+     * @return the conjunction of the operands
+     */
+    public static <T> CompiledFilter<T> and(List<CompiledFilter<T>> operands) {
+        List<CompiledFilter<T>> filters = new ArrayList<>(operands.size());
+        for (CompiledFilter<T> operand : operands) {
+            Optional<Boolean> constant = operand.getConstant();
+            if (constant.isPresent()) {
+                if (!constant.get()) {
+                    return constant(false);
+                }
+            } else if (operand instanceof AndFilter) {
+                filters.addAll(((AndFilter<T>) operand).filters);
+            } else {
+                filters.add(operand);
+            }
+        }
+        if (filters.isEmpty()) {
+            return constant(true);
+        } else if (filters.size() == 1) {
+            return filters.get(0);
+        }
+        // most selective and cheapest first
+        filters.sort(Comparator.comparingDouble(f -> rank(f.getCost(), 1.0d - f.getSelectivity())));
+        return new AndFilter<>(filters);
+    }
+
+    /**
+     * @param <T>      the type of the filtered objects
+     * @param operands the operands
+     *
+     * @return the disjunction of the operands
+     */
+    public static <T> CompiledFilter<T> or(List<CompiledFilter<T>> operands) {
+        List<CompiledFilter<T>> filters = new ArrayList<>(operands.size());
+        for (CompiledFilter<T> operand : operands) {
+            Optional<Boolean> constant = operand.getConstant();
+            if (constant.isPresent()) {
+                if (constant.get()) {
+                    return constant(true);
+                }
+            } else if (operand instanceof OrFilter) {
+                filters.addAll(((OrFilter<T>) operand).filters);
+            } else {
+                filters.add(operand);
+            }
+        }
+        if (filters.isEmpty()) {
+            return constant(false);
+        } else if (filters.size() == 1) {
+            return filters.get(0);
+        }
+        // least selective and cheapest first
+        filters.sort(Comparator.comparingDouble(f -> rank(f.getCost(), f.getSelectivity())));
+        return new OrFilter<>(filters);
+    }
+
+    /**
+     * @param <T>     the type of the filtered objects
+     * @param operand the operand
+     *
+     * @return the negation of the operand
+     */
+    public static <T> CompiledFilter<T> not(CompiledFilter<T> operand) {
+        Optional<Boolean> constant = operand.getConstant();
+        if (constant.isPresent()) {
+            return constant(!constant.get());
+        } else if (operand instanceof NotFilter) {
+            return ((NotFilter<T>) operand).filter;
+        }
+        return new NotFilter<>(operand);
+    }
+
+    private static double rank(double cost, double probabilityToShortCircuit) {
+        return probabilityToShortCircuit <= 0.0d ? Double.MAX_VALUE : cost / probabilityToShortCircuit;
+    }
+
+    private static <T> double sum(List<CompiledFilter<T>> filters, ToDoubleFunction<CompiledFilter<T>> continuation) {
+        // the expected cost, as every operand is only evaluated if the previous ones did not short circuit
+        double cost = 0.0d;
+        double probability = 1.0d;
+        for (CompiledFilter<T> filter : filters) {
+            cost += probability * filter.getCost();
+            probability *= continuation.applyAsDouble(filter);
+        }
+        return cost;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> CompiledFilter<T>[] toArray(List<CompiledFilter<T>> filters) {
+        // the array only holds elements of the list, so it is never exposed with another element type
+        return (CompiledFilter<T>[]) filters.toArray(new CompiledFilter<?>[0]);
+    }
+
+    private static final class ConstantFilter<T> implements CompiledFilter<T> {
+        private final boolean value;
+
+        ConstantFilter(boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean test(T t) {
+            return value;
+        }
+
+        @Override
+        public double getSelectivity() {
+            return value ? 1.0d : 0.0d;
+        }
+
+        @Override
+        public double getCost() {
+            return 0.0d;
+        }
+
+        @Override
+        public Optional<Boolean> getConstant() {
+            return Optional.of(value);
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(value);
+        }
+    }
+
+    private static final class SimpleFilter<T> implements CompiledFilter<T> {
+        private final Predicate<T> predicate;
+        private final double selectivity;
+        private final double cost;
+
+        SimpleFilter(Predicate<T> predicate, double selectivity, double cost) {
+            this.predicate = predicate;
+            this.selectivity = selectivity;
+            this.cost = cost;
+        }
+
+        @Override
+        public boolean test(T t) {
+            return predicate.test(t);
+        }
+
+        @Override
+        public double getSelectivity() {
+            return selectivity;
+        }
+
+        @Override
+        public double getCost() {
+            return cost;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("selectivity", selectivity)
+                    .add("cost", cost)
+                    .toString();
+        }
+    }
+
+    private static final class AndFilter<T> implements CompiledFilter<T> {
+        private final List<CompiledFilter<T>> filters;
+        private final CompiledFilter<T>[] array;
+        private final double selectivity;
+        private final double cost;
+
+        AndFilter(List<CompiledFilter<T>> filters) {
+            this.filters = filters;
+            this.array = toArray(filters);
+            this.selectivity = filters.stream().mapToDouble(CompiledFilter::getSelectivity)
+                    .reduce(1.0d, (a, b) -> a * b);
+            this.cost = sum(filters, CompiledFilter::getSelectivity);
+        }
+
+        @Override
+        public boolean test(T t) {
+            for (CompiledFilter<T> filter : array) {
+                if (!filter.test(t)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public double getSelectivity() {
+            return selectivity;
+        }
+
+        @Override
+        public double getCost() {
+            return cost;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper("And").addValue(filters).toString();
+        }
+    }
+
+    private static final class OrFilter<T> implements CompiledFilter<T> {
+        private final List<CompiledFilter<T>> filters;
+        private final CompiledFilter<T>[] array;
+        private final double selectivity;
+        private final double cost;
+
+        OrFilter(List<CompiledFilter<T>> filters) {
+            this.filters = filters;
+            this.array = toArray(filters);
+            this.selectivity = 1.0d - filters.stream().mapToDouble(f -> 1.0d - f.getSelectivity())
+                    .reduce(1.0d, (a, b) -> a * b);
+            this.cost = sum(filters, f -> 1.0d - f.getSelectivity());
+        }
+
+        @Override
+        public boolean test(T t) {
+            for (CompiledFilter<T> filter : array) {
+                if (filter.test(t)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public double getSelectivity() {
+            return selectivity;
+        }
+
+        @Override
+        public double getCost() {
+            return cost;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper("Or").addValue(filters).toString();
+        }
+    }
+
+    private static final class NotFilter<T> implements CompiledFilter<T> {
+        private final CompiledFilter<T> filter;
+
+        NotFilter(CompiledFilter<T> filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean test(T t) {
+            return !filter.test(t);
+        }
+
+        @Override
+        public double getSelectivity() {
+            return 1.0d - filter.getSelectivity();
+        }
+
+        @Override
+        public double getCost() {
+            return filter.getCost();
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper("Not").addValue(filter).toString();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.ogc.filter.predicate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.locationtech.jts.geom.Geometry;
+
+import org.n52.shetland.ogc.swe.SweAbstractDataComponent;
+import org.n52.shetland.ogc.swe.SweAbstractDataRecord;
+import org.n52.shetland.ogc.swe.SweDataArray;
+import org.n52.shetland.ogc.swe.simpleType.SweCount;
+import org.n52.shetland.ogc.swe.simpleType.SweQuantity;
+import org.n52.shetland.ogc.swe.simpleType.SweTime;
+import org.n52.shetland.util.DateTimeHelper;
+
+/**
+ * Compiles filters, e.g. of a {@code ResultFilter}, into predicates over the rows of a {@link SweDataArray}. Value
+ * references are resolved to the fields of the element type by name or definition. Fields of type
+ * {@link SweQuantity} and {@link SweCount} are compared numerically and fields of type {@link SweTime} support
+ * temporal filters and are compared as epoch milliseconds. All other fields are compared textually.
+ *
+ * @since 9.9.0
+ */
+public class DataArrayFilterCompiler extends AbstractFilterCompiler<List<String>> {
+    private final SweAbstractDataRecord elementType;
+
+    /**
+     * Create a new compiler for the rows of the data array.
+     *
+     * @param dataArray the data array
+     *
+     * @throws IllegalArgumentException if the element type of the array is not a record
+     */
+    public DataArrayFilterCompiler(SweDataArray dataArray) {
+        this(dataArray.getElementType());
+    }
+
+    /**
+     * Create a new compiler for rows of the element type.
+     *
+     * @param elementType the element type
+     *
+     * @throws IllegalArgumentException if the element type is not a record
+     */
+    public DataArrayFilterCompiler(SweAbstractDataComponent elementType) {
+        if (!(elementType instanceof SweAbstractDataRecord)) {
+            throw new IllegalArgumentException(String.format("Element type %s is not supported", elementType));
+        }
+        this.elementType = (SweAbstractDataRecord) elementType;
+    }
+
+    @Override
+    protected Optional<NumericProperty<List<String>>> getNumericProperty(String valueReference) {
+        int index = getIndex(valueReference);
+        SweAbstractDataComponent field = getField(index);
+        if (field instanceof SweQuantity || field instanceof SweCount) {
+            return Optional.of(row -> parseDouble(getToken(row, index)));
+        } else if (field instanceof SweTime) {
+            return Optional.of(new NumericProperty<List<String>>() {
+                @Override
+                public double get(List<String> row) {
+                    long time = parseTime(getToken(row, index));
+                    return time == TimeProperty.NO_TIME ? Double.NaN : time;
+                }
+
+                @Override
+                public double parse(String literal) {
+                    long time = parseTime(literal);
+                    if (time == TimeProperty.NO_TIME) {
+                        throw new IllegalArgumentException(literal);
+                    }
+                    return time;
+                }
+            });
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    protected Function<List<String>, String> getTextProperty(String valueReference) {
+        int index = getIndex(valueReference);
+        return row -> getToken(row, index);
+    }
+
+    @Override
+    protected TimeProperty<List<String>> getTimeProperty(String valueReference) {
+        int index = getIndex(valueReference);
+        if (!(getField(index) instanceof SweTime)) {
+            throw unsupportedValueReference(valueReference);
+        }
+        return new TimeProperty<List<String>>() {
+            @Override
+            public long getStart(List<String> row) {
+                return parseTime(getToken(row, index));
+            }
+
+            @Override
+            public long getEnd(List<String> row) {
+                return parseTime(getToken(row, index));
+            }
+        };
+    }
+
+    @Override
+    protected Function<List<String>, Geometry> getGeometryProperty(String valueReference) {
+        throw unsupportedValueReference(valueReference);
+    }
+
+    private int getIndex(String valueReference) {
+        int index = valueReference == null ? -1 : elementType.getFieldIndexByIdentifier(valueReference);
+        if (index < 0) {
+            throw unsupportedValueReference(valueReference);
+        }
+        return index;
+    }
+
+    private SweAbstractDataComponent getField(int index) {
+        return elementType.getFields().get(index).getElement();
+    }
+
+    private static String getToken(List<String> row, int index) {
+        if (row == null || index >= row.size()) {
+            return null;
+        }
+        String token = row.get(index);
+        return token == null || token.isEmpty() ? null : token;
+    }
+
+    private static double parseDouble(String token) {
+        if (token == null) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(token);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static long parseTime(String token) {
+        if (token == null) {
+            return TimeProperty.NO_TIME;
+        }
+        try {
+            return DateTimeHelper.parseIsoString2DateTime(token.trim()).getMillis();
+        } catch (IllegalArgumentException e) {
+            return TimeProperty.NO_TIME;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.ogc.filter.predicate;
+
+/**
+ * Accessor for a property that can be compared numerically.
+ *
+ * @param <T> the type of the filtered objects
+ *
+ * @since 9.9.0
+ */
+@FunctionalInterface
+public interface NumericProperty<T> {
+
+    /**
+     * @param t the object
+     *
+     * @return the value of the object or {@link Double#NaN} if it is absent or not numeric
+     */
+    double get(T t);
+
+    /**
+     * Parse a literal of a filter into the value space of this property.
+     *
+     * @param literal the literal
+     *
+     * @return the value
+     *
+     * @throws IllegalArgumentException if the literal can not be parsed
+     */
+    default double parse(String literal) {
+        return Double.parseDouble(literal.trim());
+    }
+}
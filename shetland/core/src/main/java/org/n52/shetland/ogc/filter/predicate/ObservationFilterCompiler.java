@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.ogc.filter.predicate;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.joda.time.DateTime;
+import org.locationtech.jts.geom.Geometry;
+
+import org.n52.shetland.ogc.filter.IdFilter;
+import org.n52.shetland.ogc.gml.AbstractFeature;
+import org.n52.shetland.ogc.gml.time.Time;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.gml.time.TimePeriod;
+import org.n52.shetland.ogc.om.NamedValue;
+import org.n52.shetland.ogc.om.ObservationValue;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.om.SingleObservationValue;
+import org.n52.shetland.ogc.om.features.samplingFeatures.AbstractSamplingFeature;
+import org.n52.shetland.ogc.om.values.CountValue;
+import org.n52.shetland.ogc.om.values.QuantityValue;
+import org.n52.shetland.ogc.om.values.Value;
+import org.n52.shetland.ogc.sos.Sos2Constants;
+import org.n52.shetland.ogc.sos.SosConstants;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Compiles filters into predicates over {@link OmObservation}s. Supported value references (with or without the
+ * {@code om:} prefix) are
+ * <ul>
+ * <li>{@code phenomenonTime}, {@code resultTime} and {@code validTime} for temporal filters,</li>
+ * <li>{@code result}, {@code procedure}, {@code observedProperty} and {@code featureOfInterest} for comparison
+ * filters,</li>
+ * <li>{@code featureOfInterest/*&#47;sams:shape} and the spatial filtering profile ({@code samplingGeometry}) for
+ * spatial filters.</li>
+ * </ul>
+ * {@link IdFilter}s match the identifier of the observation.
+ *
+ * @since 9.9.0
+ */
+public class ObservationFilterCompiler extends AbstractFilterCompiler<OmObservation> {
+    private static final String OM_PREFIX = "om:";
+    private static final String RESULT = "result";
+    private static final String PROCEDURE = "procedure";
+    private static final String OBSERVED_PROPERTY = "observedProperty";
+    private static final String FEATURE_OF_INTEREST = "featureOfInterest";
+    private static final String SAMPLING_GEOMETRY = "samplingGeometry";
+    private static final Set<String> SHAPE = ImmutableSet.of("shape", "sams:shape", "featureOfInterest/*/sams:shape",
+                                                             "featureOfInterest/*/shape");
+
+    @Override
+    protected Optional<NumericProperty<OmObservation>> getNumericProperty(String valueReference) {
+        if (RESULT.equals(normalize(valueReference))) {
+            return Optional.of(ObservationFilterCompiler::getNumericResult);
+        }
+        // fails for unsupported value references
+        getTextProperty(valueReference);
+        return Optional.empty();
+    }
+
+    @Override
+    protected Function<OmObservation, String> getTextProperty(String valueReference) {
+        switch (normalize(valueReference)) {
+            case RESULT:
+                return ObservationFilterCompiler::getTextResult;
+            case PROCEDURE:
+                return o -> o.getObservationConstellation().getProcedureIdentifier();
+            case OBSERVED_PROPERTY:
+                return o -> o.getObservationConstellation().getObservablePropertyIdentifier();
+            case FEATURE_OF_INTEREST:
+                return o -> o.getObservationConstellation().getFeatureOfInterestIdentifier();
+            default:
+                throw unsupportedValueReference(valueReference);
+        }
+    }
+
+    @Override
+    protected TimeProperty<OmObservation> getTimeProperty(String valueReference) {
+        switch (normalize(valueReference)) {
+            case SosConstants.PHENOMENON_TIME_VALUE_REFERENCE:
+                return new ObservationTimeProperty(o -> o.isSetPhenomenonTime() ? o.getPhenomenonTime() : null);
+            case SosConstants.RESULT_TIME_VALUE_REFERENCE:
+                return new ObservationTimeProperty(o -> o.isSetResultTime() ? o.getResultTime() : null);
+            case SosConstants.VALID_TIME_VALUE_REFERENCE:
+                return new ObservationTimeProperty(o -> o.isSetValidTime() ? o.getValidTime() : null);
+            default:
+                throw unsupportedValueReference(valueReference);
+        }
+    }
+
+    @Override
+    protected Function<OmObservation, Geometry> getGeometryProperty(String valueReference) {
+        String normalized = normalize(valueReference);
+        if (Sos2Constants.VALUE_REFERENCE_SPATIAL_FILTERING_PROFILE.equals(valueReference)
+                || SAMPLING_GEOMETRY.equals(normalized)) {
+            return ObservationFilterCompiler::getSamplingGeometry;
+        } else if (SHAPE.contains(normalized)) {
+            return ObservationFilterCompiler::getFeatureGeometry;
+        }
+        throw unsupportedValueReference(valueReference);
+    }
+
+    @Override
+    protected CompiledFilter<OmObservation> compileId(IdFilter filter) {
+        Set<String> ids = ImmutableSet.copyOf(filter.getIds());
+        if (ids.isEmpty()) {
+            return CompiledFilters.constant(false);
+        }
+        return CompiledFilters.of(o -> o.isSetIdentifier() && ids.contains(o.getIdentifier()),
+                                  0.01d, 1.0d);
+    }
+
+    private static String normalize(String valueReference) {
+        if (valueReference == null) {
+            return "";
+        }
+        String normalized = valueReference.trim();
+        if (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        }
+        return normalized.startsWith(OM_PREFIX) ? normalized.substring(OM_PREFIX.length()) : normalized;
+    }
+
+    private static Value<?> getResult(OmObservation observation) {
+        ObservationValue<?> value = observation.getValue();
+        if (value instanceof SingleObservationValue) {
+            return value.getValue();
+        }
+        return null;
+    }
+
+    private static double getNumericResult(OmObservation observation) {
+        Value<?> value = getResult(observation);
+        if (value instanceof QuantityValue && value.isSetValue()) {
+            return ((QuantityValue) value).getValue().doubleValue();
+        } else if (value instanceof CountValue && value.isSetValue()) {
+            return ((CountValue) value).getValue();
+        }
+        return Double.NaN;
+    }
+
+    private static String getTextResult(OmObservation observation) {
+        Value<?> value = getResult(observation);
+        if (value == null || !value.isSetValue()) {
+            return null;
+        }
+        return String.valueOf(value.getValue());
+    }
+
+    private static Geometry getSamplingGeometry(OmObservation observation) {
+        if (observation.isSetSpatialFilteringProfileParameter()) {
+            NamedValue<Geometry> parameter = observation.getSpatialFilteringProfileParameter();
+            return parameter.getValue() == null ? null : parameter.getValue().getValue();
+        }
+        return null;
+    }
+
+    private static Geometry getFeatureGeometry(OmObservation observation) {
+        AbstractFeature feature = observation.getObservationConstellation().getFeatureOfInterest();
+        if (feature instanceof AbstractSamplingFeature) {
+            return ((AbstractSamplingFeature) feature).getGeometry();
+        }
+        return null;
+    }
+
+    private static final class ObservationTimeProperty implements TimeProperty<OmObservation> {
+        private final Function<OmObservation, Time> accessor;
+
+        ObservationTimeProperty(Function<OmObservation, Time> accessor) {
+            this.accessor = accessor;
+        }
+
+        @Override
+        public long getStart(OmObservation observation) {
+            Time time = accessor.apply(observation);
+            if (time instanceof TimeInstant) {
+                return toMillis(((TimeInstant) time).getValue());
+            } else if (time instanceof TimePeriod) {
+                return toMillis(((TimePeriod) time).getStart());
+            }
+            return NO_TIME;
+        }
+
+        @Override
+        public long getEnd(OmObservation observation) {
+            Time time = accessor.apply(observation);
+            if (time instanceof TimeInstant) {
+                return toMillis(((TimeInstant) time).getValue());
+            } else if (time instanceof TimePeriod) {
+                return toMillis(((TimePeriod) time).getEnd());
+            }
+            return NO_TIME;
+        }
+
+        private static long toMillis(DateTime time) {
+            return time == null ? NO_TIME : time.getMillis();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.ogc.filter.predicate;
+
+/**
+ * Accessor for a temporal property that is evaluated as epoch milliseconds.
+ *
+ * @param <T> the type of the filtered objects
+ *
+ * @since 9.9.0
+ */
+public interface TimeProperty<T> {
+    /**
+     * Value returned for absent times.
+     */
+    long NO_TIME = Long.MIN_VALUE;
+
+    /**
+     * @param t the object
+     *
+     * @return the start of the time of the object in epoch milliseconds or {@link #NO_TIME}
+     */
+    long getStart(T t);
+
+    /**
+     * @param t the object
+     *
+     * @return the end of the time of the object in epoch milliseconds or {@link #NO_TIME}
+     */
+    long getEnd(T t);
+}
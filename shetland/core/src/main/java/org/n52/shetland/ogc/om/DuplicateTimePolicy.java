@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.ogc.om;
+
+/**
+ * Policy for time value pairs with the same time when time series are merged.
+ *
+ * @since 9.9.0
+ */
+public enum DuplicateTimePolicy {
+    /**
+     * Keep all pairs in the order in which they were added.
+     */
+    KEEP_ALL,
+    /**
+     * Keep only the pair that was added first.
+     */
+    KEEP_FIRST,
+    /**
+     * Keep only the pair that was added last.
+     */
+    KEEP_LAST,
+    /**
+     * Reject duplicate times with an {@link IllegalArgumentException}.
+     */
+    ERROR
+}
@@ -28,6 +28,7 @@ import java.util.Set;
  */
 public class ObservationMergeIndicator {
     private final Set<Param> parameters;
+    private DuplicateTimePolicy duplicateTimePolicy = DuplicateTimePolicy.KEEP_ALL;
 
     /**
      * Creates a new {@code ObservationMergeIndicator} that requires no parameters to be equal.
@@ -406,9 +407,31 @@ public class ObservationMergeIndicator {
         return observationType ? withObservationType() : withoutObservationType();
     }
 
+    /**
+     * Gets the policy for time value pairs with the same time in merged observations.
+     *
+     * @return the policy
+     */
+    public DuplicateTimePolicy getDuplicateTimePolicy() {
+        return duplicateTimePolicy;
+    }
+
+    /**
+     * Sets the policy for time value pairs with the same time in merged observations.
+     *
+     * @param duplicateTimePolicy
+     *            the policy
+     *
+     * @return {@code this}
+     */
+    public ObservationMergeIndicator setDuplicateTimePolicy(DuplicateTimePolicy duplicateTimePolicy) {
+        this.duplicateTimePolicy = Objects.requireNonNull(duplicateTimePolicy);
+        return this;
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hashCode(this.parameters);
+        return Objects.hash(this.parameters, this.duplicateTimePolicy);
     }
 
     @Override
@@ -423,7 +446,8 @@ public class ObservationMergeIndicator {
             return false;
         }
         final ObservationMergeIndicator other = (ObservationMergeIndicator) obj;
-        return Objects.equals(this.parameters, other.parameters);
+        return Objects.equals(this.parameters, other.parameters)
+                && this.duplicateTimePolicy == other.duplicateTimePolicy;
     }
 
     /**
@@ -33,6 +33,7 @@ import org.n52.janmayen.function.ThrowingConsumer;
 import org.n52.janmayen.function.ThrowingFunction;
 import org.n52.janmayen.function.ThrowingUnaryOperator;
 import org.n52.janmayen.stream.Streams;
+import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 
 /**
@@ -146,16 +147,15 @@ public interface ObservationStream extends ThrowingIterator<OmObservation, OwsEx
 
             @Override
             protected OmObservation computeNext() throws OwsExceptionReport {
-                if (this.current == null) {
+                while (this.current == null || !this.current.hasNext()) {
+                    if (this.current != null) {
+                        this.current.close();
+                        this.current = null;
+                    }
                     if (!delegate.hasNext()) {
                         return endOfData();
-                    } else {
-                        this.current = mapper.apply(delegate.next());
                     }
-                }
-                if (!current.hasNext()) {
-                    current.close();
-                    return endOfData();
+                    this.current = mapper.apply(delegate.next());
                 }
                 return current.next();
             }
@@ -283,6 +283,15 @@ public interface ObservationStream extends ThrowingIterator<OmObservation, OwsEx
                     mergedObservations.add(observation);
                 }
             }
+            if (indicator.getDuplicateTimePolicy() != DuplicateTimePolicy.KEEP_ALL) {
+                for (OmObservation observation : mergedObservations) {
+                    try {
+                        observation.applyDuplicateTimePolicy(indicator.getDuplicateTimePolicy());
+                    } catch (IllegalArgumentException e) {
+                        throw new NoApplicableCodeException().causedBy(e).withMessage("%s", e.getMessage());
+                    }
+                }
+            }
         } finally {
             close();
         }
@@ -35,6 +35,7 @@ import org.n52.shetland.ogc.om.values.NilTemplateValue;
 import org.n52.shetland.ogc.om.values.ProfileValue;
 import org.n52.shetland.ogc.om.values.SweDataArrayValue;
 import org.n52.shetland.ogc.om.values.TVPValue;
+import org.n52.shetland.ogc.om.values.TimeSeriesValue;
 import org.n52.shetland.ogc.om.values.TrajectoryValue;
 import org.n52.shetland.ogc.swe.SweDataArray;
 import org.n52.shetland.util.CollectionHelper;
@@ -410,6 +411,23 @@ public class OmObservation extends AbstractFeature implements ObservationParamet
         return this;
     }
 
+    /**
+     * Apply the policy for duplicate times to the time value pairs of this observation. The pairs of merged
+     * observations are merged into a single sorted sequence immediately, so that this does not happen while encoding.
+     *
+     * @param policy
+     *            the policy
+     * @return this
+     * @throws IllegalArgumentException
+     *             if the policy is {@link DuplicateTimePolicy#ERROR} and the observation contains duplicate times
+     */
+    public OmObservation applyDuplicateTimePolicy(DuplicateTimePolicy policy) {
+        if (getValue() instanceof MultiObservationValues && getValue().getValue() instanceof TVPValue) {
+            ((TVPValue) getValue().getValue()).setDuplicateTimePolicy(policy).getValue();
+        }
+        return this;
+    }
+
     /**
      * Merge this observation with passed observation.
      *
@@ -468,6 +486,9 @@ public class OmObservation extends AbstractFeature implements ObservationParamet
         } else {
             tvpValue = (TVPValue) ((MultiObservationValues<?>) value).getValue();
         }
+        if (tvpValue instanceof TimeSeriesValue) {
+            return mergeTimeSeries((TimeSeriesValue) tvpValue, observationValue);
+        }
         if (observationValue instanceof SingleObservationValue) {
             final SingleObservationValue<?> singleValue = (SingleObservationValue<?>) observationValue;
             if (!(singleValue.getValue() instanceof NilTemplateValue)) {
@@ -479,6 +500,39 @@ public class OmObservation extends AbstractFeature implements ObservationParamet
         return true;
     }
 
+    /**
+     * Merge observation values into a columnar time series. Series of the same type are appended column by column;
+     * values that can not be represented in the columns convert the series to time value pairs.
+     *
+     * @param timeSeries
+     *            the time series of this observation
+     * @param observationValue
+     *            the observation value to merge
+     */
+    private boolean mergeTimeSeries(TimeSeriesValue timeSeries, ObservationValue<?> observationValue) {
+        List<TimeValuePair> values;
+        if (observationValue instanceof SingleObservationValue) {
+            SingleObservationValue<?> singleValue = (SingleObservationValue<?>) observationValue;
+            if (singleValue.getValue() instanceof NilTemplateValue) {
+                return true;
+            }
+            values = Collections.singletonList(new TimeValuePair(singleValue.getPhenomenonTime(),
+                                                                 singleValue.getValue()));
+        } else if (observationValue instanceof MultiObservationValues) {
+            TVPValue other = (TVPValue) observationValue.getValue();
+            if (other instanceof TimeSeriesValue
+                    && ((TimeSeriesValue) other).getType() == timeSeries.getType()) {
+                timeSeries.addValues((TimeSeriesValue) other);
+                return true;
+            }
+            values = other.getValue();
+        } else {
+            return true;
+        }
+        timeSeries.addValues(values);
+        return true;
+    }
+
     /**
      * Merge result time with passed observation result time
      *
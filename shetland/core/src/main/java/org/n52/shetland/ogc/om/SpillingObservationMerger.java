@@ -0,0 +1,582 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.ogc.om;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.n52.shetland.ogc.UoM;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.om.values.CountValue;
+import org.n52.shetland.ogc.om.values.QuantityValue;
+import org.n52.shetland.ogc.om.values.TVPValue;
+import org.n52.shetland.ogc.om.values.TimeSeriesValue;
+import org.n52.shetland.ogc.om.values.Value;
+import org.n52.shetland.ogc.ows.exception.NoApplicableCodeException;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Merges observations like {@link ObservationStream#merge(ObservationMergeIndicator)}, but bounds the heap used by
+ * the merged values. Once the estimated size of the merged time value pairs exceeds the heap budget, all numeric
+ * series without quality information are appended as binary columns to a temporary file and only their metadata is
+ * kept on the heap. Columnar {@link TimeSeriesValue}s and counts are stored as times, values and missing-value bitmap;
+ * {@link BigDecimal} quantities are stored losslessly as times followed by scale and unscaled value of every point,
+ * so that the precision and scale of the result do not depend on the heap budget. The returned stream reads the
+ * values of one observation at a time back from the file; the file is deleted when the stream is exhausted or
+ * closed, so the consumer has to close the stream if it does not exhaust it.
+ * <p>
+ * Values that can not be represented by a {@link TimeSeriesValue} stay on the heap. They are not counted against the
+ * budget of the spillable values, so a spill is only triggered by spillable values merged since the last spill.
+ *
+ * @since 9.9.0
+ */
+public class SpillingObservationMerger {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpillingObservationMerger.class);
+    /**
+     * Estimated heap size of a {@link TimeValuePair} with its time and value objects.
+     */
+    private static final long PAIR_SIZE = 256;
+    private static final long COLUMN_SIZE = Long.BYTES + Double.BYTES;
+    private static final String PREFIX = "observations-";
+    private static final String SUFFIX = ".spill";
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final long heapBudget;
+    private final Path directory;
+
+    /**
+     * Creates a new merger that spills to the default temporary directory.
+     *
+     * @param heapBudget
+     *            the heap budget for merged values in bytes
+     */
+    public SpillingObservationMerger(long heapBudget) {
+        this(heapBudget, null);
+    }
+
+    /**
+     * Creates a new merger.
+     *
+     * @param heapBudget
+     *            the heap budget for merged values in bytes
+     * @param directory
+     *            the directory for the temporary files, {@code null} for the default temporary directory
+     */
+    public SpillingObservationMerger(long heapBudget, Path directory) {
+        if (heapBudget <= 0) {
+            throw new IllegalArgumentException("The heap budget has to be positive");
+        }
+        this.heapBudget = heapBudget;
+        this.directory = directory;
+    }
+
+    /**
+     * Merge the observations of the stream. The stream is consumed completely.
+     *
+     * @param observations
+     *            the observations
+     * @param indicator
+     *            the merge indicator
+     *
+     * @return the merged observations
+     *
+     * @throws OwsExceptionReport
+     *             if the observations can not be retrieved or spilled
+     */
+    public ObservationStream merge(ObservationStream observations, ObservationMergeIndicator indicator)
+            throws OwsExceptionReport {
+        Objects.requireNonNull(indicator);
+        List<Entry> entries = new ArrayList<>();
+        Spill spill = null;
+        long used = 0;
+        // the estimated heap of the values that could not be spilled by the last spill
+        long pinned = 0;
+        int obsIdCounter = 1;
+        try {
+            while (observations.hasNext()) {
+                OmObservation observation = observations.next();
+                Entry entry = entries.stream().filter(e -> e.observation.checkForMerge(observation, indicator))
+                        .findAny().orElse(null);
+                // estimated by the incoming values, the merged values are only estimated again after spilling
+                used += estimate(observation);
+                if (entry != null) {
+                    entry.observation.mergeWithObservation(observation);
+                } else {
+                    if (!observation.isSetGmlID()) {
+                        observation.setObservationID(Integer.toString(obsIdCounter++));
+                    }
+                    entries.add(new Entry(observation));
+                }
+                if (used - pinned > Math.max(heapBudget - pinned, heapBudget / 2)) {
+                    if (spill == null) {
+                        spill = new Spill(directory);
+                    }
+                    pinned = spill(spill, entries);
+                    used = pinned;
+                }
+            }
+        } catch (IOException e) {
+            closeQuietly(spill);
+            throw new NoApplicableCodeException().causedBy(e).withMessage("Error while spilling observations");
+        } catch (OwsExceptionReport | RuntimeException e) {
+            closeQuietly(spill);
+            throw e;
+        } finally {
+            observations.close();
+        }
+        return new SpilledObservationStream(entries, spill, indicator.getDuplicateTimePolicy());
+    }
+
+    private long spill(Spill spill, List<Entry> entries) throws IOException {
+        long pinned = 0;
+        long spilled = 0;
+        for (Entry entry : entries) {
+            TVPValue value = getTVPValue(entry.observation);
+            Kind kind = getSpillableKind(value);
+            if (kind != null && (entry.kind == null || entry.kind == kind)) {
+                if (kind == Kind.DECIMAL) {
+                    List<TimeValuePair> pairs = value.getValue();
+                    spilled += pairs.size();
+                    entry.segments.add(spill.writeDecimals(pairs));
+                    Value<?> first = pairs.get(0).getValue();
+                    entry.unit = first.isSetUnit() ? first.getUnitObject() : value.getUnitObject();
+                    entry.zone = ((TimeInstant) pairs.get(0).getTime()).getValue().getZone();
+                    setValue(entry.observation, new TVPValue().setUnit(entry.unit));
+                } else {
+                    TimeSeriesValue series = toTimeSeries(value, kind);
+                    spilled += series.size();
+                    entry.segments.add(spill.write(series));
+                    entry.unit = series.getUnitObject();
+                    entry.zone = series.getTimeZone();
+                    TimeSeriesValue tail = new TimeSeriesValue(series.getType());
+                    tail.setUnit(series.getUnitObject());
+                    tail.setTimeZone(series.getTimeZone());
+                    setValue(entry.observation, tail);
+                }
+                entry.kind = kind;
+            }
+            pinned += estimate(entry.observation);
+        }
+        LOGGER.debug("Spilled {} values to {}", spilled, spill.file);
+        return pinned;
+    }
+
+    private static Kind getSpillableKind(TVPValue value) {
+        if (value == null || !value.isSetValue()) {
+            return null;
+        }
+        if (value instanceof TimeSeriesValue && ((TimeSeriesValue) value).isColumnar()) {
+            TimeSeriesValue series = (TimeSeriesValue) value;
+            if (series.isSetQuality()) {
+                return null;
+            }
+            return series.getType() == TimeSeriesValue.Type.COUNT ? Kind.COUNT : Kind.QUANTITY;
+        }
+        List<TimeValuePair> pairs = value.getValue();
+        Value<?> first = pairs.get(0).getValue();
+        TimeSeriesValue.Type type = first instanceof CountValue ? TimeSeriesValue.Type.COUNT
+                : TimeSeriesValue.Type.QUANTITY;
+        if (!new TimeSeriesValue(type, 1).isSupported(pairs)) {
+            return null;
+        }
+        for (TimeValuePair pair : pairs) {
+            if (type == TimeSeriesValue.Type.COUNT ? ((CountValue) pair.getValue()).isSetQuality()
+                    : ((QuantityValue) pair.getValue()).isSetQuality()) {
+                return null;
+            }
+        }
+        // the BigDecimals of the quantities are not converted to double
+        return type == TimeSeriesValue.Type.COUNT ? Kind.COUNT : Kind.DECIMAL;
+    }
+
+    private static TimeSeriesValue toTimeSeries(TVPValue value, Kind kind) {
+        if (value instanceof TimeSeriesValue && ((TimeSeriesValue) value).isColumnar()) {
+            return (TimeSeriesValue) value;
+        }
+        List<TimeValuePair> pairs = value.getValue();
+        TimeSeriesValue series = new TimeSeriesValue(kind == Kind.COUNT ? TimeSeriesValue.Type.COUNT
+                : TimeSeriesValue.Type.QUANTITY, pairs.size());
+        series.setValue(pairs);
+        if (!series.isSetUnit() && value.isSetUnit()) {
+            series.setUnit(value.getUnitObject());
+        }
+        return series;
+    }
+
+    private static TVPValue getTVPValue(OmObservation observation) {
+        if (observation.getValue() instanceof MultiObservationValues
+                && observation.getValue().getValue() instanceof TVPValue) {
+            return (TVPValue) observation.getValue().getValue();
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void setValue(OmObservation observation, TVPValue value) {
+        ((MultiObservationValues<List<TimeValuePair>>) observation.getValue()).setValue(value);
+    }
+
+    private static long estimate(OmObservation observation) {
+        TVPValue value = getTVPValue(observation);
+        if (value instanceof TimeSeriesValue && ((TimeSeriesValue) value).isColumnar()) {
+            return ((TimeSeriesValue) value).size() * COLUMN_SIZE;
+        } else if (value != null) {
+            return value.isSetValue() ? value.getValue().size() * PAIR_SIZE : 0;
+        } else {
+            return observation.isSetValue() ? PAIR_SIZE : 0;
+        }
+    }
+
+    private static void closeQuietly(Spill spill) {
+        if (spill != null) {
+            try {
+                spill.close();
+            } catch (IOException e) {
+                LOGGER.warn("Could not close {}", spill.file, e);
+            }
+        }
+    }
+
+    /**
+     * A merged observation and the segments of its values in the spill file.
+     */
+    private static final class Entry {
+        private final OmObservation observation;
+        private final List<Segment> segments = new ArrayList<>(1);
+        private Kind kind;
+        private UoM unit;
+        private DateTimeZone zone;
+
+        Entry(OmObservation observation) {
+            this.observation = observation;
+        }
+    }
+
+    /**
+     * The encoding of the spilled values of an observation.
+     */
+    private enum Kind {
+        QUANTITY,
+        COUNT,
+        DECIMAL
+    }
+
+    /**
+     * The position of a spilled series in the spill file.
+     */
+    private static final class Segment {
+        private final long position;
+        private final int size;
+
+        Segment(long position, int size) {
+            this.position = position;
+            this.size = size;
+        }
+
+        static int words(int size) {
+            return (size + Long.SIZE - 1) / Long.SIZE;
+        }
+    }
+
+    /**
+     * A temporary file the columns are appended to.
+     */
+    private static final class Spill implements AutoCloseable {
+        private final Path file;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_SIZE).order(ByteOrder.nativeOrder());
+        private long position;
+
+        Spill(Path directory) throws IOException {
+            this.file = directory == null ? Files.createTempFile(PREFIX, SUFFIX)
+                    : Files.createTempFile(directory, PREFIX, SUFFIX);
+            this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                                            StandardOpenOption.DELETE_ON_CLOSE);
+        }
+
+        Segment write(TimeSeriesValue series) throws IOException {
+            int size = series.size();
+            Segment segment = new Segment(position, size);
+            long[] missing = new long[Segment.words(size)];
+            for (int i = 0; i < size; i++) {
+                put(series.getTime(i));
+                if (series.isMissing(i)) {
+                    missing[i / Long.SIZE] |= 1L << i % Long.SIZE;
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                if (series.isMissing(i)) {
+                    put(0);
+                } else if (series.getType() == TimeSeriesValue.Type.QUANTITY) {
+                    put(Double.doubleToRawLongBits(series.getQuantity(i)));
+                } else {
+                    put(series.getCount(i));
+                }
+            }
+            for (long word : missing) {
+                put(word);
+            }
+            flush();
+            return segment;
+        }
+
+        /**
+         * Write the times followed by scale, length and bytes of the unscaled value of every quantity, a missing
+         * value is written as scale {@code 0} and length {@code -1}.
+         */
+        Segment writeDecimals(List<TimeValuePair> pairs) throws IOException {
+            Segment segment = new Segment(position, pairs.size());
+            for (TimeValuePair pair : pairs) {
+                put(((TimeInstant) pair.getTime()).getValue().getMillis());
+            }
+            for (TimeValuePair pair : pairs) {
+                BigDecimal value = ((QuantityValue) pair.getValue()).getValue();
+                if (value == null) {
+                    putInt(0);
+                    putInt(-1);
+                } else {
+                    byte[] unscaled = value.unscaledValue().toByteArray();
+                    putInt(value.scale());
+                    putInt(unscaled.length);
+                    put(unscaled);
+                }
+            }
+            flush();
+            return segment;
+        }
+
+        private void put(long value) throws IOException {
+            if (buffer.remaining() < Long.BYTES) {
+                flush();
+            }
+            buffer.putLong(value);
+        }
+
+        private void putInt(int value) throws IOException {
+            if (buffer.remaining() < Integer.BYTES) {
+                flush();
+            }
+            buffer.putInt(value);
+        }
+
+        private void put(byte[] value) throws IOException {
+            int offset = 0;
+            while (offset < value.length) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int length = Math.min(buffer.remaining(), value.length - offset);
+                buffer.put(value, offset, length);
+                offset += length;
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+
+        void read(Segment segment, TimeSeriesValue series) throws IOException {
+            int size = segment.size;
+            long[] times = new long[size];
+            long[] values = new long[size];
+            long[] missing = new long[Segment.words(size)];
+            long offset = read(segment.position, times);
+            offset = read(offset, values);
+            read(offset, missing);
+            for (int i = 0; i < size; i++) {
+                if ((missing[i / Long.SIZE] & 1L << i % Long.SIZE) != 0) {
+                    series.addMissing(times[i], null);
+                } else if (series.getType() == TimeSeriesValue.Type.QUANTITY) {
+                    series.add(times[i], Double.longBitsToDouble(values[i]));
+                } else {
+                    series.add(times[i], values[i]);
+                }
+            }
+        }
+
+        void readDecimals(Segment segment, TVPValue value, UoM unit, DateTimeZone zone) throws IOException {
+            long[] times = new long[segment.size];
+            long offset = read(segment.position, times);
+            buffer.flip();
+            for (int i = 0; i < segment.size; i++) {
+                offset = fill(offset, 2 * Integer.BYTES);
+                int scale = buffer.getInt();
+                int length = buffer.getInt();
+                BigDecimal decimal = null;
+                if (length >= 0) {
+                    byte[] unscaled = new byte[length];
+                    int index = 0;
+                    while (index < length) {
+                        offset = fill(offset, 1);
+                        int count = Math.min(buffer.remaining(), length - index);
+                        buffer.get(unscaled, index, count);
+                        index += count;
+                    }
+                    decimal = new BigDecimal(new BigInteger(unscaled), scale);
+                }
+                value.addValue(new TimeValuePair(new TimeInstant(new DateTime(times[i], zone)),
+                                                 new QuantityValue(decimal, unit)));
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Make sure that at least the given number of bytes is remaining in the buffer.
+         *
+         * @return the file position after the buffered bytes
+         */
+        private long fill(long offset, int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return offset;
+            }
+            buffer.compact();
+            long current = offset;
+            while (buffer.position() < bytes) {
+                int read = channel.read(buffer, current);
+                if (read < 0) {
+                    throw new EOFException(file.toString());
+                }
+                current += read;
+            }
+            buffer.flip();
+            return current;
+        }
+
+        private long read(long offset, long[] target) throws IOException {
+            long current = offset;
+            int index = 0;
+            while (index < target.length) {
+                buffer.clear();
+                buffer.limit(Math.min(buffer.capacity(), (target.length - index) * Long.BYTES));
+                while (buffer.hasRemaining()) {
+                    int read = channel.read(buffer, current);
+                    if (read < 0) {
+                        throw new EOFException(file.toString());
+                    }
+                    current += read;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    target[index++] = buffer.getLong();
+                }
+            }
+            buffer.clear();
+            return current;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Stream of the merged observations that restores the spilled values of one observation at a time.
+     */
+    private static final class SpilledObservationStream extends AbstractObservationStream {
+        private final Deque<Entry> entries;
+        private final Spill spill;
+        private final DuplicateTimePolicy policy;
+
+        SpilledObservationStream(List<Entry> entries, Spill spill, DuplicateTimePolicy policy) {
+            this.entries = new ArrayDeque<>(entries);
+            this.spill = spill;
+            this.policy = policy;
+        }
+
+        @Override
+        protected OmObservation computeNext() throws OwsExceptionReport {
+            Entry entry = entries.poll();
+            if (entry == null) {
+                close();
+                return endOfData();
+            }
+            try {
+                if (!entry.segments.isEmpty()) {
+                    restore(entry);
+                }
+                if (policy != DuplicateTimePolicy.KEEP_ALL) {
+                    entry.observation.applyDuplicateTimePolicy(policy);
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                close();
+                throw new NoApplicableCodeException().causedBy(e).withMessage("%s", e.getMessage());
+            }
+            return entry.observation;
+        }
+
+        private void restore(Entry entry) throws IOException {
+            TVPValue tail = getTVPValue(entry.observation);
+            if (entry.kind == Kind.DECIMAL) {
+                TVPValue value = new TVPValue().setUnit(entry.unit);
+                for (Segment segment : entry.segments) {
+                    spill.readDecimals(segment, value, entry.unit, entry.zone);
+                }
+                if (tail != null && tail.isSetValue()) {
+                    value.addValues(tail.getValue());
+                }
+                setValue(entry.observation, value);
+                return;
+            }
+            int size = entry.segments.stream().mapToInt(s -> s.size).sum();
+            TimeSeriesValue series = new TimeSeriesValue(entry.kind == Kind.COUNT ? TimeSeriesValue.Type.COUNT
+                    : TimeSeriesValue.Type.QUANTITY, size + tailSize(tail));
+            series.setUnit(entry.unit);
+            series.setTimeZone(entry.zone);
+            for (Segment segment : entry.segments) {
+                spill.read(segment, series);
+            }
+            if (tail instanceof TimeSeriesValue && ((TimeSeriesValue) tail).getType() == series.getType()) {
+                series.addValues((TimeSeriesValue) tail);
+            } else if (tail != null && tail.isSetValue()) {
+                // values that could not be stored in the columns convert the series to time value pairs
+                series.addValues(tail.getValue());
+            }
+            setValue(entry.observation, series);
+        }
+
+        private static int tailSize(TVPValue tail) {
+            return tail instanceof TimeSeriesValue ? ((TimeSeriesValue) tail).size() : 0;
+        }
+
+        @Override
+        public void close() {
+            entries.clear();
+            closeQuietly(spill);
+        }
+    }
+}
@@ -19,16 +19,24 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
 
 import org.n52.shetland.ogc.UoM;
 import org.n52.shetland.ogc.gml.time.Time;
 import org.n52.shetland.ogc.gml.time.TimePeriod;
+import org.n52.shetland.ogc.om.DuplicateTimePolicy;
 import org.n52.shetland.ogc.om.TimeValuePair;
 import org.n52.shetland.ogc.om.values.visitor.ValueVisitor;
 import org.n52.shetland.util.CollectionHelper;
 
 /**
  * Multi value representing a time value pairs for observations
+ * <p>
+ * The pairs are kept as a sequence of sorted runs: appending pairs in time order (e.g. merging chunks of a series that
+ * were loaded in order) does not create a new run. The runs are merged, and duplicate times are resolved according to
+ * the {@link DuplicateTimePolicy}, on the first access after a modification; afterwards the value is known to be
+ * sorted and is not sorted again.
  *
  * @since 1.0.0
  *
@@ -40,6 +48,18 @@ public class TVPValue implements MultiValue<List<TimeValuePair>> {
      */
     private List<TimeValuePair> value = new ArrayList<TimeValuePair>(0);
 
+    /**
+     * Start indices of the sorted runs after the first one
+     */
+    private final List<Integer> runs = new ArrayList<>(0);
+
+    /**
+     * If the pairs may contain duplicate times
+     */
+    private boolean duplicates;
+
+    private DuplicateTimePolicy duplicateTimePolicy = DuplicateTimePolicy.KEEP_ALL;
+
     /**
      * Unit of measure
      */
@@ -48,15 +68,23 @@ public class TVPValue implements MultiValue<List<TimeValuePair>> {
     @Override
     public TVPValue setValue(List<TimeValuePair> value) {
         this.value.clear();
-        if (value != null) {
-            this.value.addAll(value);
-        }
-        return this;
+        this.runs.clear();
+        this.duplicates = false;
+        return addValues(value);
     }
 
+    /**
+     * Get the time value pairs sorted by time. If the pairs were not added in time order or contain duplicate times
+     * that have to be resolved, this is done once by a linear merge of the sorted runs.
+     *
+     * @return the sorted time value pairs
+     *
+     * @throws IllegalArgumentException
+     *             if the pairs contain duplicate times and the policy is {@link DuplicateTimePolicy#ERROR}
+     */
     @Override
     public List<TimeValuePair> getValue() {
-        Collections.sort(value);
+        resolve();
         return Collections.unmodifiableList(value);
     }
 
@@ -69,6 +97,14 @@ public class TVPValue implements MultiValue<List<TimeValuePair>> {
      */
     public TVPValue addValue(TimeValuePair value) {
         if (value != null) {
+            if (!this.value.isEmpty()) {
+                int compare = this.value.get(this.value.size() - 1).compareTo(value);
+                if (compare > 0) {
+                    this.runs.add(this.value.size());
+                } else if (compare == 0) {
+                    this.duplicates = true;
+                }
+            }
             this.value.add(value);
         }
         return this;
@@ -83,11 +119,107 @@ public class TVPValue implements MultiValue<List<TimeValuePair>> {
      */
     public TVPValue addValues(Collection<TimeValuePair> values) {
         if (values != null) {
-            this.value.addAll(values);
+            if (this.value instanceof ArrayList) {
+                ((ArrayList<TimeValuePair>) this.value).ensureCapacity(this.value.size() + values.size());
+            }
+            for (TimeValuePair pair : values) {
+                addValue(pair);
+            }
         }
         return this;
     }
 
+    /**
+     * @return if the pairs are known to be sorted by time and to conform to the {@link DuplicateTimePolicy}
+     */
+    public boolean isSorted() {
+        return runs.isEmpty() && !(duplicates && duplicateTimePolicy != DuplicateTimePolicy.KEEP_ALL);
+    }
+
+    /**
+     * @return the policy for duplicate times
+     */
+    public DuplicateTimePolicy getDuplicateTimePolicy() {
+        return duplicateTimePolicy;
+    }
+
+    /**
+     * Set the policy for time value pairs with the same time. The policy is applied on the next access to the pairs.
+     *
+     * @param duplicateTimePolicy
+     *            the policy
+     * @return this
+     */
+    public TVPValue setDuplicateTimePolicy(DuplicateTimePolicy duplicateTimePolicy) {
+        this.duplicateTimePolicy = Objects.requireNonNull(duplicateTimePolicy);
+        return this;
+    }
+
+    private void resolve() {
+        if (isSorted()) {
+            return;
+        }
+        List<TimeValuePair> merged = new ArrayList<>(value.size());
+        boolean kept = false;
+        if (runs.isEmpty()) {
+            for (TimeValuePair pair : value) {
+                kept |= append(merged, pair);
+            }
+        } else {
+            int count = runs.size() + 1;
+            int[] position = new int[count];
+            int[] end = new int[count];
+            for (int i = 0; i < count; i++) {
+                position[i] = i == 0 ? 0 : runs.get(i - 1);
+                end[i] = i == count - 1 ? value.size() : runs.get(i);
+            }
+            // ties are resolved by the run index, so that equal times keep their insertion order
+            PriorityQueue<Integer> queue = new PriorityQueue<>(count, (a, b) -> {
+                int compare = value.get(position[a]).compareTo(value.get(position[b]));
+                return compare != 0 ? compare : Integer.compare(a, b);
+            });
+            for (int i = 0; i < count; i++) {
+                queue.add(i);
+            }
+            while (!queue.isEmpty()) {
+                int run = queue.poll();
+                kept |= append(merged, value.get(position[run]++));
+                if (position[run] < end[run]) {
+                    queue.add(run);
+                }
+            }
+        }
+        this.value = merged;
+        this.runs.clear();
+        this.duplicates = kept;
+    }
+
+    /**
+     * Append the pair to the sorted list, applying the duplicate time policy.
+     *
+     * @return if a pair with a duplicate time was added
+     */
+    private boolean append(List<TimeValuePair> merged, TimeValuePair pair) {
+        int last = merged.size() - 1;
+        if (last >= 0 && merged.get(last).compareTo(pair) == 0) {
+            switch (duplicateTimePolicy) {
+                case KEEP_FIRST:
+                    return false;
+                case KEEP_LAST:
+                    merged.set(last, pair);
+                    return false;
+                case ERROR:
+                    throw new IllegalArgumentException(
+                            String.format("Duplicate time value pairs for time %s", pair.getTime()));
+                default:
+                    merged.add(pair);
+                    return true;
+            }
+        }
+        merged.add(pair);
+        return false;
+    }
+
     @Override
     public void setUnit(String unit) {
         this.unit = new UoM(unit);
@@ -125,7 +257,7 @@ public class TVPValue implements MultiValue<List<TimeValuePair>> {
 
     @Override
     public boolean isSetValue() {
-        return CollectionHelper.isNotEmpty(getValue());
+        return CollectionHelper.isNotEmpty(value);
     }
 
     @Override
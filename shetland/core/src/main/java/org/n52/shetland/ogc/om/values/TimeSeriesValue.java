@@ -0,0 +1,798 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.ogc.om.values;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.n52.shetland.ogc.gml.time.Time;
+import org.n52.shetland.ogc.gml.time.Time.TimeFormat;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.gml.time.TimePeriod;
+import org.n52.shetland.ogc.om.DuplicateTimePolicy;
+import org.n52.shetland.ogc.om.TimeValuePair;
+import org.n52.shetland.ogc.om.values.visitor.ValueVisitor;
+import org.n52.shetland.ogc.swe.simpleType.SweQualityHolder;
+
+/**
+ * Columnar {@link TVPValue} for numeric time series. The phenomenon times are stored as epoch milliseconds in a
+ * {@code long[]} and the values in a {@code double[]} (quantities) or {@code long[]} (counts), with optional
+ * missing-value and quality columns. Out-of-order appends are sorted once by {@link #size()}, {@link #getValue()} or
+ * {@link #getPhenomenonTime()}; points with the same time are resolved according to the {@link DuplicateTimePolicy}
+ * in the same step. The index based accessors do not sort, they refer to the order established by the last call to
+ * {@link #size()}, so callers iterate up to the value returned by it.
+ * <p>
+ * Only time instants without indeterminate value or explicit time format and {@link QuantityValue}s or
+ * {@link CountValue}s (depending on the {@link Type}) can be stored in the columns, counts have to be in the
+ * {@code int} range of a {@link CountValue}. Adding any other {@link TimeValuePair} converts the series to the
+ * {@link TimeValuePair} storage of {@link TVPValue}; afterwards it is no longer {@link #isColumnar() columnar} and the
+ * index based accessors can not be used. Encoders visit columnar series with
+ * {@link ValueVisitor#visit(TimeSeriesValue)} and iterate the columns directly; all other consumers get the
+ * {@link TimeValuePair}s of {@link #getValue()}, which are created on demand. Quantities are stored as
+ * {@code double}, so decimal values with more than 15 significant digits lose precision.
+ *
+ * @since 9.9.0
+ */
+public class TimeSeriesValue extends TVPValue {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final double MIN_PLAIN = 1e-3;
+    private static final double MAX_PLAIN = 1e7;
+
+    private final Type type;
+    private long[] times;
+    private double[] quantities;
+    private long[] counts;
+    private final BitSet missing = new BitSet();
+    private SweQualityHolder[] qualities;
+    private DateTimeZone zone;
+    private int size;
+    private boolean sorted = true;
+    private boolean duplicates;
+    private List<TimeValuePair> pairs;
+    private boolean columnar = true;
+
+    public TimeSeriesValue(Type type) {
+        this(type, DEFAULT_CAPACITY);
+    }
+
+    public TimeSeriesValue(Type type, int capacity) {
+        this.type = Objects.requireNonNull(type, "type");
+        this.times = new long[Math.max(capacity, 1)];
+        if (type == Type.QUANTITY) {
+            this.quantities = new double[this.times.length];
+        } else {
+            this.counts = new long[this.times.length];
+        }
+    }
+
+    /**
+     * @return the type of the values
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Get the number of points, sorting the points if they were appended out of order.
+     *
+     * @return the number of points
+     */
+    public int size() {
+        if (!columnar) {
+            return super.getValue().size();
+        }
+        ensureSorted();
+        return size;
+    }
+
+    /**
+     * @return if the points are stored in the columns, {@code false} if the series was converted to
+     *         {@link TimeValuePair}s because an unsupported pair was added
+     */
+    public boolean isColumnar() {
+        return columnar;
+    }
+
+    /**
+     * Add a quantity.
+     *
+     * @param time
+     *            the time in milliseconds since the epoch
+     * @param value
+     *            the value, {@code NaN} for a missing value
+     * @return this
+     */
+    public TimeSeriesValue add(long time, double value) {
+        return add(time, value, null);
+    }
+
+    /**
+     * Add a quantity with quality information.
+     *
+     * @param time
+     *            the time in milliseconds since the epoch
+     * @param value
+     *            the value, {@code NaN} for a missing value
+     * @param quality
+     *            the quality, may be {@code null}
+     * @return this
+     */
+    public TimeSeriesValue add(long time, double value, SweQualityHolder quality) {
+        checkType(Type.QUANTITY);
+        if (Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Infinite values are not supported");
+        }
+        if (!columnar) {
+            super.addValue(new TimeValuePair(toTimeInstant(time),
+                                             createQuantity(Double.isNaN(value) ? null : value, quality)));
+            return this;
+        }
+        int index = append(time, quality);
+        if (Double.isNaN(value)) {
+            missing.set(index);
+        } else {
+            quantities[index] = value;
+        }
+        return this;
+    }
+
+    /**
+     * Add a count.
+     *
+     * @param time
+     *            the time in milliseconds since the epoch
+     * @param value
+     *            the value
+     * @return this
+     */
+    public TimeSeriesValue add(long time, long value) {
+        return add(time, value, null);
+    }
+
+    /**
+     * Add a count with quality information.
+     *
+     * @param time
+     *            the time in milliseconds since the epoch
+     * @param value
+     *            the value
+     * @param quality
+     *            the quality, may be {@code null}
+     * @return this
+     * @throws IllegalArgumentException
+     *             if the value exceeds the {@code int} range of a {@link CountValue}
+     */
+    public TimeSeriesValue add(long time, long value, SweQualityHolder quality) {
+        checkType(Type.COUNT);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Count exceeds the range of a CountValue: %d", value));
+        }
+        if (!columnar) {
+            super.addValue(new TimeValuePair(toTimeInstant(time), createCount((int) value, quality)));
+            return this;
+        }
+        counts[append(time, quality)] = value;
+        return this;
+    }
+
+    /**
+     * Add a point without value.
+     *
+     * @param time
+     *            the time in milliseconds since the epoch
+     * @param quality
+     *            the quality, may be {@code null}
+     * @return this
+     */
+    public TimeSeriesValue addMissing(long time, SweQualityHolder quality) {
+        if (!columnar) {
+            super.addValue(new TimeValuePair(toTimeInstant(time), type == Type.QUANTITY ? createQuantity(null, quality)
+                                                                      : createCount(null, quality)));
+            return this;
+        }
+        missing.set(append(time, quality));
+        return this;
+    }
+
+    /**
+     * Append all points of another series of the same type without creating intermediate objects.
+     *
+     * @param other
+     *            the series to append
+     * @return this
+     */
+    public TimeSeriesValue addValues(TimeSeriesValue other) {
+        if (other == null || !other.isSetValue()) {
+            return this;
+        }
+        checkType(other.type);
+        if (!columnar || !other.columnar) {
+            convertToPairs();
+            super.addValues(other.getValue());
+            return this;
+        }
+        if (zone == null) {
+            zone = other.zone;
+        }
+        if (!isSetUnit() && other.isSetUnit()) {
+            setUnit(other.getUnitObject());
+        }
+        int offset = size;
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.times, 0, times, offset, other.size);
+        if (type == Type.QUANTITY) {
+            System.arraycopy(other.quantities, 0, quantities, offset, other.size);
+        } else {
+            System.arraycopy(other.counts, 0, counts, offset, other.size);
+        }
+        for (int i = other.missing.nextSetBit(0); i >= 0 && i < other.size; i = other.missing.nextSetBit(i + 1)) {
+            missing.set(offset + i);
+        }
+        if (other.qualities != null) {
+            ensureQualities();
+            System.arraycopy(other.qualities, 0, qualities, offset, other.size);
+        }
+        sorted = sorted && other.sorted && (offset == 0 || times[offset - 1] <= times[offset]);
+        duplicates = duplicates || other.duplicates || offset > 0 && times[offset - 1] == times[offset];
+        size += other.size;
+        pairs = null;
+        return this;
+    }
+
+    /**
+     * Add a time value pair. Pairs that can not be stored in the columns convert the series to
+     * {@link TimeValuePair}s.
+     *
+     * @param value
+     *            the time value pair
+     * @return this
+     */
+    @Override
+    public TimeSeriesValue addValue(TimeValuePair value) {
+        if (value != null) {
+            if (!columnar || !isSupported(value)) {
+                convertToPairs();
+                super.addValue(value);
+                return this;
+            }
+            TimeInstant time = (TimeInstant) value.getTime();
+            Value<?> v = value.getValue();
+            if (zone == null) {
+                zone = time.getValue().getZone();
+            }
+            if (!isSetUnit() && v.isSetUnit()) {
+                setUnit(v.getUnitObject());
+            }
+            long millis = time.getValue().getMillis();
+            if (v instanceof QuantityValue) {
+                QuantityValue quantity = (QuantityValue) v;
+                SweQualityHolder quality = quantity.isSetQuality() ? quantity.getQuality() : null;
+                if (quantity.isSetValue()) {
+                    add(millis, quantity.getValue().doubleValue(), quality);
+                } else {
+                    addMissing(millis, quality);
+                }
+            } else {
+                CountValue count = (CountValue) v;
+                SweQualityHolder quality = count.isSetQuality() ? count.getQuality() : null;
+                if (count.isSetValue()) {
+                    add(millis, count.getValue().longValue(), quality);
+                } else {
+                    addMissing(millis, quality);
+                }
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public TimeSeriesValue addValues(Collection<TimeValuePair> values) {
+        if (values != null) {
+            if (columnar) {
+                ensureCapacity(size + values.size());
+            }
+            for (TimeValuePair value : values) {
+                addValue(value);
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public TimeSeriesValue setValue(List<TimeValuePair> value) {
+        if (!columnar) {
+            super.setValue(null);
+            this.columnar = true;
+        }
+        this.size = 0;
+        this.sorted = true;
+        this.duplicates = false;
+        this.pairs = null;
+        this.missing.clear();
+        this.qualities = null;
+        return addValues(value);
+    }
+
+    /**
+     * Get the points as {@link TimeValuePair}s. The pairs are created on the first call and cached until the series
+     * is modified; consumers that care about allocations should use the column accessors instead.
+     *
+     * @return the sorted time value pairs
+     */
+    @Override
+    public List<TimeValuePair> getValue() {
+        if (!columnar) {
+            return super.getValue();
+        }
+        ensureSorted();
+        if (pairs == null) {
+            List<TimeValuePair> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(new TimeValuePair(getTimeInstant(i), getValue(i)));
+            }
+            pairs = Collections.unmodifiableList(list);
+        }
+        return pairs;
+    }
+
+    /**
+     * @param index
+     *            the index of the point
+     * @return the time in milliseconds since the epoch
+     */
+    public long getTime(int index) {
+        checkIndex(index);
+        return times[index];
+    }
+
+    /**
+     * @param index
+     *            the index of the point
+     * @return the time of the point in the time zone of the series
+     */
+    public DateTime getDateTime(int index) {
+        return new DateTime(getTime(index), getTimeZone());
+    }
+
+    /**
+     * @return the time zone of the series, defaults to UTC
+     */
+    public DateTimeZone getTimeZone() {
+        return zone != null ? zone : DateTimeZone.UTC;
+    }
+
+    /**
+     * Set the time zone in that the times are represented.
+     *
+     * @param zone
+     *            the time zone
+     * @return this
+     */
+    public TimeSeriesValue setTimeZone(DateTimeZone zone) {
+        this.zone = zone;
+        this.pairs = null;
+        return this;
+    }
+
+    /**
+     * @param index
+     *            the index of the point
+     * @return if the point has no value
+     */
+    public boolean isMissing(int index) {
+        checkIndex(index);
+        return missing.get(index);
+    }
+
+    /**
+     * @param index
+     *            the index of a point of a {@link Type#QUANTITY} series
+     * @return the value or {@code NaN} if it is missing
+     */
+    public double getQuantity(int index) {
+        checkIndex(index);
+        checkType(Type.QUANTITY);
+        return missing.get(index) ? Double.NaN : quantities[index];
+    }
+
+    /**
+     * @param index
+     *            the index of a point of a {@link Type#COUNT} series
+     * @return the value
+     */
+    public long getCount(int index) {
+        checkIndex(index);
+        checkType(Type.COUNT);
+        return counts[index];
+    }
+
+    /**
+     * @param index
+     *            the index of the point
+     * @return the quality of the point or {@code null}
+     */
+    public SweQualityHolder getQuality(int index) {
+        checkIndex(index);
+        return qualities == null ? null : qualities[index];
+    }
+
+    /**
+     * @return if any point has quality information
+     */
+    public boolean isSetQuality() {
+        return columnar && qualities != null;
+    }
+
+    /**
+     * Get the value of a point in plain notation, as {@link BigDecimal#toPlainString()} would create it for the
+     * corresponding {@link QuantityValue}.
+     *
+     * @param index
+     *            the index of the point
+     * @return the value or an empty string if it is missing
+     */
+    public String getValueAsString(int index) {
+        if (isMissing(index)) {
+            return "";
+        }
+        if (type == Type.COUNT) {
+            return Long.toString(counts[index]);
+        }
+        double value = quantities[index];
+        double abs = Math.abs(value);
+        if (abs == 0) {
+            return "0.0";
+        } else if (abs >= MIN_PLAIN && abs < MAX_PLAIN) {
+            // Double.toString does not use the scientific notation in this range
+            return Double.toString(value);
+        }
+        return BigDecimal.valueOf(value).toPlainString();
+    }
+
+    /**
+     * @param index
+     *            the index of the point
+     * @return the time of the point as {@link TimeInstant}
+     */
+    public TimeInstant getTimeInstant(int index) {
+        return new TimeInstant(getDateTime(index));
+    }
+
+    /**
+     * @param index
+     *            the index of the point
+     * @return the value of the point as {@link QuantityValue} or {@link CountValue}
+     */
+    public Value<?> getValue(int index) {
+        checkIndex(index);
+        SweQualityHolder quality = getQuality(index);
+        if (type == Type.QUANTITY) {
+            return createQuantity(missing.get(index) ? null : quantities[index], quality);
+        } else {
+            return createCount(missing.get(index) ? null : (int) counts[index], quality);
+        }
+    }
+
+    private QuantityValue createQuantity(Double quantity, SweQualityHolder quality) {
+        QuantityValue value = quantity == null ? new QuantityValue((BigDecimal) null, getUnitObject())
+                : new QuantityValue(quantity, getUnitObject());
+        if (quality != null) {
+            value.setQuality(quality);
+        }
+        return value;
+    }
+
+    private CountValue createCount(Integer count, SweQualityHolder quality) {
+        CountValue value = new CountValue(count);
+        value.setUnit(getUnitObject());
+        if (quality != null) {
+            value.setQuality(quality);
+        }
+        return value;
+    }
+
+    private TimeInstant toTimeInstant(long time) {
+        return new TimeInstant(new DateTime(time, getTimeZone()));
+    }
+
+    @Override
+    public Time getPhenomenonTime() {
+        if (!columnar) {
+            return super.getPhenomenonTime();
+        }
+        TimePeriod timePeriod = new TimePeriod();
+        if (isSetValue()) {
+            ensureSorted();
+            timePeriod.extendToContain(getTimeInstant(0));
+            timePeriod.extendToContain(getTimeInstant(size - 1));
+        }
+        return timePeriod;
+    }
+
+    @Override
+    public boolean isSetValue() {
+        return columnar ? size > 0 : super.isSetValue();
+    }
+
+    @Override
+    public <X, E extends Exception> X accept(ValueVisitor<X, E> visitor) throws E {
+        return columnar ? visitor.visit(this) : visitor.visit((TVPValue) this);
+    }
+
+    /**
+     * Check if the time value pair can be stored in a series of this type.
+     *
+     * @param value
+     *            the time value pair
+     * @return if the pair is supported
+     */
+    public boolean isSupported(TimeValuePair value) {
+        return value != null && isSupported(value.getTime()) && (type == Type.QUANTITY
+                ? value.getValue() instanceof QuantityValue : value.getValue() instanceof CountValue);
+    }
+
+    /**
+     * Check if the time value pairs can be stored in a series of this type.
+     *
+     * @param values
+     *            the time value pairs
+     * @return if all pairs are supported
+     */
+    public boolean isSupported(Collection<TimeValuePair> values) {
+        return values == null || values.stream().allMatch(this::isSupported);
+    }
+
+    private static boolean isSupported(Time time) {
+        if (!(time instanceof TimeInstant)) {
+            return false;
+        }
+        TimeInstant instant = (TimeInstant) time;
+        return instant.isSetValue() && !instant.isSetIndeterminateValue() && instant.getRequestedTimeLength() == 0
+                && (instant.getTimeFormat() == null || instant.getTimeFormat() == TimeFormat.NOT_SET);
+    }
+
+    /**
+     * Move the points from the columns to the {@link TimeValuePair} storage of {@link TVPValue}, keeping their
+     * insertion order, so that sorting and duplicate times are handled by it.
+     */
+    private void convertToPairs() {
+        if (!columnar) {
+            return;
+        }
+        List<TimeValuePair> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(new TimeValuePair(getTimeInstant(i), getValue(i)));
+        }
+        this.columnar = false;
+        this.times = new long[1];
+        if (quantities != null) {
+            this.quantities = new double[1];
+        }
+        if (counts != null) {
+            this.counts = new long[1];
+        }
+        this.qualities = null;
+        this.missing.clear();
+        this.size = 0;
+        this.sorted = true;
+        this.duplicates = false;
+        this.pairs = null;
+        super.setValue(list);
+    }
+
+    private int append(long time, SweQualityHolder quality) {
+        ensureCapacity(size + 1);
+        if (size > 0 && times[size - 1] > time) {
+            sorted = false;
+        } else if (size > 0 && times[size - 1] == time) {
+            duplicates = true;
+        }
+        int index = size++;
+        times[index] = time;
+        missing.clear(index);
+        if (quality != null) {
+            ensureQualities();
+            qualities[index] = quality;
+        } else if (qualities != null) {
+            qualities[index] = null;
+        }
+        pairs = null;
+        return index;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > times.length) {
+            int length = Math.max(capacity, times.length + (times.length >> 1));
+            times = Arrays.copyOf(times, length);
+            if (quantities != null) {
+                quantities = Arrays.copyOf(quantities, length);
+            }
+            if (counts != null) {
+                counts = Arrays.copyOf(counts, length);
+            }
+            if (qualities != null) {
+                qualities = Arrays.copyOf(qualities, length);
+            }
+        }
+    }
+
+    private void ensureQualities() {
+        if (qualities == null) {
+            qualities = new SweQualityHolder[times.length];
+        }
+    }
+
+    @Override
+    public boolean isSorted() {
+        if (!columnar) {
+            return super.isSorted();
+        }
+        return sorted && !(duplicates && getDuplicateTimePolicy() != DuplicateTimePolicy.KEEP_ALL);
+    }
+
+    private void ensureSorted() {
+        if (isSorted()) {
+            return;
+        }
+        if (!sorted) {
+            sort();
+        }
+        if (getDuplicateTimePolicy() != DuplicateTimePolicy.KEEP_ALL) {
+            removeDuplicates();
+        }
+    }
+
+    private void removeDuplicates() {
+        DuplicateTimePolicy policy = getDuplicateTimePolicy();
+        if (policy == DuplicateTimePolicy.ERROR) {
+            for (int i = 1; i < size; i++) {
+                if (times[i - 1] == times[i]) {
+                    throw new IllegalArgumentException(String.format("Duplicate time value pairs for time %s",
+                                                                     new DateTime(times[i], getTimeZone())));
+                }
+            }
+        } else {
+            int length = 0;
+            for (int i = 0; i < size; i++) {
+                if (length > 0 && times[length - 1] == times[i]) {
+                    if (policy == DuplicateTimePolicy.KEEP_FIRST) {
+                        continue;
+                    }
+                    // KEEP_LAST: overwrite the previous point
+                    --length;
+                }
+                move(i, length++);
+            }
+            missing.clear(length, size);
+            size = length;
+        }
+        duplicates = false;
+        pairs = null;
+    }
+
+    private void move(int from, int to) {
+        if (from == to) {
+            return;
+        }
+        times[to] = times[from];
+        missing.set(to, missing.get(from));
+        if (quantities != null) {
+            quantities[to] = quantities[from];
+        }
+        if (counts != null) {
+            counts[to] = counts[from];
+        }
+        if (qualities != null) {
+            qualities[to] = qualities[from];
+        }
+    }
+
+    private void sort() {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        // stable, so that points with equal times keep their insertion order
+        mergeSort(order, new int[size], 0, size);
+        long[] sortedTimes = new long[times.length];
+        BitSet sortedMissing = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            sortedTimes[i] = times[order[i]];
+            sortedMissing.set(i, missing.get(order[i]));
+        }
+        if (quantities != null) {
+            double[] sortedQuantities = new double[quantities.length];
+            for (int i = 0; i < size; i++) {
+                sortedQuantities[i] = quantities[order[i]];
+            }
+            quantities = sortedQuantities;
+        }
+        if (counts != null) {
+            long[] sortedCounts = new long[counts.length];
+            for (int i = 0; i < size; i++) {
+                sortedCounts[i] = counts[order[i]];
+            }
+            counts = sortedCounts;
+        }
+        if (qualities != null) {
+            SweQualityHolder[] sortedQualities = new SweQualityHolder[qualities.length];
+            for (int i = 0; i < size; i++) {
+                sortedQualities[i] = qualities[order[i]];
+            }
+            qualities = sortedQualities;
+        }
+        times = sortedTimes;
+        missing.clear();
+        missing.or(sortedMissing);
+        sorted = true;
+        // equal times may have been out of order before
+        duplicates = true;
+        pairs = null;
+    }
+
+    private void mergeSort(int[] order, int[] buffer, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(order, buffer, from, middle);
+        mergeSort(order, buffer, middle, to);
+        if (times[order[middle - 1]] <= times[order[middle]]) {
+            return;
+        }
+        System.arraycopy(order, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || left < middle && times[buffer[left]] <= times[buffer[right]]) {
+                order[i] = buffer[left++];
+            } else {
+                order[i] = buffer[right++];
+            }
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (!columnar) {
+            throw new IllegalStateException("The series was converted to time value pairs");
+        }
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+        }
+    }
+
+    private void checkType(Type expected) {
+        if (type != expected) {
+            throw new IllegalArgumentException(String.format("Expected a %s series, but is %s", expected, type));
+        }
+    }
+
+    /**
+     * The type of the values of a {@link TimeSeriesValue}.
+     */
+    public enum Type {
+        QUANTITY,
+        COUNT
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.ogc.om.values.visitor;
+
+import org.n52.shetland.ogc.om.values.BooleanValue;
+import org.n52.shetland.ogc.om.values.CategoryValue;
+import org.n52.shetland.ogc.om.values.ComplexValue;
+import org.n52.shetland.ogc.om.values.CountValue;
+import org.n52.shetland.ogc.om.values.CvDiscretePointCoverage;
+import org.n52.shetland.ogc.om.values.GeometryValue;
+import org.n52.shetland.ogc.om.values.HrefAttributeValue;
+import org.n52.shetland.ogc.om.values.MultiPointCoverage;
+import org.n52.shetland.ogc.om.values.NilTemplateValue;
+import org.n52.shetland.ogc.om.values.ProfileValue;
+import org.n52.shetland.ogc.om.values.QuantityRangeValue;
+import org.n52.shetland.ogc.om.values.QuantityValue;
+import org.n52.shetland.ogc.om.values.RectifiedGridCoverage;
+import org.n52.shetland.ogc.om.values.ReferenceValue;
+import org.n52.shetland.ogc.om.values.SweDataArrayValue;
+import org.n52.shetland.ogc.om.values.TLVTValue;
+import org.n52.shetland.ogc.om.values.TVPValue;
+import org.n52.shetland.ogc.om.values.TextValue;
+import org.n52.shetland.ogc.om.values.TimeRangeValue;
+import org.n52.shetland.ogc.om.values.TimeValue;
+import org.n52.shetland.ogc.om.values.TrajectoryValue;
+import org.n52.shetland.ogc.om.values.UnknownValue;
+import org.n52.shetland.ogc.om.values.Value;
+import org.n52.shetland.ogc.om.values.XmlValue;
+
+/**
+ * {@link ValueVisitor} that handles all values by {@link #visitDefault(Value)}, so that implementations only have to
+ * override the values they are interested in.
+ *
+ * @param <T>
+ *            the return type
+ * @param <X>
+ *            the exception type
+ * @since 9.9.0
+ */
+public abstract class DefaultValueVisitor<
+        T,
+        X extends Exception> implements ValueVisitor<T, X> {
+
+    /**
+     * Visit a value that is not handled by a more specific method.
+     *
+     * @param value
+     *            the value
+     * @return the result
+     * @throws X
+     *             if the visitor fails
+     */
+    protected abstract T visitDefault(Value<?> value) throws X;
+
+    @Override
+    public T visit(BooleanValue value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(CategoryValue value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(ComplexValue value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(CountValue value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(GeometryValue value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(HrefAttributeValue value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(NilTemplateValue value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(QuantityValue value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(QuantityRangeValue value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(ReferenceValue value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(SweDataArrayValue value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(TVPValue value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(TLVTValue value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(TextValue value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(CvDiscretePointCoverage value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(MultiPointCoverage value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(RectifiedGridCoverage value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(ProfileValue value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(TrajectoryValue value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(UnknownValue value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(TimeValue value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(TimeRangeValue value) throws X {
+        return visitDefault(value);
+    }
+
+    @Override
+    public T visit(XmlValue<?> value) throws X {
+        return visitDefault(value);
+    }
+}
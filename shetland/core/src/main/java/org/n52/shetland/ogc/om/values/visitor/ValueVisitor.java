@@ -34,6 +34,7 @@ import org.n52.shetland.ogc.om.values.TLVTValue;
 import org.n52.shetland.ogc.om.values.TVPValue;
 import org.n52.shetland.ogc.om.values.TextValue;
 import org.n52.shetland.ogc.om.values.TimeRangeValue;
+import org.n52.shetland.ogc.om.values.TimeSeriesValue;
 import org.n52.shetland.ogc.om.values.TimeValue;
 import org.n52.shetland.ogc.om.values.TrajectoryValue;
 import org.n52.shetland.ogc.om.values.UnknownValue;
@@ -75,6 +76,20 @@ public interface ValueVisitor<
 
     T visit(TVPValue value) throws X;
 
+    /**
+     * Visit a columnar time series. Defaults to the {@link TVPValue} handling, so that only visitors that can make use
+     * of the primitive columns have to implement it.
+     *
+     * @param value
+     *            the value
+     * @return the result
+     * @throws X
+     *             if the visitor fails
+     */
+    default T visit(TimeSeriesValue value) throws X {
+        return visit((TVPValue) value);
+    }
+
     T visit(TLVTValue value) throws X;
 
     T visit(TextValue value) throws X;
@@ -34,6 +34,8 @@ import org.slf4j.LoggerFactory;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.net.InetAddresses;
 
 /**
@@ -48,9 +50,10 @@ public class OwsServiceRequestContext {
     private static final Logger LOG = LoggerFactory.getLogger(OwsServiceRequestContext.class);
     private Optional<IPAddress> address = Optional.empty();
     private Optional<String> token = Optional.empty();
-    private Optional<ProxyChain> proxyChain = Optional.empty();
+    private Supplier<Optional<ProxyChain>> proxyChain = Suppliers.ofInstance(Optional.empty());
     private Optional<String> contentType = Optional.empty();
     private Optional<List<MediaType>> acceptType = Optional.empty();
+    private RequestTimings timings = RequestTimings.disabled();
 
     public Optional<IPAddress> getIPAddress() {
         return address;
@@ -104,15 +107,27 @@ public class OwsServiceRequestContext {
     }
 
     public Optional<ProxyChain> getForwardedForChain() {
-        return proxyChain;
+        return proxyChain.get();
     }
 
     public void setForwaredForChain(ProxyChain chain) {
-        this.proxyChain = Optional.ofNullable(chain);
+        this.proxyChain = Suppliers.ofInstance(Optional.ofNullable(chain));
     }
 
     public void setForwaredForChain(Optional<ProxyChain> chain) {
-        this.proxyChain = Preconditions.checkNotNull(chain);
+        this.proxyChain = Suppliers.ofInstance(Preconditions.checkNotNull(chain));
+    }
+
+    /**
+     * Sets the proxy chain from the {@code X-Forwarded-For} header. The header is only parsed once the chain is
+     * requested by {@link #getForwardedForChain()}.
+     *
+     * @param header the header value
+     */
+    public void setForwardedForHeader(String header) {
+        this.proxyChain = header == null || header.isEmpty()
+                                  ? Suppliers.ofInstance(Optional.empty())
+                                  : Suppliers.memoize(() -> ProxyChain.fromForwardedForHeader(header));
     }
 
     public Optional<String> getToken() {
@@ -143,6 +158,14 @@ public class OwsServiceRequestContext {
         this.acceptType = Optional.ofNullable(list);
     }
 
+    public RequestTimings getTimings() {
+        return timings;
+    }
+
+    public void setTimings(RequestTimings timings) {
+        this.timings = timings == null ? RequestTimings.disabled() : timings;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this).omitNullValues().add("address", getIPAddress().orElse(null))
@@ -153,10 +176,11 @@ public class OwsServiceRequestContext {
     public static OwsServiceRequestContext fromRequest(HttpServletRequest req) {
         OwsServiceRequestContext rc = new OwsServiceRequestContext();
         rc.setIPAddress(getIPAddress(req));
-        rc.setForwaredForChain(ProxyChain.fromForwardedForHeader(req.getHeader(HTTPHeaders.X_FORWARDED_FOR)));
+        rc.setForwardedForHeader(req.getHeader(HTTPHeaders.X_FORWARDED_FOR));
         rc.setToken(req.getHeader(HTTPHeaders.AUTHORIZATION));
         rc.setContentType(req.getHeader(HTTPHeaders.CONTENT_TYPE));
         rc.setAcceptType(HTTPHeaders.getAcceptHeader(req));
+        rc.setTimings(RequestTimings.fromRequest(req));
         return rc;
 
     }
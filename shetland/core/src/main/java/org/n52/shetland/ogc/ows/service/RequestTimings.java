@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.ogc.ows.service;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import javax.servlet.http.HttpServletRequest;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Per request record of the time spent in the different processing phases. Instances are not thread safe, but a
+ * request is only processed by one thread at a time.
+ *
+ * <p>
+ * A disabled instance (see {@link #disabled()}) ignores all recordings and does not even query the clock, so the
+ * instrumentation can stay in place if timing is switched off.
+ *
+ * @since 9.9.0
+ */
+public class RequestTimings {
+    /**
+     * The name of the {@link HttpServletRequest} attribute holding the timings of a request.
+     */
+    public static final String ATTRIBUTE = RequestTimings.class.getName();
+
+    private static final RequestTimings DISABLED = new RequestTimings(false);
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final boolean enabled;
+    private final long[] nanos;
+    private Optional<OwsOperationKey> operation = Optional.empty();
+    private Optional<String> binding = Optional.empty();
+
+    protected RequestTimings(boolean enabled) {
+        this.enabled = enabled;
+        this.nanos = enabled ? new long[PHASES.length] : new long[0];
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts the measurement of a phase.
+     *
+     * @return the start time to pass to {@link #stop(Phase, long)}
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Stops the measurement of a phase and adds the elapsed time to the phase.
+     *
+     * @param phase the phase
+     * @param start the value previously returned by {@link #start()}
+     */
+    public void stop(Phase phase, long start) {
+        if (enabled) {
+            nanos[phase.ordinal()] += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Adds a externally measured duration to a phase.
+     *
+     * @param phase   the phase
+     * @param elapsed the duration in nanoseconds
+     */
+    public void add(Phase phase, long elapsed) {
+        if (enabled) {
+            nanos[phase.ordinal()] += elapsed;
+        }
+    }
+
+    /**
+     * Get the time spent in the given phase.
+     *
+     * @param phase the phase
+     *
+     * @return the time in nanoseconds
+     */
+    public long get(Phase phase) {
+        return enabled ? nanos[phase.ordinal()] : 0L;
+    }
+
+    public Optional<OwsOperationKey> getOperation() {
+        return operation;
+    }
+
+    public void setOperation(OwsOperationKey operation) {
+        if (enabled) {
+            this.operation = Optional.ofNullable(operation);
+        }
+    }
+
+    public Optional<String> getBinding() {
+        return binding;
+    }
+
+    public void setBinding(String binding) {
+        if (enabled) {
+            this.binding = Optional.ofNullable(binding);
+        }
+    }
+
+    /**
+     * Attaches this timings to the request, so that they can be retrieved later on using
+     * {@link #fromRequest(HttpServletRequest)}.
+     *
+     * @param request the request
+     */
+    public void attachTo(HttpServletRequest request) {
+        if (enabled) {
+            request.setAttribute(ATTRIBUTE, this);
+        }
+    }
+
+    @Override
+    public String toString() {
+        MoreObjects.ToStringHelper helper = MoreObjects.toStringHelper(this).omitNullValues()
+                .add("operation", operation.orElse(null))
+                .add("binding", binding.orElse(null));
+        if (enabled) {
+            Arrays.stream(PHASES).forEach(phase -> helper.add(phase.name(), nanos[phase.ordinal()]));
+        }
+        return helper.toString();
+    }
+
+    /**
+     * Creates a new, enabled instance.
+     *
+     * @return the timings
+     */
+    public static RequestTimings create() {
+        return new RequestTimings(true);
+    }
+
+    /**
+     * Gets the shared instance that ignores all recordings.
+     *
+     * @return the timings
+     */
+    public static RequestTimings disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Gets the timings attached to the given request.
+     *
+     * @param request the request
+     *
+     * @return the timings or {@link #disabled()} if none are attached
+     */
+    public static RequestTimings fromRequest(HttpServletRequest request) {
+        Object attribute = request == null ? null : request.getAttribute(ATTRIBUTE);
+        return attribute instanceof RequestTimings ? (RequestTimings) attribute : DISABLED;
+    }
+
+    /**
+     * The phases of the request processing.
+     */
+    public enum Phase {
+        /**
+         * Reading the request body.
+         */
+        READ,
+        /**
+         * Finding the decoder for the request.
+         */
+        DECODER_LOOKUP,
+        /**
+         * Decoding the request.
+         */
+        DECODE,
+        /**
+         * Processing the request by the operator and the operation handler.
+         */
+        OPERATION,
+        /**
+         * Encoding the response, exclusive of compression and writing.
+         */
+        ENCODE,
+        /**
+         * Compressing the response.
+         */
+        COMPRESSION,
+        /**
+         * Writing the response to the client.
+         */
+        WRITE;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.ogc.filter.predicate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.jupiter.api.Test;
+
+import org.n52.shetland.ogc.filter.BinaryLogicFilter;
+import org.n52.shetland.ogc.filter.ComparisonFilter;
+import org.n52.shetland.ogc.filter.Filter;
+import org.n52.shetland.ogc.filter.FilterConstants.BinaryLogicOperator;
+import org.n52.shetland.ogc.filter.FilterConstants.ComparisonOperator;
+import org.n52.shetland.ogc.filter.FilterConstants.SpatialOperator;
+import org.n52.shetland.ogc.filter.FilterConstants.TimeOperator;
+import org.n52.shetland.ogc.filter.SpatialFilter;
+import org.n52.shetland.ogc.filter.TemporalFilter;
+import org.n52.shetland.ogc.gml.time.TimePeriod;
+import org.n52.shetland.ogc.sos.ResultFilter;
+import org.n52.shetland.ogc.swe.SweDataArray;
+import org.n52.shetland.ogc.swe.SweDataRecord;
+import org.n52.shetland.ogc.swe.SweField;
+import org.n52.shetland.ogc.swe.simpleType.SweQuantity;
+import org.n52.shetland.ogc.swe.simpleType.SweText;
+import org.n52.shetland.ogc.swe.simpleType.SweTime;
+
+public class DataArrayFilterCompilerTest {
+    private static final String TIME = "http://www.opengis.net/def/property/OGC/0/PhenomenonTime";
+
+    private final SweDataArray dataArray = createDataArray();
+    private final DataArrayFilterCompiler compiler = new DataArrayFilterCompiler(dataArray);
+
+    @Test
+    public void shouldFilterRowsByFieldNameOrDefinition() {
+        Filter<?> filter = new BinaryLogicFilter(
+                BinaryLogicOperator.And,
+                new ComparisonFilter(ComparisonOperator.PropertyIsGreaterThanOrEqualTo, "value", "10"),
+                new TemporalFilter(TimeOperator.TM_During,
+                                   new TimePeriod(new DateTime(2020, 1, 1, 0, 0, DateTimeZone.UTC),
+                                                  new DateTime(2020, 1, 1, 3, 0, DateTimeZone.UTC)),
+                                   TIME));
+        assertThat(filter(new ResultFilter(filter)), contains("b", "c"));
+    }
+
+    @Test
+    public void shouldCompareTimesAndTexts() {
+        assertThat(filter(new ResultFilter(new ComparisonFilter(ComparisonOperator.PropertyIsLessThan, "time",
+                                                                "2020-01-01T01:30:00Z"))),
+                   contains("a", "b"));
+        assertThat(filter(new ResultFilter(new ComparisonFilter(ComparisonOperator.PropertyIsNull, "value", null))),
+                   contains("d"));
+    }
+
+    @Test
+    public void shouldRejectUnsupportedFilters() {
+        assertThrows(IllegalArgumentException.class, () -> compiler
+                .compile(new ComparisonFilter(ComparisonOperator.PropertyIsEqualTo, "unknown", "1")));
+        assertThrows(IllegalArgumentException.class, () -> compiler
+                .compile(new SpatialFilter(SpatialOperator.BBOX, (org.locationtech.jts.geom.Geometry) null,
+                                           "name")));
+    }
+
+    private List<String> filter(ResultFilter filter) {
+        return compiler.compile(filter).filter(dataArray.getValues().stream())
+                .map(row -> row.get(2)).collect(Collectors.toList());
+    }
+
+    private static SweDataArray createDataArray() {
+        SweTime time = new SweTime();
+        time.setDefinition(TIME);
+        SweDataRecord record = new SweDataRecord();
+        record.addField(new SweField("time", time));
+        record.addField(new SweField("value", new SweQuantity()));
+        record.addField(new SweField("name", new SweText()));
+        SweDataArray array = new SweDataArray();
+        array.setElementType(record);
+        array.add(Arrays.asList("2020-01-01T00:00:00Z", "5.5", "a"));
+        array.add(Arrays.asList("2020-01-01T01:00:00Z", "10", "b"));
+        array.add(Arrays.asList("2020-01-01T02:00:00Z", "20.5", "c"));
+        array.add(Arrays.asList("2020-01-01T03:00:00Z", "", "d"));
+        return array;
+    }
+}
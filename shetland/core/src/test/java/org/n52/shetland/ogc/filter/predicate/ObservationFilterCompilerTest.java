@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.ogc.filter.predicate;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+
+import org.n52.shetland.ogc.filter.BinaryLogicFilter;
+import org.n52.shetland.ogc.filter.ComparisonFilter;
+import org.n52.shetland.ogc.filter.Filter;
+import org.n52.shetland.ogc.filter.FilterConstants.BinaryLogicOperator;
+import org.n52.shetland.ogc.filter.FilterConstants.ComparisonOperator;
+import org.n52.shetland.ogc.filter.FilterConstants.SpatialOperator;
+import org.n52.shetland.ogc.filter.FilterConstants.TimeOperator;
+import org.n52.shetland.ogc.filter.IdFilter;
+import org.n52.shetland.ogc.filter.SpatialFilter;
+import org.n52.shetland.ogc.filter.TemporalFilter;
+import org.n52.shetland.ogc.filter.UnaryLogicFilter;
+import org.n52.shetland.ogc.gml.CodeWithAuthority;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.gml.time.TimePeriod;
+import org.n52.shetland.ogc.om.OmObservableProperty;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.om.OmObservationConstellation;
+import org.n52.shetland.ogc.om.SingleObservationValue;
+import org.n52.shetland.ogc.om.features.samplingFeatures.SamplingFeature;
+import org.n52.shetland.ogc.om.values.QuantityValue;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.sos.SosProcedureDescriptionUnknownType;
+import org.n52.shetland.util.ReferencedEnvelope;
+
+public class ObservationFilterCompilerTest {
+    private static final DateTime START = new DateTime(2020, 1, 1, 0, 0, DateTimeZone.UTC);
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+    private final ObservationFilterCompiler compiler = new ObservationFilterCompiler();
+    private List<OmObservation> observations;
+
+    @BeforeEach
+    public void setUp() throws OwsExceptionReport {
+        this.observations = Arrays.asList(observation("o0", 0, 1.0, 0), observation("o1", 1, 2.0, 10),
+                                          observation("o2", 2, 3.0, 20), observation("o3", 3, 4.0, 30));
+    }
+
+    @Test
+    public void shouldCompareNumericResults() throws OwsExceptionReport {
+        assertThat(filter(new ComparisonFilter(ComparisonOperator.PropertyIsGreaterThan, "om:result", "2")),
+                   contains("o2", "o3"));
+        assertThat(filter(new ComparisonFilter(ComparisonOperator.PropertyIsBetween, "result", "2", "3.0")),
+                   contains("o1", "o2"));
+        assertThat(filter(new ComparisonFilter(ComparisonOperator.PropertyIsEqualTo, "result", "4.0")),
+                   contains("o3"));
+    }
+
+    @Test
+    public void shouldCompareTextualProperties() {
+        ComparisonFilter like = new ComparisonFilter(ComparisonOperator.PropertyIsLike, "om:featureOfInterest",
+                                                     "FEATURE-*");
+        like.setMatchCase(false);
+        assertThat(filter(like).size(), is(4));
+        assertThat(filter(new ComparisonFilter(ComparisonOperator.PropertyIsLike, "om:featureOfInterest",
+                                               "feature-.")),
+                   contains("o0", "o1", "o2", "o3"));
+        assertThat(filter(new ComparisonFilter(ComparisonOperator.PropertyIsNotEqualTo, "procedure", "procedure")),
+                   is(empty()));
+    }
+
+    @Test
+    public void shouldEvaluateTemporalOperators() {
+        TimePeriod period = new TimePeriod(START.plusHours(1), START.plusHours(3));
+        assertThat(filter(new TemporalFilter(TimeOperator.TM_During, period, "om:phenomenonTime")),
+                   contains("o2"));
+        assertThat(filter(new TemporalFilter(TimeOperator.TM_Before, period, "phenomenonTime")),
+                   contains("o0"));
+        assertThat(filter(new TemporalFilter(TimeOperator.TM_Equals, new TimeInstant(START.plusHours(3)),
+                                             "phenomenonTime")),
+                   contains("o3"));
+        // nothing is during an instant
+        assertThat(compiler.compile(new TemporalFilter(TimeOperator.TM_During, new TimeInstant(START),
+                                                       "phenomenonTime")).getConstant(),
+                   is(Optional.of(false)));
+    }
+
+    @Test
+    public void shouldEvaluateSpatialOperators() {
+        ReferencedEnvelope envelope = new ReferencedEnvelope(new Envelope(5, 25, 5, 25), 4326);
+        assertThat(filter(new SpatialFilter(SpatialOperator.BBOX, envelope, "om:featureOfInterest/*/sams:shape")),
+                   contains("o1", "o2"));
+        assertThat(filter(new UnaryLogicFilter(new SpatialFilter(SpatialOperator.BBOX, envelope, "sams:shape"))),
+                   contains("o0", "o3"));
+    }
+
+    @Test
+    public void shouldFoldAndOrderLogicalOperators() throws OwsExceptionReport {
+        ComparisonFilter cheap = new ComparisonFilter(ComparisonOperator.PropertyIsEqualTo, "result", "1.0");
+        SpatialFilter expensive = new SpatialFilter(SpatialOperator.Intersects,
+                                                    GEOMETRY_FACTORY.createPoint(new Coordinate(0, 0)),
+                                                    "sams:shape");
+        BinaryLogicFilter and = new BinaryLogicFilter(BinaryLogicOperator.And, expensive, cheap);
+        assertThat(filter(and), contains("o0"));
+        CompiledFilter<OmObservation> compiled = compiler.compile(and);
+        assertThat(compiled.getSelectivity() < 0.1d, is(true));
+        // the cheap filter is evaluated first
+        assertThat(compiled.getCost() < 20.0d, is(true));
+
+        ComparisonFilter nothing = new ComparisonFilter(ComparisonOperator.PropertyIsBetween, "result", "3", "2");
+        assertThat(compiler.compile(new BinaryLogicFilter(BinaryLogicOperator.And, cheap, nothing)).getConstant(),
+                   is(Optional.of(false)));
+        assertThat(compiler.compile(new BinaryLogicFilter(BinaryLogicOperator.Or, cheap, nothing)).getCost(),
+                   is(compiler.compile(cheap).getCost()));
+        assertThat(compiler.compile(new UnaryLogicFilter(nothing)).getConstant(), is(Optional.of(true)));
+    }
+
+    @Test
+    public void shouldMatchIdentifiers() {
+        assertThat(filter(new IdFilter(Arrays.asList("o1", "o3"))), contains("o1", "o3"));
+    }
+
+    @Test
+    public void shouldRejectUnknownValueReferences() {
+        assertThrows(IllegalArgumentException.class, () -> compiler
+                .compile(new ComparisonFilter(ComparisonOperator.PropertyIsEqualTo, "om:unknown", "1")));
+        assertThrows(IllegalArgumentException.class, () -> compiler
+                .compile(new TemporalFilter(TimeOperator.TM_After, new TimeInstant(START), "om:result")));
+    }
+
+    private List<String> filter(Filter<?> filter) {
+        return compiler.compile(filter).filter(observations.stream())
+                .map(OmObservation::getIdentifier).collect(Collectors.toList());
+    }
+
+    private static OmObservation observation(String identifier, int hours, double value, double coordinate)
+            throws OwsExceptionReport {
+        Point point = GEOMETRY_FACTORY.createPoint(new Coordinate(coordinate, coordinate));
+        point.setSRID(4326);
+        SamplingFeature feature = new SamplingFeature(new CodeWithAuthority("feature-" + hours));
+        feature.setGeometry(point);
+        OmObservation observation = new OmObservation();
+        observation.setIdentifier(identifier);
+        observation.setObservationConstellation(new OmObservationConstellation(
+                new SosProcedureDescriptionUnknownType("procedure"), new OmObservableProperty("property"), feature));
+        observation.setValue(new SingleObservationValue<>(new TimeInstant(START.plusHours(hours)),
+                                                          new QuantityValue(value)));
+        return observation;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.ogc.om;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+
+public class ObservationStreamTest {
+
+    @Test
+    public void shouldFlatMapAllObservations() throws OwsExceptionReport {
+        ObservationStream stream = ObservationStream.of(Arrays.asList(observation("a"), observation("b"), observation("c")))
+                .flatMap(o -> "b".equals(o.getObservationID())
+                                      ? ObservationStream.empty()
+                                      : ObservationStream.of(Arrays.asList(o, observation(o.getObservationID() + "'"))));
+        List<String> ids = stream.collect(ArrayList::new).stream().map(OmObservation::getObservationID)
+                .collect(Collectors.toList());
+        assertThat(ids, contains("a", "a'", "c", "c'"));
+    }
+
+    private static OmObservation observation(String id) {
+        OmObservation observation = new OmObservation();
+        observation.setObservationID(id);
+        return observation;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.ogc.om;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.om.values.QuantityValue;
+import org.n52.shetland.ogc.om.values.TVPValue;
+import org.n52.shetland.ogc.om.values.TextValue;
+import org.n52.shetland.ogc.om.values.TimeSeriesValue;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.shetland.ogc.sos.SosProcedureDescriptionUnknownType;
+
+public class SpillingObservationMergerTest {
+    private static final int SERIES = 3;
+    private static final int VALUES = 500;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void shouldProduceTheSameResultAsTheHeapMerge() throws OwsExceptionReport, Exception {
+        ObservationMergeIndicator indicator = new ObservationMergeIndicator().withProcedure();
+        List<OmObservation> expected = ObservationStream.of(observations()).merge(indicator).collect(ArrayList::new);
+
+        SpillingObservationMerger merger = new SpillingObservationMerger(4096, directory);
+        try (ObservationStream stream = merger.merge(ObservationStream.of(observations()), indicator)) {
+            List<OmObservation> actual = stream.collect(ArrayList::new);
+            assertThat(actual.size(), is(SERIES));
+            for (int i = 0; i < SERIES; i++) {
+                assertThat(pairs(actual.get(i)), is(pairs(expected.get(i))));
+                assertThat(actual.get(i).getObservationID(), is(expected.get(i).getObservationID()));
+            }
+        }
+        // the spill file is removed after the stream is consumed
+        assertThat(Files.list(directory).count(), is(0L));
+    }
+
+    @Test
+    public void shouldNotSpillWithinTheBudget() throws OwsExceptionReport, Exception {
+        SpillingObservationMerger merger = new SpillingObservationMerger(Long.MAX_VALUE, directory);
+        try (ObservationStream stream = merger.merge(ObservationStream.of(observations()),
+                                                     new ObservationMergeIndicator().withProcedure())) {
+            List<OmObservation> actual = stream.collect(ArrayList::new);
+            assertThat(actual.size(), is(SERIES));
+            assertThat(actual.get(0).getValue().getValue(), is(not(instanceOf(TimeSeriesValue.class))));
+        }
+    }
+
+    @Test
+    public void shouldKeepUnspillableValuesOnTheHeap() throws OwsExceptionReport, Exception {
+        ObservationMergeIndicator indicator = new ObservationMergeIndicator().withProcedure();
+        List<OmObservation> expected = ObservationStream.of(withText(observations())).merge(indicator)
+                .collect(ArrayList::new);
+
+        // the text values alone exceed the budget, but only the numeric values are spilled
+        SpillingObservationMerger merger = new SpillingObservationMerger(4096, directory);
+        try (ObservationStream stream = merger.merge(ObservationStream.of(withText(observations())), indicator)) {
+            List<OmObservation> actual = stream.collect(ArrayList::new);
+            assertThat(actual.size(), is(SERIES + 1));
+            for (int i = 0; i < SERIES; i++) {
+                assertThat(pairs(actual.get(i)), is(pairs(expected.get(i))));
+            }
+            assertThat(actual.get(SERIES).getValue().getValue(), is(not(instanceOf(TimeSeriesValue.class))));
+            assertThat(pairs(actual.get(SERIES)), is(pairs(expected.get(SERIES))));
+        }
+        assertThat(Files.list(directory).count(), is(0L));
+    }
+
+    @Test
+    public void shouldKeepThePrecisionAndScaleOfDecimals() throws OwsExceptionReport, Exception {
+        String[] values = { "1.2500", "12345678901234567890.123456789", "-0.000000000000000000001", "7E+3" };
+        ObservationMergeIndicator indicator = new ObservationMergeIndicator().withProcedure();
+        SpillingObservationMerger merger = new SpillingObservationMerger(1, directory);
+        try (ObservationStream stream = merger.merge(ObservationStream.of(decimals(values)), indicator)) {
+            List<OmObservation> actual = stream.collect(ArrayList::new);
+            assertThat(actual.size(), is(1));
+            List<String> expected = new ArrayList<>(values.length);
+            for (int i = 0; i < values.length; i++) {
+                expected.add(i * 1000L + "=" + new BigDecimal(values[i]));
+            }
+            assertThat(pairs(actual.get(0)), is(expected));
+        }
+        assertThat(Files.list(directory).count(), is(0L));
+    }
+
+    @Test
+    public void shouldRestoreColumnarSeries() throws OwsExceptionReport, Exception {
+        ObservationMergeIndicator indicator = new ObservationMergeIndicator().withProcedure();
+        List<OmObservation> expected = ObservationStream.of(counts()).merge(indicator).collect(ArrayList::new);
+        SpillingObservationMerger merger = new SpillingObservationMerger(64, directory);
+        try (ObservationStream stream = merger.merge(ObservationStream.of(counts()), indicator)) {
+            List<OmObservation> actual = stream.collect(ArrayList::new);
+            assertThat(actual.size(), is(1));
+            assertThat(actual.get(0).getValue().getValue(), is(instanceOf(TimeSeriesValue.class)));
+            assertThat(pairs(actual.get(0)), is(pairs(expected.get(0))));
+        }
+    }
+
+    private static List<OmObservation> decimals(String... values) {
+        List<OmObservation> observations = new ArrayList<>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            observations.add(observation("decimals", new TimeInstant(new DateTime(i * 1000L, DateTimeZone.UTC)),
+                                         new QuantityValue(new BigDecimal(values[i]), "m")));
+        }
+        return observations;
+    }
+
+    private static List<OmObservation> counts() {
+        List<OmObservation> observations = new ArrayList<>(VALUES / 10);
+        for (int i = 0; i < VALUES / 10; i++) {
+            TimeSeriesValue series = new TimeSeriesValue(TimeSeriesValue.Type.COUNT);
+            series.add(i * 2000L, (long) i).add(i * 2000L + 1000L, i * 2L);
+            MultiObservationValues<List<TimeValuePair>> value = new MultiObservationValues<>();
+            value.setValue(series);
+            OmObservation observation = observation("counts", null, null);
+            observation.setValue(value);
+            observations.add(observation);
+        }
+        return observations;
+    }
+
+    private static OmObservation observation(String procedure, TimeInstant time, QuantityValue value) {
+        OmObservationConstellation constellation = new OmObservationConstellation();
+        constellation.setProcedure(new SosProcedureDescriptionUnknownType(procedure));
+        OmObservation observation = new OmObservation();
+        observation.setObservationConstellation(constellation);
+        if (value != null) {
+            observation.setValue(new SingleObservationValue<>(time, value));
+        }
+        return observation;
+    }
+
+    private static List<String> pairs(OmObservation observation) {
+        return ((TVPValue) observation.getValue().getValue()).getValue().stream()
+                .map(p -> ((TimeInstant) p.getTime()).getValue().getMillis() + "=" + p.getValue().getValue())
+                .collect(Collectors.toList());
+    }
+
+    private static List<OmObservation> withText(List<OmObservation> observations) {
+        DateTime start = new DateTime(2020, 1, 1, 0, 0, DateTimeZone.UTC);
+        for (int i = 0; i < VALUES; i++) {
+            OmObservationConstellation constellation = new OmObservationConstellation();
+            constellation.setProcedure(new SosProcedureDescriptionUnknownType("text"));
+            OmObservation observation = new OmObservation();
+            observation.setObservationConstellation(constellation);
+            observation.setValue(new SingleObservationValue<>(new TimeInstant(start.plusMinutes(i)),
+                                                              new TextValue("value" + i)));
+            observations.add(observation);
+        }
+        return observations;
+    }
+
+    private static List<OmObservation> observations() {
+        List<OmObservation> observations = new ArrayList<>(SERIES * VALUES);
+        DateTime start = new DateTime(2020, 1, 1, 0, 0, DateTimeZone.UTC);
+        for (int i = 0; i < VALUES; i++) {
+            for (int s = 0; s < SERIES; s++) {
+                OmObservationConstellation constellation = new OmObservationConstellation();
+                constellation.setProcedure(new SosProcedureDescriptionUnknownType("procedure" + s));
+                OmObservation observation = new OmObservation();
+                observation.setObservationConstellation(constellation);
+                QuantityValue value = i % 7 == 0 ? new QuantityValue((BigDecimal) null, "m")
+                        : new QuantityValue(BigDecimal.valueOf(s * 1000 + i, 1), "m");
+                observation.setValue(new SingleObservationValue<>(new TimeInstant(start.plusMinutes(i)), value));
+                observations.add(observation);
+            }
+        }
+        return observations;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.ogc.om.values;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.jupiter.api.Test;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.om.DuplicateTimePolicy;
+import org.n52.shetland.ogc.om.MultiObservationValues;
+import org.n52.shetland.ogc.om.ObservationMergeIndicator;
+import org.n52.shetland.ogc.om.ObservationStream;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.om.TimeValuePair;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+
+public class TVPValueTest {
+
+    @Test
+    public void shouldNotSortAppendedRuns() {
+        TVPValue value = new TVPValue().setValue(pairs(1, 2, 3));
+        value.addValues(pairs(4, 5));
+        assertThat(value.isSorted(), is(true));
+        assertThat(times(value), contains(1L, 2L, 3L, 4L, 5L));
+    }
+
+    @Test
+    public void shouldMergeSortedRuns() {
+        TVPValue value = new TVPValue().setValue(pairs(1, 4, 7));
+        value.addValues(pairs(2, 5, 8));
+        value.addValues(pairs(3, 6, 9));
+        assertThat(value.isSorted(), is(false));
+        assertThat(times(value), contains(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L));
+        assertThat(value.isSorted(), is(true));
+    }
+
+    @Test
+    public void shouldApplyTheDuplicateTimePolicy() {
+        TVPValue first = new TVPValue().setValue(pairs(1, 2, 3));
+        first.addValues(values(2, 3, 4));
+        first.setDuplicateTimePolicy(DuplicateTimePolicy.KEEP_FIRST);
+        assertThat(times(first), contains(1L, 2L, 3L, 4L));
+        assertThat(values(first), contains(1, 2, 3, 40));
+
+        TVPValue last = new TVPValue().setValue(pairs(1, 2, 3));
+        last.addValues(values(2, 3, 4));
+        last.setDuplicateTimePolicy(DuplicateTimePolicy.KEEP_LAST);
+        assertThat(values(last), contains(1, 20, 30, 40));
+
+        TVPValue all = new TVPValue().setValue(pairs(1, 2));
+        all.addValues(values(2));
+        assertThat(values(all), contains(1, 2, 20));
+
+        TVPValue error = new TVPValue().setValue(pairs(1, 2));
+        error.addValues(values(2));
+        error.setDuplicateTimePolicy(DuplicateTimePolicy.ERROR);
+        assertThrows(IllegalArgumentException.class, error::getValue);
+    }
+
+    @Test
+    public void shouldApplyThePolicyWhenMergingObservations() throws OwsExceptionReport {
+        OmObservation a = observation(pairs(1, 2, 3));
+        OmObservation b = observation(values(3, 4));
+        ObservationMergeIndicator indicator = new ObservationMergeIndicator();
+        List<OmObservation> merged = ObservationStream.of(Arrays.asList(a, b))
+                .merge(indicator.setDuplicateTimePolicy(DuplicateTimePolicy.KEEP_LAST)).toStream()
+                .collect(Collectors.toList());
+        assertThat(merged.size(), is(1));
+        assertThat(values((TVPValue) merged.get(0).getValue().getValue()), contains(1, 2, 30, 40));
+
+        OmObservation c = observation(pairs(1, 2));
+        OmObservation d = observation(pairs(2));
+        assertThrows(OwsExceptionReport.class, () -> ObservationStream.of(Arrays.asList(c, d))
+                .merge(new ObservationMergeIndicator().setDuplicateTimePolicy(DuplicateTimePolicy.ERROR)));
+    }
+
+    private static OmObservation observation(List<TimeValuePair> pairs) {
+        MultiObservationValues<List<TimeValuePair>> value = new MultiObservationValues<>();
+        value.setValue(new TVPValue().setValue(pairs));
+        OmObservation observation = new OmObservation();
+        observation.setValue(value);
+        return observation;
+    }
+
+    /**
+     * Pairs with the value equal to the time.
+     */
+    private static List<TimeValuePair> pairs(int... times) {
+        return Arrays.stream(times).mapToObj(t -> pair(t, t)).collect(Collectors.toList());
+    }
+
+    /**
+     * Pairs with the value equal to ten times the time.
+     */
+    private static List<TimeValuePair> values(int... times) {
+        return Arrays.stream(times).mapToObj(t -> pair(t, 10 * t)).collect(Collectors.toList());
+    }
+
+    private static TimeValuePair pair(int time, int value) {
+        return new TimeValuePair(new TimeInstant(new DateTime(time * 1000L, DateTimeZone.UTC)), new CountValue(value));
+    }
+
+    private static List<Long> times(TVPValue value) {
+        return value.getValue().stream().map(p -> ((TimeInstant) p.getTime()).getValue().getMillis() / 1000)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Integer> values(TVPValue value) {
+        return value.getValue().stream().map(p -> ((CountValue) p.getValue()).getValue())
+                .collect(Collectors.toList());
+    }
+}
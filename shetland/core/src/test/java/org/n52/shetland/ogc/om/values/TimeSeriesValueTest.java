@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.ogc.om.values;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.jupiter.api.Test;
+import org.n52.shetland.ogc.gml.time.TimeInstant;
+import org.n52.shetland.ogc.gml.time.TimePeriod;
+import org.n52.shetland.ogc.om.DuplicateTimePolicy;
+import org.n52.shetland.ogc.om.MultiObservationValues;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.om.TimeValuePair;
+import org.n52.shetland.ogc.om.values.visitor.DefaultValueVisitor;
+
+public class TimeSeriesValueTest {
+
+    @Test
+    public void shouldSortOnceOnAccess() {
+        TimeSeriesValue value = new TimeSeriesValue(TimeSeriesValue.Type.QUANTITY, 2);
+        value.add(3000, 3.0).add(1000, 1.0).add(2000, Double.NaN).add(1000, 1.5);
+        assertThat(value.size(), is(4));
+        assertThat(value.getTime(0), is(1000L));
+        assertThat(value.getQuantity(0), is(1.0));
+        // equal times keep their insertion order
+        assertThat(value.getQuantity(1), is(1.5));
+        assertThat(value.isMissing(2), is(true));
+        assertThat(value.getQuantity(3), is(3.0));
+        List<TimeValuePair> pairs = value.getValue();
+        assertThat(value.getValue(), is(sameInstance(pairs)));
+        assertThat(((QuantityValue) pairs.get(2).getValue()).isSetValue(), is(false));
+    }
+
+    @Test
+    public void shouldResolveDuplicateTimes() {
+        TimeSeriesValue value = new TimeSeriesValue(TimeSeriesValue.Type.QUANTITY);
+        value.add(1000, 1.0).add(2000, 2.0).add(2000, 2.5).add(1000, 1.5).add(3000, 3.0);
+        value.setDuplicateTimePolicy(DuplicateTimePolicy.KEEP_LAST);
+        assertThat(value.size(), is(3));
+        assertThat(value.getQuantity(0), is(1.5));
+        assertThat(value.getQuantity(1), is(2.5));
+        assertThat(value.getQuantity(2), is(3.0));
+        assertThat(value.isSorted(), is(true));
+
+        TimeSeriesValue first = new TimeSeriesValue(TimeSeriesValue.Type.COUNT);
+        first.add(1000, 1L).add(1000, 2L);
+        first.setDuplicateTimePolicy(DuplicateTimePolicy.KEEP_FIRST);
+        assertThat(first.size(), is(1));
+        assertThat(first.getCount(0), is(1L));
+        first.add(1000, 3L).setDuplicateTimePolicy(DuplicateTimePolicy.ERROR);
+        assertThrows(IllegalArgumentException.class, first::getValue);
+    }
+
+    @Test
+    public void shouldConvertTimeValuePairs() {
+        TimeSeriesValue value = new TimeSeriesValue(TimeSeriesValue.Type.QUANTITY);
+        DateTime time = new DateTime(2020, 1, 1, 12, 0, DateTimeZone.forOffsetHours(1));
+        value.addValue(new TimeValuePair(new TimeInstant(time), new QuantityValue(BigDecimal.valueOf(2.5), "m")));
+        assertThat(value.getUnit(), is("m"));
+        assertThat(value.getDateTime(0), is(time));
+        TimeValuePair pair = value.getValue().get(0);
+        assertThat(pair.getTime(), is(new TimeInstant(time)));
+        assertThat(((QuantityValue) pair.getValue()).getValue(), is(BigDecimal.valueOf(2.5)));
+        assertThat(((TimePeriod) value.getPhenomenonTime()).getStart(), is(time));
+        assertThrows(IllegalArgumentException.class, () -> value.add(0L, 1L));
+    }
+
+    @Test
+    public void shouldStoreUnsupportedTimeValuePairs() {
+        TimeSeriesValue value = new TimeSeriesValue(TimeSeriesValue.Type.QUANTITY);
+        value.add(3000, 3.0).add(1000, 1.0);
+        TVPValue tvpValue = value;
+        tvpValue.addValue(new TimeValuePair(new TimeInstant(new DateTime(2000L, DateTimeZone.UTC)),
+                                            new TextValue("x")));
+        assertThat(value.isColumnar(), is(false));
+        value.add(4000, 4.0);
+        assertThat(value.size(), is(4));
+        assertThat(value.getValue().stream().map(p -> p.getValue().getValue()).collect(Collectors.toList()),
+                contains(BigDecimal.valueOf(1.0), "x", BigDecimal.valueOf(3.0), BigDecimal.valueOf(4.0)));
+        assertThrows(IllegalStateException.class, () -> value.getQuantity(0));
+        value.setValue(null);
+        assertThat(value.isColumnar(), is(true));
+        assertThat(value.isSetValue(), is(false));
+    }
+
+    @Test
+    public void shouldDispatchToTheVisitor() {
+        DefaultValueVisitor<String, RuntimeException> visitor = new DefaultValueVisitor<String, RuntimeException>() {
+            @Override
+            public String visit(TimeSeriesValue value) {
+                return "columns";
+            }
+
+            @Override
+            public String visit(TVPValue value) {
+                return "pairs";
+            }
+
+            @Override
+            protected String visitDefault(Value<?> value) {
+                return null;
+            }
+        };
+        TimeSeriesValue value = new TimeSeriesValue(TimeSeriesValue.Type.COUNT);
+        value.add(1000L, 1L);
+        assertThat(value.accept(visitor), is("columns"));
+        value.addValue(new TimeValuePair(new TimeInstant(new DateTime(2000L, DateTimeZone.UTC)), new TextValue("x")));
+        assertThat(value.accept(visitor), is("pairs"));
+    }
+
+    @Test
+    public void shouldFormatPlainValues() {
+        TimeSeriesValue value = new TimeSeriesValue(TimeSeriesValue.Type.QUANTITY);
+        double[] values = { 0.0, -0.0, 1.25, 0.001, 1e-4, 123456.789, 1e7, -3.4e12 };
+        for (int i = 0; i < values.length; i++) {
+            value.add(i, values[i]);
+        }
+        for (int i = 0; i < values.length; i++) {
+            assertThat(value.getValueAsString(i), is(BigDecimal.valueOf(values[i]).toPlainString()));
+        }
+        TimeSeriesValue counts = new TimeSeriesValue(TimeSeriesValue.Type.COUNT);
+        counts.add(0L, 42L).addMissing(1L, null);
+        assertThat(counts.getValueAsString(0), is("42"));
+        assertThat(counts.getValueAsString(1), is(""));
+        assertThat(counts.getValue(0), is(instanceOf(CountValue.class)));
+        assertThat(counts.getQuality(0), is(nullValue()));
+    }
+
+    @Test
+    public void shouldRejectCountsExceedingTheIntRange() {
+        TimeSeriesValue counts = new TimeSeriesValue(TimeSeriesValue.Type.COUNT);
+        counts.add(0L, (long) Integer.MAX_VALUE).add(1L, (long) Integer.MIN_VALUE);
+        assertThat(((CountValue) counts.getValue(0)).getValue(), is(Integer.MAX_VALUE));
+        assertThat(((CountValue) counts.getValue(1)).getValue(), is(Integer.MIN_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> counts.add(2L, Integer.MAX_VALUE + 1L));
+        assertThrows(IllegalArgumentException.class, () -> counts.add(2L, Integer.MIN_VALUE - 1L));
+        assertThat(counts.size(), is(2));
+    }
+
+    @Test
+    public void shouldMergeColumns() {
+        TimeSeriesValue first = new TimeSeriesValue(TimeSeriesValue.Type.COUNT);
+        first.add(1000L, 1L).add(3000L, 3L);
+        TimeSeriesValue second = new TimeSeriesValue(TimeSeriesValue.Type.COUNT);
+        second.add(2000L, 2L);
+        OmObservation observation = observation(first);
+        observation.mergeWithObservation(observation(second).getValue());
+        assertThat(observation.getValue().getValue(), is(sameInstance(first)));
+        assertThat(first.size(), is(3));
+        assertThat(first.getCount(1), is(2L));
+    }
+
+    @Test
+    public void shouldFallBackToTimeValuePairs() {
+        TimeSeriesValue first = new TimeSeriesValue(TimeSeriesValue.Type.COUNT);
+        first.add(1000L, 1L);
+        TVPValue second = new TVPValue();
+        second.addValue(new TimeValuePair(new TimeInstant(new DateTime(2000L, DateTimeZone.UTC)), new TextValue("x")));
+        OmObservation observation = observation(first);
+        observation.mergeWithObservation(observation(second).getValue());
+        TVPValue merged = (TVPValue) observation.getValue().getValue();
+        assertThat(merged, is(instanceOf(TVPValue.class)));
+        assertThat(merged.getValue().stream().map(p -> p.getValue().getValue()).collect(Collectors.toList()),
+                contains(1, "x"));
+    }
+
+    private static OmObservation observation(TVPValue value) {
+        MultiObservationValues<List<TimeValuePair>> values = new MultiObservationValues<>();
+        values.setValue(value);
+        OmObservation observation = new OmObservation();
+        observation.setValue(values);
+        return observation;
+    }
+}
@@ -16,8 +16,10 @@
 package org.n52.shetland.ogc.ows.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 import org.junit.jupiter.api.Test;
+import org.n52.janmayen.http.HTTPHeaders;
 import org.springframework.mock.web.MockHttpServletRequest;
 
 /**
@@ -66,4 +68,17 @@ public class RequestContextTest {
         assertEquals("131.107.23.20", fromRequest.getIPAddress().get().toString());
     }
 
+    @Test
+    public void forwardedForChain() {
+        MockHttpServletRequest mockRequest = new MockHttpServletRequest();
+        mockRequest.setRemoteAddr("10.0.0.1");
+        mockRequest.addHeader(HTTPHeaders.X_FORWARDED_FOR, "203.0.113.7, [2001:db8::1]:8080, 10.0.0.2");
+        OwsServiceRequestContext fromRequest = OwsServiceRequestContext.fromRequest(mockRequest);
+        assertEquals("203.0.113.7", fromRequest.getForwardedForChain().get().getOrigin().toString());
+        assertEquals(2, fromRequest.getForwardedForChain().get().getProxies().size());
+
+        fromRequest.setForwardedForHeader("");
+        assertFalse(fromRequest.getForwardedForChain().isPresent());
+    }
+
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.ogc.ows.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.n52.shetland.ogc.ows.service.RequestTimings.Phase;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+public class RequestTimingsTest {
+
+    @Test
+    public void shouldIgnoreRecordingsIfDisabled() {
+        RequestTimings timings = RequestTimings.disabled();
+        assertThat(timings.isEnabled(), is(false));
+        long start = timings.start();
+        assertThat(start, is(0L));
+        timings.stop(Phase.OPERATION, start);
+        timings.add(Phase.WRITE, 1000L);
+        timings.setOperation(new OwsOperationKey("SOS", "2.0.0", "GetObservation"));
+        timings.setBinding("KvpBinding");
+        for (Phase phase : Phase.values()) {
+            assertThat(timings.get(phase), is(0L));
+        }
+        assertThat(timings.getOperation(), is(Optional.empty()));
+        assertThat(timings.getBinding(), is(Optional.empty()));
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        timings.attachTo(request);
+        assertThat(request.getAttribute(RequestTimings.ATTRIBUTE), is(nullValue()));
+        assertThat(RequestTimings.fromRequest(request), is(sameInstance(RequestTimings.disabled())));
+        assertThat(RequestTimings.fromRequest(null), is(sameInstance(RequestTimings.disabled())));
+    }
+
+    @Test
+    public void shouldAccumulatePhases() throws InterruptedException {
+        RequestTimings timings = RequestTimings.create();
+        assertThat(timings.isEnabled(), is(true));
+        timings.add(Phase.DECODE, 100L);
+        timings.add(Phase.DECODE, 50L);
+        long start = timings.start();
+        Thread.sleep(10);
+        timings.stop(Phase.OPERATION, start);
+        assertThat(timings.get(Phase.DECODE), is(150L));
+        assertThat(timings.get(Phase.OPERATION), is(greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(10))));
+        assertThat(timings.get(Phase.WRITE), is(0L));
+
+        OwsOperationKey operation = new OwsOperationKey("SOS", "2.0.0", "GetObservation");
+        timings.setOperation(operation);
+        timings.setBinding("KvpBinding");
+        assertThat(timings.getOperation(), is(Optional.of(operation)));
+        assertThat(timings.getBinding(), is(Optional.of("KvpBinding")));
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        timings.attachTo(request);
+        assertThat(RequestTimings.fromRequest(request), is(sameInstance(timings)));
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.shetland.util.http;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.junit.jupiter.api.Test;
+import org.n52.janmayen.http.HTTPHeaders;
+import org.n52.janmayen.http.MediaType;
+
+public class HTTPHeadersTest {
+
+    @Test
+    public void shouldOrderTheAcceptHeaderByQuality() {
+        assertThat(HTTPHeaders.getAcceptHeader("text/html;q=0.5, application/json, application/xml;q=0.9, */*;q=0.5"),
+                   contains(MediaType.parse("application/json"), MediaType.parse("application/xml;q=0.9"),
+                            MediaType.parse("text/html;q=0.5"), MediaType.parse("*/*;q=0.5")));
+    }
+
+    @Test
+    public void shouldShareTheParsedAcceptHeader() {
+        String header = "application/soap+xml, application/xml;q=0.8";
+        assertThat(HTTPHeaders.getAcceptHeader(header), is(sameInstance(HTTPHeaders.getAcceptHeader(header))));
+    }
+
+    @Test
+    public void shouldAcceptAnythingWithoutValidMediaTypes() {
+        assertThat(HTTPHeaders.getAcceptHeader((String) null), contains(MediaType.any()));
+        assertThat(HTTPHeaders.getAcceptHeader(""), contains(MediaType.any()));
+        assertThat(HTTPHeaders.getAcceptHeader("invalid"), contains(MediaType.any()));
+    }
+}
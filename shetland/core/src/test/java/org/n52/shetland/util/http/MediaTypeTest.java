@@ -17,6 +17,7 @@ package org.n52.shetland.util.http;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.junit.jupiter.api.Test;
@@ -33,6 +34,15 @@ import org.n52.shetland.ogc.sensorML.SensorMLConstants;
  */
 public class MediaTypeTest {
 
+    @Test
+    public void shouldInternParsedMediaTypes() {
+        MediaType mt = MediaType.parse("application/soap+xml; charset=UTF-8");
+        assertThat(MediaType.parse("application/soap+xml; charset=UTF-8"), is(sameInstance(mt)));
+        assertThat(MediaType.parse("application/soap+xml;charset=UTF-8"), is(mt));
+        assertThrows(IllegalArgumentException.class, () -> MediaType.parse("application"));
+        assertThrows(IllegalArgumentException.class, () -> MediaType.parse("application"));
+    }
+
     @Test
     public void applicationXml() {
         MediaType mt = MediaType.parse("application/xml");
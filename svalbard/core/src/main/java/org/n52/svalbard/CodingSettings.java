@@ -30,4 +30,20 @@ public interface CodingSettings {
     String SRS_NAME_PREFIX_URL = "coding.srsNamePrefixURL";
 
     String VALIDATE_RESPONSE = "service.response.validate";
+
+    String VALIDATE_REQUEST_STREAMING = "service.request.validate.streaming";
+
+    String VALIDATE_REQUEST_MODES = "service.request.validate.modes";
+
+    String VALIDATE_REQUEST_SAMPLING_INTERVAL = "service.request.validate.samplingInterval";
+
+    String ENCODED_OBJECT_CACHE_SIZE = "coding.encodedObjectCache.size";
+
+    String PARALLEL_ENCODING_THREADS = "coding.parallel.threads";
+
+    String PARALLEL_ENCODING_BATCH_SIZE = "coding.parallel.batchSize";
+
+    String MERGE_HEAP_BUDGET = "coding.merge.heapBudget";
+
+    String MERGE_SPILL_DIRECTORY = "coding.merge.spillDirectory";
 }
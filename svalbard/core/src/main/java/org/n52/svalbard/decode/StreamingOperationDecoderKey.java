@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.svalbard.decode;
+
+import org.n52.janmayen.http.MediaType;
+import org.n52.shetland.ogc.ows.service.OwsOperationKey;
+
+import com.google.common.base.Objects;
+
+/**
+ * Key of decoders that read an operation request incrementally from a stream of tokens (e.g. a
+ * {@code com.fasterxml.jackson.core.JsonParser}) instead of a completely parsed document.
+ *
+ * @since 9.9.0
+ */
+public class StreamingOperationDecoderKey extends OwsOperationKey implements DecoderKey {
+
+    private final MediaType contentType;
+
+    public StreamingOperationDecoderKey(String service, String version, String operation, MediaType contentType) {
+        super(service, version, operation);
+        this.contentType = contentType;
+    }
+
+    public StreamingOperationDecoderKey(String service, String version, Enum<?> operation, MediaType contentType) {
+        super(service, version, operation);
+        this.contentType = contentType;
+    }
+
+    public StreamingOperationDecoderKey(OwsOperationKey key, MediaType contentType) {
+        super(key);
+        this.contentType = contentType;
+    }
+
+    public MediaType getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[service=%s, version=%s, operation=%s, contentType=%s]", getClass().getSimpleName(),
+                getService(), getVersion(), getOperation(), getContentType());
+    }
+
+    @Override
+    public int getSimilarity(DecoderKey key) {
+        return equals(key) ? 0 : -1;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(super.hashCode(), getContentType());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj != null && getClass() == obj.getClass()) {
+            final StreamingOperationDecoderKey o = (StreamingOperationDecoderKey) obj;
+            return Objects.equal(getService(), o.getService()) && Objects.equal(getVersion(), o.getVersion())
+                    && Objects.equal(getOperation(), o.getOperation()) && getContentType() != null
+                    && getContentType().isCompatible(o.getContentType());
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.svalbard.decode;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
+
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlException;
+import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlSaxHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+
+import org.n52.faroe.ConfigurationError;
+import org.n52.faroe.Validation;
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
+import org.n52.svalbard.CodingSettings;
+import org.n52.svalbard.decode.exception.DecodingException;
+import org.n52.svalbard.decode.exception.XmlDecodingException;
+import org.n52.svalbard.util.CodingHelper;
+import org.n52.svalbard.util.XmlHelper;
+
+import com.google.common.base.Splitter;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Parses XML requests and decides per operation (the local name of the root element) whether and how the request is
+ * validated:
+ * <ul>
+ * <li>{@link XmlValidationMode#SKIP}: the document is not validated at all.</li>
+ * <li>{@link XmlValidationMode#SAMPLE}: only every n-th document is validated.</li>
+ * <li>{@link XmlValidationMode#FULL} (the default): every document is validated.</li>
+ * </ul>
+ * If streaming validation is enabled and a compiled schema is available for the namespace of the root element, the
+ * document is validated by a {@link ValidatorHandler} while XmlBeans builds it from the same SAX events, and the
+ * parsing fails on the first validation error. In all other cases validated documents are left to the decoders,
+ * which validate the object tree using {@link XmlHelper#validateDocument(XmlObject)}. Documents that should not be
+ * validated are excluded using {@link XmlHelper#skipValidation(XmlObject)}. Documents that were validated while
+ * parsing are marked using {@link XmlHelper#markValidated(XmlObject)}; this only covers the document node itself, so
+ * that embedded content that the decoders validate separately, e.g. a SensorML description, is still validated.
+ *
+ * @since 9.9.0
+ */
+@Configurable
+public class XmlRequestParser {
+    private static final Logger LOGGER = LoggerFactory.getLogger(XmlRequestParser.class);
+    private static final String LEXICAL_HANDLER = "http://xml.org/sax/properties/lexical-handler";
+    private static final String EXTERNAL_GENERAL_ENTITIES = "http://xml.org/sax/features/external-general-entities";
+    private static final String EXTERNAL_PARAMETER_ENTITIES
+            = "http://xml.org/sax/features/external-parameter-entities";
+    private static final String DESCRIPTION = "XML string";
+
+    private final SAXParserFactory parserFactory;
+    private final ConcurrentMap<String, AtomicLong> sampleCounters = new ConcurrentHashMap<>();
+    private XmlSchemaCache schemaCache;
+    private boolean streaming;
+    private Map<String, XmlValidationMode> modes = Collections.emptyMap();
+    private int samplingInterval = 10;
+
+    public XmlRequestParser() {
+        this.parserFactory = SAXParserFactory.newInstance();
+        this.parserFactory.setNamespaceAware(true);
+        try {
+            this.parserFactory.setFeature(EXTERNAL_GENERAL_ENTITIES, false);
+            this.parserFactory.setFeature(EXTERNAL_PARAMETER_ENTITIES, false);
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new ConfigurationError("Could not configure the SAX parser", e);
+        }
+    }
+
+    @Inject
+    @SuppressFBWarnings({ "EI_EXPOSE_REP2" })
+    public void setSchemaCache(XmlSchemaCache schemaCache) {
+        this.schemaCache = schemaCache;
+    }
+
+    @Setting(value = CodingSettings.VALIDATE_REQUEST_STREAMING, required = false)
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Sets the validation modes per operation as a comma separated list of {@code Operation:MODE} pairs, e.g.
+     * {@code InsertObservation:SAMPLE,GetCapabilities:SKIP}. Operations that are not listed are fully validated.
+     *
+     * @param modes the modes
+     */
+    @Setting(value = CodingSettings.VALIDATE_REQUEST_MODES, required = false)
+    public void setModes(String modes) {
+        Map<String, XmlValidationMode> map = new HashMap<>();
+        if (modes != null) {
+            for (Map.Entry<String, String> entry : Splitter.on(',').trimResults().omitEmptyStrings()
+                    .withKeyValueSeparator(Splitter.on(':').trimResults()).split(modes).entrySet()) {
+                try {
+                    map.put(entry.getKey(), XmlValidationMode.valueOf(entry.getValue().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new ConfigurationError("Invalid validation mode for %s: %s", entry.getKey(),
+                                                 entry.getValue());
+                }
+            }
+        }
+        this.modes = Collections.unmodifiableMap(map);
+    }
+
+    @Setting(value = CodingSettings.VALIDATE_REQUEST_SAMPLING_INTERVAL, required = false)
+    public void setSamplingInterval(int samplingInterval) {
+        this.samplingInterval = Validation.greaterZero("Validation sampling interval", samplingInterval);
+    }
+
+    public XmlValidationMode getMode(String operation) {
+        return modes.getOrDefault(operation, XmlValidationMode.FULL);
+    }
+
+    /**
+     * Parses the XML request.
+     *
+     * @param xml the request
+     *
+     * @return the parsed document
+     *
+     * @throws DecodingException if the request is not well-formed or is not valid
+     */
+    public XmlObject parse(String xml) throws DecodingException {
+        if (!streaming || schemaCache == null) {
+            XmlObject document = CodingHelper.readXML(xml);
+            if (!shouldValidate(getRootElementName(document))) {
+                XmlHelper.skipValidation(document);
+            }
+            return document;
+        }
+        return parseStreaming(xml);
+    }
+
+    private XmlObject parseStreaming(String xml) throws DecodingException {
+        XmlSaxHandler saxHandler = XmlObject.Factory.newXmlSaxHandler();
+        ValidatingContentHandler handler = new ValidatingContentHandler(saxHandler.getContentHandler());
+        try {
+            XMLReader reader = parserFactory.newSAXParser().getXMLReader();
+            reader.setContentHandler(handler);
+            reader.setProperty(LEXICAL_HANDLER, saxHandler.getLexicalHandler());
+            reader.parse(new InputSource(new StringReader(xml)));
+            XmlObject document = saxHandler.getObject();
+            if (handler.isSkipped()) {
+                XmlHelper.skipValidation(document);
+            } else if (handler.isValidated()) {
+                // only the document itself, embedded lax content is validated by the decoders
+                XmlHelper.markValidated(document);
+            }
+            return document;
+        } catch (SAXParseException e) {
+            if (handler.isValidationError(e)) {
+                throw new DecodingException(e, "The request is not valid (line %d, column %d): %s",
+                                            e.getLineNumber(), e.getColumnNumber(), e.getMessage());
+            }
+            throw new XmlDecodingException(DESCRIPTION, xml, new XmlException(e.getMessage(), e));
+        } catch (SAXException | XmlException | IOException | ParserConfigurationException e) {
+            throw new XmlDecodingException(DESCRIPTION, xml, e instanceof XmlException ? (XmlException) e
+                                                                 : new XmlException(e.getMessage(), e));
+        }
+    }
+
+    private boolean shouldValidate(String operation) {
+        switch (getMode(operation)) {
+            case SKIP:
+                return false;
+            case SAMPLE:
+                long count = sampleCounters.computeIfAbsent(operation, k -> new AtomicLong()).getAndIncrement();
+                return count % samplingInterval == 0;
+            case FULL:
+            default:
+                return true;
+        }
+    }
+
+    private static String getRootElementName(XmlObject document) {
+        XmlCursor cursor = document.newCursor();
+        try {
+            return cursor.toFirstChild() ? cursor.getName().getLocalPart() : null;
+        } finally {
+            cursor.dispose();
+        }
+    }
+
+    /**
+     * Forwards the SAX events to the XmlBeans handler. On the first element it decides, based on the operation and
+     * the available schemas, whether a {@link ValidatorHandler} is put in front of the XmlBeans handler. Events
+     * preceding the root element are buffered until then.
+     */
+    private class ValidatingContentHandler implements ContentHandler, ErrorHandler {
+        private final ContentHandler target;
+        private final List<String[]> prefixMappings = new ArrayList<>(4);
+        private ContentHandler delegate;
+        private Locator locator;
+        private boolean validate = true;
+        private boolean validated;
+        private SAXParseException validationError;
+
+        ValidatingContentHandler(ContentHandler target) {
+            this.target = target;
+        }
+
+        boolean isValidated() {
+            return validated;
+        }
+
+        boolean isSkipped() {
+            return !validate;
+        }
+
+        boolean isValidationError(SAXParseException e) {
+            return e == validationError;
+        }
+
+        @Override
+        public void setDocumentLocator(Locator locator) {
+            this.locator = locator;
+        }
+
+        @Override
+        public void startDocument() {
+            // deferred until the root element is known
+        }
+
+        @Override
+        public void endDocument() throws SAXException {
+            if (delegate != null) {
+                delegate.endDocument();
+            }
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) throws SAXException {
+            if (delegate == null) {
+                prefixMappings.add(new String[] { prefix, uri });
+            } else {
+                delegate.startPrefixMapping(prefix, uri);
+            }
+        }
+
+        @Override
+        public void endPrefixMapping(String prefix) throws SAXException {
+            delegate.endPrefixMapping(prefix);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+            if (delegate == null) {
+                delegate = createDelegate(uri, localName);
+                if (locator != null) {
+                    delegate.setDocumentLocator(locator);
+                }
+                delegate.startDocument();
+                for (String[] mapping : prefixMappings) {
+                    delegate.startPrefixMapping(mapping[0], mapping[1]);
+                }
+            }
+            delegate.startElement(uri, localName, qName, atts);
+        }
+
+        private ContentHandler createDelegate(String namespace, String operation) {
+            this.validate = XmlRequestParser.this.shouldValidate(operation);
+            if (validate) {
+                Optional<Schema> schema = schemaCache.getSchema(namespace);
+                if (schema.isPresent()) {
+                    ValidatorHandler validator = schema.get().newValidatorHandler();
+                    validator.setErrorHandler(this);
+                    validator.setContentHandler(target);
+                    this.validated = true;
+                    return validator;
+                }
+                LOGGER.trace("No schema for {}, falling back to object validation", namespace);
+            }
+            return target;
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            delegate.endElement(uri, localName, qName);
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) throws SAXException {
+            if (delegate != null) {
+                delegate.characters(ch, start, length);
+            }
+        }
+
+        @Override
+        public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+            if (delegate != null) {
+                delegate.ignorableWhitespace(ch, start, length);
+            }
+        }
+
+        @Override
+        public void processingInstruction(String target, String data) throws SAXException {
+            if (delegate != null) {
+                delegate.processingInstruction(target, data);
+            }
+        }
+
+        @Override
+        public void skippedEntity(String name) throws SAXException {
+            if (delegate != null) {
+                delegate.skippedEntity(name);
+            }
+        }
+
+        @Override
+        public void warning(SAXParseException exception) {
+            LOGGER.debug("XML validation warning", exception);
+        }
+
+        @Override
+        public void error(SAXParseException exception) throws SAXException {
+            this.validationError = exception;
+            throw exception;
+        }
+
+        @Override
+        public void fatalError(SAXParseException exception) throws SAXException {
+            error(exception);
+        }
+    }
+}
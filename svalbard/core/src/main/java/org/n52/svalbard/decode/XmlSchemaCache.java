@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.svalbard.decode;
+
+import java.net.URL;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.inject.Inject;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.Source;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.ls.DOMImplementationLS;
+import org.w3c.dom.ls.LSInput;
+import org.w3c.dom.ls.LSResourceResolver;
+import org.xml.sax.SAXException;
+
+import org.n52.shetland.w3c.SchemaLocation;
+import org.n52.svalbard.encode.EncoderRepository;
+import org.n52.svalbard.encode.SchemaRepository;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * Cache of compiled {@link Schema}s per namespace, created from the schema locations of the {@link SchemaRepository}.
+ * Schemas hosted at {@code http://schemas.opengis.net/} are loaded from the class path ({@code META-INF/xml/}) if they
+ * are available there. Namespaces whose schema can not be compiled are cached as absent, so that the compilation is
+ * not retried for every request. The cache is cleared as soon as the {@link EncoderRepository} is (re)initialized,
+ * as the schema locations are derived from the encoders.
+ *
+ * @since 9.9.0
+ */
+public class XmlSchemaCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(XmlSchemaCache.class);
+    private static final String OGC_SCHEMAS = "http://schemas.opengis.net/";
+    private static final String OGC_SCHEMAS_CLASSPATH = "META-INF/xml/";
+
+    private volatile ConcurrentMap<String, Optional<Schema>> schemas = new ConcurrentHashMap<>();
+    private volatile long generation;
+
+    private SchemaRepository schemaRepository;
+    private EncoderRepository encoderRepository;
+
+    @Inject
+    @SuppressFBWarnings({ "EI_EXPOSE_REP2" })
+    public void setSchemaRepository(SchemaRepository schemaRepository) {
+        this.schemaRepository = schemaRepository;
+    }
+
+    @Inject
+    @SuppressFBWarnings({ "EI_EXPOSE_REP2" })
+    public void setEncoderRepository(EncoderRepository encoderRepository) {
+        this.encoderRepository = encoderRepository;
+        this.generation = encoderRepository.getGeneration();
+    }
+
+    /**
+     * Get the compiled schema for the namespace. The returned schema is thread-safe.
+     *
+     * @param namespace the namespace
+     *
+     * @return the schema or an empty optional if there is no (valid) schema for the namespace
+     */
+    public Optional<Schema> getSchema(String namespace) {
+        if (namespace == null || namespace.isEmpty()) {
+            return Optional.empty();
+        }
+        return getSchemas().computeIfAbsent(namespace, this::compile);
+    }
+
+    /**
+     * Removes all compiled schemas, e.g. after the encoders changed.
+     */
+    public synchronized void clear() {
+        this.schemas = new ConcurrentHashMap<>();
+    }
+
+    private ConcurrentMap<String, Optional<Schema>> getSchemas() {
+        if (encoderRepository != null) {
+            long current = encoderRepository.getGeneration();
+            if (current != generation) {
+                synchronized (this) {
+                    if (current != generation) {
+                        LOGGER.debug("Encoders changed, clearing the compiled schemas");
+                        this.schemas = new ConcurrentHashMap<>();
+                        this.generation = current;
+                    }
+                }
+            }
+        }
+        return schemas;
+    }
+
+    private Optional<Schema> compile(String namespace) {
+        Set<SchemaLocation> locations = schemaRepository.getSchemaLocation(namespace);
+        if (locations.isEmpty()) {
+            LOGGER.debug("No schema location for namespace {}", namespace);
+            return Optional.empty();
+        }
+        try {
+            SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+            factory.setResourceResolver(new ClasspathResourceResolver());
+            Source[] sources = locations.stream().map(SchemaLocation::getSchemaFileUrl)
+                    .map(url -> new StreamSource(resolve(url))).toArray(Source[]::new);
+            Schema schema = factory.newSchema(sources);
+            LOGGER.debug("Compiled schema for namespace {} from {}", namespace, locations);
+            return Optional.of(schema);
+        } catch (SAXException | ParserConfigurationException e) {
+            LOGGER.warn("Could not compile the schema for namespace {}", namespace, e);
+            return Optional.empty();
+        }
+    }
+
+    private static String resolve(String systemId) {
+        if (systemId != null && systemId.startsWith(OGC_SCHEMAS)) {
+            String path = OGC_SCHEMAS_CLASSPATH + systemId.substring(OGC_SCHEMAS.length());
+            URL resource = XmlSchemaCache.class.getClassLoader().getResource(path);
+            if (resource != null) {
+                return resource.toExternalForm();
+            }
+        }
+        return systemId;
+    }
+
+    /**
+     * Redirects absolute references to the OGC schema repository to the class path.
+     */
+    private static class ClasspathResourceResolver implements LSResourceResolver {
+        private final DOMImplementationLS domImplementation;
+
+        ClasspathResourceResolver() throws ParserConfigurationException {
+            this.domImplementation = (DOMImplementationLS) DocumentBuilderFactory.newInstance()
+                    .newDocumentBuilder().getDOMImplementation().getFeature("LS", "3.0");
+        }
+
+        @Override
+        public LSInput resolveResource(String type, String namespaceURI, String publicId, String systemId,
+                                       String baseURI) {
+            String resolved = resolve(systemId);
+            if (resolved == null || resolved.equals(systemId)) {
+                // use the default resolution
+                return null;
+            }
+            LSInput input = domImplementation.createLSInput();
+            input.setPublicId(publicId);
+            input.setSystemId(resolved);
+            input.setBaseURI(baseURI);
+            return input;
+        }
+    }
+}
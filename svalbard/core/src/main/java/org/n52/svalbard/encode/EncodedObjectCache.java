@@ -0,0 +1,422 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.svalbard.encode;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.xmlbeans.XmlCursor;
+import org.apache.xmlbeans.XmlCursor.TokenType;
+import org.apache.xmlbeans.XmlObject;
+import org.locationtech.jts.geom.Geometry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.n52.faroe.Validation;
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
+import org.n52.janmayen.event.Event;
+import org.n52.janmayen.event.EventListener;
+import org.n52.shetland.ogc.gml.AbstractFeature;
+import org.n52.shetland.ogc.gml.GmlConstants;
+import org.n52.shetland.ogc.om.features.FeatureCollection;
+import org.n52.shetland.ogc.om.features.samplingFeatures.AbstractSamplingFeature;
+import org.n52.shetland.ogc.om.features.samplingFeatures.SamplingFeatureComplex;
+import org.n52.shetland.w3c.W3CConstants;
+import org.n52.svalbard.CodingSettings;
+import org.n52.svalbard.encode.exception.EncodingException;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Bounded cache of encoded XML fragments, like procedure descriptions and features of interest, that are encoded
+ * over and over again for the observations of different responses. Entries are keyed by the identifier of the
+ * encoded object, the target namespace, the {@link EncodingContext} and an optional variant that captures further
+ * properties of the object that influence the encoding (e.g. the gml:id or the geometry).
+ * <p>
+ * Cached fragments are shared and must not be modified; they are intended to be copied into the parent document
+ * (e.g. using {@link XmlObject#set(XmlObject)}) or written to a stream. Fragments that contain same-document
+ * references ({@code xlink:href="#..."}) are not cached, as they depend on what was encoded before in the response
+ * they were created for. Every invalidation increments the version of
+ * the cache, so that fragments that were encoded concurrently from outdated objects are never returned afterwards.
+ *
+ * @since 9.9.0
+ */
+@Configurable
+public class EncodedObjectCache implements EventListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EncodedObjectCache.class);
+    private static final int DEFAULT_SIZE = 1000;
+    private final AtomicLong version = new AtomicLong();
+    private volatile Cache<Key, XmlObject> cache = createCache(DEFAULT_SIZE);
+
+    /**
+     * Set the maximum number of cached fragments. A size of {@code 0} disables the cache.
+     *
+     * @param size the size
+     */
+    @Setting(value = CodingSettings.ENCODED_OBJECT_CACHE_SIZE, required = false)
+    public void setSize(Integer size) {
+        int s = size == null ? DEFAULT_SIZE : Validation.greaterEqualZero(CodingSettings.ENCODED_OBJECT_CACHE_SIZE,
+                                                                           size);
+        this.cache = s == 0 ? null : createCache(s);
+        this.version.incrementAndGet();
+    }
+
+    /**
+     * @return if fragments are cached
+     */
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    /**
+     * Get the cached fragment or encode and cache it.
+     *
+     * @param identifier the identifier of the encoded object, objects without identifier are not cached
+     * @param namespace  the target namespace
+     * @param context    the encoding context
+     * @param variant    further properties that influence the encoding, may be {@code null}
+     * @param encoder    the function to encode the object
+     *
+     * @return the shared fragment, may be {@code null} if the encoder returned {@code null}; fragments with
+     *         same-document references are returned without being cached
+     *
+     * @throws EncodingException if the encoding fails
+     */
+    public XmlObject get(String identifier, String namespace, EncodingContext context, Object variant,
+                         Encoding encoder) throws EncodingException {
+        Cache<Key, XmlObject> c = this.cache;
+        if (c == null || identifier == null || identifier.isEmpty()) {
+            return encoder.encode();
+        }
+        Key key = new Key(version.get(), identifier, namespace, context, variant);
+        try {
+            return c.get(key, () -> {
+                XmlObject encoded = encoder.encode();
+                if (encoded == null || hasLocalReference(encoded)) {
+                    throw new NotCacheableException(encoded);
+                }
+                return encoded;
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof EncodingException) {
+                throw (EncodingException) e.getCause();
+            } else if (e.getCause() instanceof NotCacheableException) {
+                return ((NotCacheableException) e.getCause()).getFragment();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new EncodingException(e.getCause());
+        }
+    }
+
+    /**
+     * Invalidate all fragments.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        Cache<Key, XmlObject> c = this.cache;
+        if (c != null) {
+            c.invalidateAll();
+        }
+        LOGGER.debug("Invalidated all encoded objects");
+    }
+
+    /**
+     * Invalidate the fragments of the objects with the supplied identifiers.
+     *
+     * @param identifiers the identifiers
+     */
+    public void invalidate(Set<String> identifiers) {
+        version.incrementAndGet();
+        Cache<Key, XmlObject> c = this.cache;
+        if (c != null) {
+            c.asMap().keySet().removeIf(key -> identifiers.contains(key.identifier));
+        }
+        LOGGER.debug("Invalidated encoded objects {}", identifiers);
+    }
+
+    /**
+     * @return the statistics of the cache, e.g. the hit ratio
+     */
+    public CacheStats getStats() {
+        Cache<Key, XmlObject> c = this.cache;
+        return c == null ? new CacheStats(0, 0, 0, 0, 0, 0) : c.stats();
+    }
+
+    /**
+     * @return the number of cached fragments
+     */
+    public long size() {
+        Cache<Key, XmlObject> c = this.cache;
+        return c == null ? 0 : c.size();
+    }
+
+    /**
+     * Get the properties of a feature that influence its encoding beside its identifier.
+     *
+     * @param feature the feature
+     *
+     * @return the variant of the feature
+     */
+    public static Object getVariant(AbstractFeature feature) {
+        Boolean encode = null;
+        Geometry geometry = null;
+        Integer srid = null;
+        if (feature instanceof AbstractSamplingFeature) {
+            AbstractSamplingFeature samplingFeature = (AbstractSamplingFeature) feature;
+            encode = samplingFeature.isEncode();
+            if (samplingFeature.isSetGeometry()) {
+                // Geometry.equals() compares the coordinates, but not the SRID
+                geometry = samplingFeature.getGeometry();
+                srid = geometry.getSRID();
+            }
+        }
+        return Arrays.asList(feature.getClass(), feature.getGmlId(), encode, geometry, srid, feature.getName(),
+                             feature.getDescription());
+    }
+
+    /**
+     * Marks a feature whose (possibly cached) fragment was added to a response as encoded, so that subsequent
+     * occurrences in the same response are encoded as references. This includes all nested features (members of
+     * feature collections, sampled and related sampling features) whose gml:id is contained inline in the fragment,
+     * which the encoders only mark on a cache miss.
+     *
+     * @param feature  the feature
+     * @param fragment the fragment of the feature, may be {@code null}
+     */
+    public static void markEncoded(AbstractFeature feature, XmlObject fragment) {
+        if (fragment == null || fragment.selectAttribute(W3CConstants.QN_XLINK_HREF) != null) {
+            return;
+        }
+        feature.wasEncoded();
+        Set<String> gmlIds = null;
+        Set<AbstractFeature> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<AbstractFeature> queue = new ArrayDeque<>();
+        visited.add(feature);
+        addNestedFeatures(feature, queue);
+        while (!queue.isEmpty()) {
+            AbstractFeature nested = queue.poll();
+            if (!visited.add(nested)) {
+                continue;
+            }
+            if (gmlIds == null) {
+                gmlIds = getGmlIds(fragment);
+            }
+            if (nested.isSetGmlID() && gmlIds.contains(nested.getGmlId())) {
+                nested.wasEncoded();
+            }
+            addNestedFeatures(nested, queue);
+        }
+    }
+
+    /**
+     * Collects the feature and its nested features that are not yet encoded and will therefore be encoded inline.
+     * Features nested in already encoded features are not collected, as these are only referenced.
+     *
+     * @param feature the feature, may be {@code null}
+     *
+     * @return the features that will be encoded inline, compared by identity
+     */
+    public static Set<AbstractFeature> getUnencodedFeatures(AbstractFeature feature) {
+        Set<AbstractFeature> features = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<AbstractFeature> queue = new ArrayDeque<>();
+        if (feature != null) {
+            queue.add(feature);
+        }
+        while (!queue.isEmpty()) {
+            AbstractFeature nested = queue.poll();
+            if (!nested.isEncoded() && features.add(nested)) {
+                addNestedFeatures(nested, queue);
+            }
+        }
+        return features;
+    }
+
+    private static void addNestedFeatures(AbstractFeature feature, Deque<AbstractFeature> queue) {
+        if (feature instanceof FeatureCollection && ((FeatureCollection) feature).isSetMembers()) {
+            ((FeatureCollection) feature).getMembers().values().stream().filter(Objects::nonNull).forEach(queue::add);
+        }
+        if (feature instanceof AbstractSamplingFeature) {
+            AbstractSamplingFeature samplingFeature = (AbstractSamplingFeature) feature;
+            if (samplingFeature.isSetSampledFeatures()) {
+                samplingFeature.getSampledFeatures().stream().filter(Objects::nonNull).forEach(queue::add);
+            }
+            if (samplingFeature.isSetRelatedSamplingFeatures()) {
+                samplingFeature.getRelatedSamplingFeatures().stream()
+                        .map(SamplingFeatureComplex::getRelatedSamplingFeature).filter(Objects::nonNull)
+                        .forEach(queue::add);
+            }
+        }
+    }
+
+    private static boolean hasLocalReference(XmlObject fragment) {
+        XmlCursor cursor = fragment.newCursor();
+        try {
+            return walk(cursor, () -> {
+                String href = cursor.getAttributeText(W3CConstants.QN_XLINK_HREF);
+                return href != null && href.startsWith("#");
+            });
+        } finally {
+            cursor.dispose();
+        }
+    }
+
+    private static Set<String> getGmlIds(XmlObject fragment) {
+        Set<String> gmlIds = new HashSet<>();
+        XmlCursor cursor = fragment.newCursor();
+        try {
+            walk(cursor, () -> {
+                String gmlId = cursor.getAttributeText(GmlConstants.QN_ID_32);
+                if (gmlId != null) {
+                    gmlIds.add(gmlId);
+                }
+                return false;
+            });
+        } finally {
+            cursor.dispose();
+        }
+        return gmlIds;
+    }
+
+    /**
+     * Visits the elements below the current position of the cursor until the visitor returns {@code true}.
+     *
+     * @return if the visitor returned {@code true}
+     */
+    private static boolean walk(XmlCursor cursor, ElementVisitor visitor) {
+        int depth = 0;
+        TokenType token = cursor.currentTokenType();
+        do {
+            if (token.isStart()) {
+                if (visitor.visit()) {
+                    return true;
+                }
+                ++depth;
+            } else if (token.isStartdoc()) {
+                ++depth;
+            } else if (token.isEnd() || token.isEnddoc()) {
+                --depth;
+            }
+            token = cursor.toNextToken();
+        } while (depth > 0 && !token.isNone());
+        return false;
+    }
+
+    @Override
+    public Set<Class<? extends Event>> getTypes() {
+        return Collections.singleton(EncodedObjectInvalidationEvent.class);
+    }
+
+    @Override
+    public void handle(Event event) {
+        EncodedObjectInvalidationEvent e = (EncodedObjectInvalidationEvent) event;
+        if (e.getIdentifiers().isEmpty()) {
+            invalidate();
+        } else {
+            invalidate(e.getIdentifiers());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("size", size())
+                .add("version", version.get())
+                .add("stats", getStats())
+                .toString();
+    }
+
+    private static Cache<Key, XmlObject> createCache(int size) {
+        return CacheBuilder.newBuilder().maximumSize(size).recordStats().build();
+    }
+
+    /**
+     * Function to encode an object on a cache miss.
+     */
+    @FunctionalInterface
+    public interface Encoding {
+        XmlObject encode() throws EncodingException;
+    }
+
+    @FunctionalInterface
+    private interface ElementVisitor {
+        boolean visit();
+    }
+
+    private static final class NotCacheableException extends Exception {
+        private static final long serialVersionUID = 1L;
+        private final transient XmlObject fragment;
+
+        NotCacheableException(XmlObject fragment) {
+            super(null, null, false, false);
+            this.fragment = fragment;
+        }
+
+        XmlObject getFragment() {
+            return fragment;
+        }
+    }
+
+    private static final class Key {
+        private final long version;
+        private final String identifier;
+        private final String namespace;
+        private final EncodingContext context;
+        private final Object variant;
+        private final int hash;
+
+        Key(long version, String identifier, String namespace, EncodingContext context, Object variant) {
+            this.version = version;
+            this.identifier = identifier;
+            this.namespace = namespace;
+            this.context = context;
+            this.variant = variant;
+            this.hash = Objects.hash(version, identifier, namespace, context, variant);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) obj;
+            return version == that.version && identifier.equals(that.identifier)
+                    && Objects.equals(namespace, that.namespace) && Objects.equals(context, that.context)
+                    && Objects.equals(variant, that.variant);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.svalbard.encode;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import org.n52.janmayen.event.Event;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Event to invalidate fragments of the {@link EncodedObjectCache}, e.g. after a procedure description was updated.
+ *
+ * @since 9.9.0
+ */
+public class EncodedObjectInvalidationEvent implements Event {
+    private final Set<String> identifiers;
+
+    /**
+     * Create a new event.
+     *
+     * @param identifiers the identifiers of the changed objects, or none to invalidate all fragments
+     */
+    public EncodedObjectInvalidationEvent(String... identifiers) {
+        this(Arrays.asList(identifiers));
+    }
+
+    /**
+     * Create a new event.
+     *
+     * @param identifiers the identifiers of the changed objects, or an empty collection to invalidate all fragments
+     */
+    public EncodedObjectInvalidationEvent(Iterable<String> identifiers) {
+        this.identifiers = identifiers == null ? Collections.emptySet() : ImmutableSet.copyOf(identifiers);
+    }
+
+    /**
+     * @return the identifiers of the changed objects, empty if all fragments should be invalidated
+     */
+    public Set<String> getIdentifiers() {
+        return identifiers;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("identifiers", identifiers).toString();
+    }
+}
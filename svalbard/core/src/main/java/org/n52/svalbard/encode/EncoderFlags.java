@@ -22,5 +22,7 @@ package org.n52.svalbard.encode;
  */
 public enum EncoderFlags {
     ENCODING,
-    ENCODER_REPOSITORY
+    ENCODER_REPOSITORY,
+    ENCODED_OBJECT_CACHE,
+    OBSERVATION_MERGER
 }
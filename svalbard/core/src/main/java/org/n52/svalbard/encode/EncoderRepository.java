@@ -20,6 +20,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 
@@ -43,15 +44,45 @@ public class EncoderRepository
     @Inject
     private Optional<Collection<EncoderFactory>> encoderFactories = Optional.of(Collections.emptyList());
 
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile NamespacePrefixes namespacePrefixes = NamespacePrefixes.empty();
+
     @Override
     public void init() {
         setProducers(getProviders(encoders, encoderFactories));
+        this.namespacePrefixes = NamespacePrefixes.of(getEncoders());
+        this.generation.incrementAndGet();
     }
 
     public Set<Encoder<?, ?>> getEncoders() {
         return getComponents();
     }
 
+    /**
+     * Get the namespace prefixes of all {@link SchemaAwareEncoder}s of this repository. The table is built by
+     * {@link #init()}, so a new instance is returned only after the set of encoders changed.
+     *
+     * @return the namespace prefixes
+     *
+     * @since 9.9.0
+     */
+    public NamespacePrefixes getNamespacePrefixes() {
+        return this.namespacePrefixes;
+    }
+
+    /**
+     * Get the generation of this repository. The generation is incremented every time the set of encoders is
+     * (re)initialized, so it can be used to invalidate results derived from the encoders.
+     *
+     * @return the generation
+     *
+     * @since 9.9.0
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
     @VisibleForTesting
     public void setEncoders(Collection<Encoder<?, ?>> encoders) {
         this.encoders = Optional.of(encoders);
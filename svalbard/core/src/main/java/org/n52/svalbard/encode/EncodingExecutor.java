@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.svalbard.encode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.n52.faroe.Validation;
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
+import org.n52.janmayen.lifecycle.Destroyable;
+import org.n52.svalbard.CodingSettings;
+import org.n52.svalbard.encode.exception.EncodingException;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Executes independent encoding tasks, e.g. of the observations of a response, in parallel. The parallelism is
+ * capped by {@value CodingSettings#PARALLEL_ENCODING_THREADS}; with a single thread (the default) the tasks are
+ * executed sequentially on the calling thread. Callers should submit their tasks in batches of at most
+ * {@link #getBatchSize()} elements to bound the number of encoded but not yet written objects.
+ *
+ * @since 9.9.0
+ */
+@Configurable
+public class EncodingExecutor implements Destroyable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EncodingExecutor.class);
+    private static final int DEFAULT_BATCH_SIZE = 128;
+    private volatile ForkJoinPool pool;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * Set the maximum number of threads used for the encoding of a single response. Values less than {@code 2}
+     * disable the parallel encoding.
+     *
+     * @param threads the number of threads
+     */
+    @Setting(value = CodingSettings.PARALLEL_ENCODING_THREADS, required = false)
+    public synchronized void setThreads(Integer threads) {
+        ForkJoinPool old = this.pool;
+        this.pool = threads == null || threads < 2 ? null : new ForkJoinPool(threads);
+        if (old != null) {
+            old.shutdown();
+        }
+        LOGGER.debug("Parallel encoding with {} threads", threads);
+    }
+
+    @Setting(value = CodingSettings.PARALLEL_ENCODING_BATCH_SIZE, required = false)
+    public void setBatchSize(Integer batchSize) {
+        this.batchSize = batchSize == null ? DEFAULT_BATCH_SIZE
+                                 : Validation.greaterZero(CodingSettings.PARALLEL_ENCODING_BATCH_SIZE, batchSize);
+    }
+
+    /**
+     * @return the maximum number of tasks that should be submitted at once
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return if tasks are executed in parallel
+     */
+    public boolean isEnabled() {
+        return pool != null;
+    }
+
+    /**
+     * Execute the tasks and wait for their completion.
+     *
+     * @param <R>   the result type
+     * @param tasks the tasks
+     *
+     * @return the results of the tasks in the order of the tasks
+     *
+     * @throws EncodingException if a task failed
+     */
+    public <R> List<R> invokeAll(List<? extends EncodingTask<R>> tasks) throws EncodingException {
+        ForkJoinPool p = this.pool;
+        List<R> results = new ArrayList<>(tasks.size());
+        if (p == null || tasks.size() < 2) {
+            for (EncodingTask<R> task : tasks) {
+                results.add(task.call());
+            }
+            return results;
+        }
+        List<Callable<R>> callables = new ArrayList<>(tasks.size());
+        tasks.forEach(task -> callables.add(task::call));
+        try {
+            for (Future<R> future : p.invokeAll(callables)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EncodingException("Interrupted while encoding", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof EncodingException) {
+                throw (EncodingException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new EncodingException(e.getCause());
+        }
+        return results;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        ForkJoinPool p = this.pool;
+        return MoreObjects.toStringHelper(this)
+                .add("threads", p == null ? 1 : p.getParallelism())
+                .add("batchSize", batchSize)
+                .toString();
+    }
+
+    /**
+     * An encoding task.
+     *
+     * @param <R> the result type
+     */
+    @FunctionalInterface
+    public interface EncodingTask<R> {
+        R call() throws EncodingException;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.svalbard.encode;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Immutable bidirectional mapping between XML namespaces and their preferred prefixes, as announced by the
+ * {@link SchemaAwareEncoder}s of an {@link EncoderRepository}.
+ *
+ * @since 9.9.0
+ */
+public final class NamespacePrefixes {
+    private static final NamespacePrefixes EMPTY = new NamespacePrefixes(ImmutableMap.of(), ImmutableMap.of());
+
+    private final Map<String, String> prefixByNamespace;
+    private final Map<String, String> namespaceByPrefix;
+
+    private NamespacePrefixes(Map<String, String> prefixByNamespace, Map<String, String> namespaceByPrefix) {
+        this.prefixByNamespace = prefixByNamespace;
+        this.namespaceByPrefix = namespaceByPrefix;
+    }
+
+    /**
+     * Get the prefix for the namespace.
+     *
+     * @param namespace the namespace
+     *
+     * @return the prefix or {@code null} if no encoder announced the namespace
+     */
+    public String getPrefix(String namespace) {
+        return namespace == null ? null : prefixByNamespace.get(namespace);
+    }
+
+    /**
+     * Get the namespace for the prefix. If several namespaces share the same prefix, the first one in the iteration
+     * order of the mapping this instance was created from is returned.
+     *
+     * @param prefix the prefix
+     *
+     * @return the namespace or {@code null} if no encoder announced the prefix
+     */
+    public String getNamespace(String prefix) {
+        return prefix == null ? null : namespaceByPrefix.get(prefix);
+    }
+
+    /**
+     * Get the mapping of namespaces to prefixes.
+     *
+     * @return the unmodifiable map
+     */
+    public Map<String, String> asMap() {
+        return prefixByNamespace;
+    }
+
+    public boolean isEmpty() {
+        return prefixByNamespace.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).addValue(prefixByNamespace).toString();
+    }
+
+    /**
+     * Collects the namespace prefixes of all {@link SchemaAwareEncoder}s in {@code encoders}. Namespaces are kept in
+     * the order in which they are first announced while iterating {@code encoders}.
+     *
+     * @param encoders the encoders
+     *
+     * @return the namespace prefixes
+     */
+    public static NamespacePrefixes of(Iterable<? extends Encoder<?, ?>> encoders) {
+        Map<String, String> prefixes = new LinkedHashMap<>();
+        for (Encoder<?, ?> encoder : encoders) {
+            if (encoder instanceof SchemaAwareEncoder) {
+                ((SchemaAwareEncoder<?, ?>) encoder).addNamespacePrefixToMap(prefixes);
+            }
+        }
+        return of(prefixes);
+    }
+
+    /**
+     * Creates a new instance from a mapping of namespaces to prefixes.
+     *
+     * @param prefixes the namespaces and their prefixes
+     *
+     * @return the namespace prefixes
+     */
+    public static NamespacePrefixes of(Map<String, String> prefixes) {
+        if (prefixes.isEmpty()) {
+            return EMPTY;
+        }
+        ImmutableMap.Builder<String, String> prefixByNamespace = ImmutableMap.builder();
+        Map<String, String> namespaceByPrefix = new HashMap<>(prefixes.size());
+        prefixes.forEach((namespace, prefix) -> {
+            if (namespace != null && prefix != null) {
+                prefixByNamespace.put(namespace, prefix);
+                namespaceByPrefix.putIfAbsent(prefix, namespace);
+            }
+        });
+        return new NamespacePrefixes(prefixByNamespace.build(), ImmutableMap.copyOf(namespaceByPrefix));
+    }
+
+    /**
+     * Get an instance without any namespaces.
+     *
+     * @return the empty instance
+     */
+    public static NamespacePrefixes empty() {
+        return EMPTY;
+    }
+}
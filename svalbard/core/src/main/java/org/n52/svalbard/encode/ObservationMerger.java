@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.svalbard.encode;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import org.n52.faroe.Validation;
+import org.n52.faroe.annotation.Configurable;
+import org.n52.faroe.annotation.Setting;
+import org.n52.shetland.ogc.om.ObservationMergeIndicator;
+import org.n52.shetland.ogc.om.ObservationStream;
+import org.n52.shetland.ogc.om.SpillingObservationMerger;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
+import org.n52.svalbard.CodingSettings;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Merges the observations of a response for encoders that require merged observations. If a heap budget is
+ * configured ({@value CodingSettings#MERGE_HEAP_BUDGET} in MiB), the merged values exceeding it are spilled to
+ * temporary files (see {@link SpillingObservationMerger}); otherwise the observations are merged on the heap. The
+ * merged stream has to be closed to remove the temporary file if it is not consumed completely.
+ *
+ * @since 9.9.0
+ */
+@Configurable
+public class ObservationMerger {
+    private static final long MEBIBYTE = 1024L * 1024L;
+    private long heapBudget;
+    private Path spillDirectory;
+
+    @Setting(value = CodingSettings.MERGE_HEAP_BUDGET, required = false)
+    public void setHeapBudget(Integer megabytes) {
+        this.heapBudget = megabytes == null ? 0
+                                  : Validation.greaterEqualZero(CodingSettings.MERGE_HEAP_BUDGET, megabytes) * MEBIBYTE;
+    }
+
+    @Setting(value = CodingSettings.MERGE_SPILL_DIRECTORY, required = false)
+    public void setSpillDirectory(File spillDirectory) {
+        this.spillDirectory = spillDirectory == null ? null : spillDirectory.toPath();
+    }
+
+    /**
+     * @return if merged values are spilled to disk
+     */
+    public boolean isSpilling() {
+        return heapBudget > 0;
+    }
+
+    /**
+     * Merge the observations. The stream is consumed completely.
+     *
+     * @param observations the observations
+     * @param indicator    the merge indicator
+     *
+     * @return the merged observations
+     *
+     * @throws OwsExceptionReport if the observations can not be retrieved or merged
+     */
+    public ObservationStream merge(ObservationStream observations, ObservationMergeIndicator indicator)
+            throws OwsExceptionReport {
+        if (!isSpilling()) {
+            return observations.merge(indicator);
+        }
+        return new SpillingObservationMerger(heapBudget, spillDirectory).merge(observations, indicator);
+    }
+
+    /**
+     * Merge observations with the same observation constellation.
+     *
+     * @param observations the observations
+     *
+     * @return the merged observations
+     *
+     * @throws OwsExceptionReport if the observations can not be retrieved or merged
+     * @see ObservationStream#merge()
+     */
+    public ObservationStream merge(ObservationStream observations) throws OwsExceptionReport {
+        return merge(observations, ObservationMergeIndicator.sameObservationConstellation());
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("heapBudget", heapBudget)
+                .add("spillDirectory", spillDirectory)
+                .toString();
+    }
+}
@@ -67,25 +67,11 @@ public class SchemaRepository implements Constructable {
     }
 
     public String getNamespaceFor(String prefix) {
-        Map<String, String> prefixNamspaceMap = getPrefixNamspaceMap();
-        for (String namespace : prefixNamspaceMap.keySet()) {
-            if (prefix.equals(prefixNamspaceMap.get(prefix))) {
-                return namespace;
-            }
-        }
-        return null;
+        return this.encoderRepository.getNamespacePrefixes().getNamespace(prefix);
     }
 
     public String getPrefixFor(String namespace) {
-        return getPrefixNamspaceMap().get(namespace);
-    }
-
-    private Map<String, String> getPrefixNamspaceMap() {
-        Map<String, String> prefixMap = Maps.newHashMap();
-        this.encoderRepository.getEncoders().stream().filter(encoder -> encoder instanceof SchemaAwareEncoder)
-                .map(encoder -> (SchemaAwareEncoder<?, ?>) encoder)
-                .forEach(encoder -> encoder.addNamespacePrefixToMap(prefixMap));
-        return prefixMap;
+        return this.encoderRepository.getNamespacePrefixes().getPrefix(namespace);
     }
 
 }
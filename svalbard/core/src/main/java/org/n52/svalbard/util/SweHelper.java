@@ -53,6 +53,7 @@ import org.n52.shetland.ogc.om.values.ReferenceValue;
 import org.n52.shetland.ogc.om.values.SweDataArrayValue;
 import org.n52.shetland.ogc.om.values.TLVTValue;
 import org.n52.shetland.ogc.om.values.TVPValue;
+import org.n52.shetland.ogc.om.values.TimeSeriesValue;
 import org.n52.shetland.ogc.om.values.TextValue;
 import org.n52.shetland.ogc.om.values.TimeValue;
 import org.n52.shetland.ogc.om.values.TrajectoryValue;
@@ -60,6 +61,7 @@ import org.n52.shetland.ogc.om.values.TimeRangeValue;
 import org.n52.shetland.ogc.om.values.UnknownValue;
 import org.n52.shetland.ogc.om.values.Value;
 import org.n52.shetland.ogc.om.values.XmlValue;
+import org.n52.shetland.ogc.om.values.visitor.DefaultValueVisitor;
 import org.n52.shetland.ogc.om.values.visitor.ValueVisitor;
 import org.n52.shetland.ogc.swe.CoordinateSettingsProvider;
 import org.n52.shetland.ogc.swe.SweAbstractDataComponent;
@@ -78,6 +80,7 @@ import org.n52.shetland.ogc.swe.simpleType.SweText;
 import org.n52.shetland.ogc.swe.simpleType.SweTime;
 import org.n52.shetland.ogc.swe.simpleType.SweTimeRange;
 import org.n52.shetland.util.CollectionHelper;
+import org.n52.shetland.util.DateTimeFormatException;
 import org.n52.shetland.util.DateTimeHelper;
 import org.n52.shetland.util.JavaHelper;
 import org.n52.svalbard.CodingSettings;
@@ -160,19 +163,8 @@ public final class SweHelper {
             MultiObservationValues<?> multiValue = (MultiObservationValues<?>) sosObservation.getValue();
             if (multiValue.getValue() instanceof SweDataArrayValue) {
                 return ((SweDataArrayValue) multiValue.getValue()).getValue();
-            } else if (multiValue.getValue() instanceof TVPValue) {
-                TVPValue tvpValues = (TVPValue) multiValue.getValue();
-                for (TimeValuePair timeValuePair : tvpValues.getValue()) {
-                    if (timeValuePair != null && timeValuePair.getValue() != null
-                            && timeValuePair.getValue().isSetValue()) {
-                        if (!dataArray.isSetElementTyp()) {
-                            dataArray.setElementType(createElementType(timeValuePair, observablePropertyIdentifier));
-                        }
-                        List<String> newBlock = createBlock(dataArray.getElementType(), timeValuePair.getTime(),
-                                observablePropertyIdentifier, timeValuePair.getValue());
-                        dataArrayValue.addBlock(newBlock);
-                    }
-                }
+            } else {
+                addBlocks(dataArray, dataArrayValue, multiValue.getValue(), observablePropertyIdentifier);
             }
         }
         return dataArray;
@@ -210,22 +202,82 @@ public final class SweHelper {
             MultiObservationValues<?> multiValue = (MultiObservationValues<?>) observationValue;
             if (multiValue.getValue() instanceof SweDataArrayValue) {
                 return ((SweDataArrayValue) multiValue.getValue()).getValue();
-            } else if (multiValue.getValue() instanceof TVPValue) {
-                TVPValue tvpValues = (TVPValue) multiValue.getValue();
-                for (TimeValuePair timeValuePair : tvpValues.getValue()) {
+            } else {
+                addBlocks(dataArray, dataArrayValue, multiValue.getValue(), observablePropertyIdentifier);
+            }
+        }
+        return dataArray;
+    }
+
+    private void addBlocks(SweDataArray dataArray, SweDataArrayValue dataArrayValue, Value<?> value,
+            String phenID) throws EncodingException {
+        value.accept(new DefaultValueVisitor<Void, EncodingException>() {
+            @Override
+            public Void visit(TimeSeriesValue value) throws EncodingException {
+                addTimeSeriesBlocks(dataArray, dataArrayValue, value, phenID);
+                return null;
+            }
+
+            @Override
+            public Void visit(TVPValue value) throws EncodingException {
+                for (TimeValuePair timeValuePair : value.getValue()) {
                     if (timeValuePair != null && timeValuePair.getValue() != null
                             && timeValuePair.getValue().isSetValue()) {
                         if (!dataArray.isSetElementTyp()) {
-                            dataArray.setElementType(createElementType(timeValuePair, observablePropertyIdentifier));
+                            dataArray.setElementType(createElementType(timeValuePair, phenID));
                         }
                         List<String> newBlock = createBlock(dataArray.getElementType(), timeValuePair.getTime(),
-                                observablePropertyIdentifier, timeValuePair.getValue());
+                                phenID, timeValuePair.getValue());
                         dataArrayValue.addBlock(newBlock);
                     }
                 }
+                return null;
+            }
+
+            @Override
+            protected Void visitDefault(Value<?> value) {
+                return null;
+            }
+        });
+    }
+
+    private void addTimeSeriesBlocks(SweDataArray dataArray, SweDataArrayValue dataArrayValue,
+            TimeSeriesValue timeSeries, String phenID) throws EncodingException {
+        SweDataRecord elementType = null;
+        int size = timeSeries.size();
+        for (int i = 0; i < size; i++) {
+            if (!timeSeries.isMissing(i)) {
+                if (elementType == null) {
+                    if (!dataArray.isSetElementTyp()) {
+                        dataArray.setElementType(createElementType(
+                                new TimeValuePair(timeSeries.getTimeInstant(i), timeSeries.getValue(i)), phenID));
+                    }
+                    if (!(dataArray.getElementType() instanceof SweDataRecord)) {
+                        throw new IllegalArgumentException(String.format("Type of ElementType is not supported: %s",
+                                dataArray.getElementType().getClass().getName()));
+                    }
+                    elementType = (SweDataRecord) dataArray.getElementType();
+                }
+                String time;
+                try {
+                    time = DateTimeHelper.formatDateTime2ResponseString(timeSeries.getDateTime(i));
+                } catch (DateTimeFormatException e) {
+                    throw new EncodingException(e);
+                }
+                List<String> block = new ArrayList<>(elementType.getFields().size());
+                for (SweField field : elementType.getFields()) {
+                    if (field.getElement() instanceof SweTime || field.getElement() instanceof SweTimeRange) {
+                        block.add(time);
+                    } else if (field.getElement() instanceof SweAbstractDataComponent
+                            && field.getElement().getDefinition().equals(phenID)) {
+                        block.add(timeSeries.getValueAsString(i));
+                    } else if (field.getElement() instanceof SweObservableProperty) {
+                        block.add(phenID);
+                    }
+                }
+                dataArrayValue.addBlock(block);
             }
         }
-        return dataArray;
     }
 
     private SweAbstractDataComponent createElementType(TimeValuePair tvp, String name) throws EncodingException {
@@ -22,6 +22,7 @@ import java.io.InputStream;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -75,6 +76,10 @@ public final class XmlHelper {
 
     private static final Set<String> GML_NAMESPACES = Sets.newHashSet(GmlConstants.NS_GML, GmlConstants.NS_GML_32);
 
+    private static final Object VALIDATION_SKIPPED = new Object();
+
+    private static final Object VALIDATED_NODES = new Object();
+
     private XmlHelper() {
     }
 
@@ -183,6 +188,9 @@ public final class XmlHelper {
 
     public static <X extends XmlObject, T extends Throwable> X validateDocument(X doc, Function<Throwable, T> supplier)
             throws T {
+        if (isValidationSkipped(doc)) {
+            return doc;
+        }
         // Create an XmlOptions instance and set the error listener.
         LinkedList<XmlError> validationErrors = new LinkedList<>();
         XmlOptions validationOptions = new XmlOptions().setErrorListener(validationErrors)
@@ -236,6 +244,63 @@ public final class XmlHelper {
         return true;
     }
 
+    /**
+     * Excludes the document containing {@code doc} from validation, so that subsequent calls to
+     * {@link #validateDocument(XmlObject, Function)} for the document or any of its elements return immediately. This
+     * is meant for documents that should not be validated at all. Copies of the document are not affected.
+     *
+     * @param doc the document or an element of it
+     *
+     * @see #markValidated(XmlObject)
+     * @since 9.9.0
+     */
+    public static void skipValidation(XmlObject doc) {
+        doc.documentProperties().put(VALIDATION_SKIPPED, Boolean.TRUE);
+    }
+
+    /**
+     * Marks exactly {@code node} as validated, so that subsequent calls to
+     * {@link #validateDocument(XmlObject, Function)} for it return immediately. Other elements of the document, e.g.
+     * lax or wildcard content that an enclosing schema did not cover, are still validated when a decoder asks for it.
+     *
+     * @param node the validated document or element
+     *
+     * @since 9.9.0
+     */
+    public static void markValidated(XmlObject node) {
+        Node domNode = node.getDomNode();
+        synchronized (node.monitor()) {
+            @SuppressWarnings("unchecked")
+            Set<Node> validated = (Set<Node>) node.documentProperties().get(VALIDATED_NODES);
+            if (validated == null) {
+                validated = Collections.newSetFromMap(new IdentityHashMap<>());
+                node.documentProperties().put(VALIDATED_NODES, validated);
+            }
+            validated.add(domNode);
+        }
+    }
+
+    /**
+     * Checks whether the document containing {@code doc} was excluded from validation using
+     * {@link #skipValidation(XmlObject)} or whether exactly {@code doc} was marked using
+     * {@link #markValidated(XmlObject)}.
+     *
+     * @param doc the document or an element of it
+     *
+     * @return if the validation should be skipped
+     *
+     * @since 9.9.0
+     */
+    public static boolean isValidationSkipped(XmlObject doc) {
+        if (doc.documentProperties().get(VALIDATION_SKIPPED) != null) {
+            return true;
+        }
+        synchronized (doc.monitor()) {
+            Set<?> validated = (Set<?>) doc.documentProperties().get(VALIDATED_NODES);
+            return validated != null && validated.contains(doc.getDomNode());
+        }
+    }
+
     /**
      * Loads a XML document from File.
      *
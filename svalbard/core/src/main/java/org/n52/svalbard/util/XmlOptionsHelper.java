@@ -27,15 +27,12 @@ import org.n52.faroe.Validation;
 import org.n52.faroe.annotation.Configurable;
 import org.n52.faroe.annotation.Setting;
 import org.n52.janmayen.Producer;
-import org.n52.janmayen.function.Consumers;
-import org.n52.janmayen.function.Functions;
-import org.n52.janmayen.function.Predicates;
 import org.n52.janmayen.lifecycle.Destroyable;
 import org.n52.shetland.ogc.OGCConstants;
 import org.n52.shetland.w3c.W3CConstants;
 import org.n52.svalbard.CodingSettings;
 import org.n52.svalbard.encode.EncoderRepository;
-import org.n52.svalbard.encode.SchemaAwareEncoder;
+import org.n52.svalbard.encode.NamespacePrefixes;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
@@ -52,7 +49,9 @@ public final class XmlOptionsHelper implements Destroyable, Producer<XmlOptions>
 
     private final ReentrantLock lock = new ReentrantLock();
 
-    private XmlOptions xmlOptions;
+    private volatile XmlOptions xmlOptions;
+
+    private volatile NamespacePrefixes namespacePrefixes;
 
     private String characterEncoding = "UTF-8";
 
@@ -65,7 +64,7 @@ public final class XmlOptionsHelper implements Destroyable, Producer<XmlOptions>
     }
 
     // TODO: To be used by other encoders to have common prefixes
-    private Map<String, String> getPrefixMap() {
+    private Map<String, String> getPrefixMap(NamespacePrefixes encoderPrefixes) {
         Map<String, String> prefixMap = new HashMap<>();
         prefixMap.put(OGCConstants.NS_OGC, OGCConstants.NS_OGC_PREFIX);
         // prefixMap.put(OmConstants.NS_OM, OmConstants.NS_OM_PREFIX);
@@ -74,10 +73,7 @@ public final class XmlOptionsHelper implements Destroyable, Producer<XmlOptions>
         prefixMap.put(W3CConstants.NS_XLINK, W3CConstants.NS_XLINK_PREFIX);
         prefixMap.put(W3CConstants.NS_XSI, W3CConstants.NS_XSI_PREFIX);
         prefixMap.put(W3CConstants.NS_XS, W3CConstants.NS_XS_PREFIX);
-        encoderRepository.getEncoders().stream()
-                .filter(Predicates.instanceOf(SchemaAwareEncoder.class))
-                .map(Functions.cast(SchemaAwareEncoder.class))
-                .forEach(Consumers.currySecond(SchemaAwareEncoder<?, ?>::addNamespacePrefixToMap, prefixMap));
+        prefixMap.putAll(encoderPrefixes.asMap());
         return prefixMap;
     }
 
@@ -88,26 +84,32 @@ public final class XmlOptionsHelper implements Destroyable, Producer<XmlOptions>
      */
     @SuppressFBWarnings({ "EI_EXPOSE_REP" })
     public XmlOptions getXmlOptions() {
-        if (xmlOptions == null) {
+        // the repository returns a new table only if its encoders changed
+        NamespacePrefixes encoderPrefixes = encoderRepository.getNamespacePrefixes();
+        XmlOptions options = xmlOptions;
+        if (options == null || encoderPrefixes != namespacePrefixes) {
             lock.lock();
             try {
-                if (xmlOptions == null) {
-                    xmlOptions = new XmlOptions();
-                    Map<String, String> prefixes = getPrefixMap();
-                    xmlOptions.setSaveSuggestedPrefixes(prefixes);
-                    xmlOptions.setSaveImplicitNamespaces(prefixes);
-                    xmlOptions.setSaveAggressiveNamespaces();
+                options = xmlOptions;
+                if (options == null || encoderPrefixes != namespacePrefixes) {
+                    options = new XmlOptions();
+                    Map<String, String> prefixes = getPrefixMap(encoderPrefixes);
+                    options.setSaveSuggestedPrefixes(prefixes);
+                    options.setSaveImplicitNamespaces(prefixes);
+                    options.setSaveAggressiveNamespaces();
                     if (prettyPrint) {
-                        xmlOptions.setSavePrettyPrint();
+                        options.setSavePrettyPrint();
                     }
-                    xmlOptions.setSaveNamespacesFirst();
-                    xmlOptions.setCharacterEncoding(characterEncoding);
+                    options.setSaveNamespacesFirst();
+                    options.setCharacterEncoding(characterEncoding);
+                    namespacePrefixes = encoderPrefixes;
+                    xmlOptions = options;
                 }
             } finally {
                 lock.unlock();
             }
         }
-        return xmlOptions;
+        return options;
     }
 
     /**
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.svalbard.decode;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.apache.xmlbeans.XmlObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.n52.faroe.ConfigurationError;
+import org.n52.shetland.w3c.SchemaLocation;
+import org.n52.svalbard.decode.exception.DecodingException;
+import org.n52.svalbard.encode.EncoderRepository;
+import org.n52.svalbard.encode.SchemaRepository;
+import org.n52.svalbard.util.XmlHelper;
+
+public class XmlRequestParserTest {
+    private static final String NAMESPACE = "http://www.example.org/test";
+    private static final String VALID = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<t:InsertValue xmlns:t=\"" + NAMESPACE + "\" service=\"test\">\n"
+            + "  <t:value>1.0</t:value>\n"
+            + "  <t:value>2.0</t:value>\n"
+            + "</t:InsertValue>";
+    private static final String INVALID = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<t:InsertValue xmlns:t=\"" + NAMESPACE + "\" service=\"test\">\n"
+            + "  <t:value>1.0</t:value>\n"
+            + "  <t:value>NaN?</t:value>\n"
+            + "</t:InsertValue>";
+    private static final String UNKNOWN = "<u:Unknown xmlns:u=\"http://www.example.org/unknown\"/>";
+
+    private SchemaRepository schemaRepository;
+    private EncoderRepository encoderRepository;
+    private XmlRequestParser parser;
+
+    @BeforeEach
+    public void setUp() {
+        this.schemaRepository = mock(SchemaRepository.class);
+        String schema = getClass().getResource("/validation/test.xsd").toExternalForm();
+        when(schemaRepository.getSchemaLocation(NAMESPACE))
+                .thenReturn(Collections.singleton(new SchemaLocation(NAMESPACE, schema)));
+        when(schemaRepository.getSchemaLocation("http://www.example.org/unknown"))
+                .thenReturn(Collections.emptySet());
+        this.encoderRepository = mock(EncoderRepository.class);
+        when(encoderRepository.getGeneration()).thenReturn(1L);
+        XmlSchemaCache schemaCache = new XmlSchemaCache();
+        schemaCache.setSchemaRepository(schemaRepository);
+        schemaCache.setEncoderRepository(encoderRepository);
+        this.parser = new XmlRequestParser();
+        this.parser.setSchemaCache(schemaCache);
+    }
+
+    @Test
+    public void shouldValidateWhileParsing() throws DecodingException {
+        parser.setStreaming(true);
+        XmlObject document = parser.parse(VALID);
+        assertThat(document.getDomNode().getFirstChild().getLocalName(), is("InsertValue"));
+        assertThat(XmlHelper.isValidationSkipped(document), is(true));
+        parser.parse(VALID);
+        // the schema is compiled only once
+        verify(schemaRepository, times(1)).getSchemaLocation(NAMESPACE);
+    }
+
+    @Test
+    public void shouldRecompileTheSchemasAfterTheEncodersChanged() throws DecodingException {
+        parser.setStreaming(true);
+        parser.parse(VALID);
+        when(encoderRepository.getGeneration()).thenReturn(2L);
+        parser.parse(VALID);
+        parser.parse(VALID);
+        verify(schemaRepository, times(2)).getSchemaLocation(NAMESPACE);
+    }
+
+    @Test
+    public void shouldOnlySkipTheValidatedNode() throws DecodingException {
+        parser.setStreaming(true);
+        XmlObject document = parser.parse(VALID);
+        assertThat(XmlHelper.isValidationSkipped(document), is(true));
+        // embedded content is left to the decoders
+        assertThat(XmlHelper.isValidationSkipped(document.selectChildren(NAMESPACE, "InsertValue")[0]), is(false));
+        parser.setModes("InsertValue:skip");
+        XmlObject skipped = parser.parse(VALID);
+        assertThat(XmlHelper.isValidationSkipped(skipped.selectChildren(NAMESPACE, "InsertValue")[0]), is(true));
+    }
+
+    @Test
+    public void shouldFailOnTheFirstValidationError() {
+        parser.setStreaming(true);
+        DecodingException e = assertThrows(DecodingException.class, () -> parser.parse(INVALID));
+        assertThat(e.getMessage(), containsString("line 4"));
+    }
+
+    @Test
+    public void shouldLeaveValidationToTheDecodersWithoutSchema() throws DecodingException {
+        parser.setStreaming(true);
+        assertThat(XmlHelper.isValidationSkipped(parser.parse(UNKNOWN)), is(false));
+    }
+
+    @Test
+    public void shouldLeaveValidationToTheDecodersWithoutStreaming() throws DecodingException {
+        assertThat(XmlHelper.isValidationSkipped(parser.parse(INVALID)), is(false));
+    }
+
+    @Test
+    public void shouldSkipValidation() throws DecodingException {
+        parser.setModes("InsertValue:skip");
+        XmlObject document = parser.parse(INVALID);
+        assertThat(XmlHelper.isValidationSkipped(document), is(true));
+        assertThat(XmlHelper.validateDocument(document), is(true));
+        parser.setStreaming(true);
+        assertThat(XmlHelper.isValidationSkipped(parser.parse(INVALID)), is(true));
+    }
+
+    @Test
+    public void shouldSampleValidation() throws DecodingException {
+        parser.setStreaming(true);
+        parser.setModes("InsertValue:SAMPLE, Other:FULL");
+        parser.setSamplingInterval(2);
+        assertThrows(DecodingException.class, () -> parser.parse(INVALID));
+        assertThat(XmlHelper.isValidationSkipped(parser.parse(INVALID)), is(true));
+        assertThrows(DecodingException.class, () -> parser.parse(INVALID));
+    }
+
+    @Test
+    public void shouldRejectInvalidModes() {
+        assertThrows(ConfigurationError.class, () -> parser.setModes("InsertValue:SOMETIMES"));
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.svalbard.encode;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.xmlbeans.XmlObject;
+import org.apache.xmlbeans.XmlString;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+
+import org.n52.shetland.ogc.gml.AbstractFeature;
+import org.n52.shetland.ogc.gml.CodeWithAuthority;
+import org.n52.shetland.ogc.om.features.FeatureCollection;
+import org.n52.shetland.ogc.om.features.samplingFeatures.SamplingFeature;
+import org.n52.svalbard.encode.exception.EncodingException;
+
+public class EncodedObjectCacheTest {
+    private static final String NAMESPACE = "http://www.example.org/test";
+
+    private EncodedObjectCache cache;
+    private AtomicInteger encodings;
+
+    @BeforeEach
+    public void setUp() {
+        this.cache = new EncodedObjectCache();
+        this.encodings = new AtomicInteger();
+    }
+
+    @Test
+    public void shouldEncodeOnlyOnce() throws EncodingException {
+        XmlObject first = cache.get("a", NAMESPACE, EncodingContext.empty(), null, this::encode);
+        XmlObject second = cache.get("a", NAMESPACE, EncodingContext.empty(), null, this::encode);
+        assertThat(second, is(sameInstance(first)));
+        assertThat(encodings.get(), is(1));
+        assertThat(cache.getStats().hitRate(), is(0.5));
+    }
+
+    @Test
+    public void shouldDistinguishNamespacesContextsAndVariants() throws EncodingException {
+        cache.get("a", NAMESPACE, EncodingContext.empty(), null, this::encode);
+        cache.get("a", "http://www.example.org/other", EncodingContext.empty(), null, this::encode);
+        cache.get("a", NAMESPACE, EncodingContext.of(EncoderFlags.ENCODING, "x"), null, this::encode);
+        cache.get("a", NAMESPACE, EncodingContext.empty(), "variant", this::encode);
+        assertThat(encodings.get(), is(4));
+    }
+
+    @Test
+    public void shouldInvalidate() throws EncodingException {
+        XmlObject a = cache.get("a", NAMESPACE, EncodingContext.empty(), null, this::encode);
+        cache.get("b", NAMESPACE, EncodingContext.empty(), null, this::encode);
+        cache.handle(new EncodedObjectInvalidationEvent("b"));
+        assertThat(cache.size(), is(1L));
+        cache.handle(new EncodedObjectInvalidationEvent());
+        assertThat(cache.size(), is(0L));
+        assertThat(cache.get("a", NAMESPACE, EncodingContext.empty(), null, this::encode),
+                   is(not(sameInstance(a))));
+    }
+
+    @Test
+    public void shouldNotCacheWithoutIdentifierOrWhenDisabled() throws EncodingException {
+        cache.get(null, NAMESPACE, EncodingContext.empty(), null, this::encode);
+        cache.get(null, NAMESPACE, EncodingContext.empty(), null, this::encode);
+        cache.setSize(0);
+        assertThat(cache.isEnabled(), is(false));
+        cache.get("a", NAMESPACE, EncodingContext.empty(), null, this::encode);
+        cache.get("a", NAMESPACE, EncodingContext.empty(), null, this::encode);
+        assertThat(encodings.get(), is(4));
+    }
+
+    @Test
+    public void shouldPropagateErrorsAndNotCacheNull() throws EncodingException {
+        assertThat(cache.get("a", NAMESPACE, EncodingContext.empty(), null, () -> null), is(nullValue()));
+        assertThrows(EncodingException.class, () -> cache.get("a", NAMESPACE, EncodingContext.empty(), null, () -> {
+            throw new EncodingException("error");
+        }));
+        assertThat(cache.size(), is(0L));
+    }
+
+    @Test
+    public void shouldDistinguishGeometries() throws Exception {
+        GeometryFactory factory = new GeometryFactory(new PrecisionModel(), 4326);
+        SamplingFeature a = new SamplingFeature(new CodeWithAuthority("a"), "a");
+        a.setGeometry(factory.createPoint(new Coordinate(52.0, 7.0)));
+        SamplingFeature b = new SamplingFeature(new CodeWithAuthority("a"), "a");
+        b.setGeometry(factory.createPoint(new Coordinate(52.0, 7.0)));
+        assertThat(EncodedObjectCache.getVariant(b), is(EncodedObjectCache.getVariant(a)));
+        b.setGeometry(factory.createPoint(new Coordinate(51.0, 7.0)));
+        assertThat(EncodedObjectCache.getVariant(b), is(not(EncodedObjectCache.getVariant(a))));
+    }
+
+    @Test
+    public void shouldMarkInlineMembersAsEncoded() throws Exception {
+        SamplingFeature inline = new SamplingFeature(new CodeWithAuthority("inline"), "m1");
+        SamplingFeature referenced = new SamplingFeature(new CodeWithAuthority("referenced"), "m2");
+        FeatureCollection collection = new FeatureCollection();
+        collection.addMember(inline);
+        collection.addMember(referenced);
+        XmlObject fragment = XmlObject.Factory.parse(
+                "<gml:FeatureCollection xmlns:gml=\"http://www.opengis.net/gml/3.2\""
+                + " xmlns:xlink=\"http://www.w3.org/1999/xlink\" gml:id=\"c\">"
+                + "<gml:featureMember><gml:Feature gml:id=\"m1\"/></gml:featureMember>"
+                + "<gml:featureMember xlink:href=\"#m2\"/>"
+                + "</gml:FeatureCollection>");
+        EncodedObjectCache.markEncoded(collection, fragment);
+        assertThat(collection.isEncoded(), is(true));
+        assertThat(inline.isEncoded(), is(true));
+        assertThat(referenced.isEncoded(), is(false));
+    }
+
+    @Test
+    public void shouldMarkInlineSampledFeaturesAsEncoded() throws Exception {
+        SamplingFeature inline = new SamplingFeature(new CodeWithAuthority("inline"), "s1");
+        SamplingFeature referenced = new SamplingFeature(new CodeWithAuthority("referenced"), "s2");
+        SamplingFeature feature = new SamplingFeature(new CodeWithAuthority("a"), "a");
+        feature.setSampledFeatures(Arrays.asList(inline, referenced));
+        XmlObject fragment = XmlObject.Factory.parse(
+                "<sams:SF_SpatialSamplingFeature xmlns:sams=\"http://www.opengis.net/samplingSpatial/2.0\""
+                + " xmlns:sf=\"http://www.opengis.net/sampling/2.0\""
+                + " xmlns:gml=\"http://www.opengis.net/gml/3.2\""
+                + " xmlns:xlink=\"http://www.w3.org/1999/xlink\" gml:id=\"a\">"
+                + "<sf:sampledFeature><gml:Feature gml:id=\"s1\"/></sf:sampledFeature>"
+                + "<sf:sampledFeature xlink:href=\"referenced\"/>"
+                + "</sams:SF_SpatialSamplingFeature>");
+        EncodedObjectCache.markEncoded(feature, fragment);
+        assertThat(feature.isEncoded(), is(true));
+        assertThat(inline.isEncoded(), is(true));
+        assertThat(referenced.isEncoded(), is(false));
+    }
+
+    @Test
+    public void shouldCollectUnencodedNestedFeatures() {
+        SamplingFeature sampled = new SamplingFeature(new CodeWithAuthority("sampled"), "s1");
+        SamplingFeature encoded = new SamplingFeature(new CodeWithAuthority("encoded"), "s2");
+        encoded.setSampledFeatures(Arrays.asList(sampled));
+        encoded.wasEncoded();
+        SamplingFeature member = new SamplingFeature(new CodeWithAuthority("member"), "m1");
+        member.setSampledFeatures(Arrays.asList(sampled, encoded));
+        FeatureCollection collection = new FeatureCollection();
+        collection.addMember(member);
+        Set<AbstractFeature> features = EncodedObjectCache.getUnencodedFeatures(collection);
+        assertThat(features, containsInAnyOrder(collection, member, sampled));
+        assertThat(EncodedObjectCache.getUnencodedFeatures(encoded), is(empty()));
+        assertThat(EncodedObjectCache.getUnencodedFeatures(null), is(empty()));
+    }
+
+    @Test
+    public void shouldNotCacheFragmentsWithLocalReferences() throws Exception {
+        XmlObject fragment = XmlObject.Factory.parse(
+                "<sf:sampledFeature xmlns:sf=\"http://www.opengis.net/sampling/2.0\""
+                + " xmlns:xlink=\"http://www.w3.org/1999/xlink\"><sf:x xlink:href=\"#s1\"/></sf:sampledFeature>");
+        assertThat(cache.get("a", NAMESPACE, EncodingContext.empty(), null, () -> fragment),
+                   is(sameInstance(fragment)));
+        assertThat(cache.size(), is(0L));
+        cache.get("b", NAMESPACE, EncodingContext.empty(), null, this::encode);
+        assertThat(cache.size(), is(1L));
+    }
+
+    @Test
+    public void shouldNotMarkReferencesAsEncoded() throws Exception {
+        SamplingFeature feature = new SamplingFeature(new CodeWithAuthority("a"));
+        EncodedObjectCache.markEncoded(feature, XmlObject.Factory.parse(
+                "<om:featureOfInterest xmlns:om=\"http://www.opengis.net/om/2.0\""
+                + " xmlns:xlink=\"http://www.w3.org/1999/xlink\" xlink:href=\"a\"/>").selectChildren(
+                        "http://www.opengis.net/om/2.0", "featureOfInterest")[0]);
+        assertThat(feature.isEncoded(), is(false));
+    }
+
+    private XmlObject encode() {
+        encodings.incrementAndGet();
+        XmlString xml = XmlString.Factory.newInstance();
+        xml.setStringValue("value");
+        return xml;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.svalbard.encode;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class SchemaRepositoryTest {
+    private static final String NS_A = "http://www.example.org/a";
+    private static final String NS_B = "http://www.example.org/b";
+    private static final String NS_C = "http://www.example.org/c";
+
+    private SchemaAwareEncoder<?, ?> encoderA;
+    private SchemaAwareEncoder<?, ?> encoderB;
+    private EncoderRepository encoderRepository;
+    private SchemaRepository schemaRepository;
+
+    @BeforeEach
+    public void setUp() {
+        this.encoderA = encoder(NS_A, "a", Collections.singletonMap(NS_C, "shared"));
+        this.encoderB = encoder(NS_B, "b", Collections.singletonMap(NS_A, "a2"));
+        this.encoderRepository = new EncoderRepository();
+        this.encoderRepository.setEncoders(Arrays.asList(encoderA, encoderB));
+        this.encoderRepository.init();
+        this.schemaRepository = new SchemaRepository();
+        this.schemaRepository.setEncoderRepository(encoderRepository);
+        this.schemaRepository.init();
+    }
+
+    @Test
+    public void shouldResolvePrefixesAndNamespaces() {
+        assertThat(schemaRepository.getPrefixFor(NS_B), is("b"));
+        assertThat(schemaRepository.getPrefixFor(NS_C), is("shared"));
+        assertThat(schemaRepository.getNamespaceFor("b"), is(NS_B));
+        assertThat(schemaRepository.getNamespaceFor("shared"), is(NS_C));
+        assertThat(schemaRepository.getPrefixFor("http://www.example.org/unknown"), is(nullValue()));
+        assertThat(schemaRepository.getNamespaceFor("unknown"), is(nullValue()));
+        assertThat(schemaRepository.getNamespaceFor(null), is(nullValue()));
+    }
+
+    @Test
+    public void shouldComputeTheTableOnlyOnce() {
+        NamespacePrefixes prefixes = encoderRepository.getNamespacePrefixes();
+        for (int i = 0; i < 10; ++i) {
+            schemaRepository.getPrefixFor(NS_A);
+            schemaRepository.getNamespaceFor("a");
+        }
+        assertThat(encoderRepository.getNamespacePrefixes(), is(sameInstance(prefixes)));
+        verify(encoderA, times(1)).addNamespacePrefixToMap(any());
+        verify(encoderB, times(1)).addNamespacePrefixToMap(any());
+    }
+
+    @Test
+    public void shouldRefreshTheTableIfTheEncodersChange() {
+        NamespacePrefixes prefixes = encoderRepository.getNamespacePrefixes();
+        long generation = encoderRepository.getGeneration();
+        encoderRepository.setEncoders(Collections.singletonList(encoderA));
+        encoderRepository.init();
+        assertThat(encoderRepository.getGeneration(), is(generation + 1));
+        assertThat(encoderRepository.getNamespacePrefixes(), is(not(sameInstance(prefixes))));
+        assertThat(schemaRepository.getPrefixFor(NS_A), is("a"));
+        assertThat(schemaRepository.getPrefixFor(NS_B), is(nullValue()));
+    }
+
+    @Test
+    public void shouldKeepTheFirstNamespaceForAPrefix() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put(NS_A, "x");
+        map.put(NS_B, "x");
+        NamespacePrefixes prefixes = NamespacePrefixes.of(map);
+        assertThat(prefixes.getNamespace("x"), is(NS_A));
+        assertThat(prefixes.getPrefix(NS_B), is("x"));
+        assertThat(NamespacePrefixes.of(Collections.emptyMap()), is(sameInstance(NamespacePrefixes.empty())));
+    }
+
+    @Test
+    public void shouldKeepTheFirstNamespaceAnnouncedByTheEncoders() {
+        SchemaAwareEncoder<?, ?> first = encoder(NS_A, "x", Collections.emptyMap());
+        SchemaAwareEncoder<?, ?> second = encoder(NS_B, "x", Collections.emptyMap());
+        assertThat(NamespacePrefixes.of(Arrays.asList(first, second)).getNamespace("x"), is(NS_A));
+        assertThat(NamespacePrefixes.of(Arrays.asList(second, first)).getNamespace("x"), is(NS_B));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SchemaAwareEncoder<?, ?> encoder(String namespace, String prefix, Map<String, String> additional) {
+        SchemaAwareEncoder<Object, Object> encoder = mock(SchemaAwareEncoder.class);
+        when(encoder.getKeys()).thenReturn(Collections.singleton(new XmlEncoderKey(namespace, Object.class)));
+        doAnswer(invocation -> {
+            Map<String, String> map = invocation.getArgument(0);
+            map.put(namespace, prefix);
+            map.putAll(additional);
+            return null;
+        }).when(encoder).addNamespacePrefixToMap(any());
+        return encoder;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.svalbard.coding.json;
+
+/**
+ * Hook to collect metrics about the validations performed by the {@link JSONValidator}.
+ *
+ * @since 9.9.0
+ */
+@FunctionalInterface
+public interface JSONValidationListener {
+
+    /**
+     * Called after an instance was validated.
+     *
+     * @param schema the URI of the schema
+     * @param nanos  the duration of the validation in nanoseconds
+     * @param valid  if the instance was valid
+     */
+    void validated(String schema, long nanos, boolean valid);
+}
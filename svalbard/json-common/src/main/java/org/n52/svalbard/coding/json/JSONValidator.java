@@ -19,10 +19,25 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 import org.n52.janmayen.Json;
+import org.n52.janmayen.function.ThrowingSupplier;
 import org.n52.svalbard.decode.exception.DecodingException;
 import org.n52.svalbard.decode.json.JSONDecodingException;
 import org.slf4j.Logger;
@@ -31,6 +46,7 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.fge.jsonschema.cfg.ValidationConfiguration;
 import com.github.fge.jsonschema.core.exceptions.ProcessingException;
 import com.github.fge.jsonschema.core.load.configuration.LoadingConfiguration;
 import com.github.fge.jsonschema.core.load.download.ResourceURIDownloader;
@@ -39,9 +55,17 @@ import com.github.fge.jsonschema.core.report.ProcessingMessage;
 import com.github.fge.jsonschema.core.report.ProcessingReport;
 import com.github.fge.jsonschema.main.JsonSchema;
 import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import com.github.fge.msgsimple.bundle.MessageBundle;
+import com.github.fge.msgsimple.source.PropertiesMessageSource;
 
 /**
- * TODO JavaDoc
+ * Validates JSON instances against the bundled JSON schemas. Compiled schemas are cached per schema URI; all bundled
+ * schemas and the schemas they reference can be compiled in advance using {@link #precompile()}.
+ * <p>
+ * Decoders should validate the tree they consume using {@link #validateAndDecode(JsonNode, String,
+ * ThrowingSupplier)}: nested validations of schemas that the enclosing schema applies regardless of the matched
+ * {@code oneOf} and {@code anyOf} branches are skipped while decoding, as the subtrees were already validated as part
+ * of the enclosing instance.
  *
  * @author <a href="mailto:c.autermann@52north.org">Christian Autermann</a>
  *
@@ -49,13 +73,33 @@ import com.github.fge.jsonschema.main.JsonSchemaFactory;
  */
 public final class JSONValidator {
     private static final Logger LOG = LoggerFactory.getLogger(JSONValidator.class);
+    private static final String SCHEMA_PREFIX = "http://www.52north.org/schema/json/";
+    private static final String REF = "$ref";
+    private static final String ALL_OF = "allOf";
+    private static final String ONE_OF = "oneOf";
+    private static final String ANY_OF = "anyOf";
+    private static final String ITEMS = "items";
+    private static final String[] PROPERTIES_KEYWORDS = { "properties", "patternProperties" };
+    private static final String[] SCHEMA_KEYWORDS = { ITEMS, "additionalItems", "additionalProperties" };
+
+    private static final String SYNTAX_MESSAGES = "/com/github/fge/jsonschema/core/syntax.properties";
+    private static final String VALIDATION_MESSAGES = "/com/github/fge/jsonschema/validator/validation.properties";
 
     private final JsonSchemaFactory jsonSchemaFactory =
             JsonSchemaFactory.newBuilder()
                     .setLoadingConfiguration(
                             LoadingConfiguration.newBuilder().addScheme("http", new ResourceRedirect()).freeze())
+                    .setValidationConfiguration(createValidationConfiguration())
                     .freeze();
 
+    private final ConcurrentMap<String, JsonSchema> schemas = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Set<String>> references = new ConcurrentHashMap<>();
+
+    private final List<JSONValidationListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final ThreadLocal<Deque<String>> validatedSchemas = ThreadLocal.withInitial(ArrayDeque::new);
+
     private JSONValidator() {
     }
 
@@ -63,6 +107,80 @@ public final class JSONValidator {
         return jsonSchemaFactory;
     }
 
+    /**
+     * Get the compiled schema.
+     *
+     * @param schema the schema URI
+     *
+     * @return the schema
+     *
+     * @throws IllegalArgumentException if the schema can not be loaded
+     * @since 9.9.0
+     */
+    public JsonSchema getJsonSchema(String schema) {
+        JsonSchema jsonSchema = schemas.get(schema);
+        if (jsonSchema == null) {
+            try {
+                jsonSchema = getJsonSchemaFactory().getJsonSchema(schema);
+            } catch (ProcessingException ex) {
+                throw new IllegalArgumentException("Unknown schema: " + schema, ex);
+            }
+            JsonSchema previous = schemas.putIfAbsent(schema, jsonSchema);
+            if (previous != null) {
+                jsonSchema = previous;
+            }
+        }
+        return jsonSchema;
+    }
+
+    /**
+     * Compiles all bundled schemas and the schemas they reference, so that the first requests do not have to load
+     * them.
+     *
+     * @since 9.9.0
+     */
+    public void precompile() {
+        long start = System.nanoTime();
+        Deque<String> queue = new ArrayDeque<>(getBundledSchemas());
+        Set<String> seen = new HashSet<>();
+        while (!queue.isEmpty()) {
+            String schema = queue.poll();
+            if (seen.add(schema)) {
+                try {
+                    // validating builds the validators of the top level keywords
+                    getJsonSchema(schema).validateUnchecked(Json.nodeFactory().objectNode());
+                    queue.addAll(getReferences(schema));
+                } catch (IllegalArgumentException ex) {
+                    LOG.warn("Could not compile JSON schema {}", schema, ex);
+                }
+            }
+        }
+        LOG.info("Compiled {} JSON schemas in {} ms", schemas.size(),
+                 TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Adds a listener that is notified after every validation.
+     *
+     * @param listener the listener
+     *
+     * @since 9.9.0
+     */
+    public void addListener(JSONValidationListener listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener the listener
+     *
+     * @since 9.9.0
+     */
+    public void removeListener(JSONValidationListener listener) {
+        this.listeners.remove(listener);
+    }
+
     public ProcessingReport validate(String json, String schema)
             throws IOException {
         return validate(Json.loadString(json), schema);
@@ -89,13 +207,17 @@ public final class JSONValidator {
     }
 
     public ProcessingReport validate(JsonNode node, String schema) {
-        JsonSchema jsonSchema;
-        try {
-            jsonSchema = getJsonSchemaFactory().getJsonSchema(schema);
-        } catch (ProcessingException ex) {
-            throw new IllegalArgumentException("Unknown schema: " + schema, ex);
+        JsonSchema jsonSchema = getJsonSchema(schema);
+        if (listeners.isEmpty()) {
+            return jsonSchema.validateUnchecked(node);
         }
-        return jsonSchema.validateUnchecked(node);
+        long start = System.nanoTime();
+        ProcessingReport report = jsonSchema.validateUnchecked(node);
+        long duration = System.nanoTime() - start;
+        for (JSONValidationListener listener : listeners) {
+            listener.validated(schema, duration, report.isSuccess());
+        }
+        return report;
     }
 
     public boolean isValid(String json, String schema)
@@ -137,9 +259,21 @@ public final class JSONValidator {
         return Json.print(objectNode);
     }
 
+    /**
+     * Validates the instance. The validation is skipped if the instance is decoded as part of an instance that was
+     * validated against a schema that always applies {@code schema}.
+     *
+     * @param instance the instance
+     * @param schema   the schema URI
+     *
+     * @throws DecodingException if the instance is not valid
+     */
     public void validateAndThrow(JsonNode instance, String schema)
             throws DecodingException {
-        ProcessingReport report = JSONValidator.getInstance().validate(instance, schema);
+        if (isValidated(schema)) {
+            return;
+        }
+        ProcessingReport report = validate(instance, schema);
         if (!report.isSuccess()) {
             String message = encode(report, instance);
             LOG.info("Invalid JSON instance:\n{}", message);
@@ -147,6 +281,206 @@ public final class JSONValidator {
         }
     }
 
+    /**
+     * Validates the instance and decodes it. While decoding, validations of nested instances against schemas that
+     * {@code schema} always applies are skipped.
+     *
+     * @param <T>      the decoded type
+     * @param instance the instance
+     * @param schema   the schema URI
+     * @param decoder  the decoder of the instance
+     *
+     * @return the decoded instance
+     *
+     * @throws DecodingException if the instance is not valid or can not be decoded
+     * @since 9.9.0
+     */
+    public <T> T validateAndDecode(JsonNode instance, String schema, ThrowingSupplier<T, DecodingException> decoder)
+            throws DecodingException {
+        validateAndThrow(instance, schema);
+        Deque<String> validated = validatedSchemas.get();
+        validated.push(schema);
+        try {
+            return decoder.get();
+        } finally {
+            validated.pop();
+        }
+    }
+
+    private boolean isValidated(String schema) {
+        for (String validated : validatedSchemas.get()) {
+            if (getReferences(validated).contains(schema)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the schemas that are (transitively) applied as a whole by the schema, regardless of the branches of
+     * {@code oneOf} and {@code anyOf} an instance matches.
+     */
+    private Set<String> getReferences(String schema) {
+        Set<String> closure = references.get(schema);
+        if (closure == null) {
+            closure = new LinkedHashSet<>();
+            Deque<String> queue = new ArrayDeque<>(getDirectReferences(schema));
+            while (!queue.isEmpty()) {
+                String reference = queue.poll();
+                if (closure.add(reference)) {
+                    queue.addAll(getDirectReferences(reference));
+                }
+            }
+            closure = Collections.unmodifiableSet(closure);
+            references.putIfAbsent(schema, closure);
+        }
+        return closure;
+    }
+
+    private Set<String> getDirectReferences(String schema) {
+        try {
+            URI uri = URI.create(schema);
+            JsonNode node = loadSchema(uri);
+            if (node != null) {
+                return collectReferences(uri, node, node, new HashSet<>());
+            }
+        } catch (IOException | IllegalArgumentException ex) {
+            LOG.warn("Could not resolve the references of JSON schema {}", schema, ex);
+        }
+        return Collections.emptySet();
+    }
+
+    /**
+     * Collects the complete schemas that are applied to the instance or its children whenever it is valid against
+     * {@code node}. Only {@code allOf}, the property and item keywords and references are followed; of
+     * {@code oneOf} and {@code anyOf} only the schemas referenced by every branch are collected, as it is unknown
+     * which branch matched.
+     *
+     * @param base      the URI of the schema document containing {@code node}
+     * @param root      the schema document containing {@code node}
+     * @param node      the schema node
+     * @param fragments the references to parts of schemas that are already being followed
+     *
+     * @return the referenced schemas
+     */
+    private Set<String> collectReferences(URI base, JsonNode root, JsonNode node, Set<String> fragments)
+            throws IOException {
+        Set<String> collected = new LinkedHashSet<>();
+        if (!node.isObject()) {
+            return collected;
+        }
+        if (node.path(REF).isTextual()) {
+            URI ref = base.resolve(node.path(REF).textValue());
+            if (ref.getFragment() == null || ref.getFragment().isEmpty()) {
+                collected.add(withoutFragment(ref).toString());
+            } else if (fragments.add(ref.toString())) {
+                // references to parts of a schema do not validate against the complete schema, but may apply others
+                URI document = withoutFragment(ref);
+                JsonNode documentRoot = document.equals(withoutFragment(base)) ? root : loadSchema(document);
+                if (documentRoot != null) {
+                    collected.addAll(collectReferences(document, documentRoot, documentRoot.at(ref.getFragment()),
+                                                       fragments));
+                }
+                fragments.remove(ref.toString());
+            }
+            return collected;
+        }
+        for (JsonNode child : node.path(ALL_OF)) {
+            collected.addAll(collectReferences(base, root, child, fragments));
+        }
+        collected.addAll(collectCommonReferences(base, root, node.path(ONE_OF), fragments));
+        collected.addAll(collectCommonReferences(base, root, node.path(ANY_OF), fragments));
+        for (String keyword : PROPERTIES_KEYWORDS) {
+            for (JsonNode child : node.path(keyword)) {
+                collected.addAll(collectReferences(base, root, child, fragments));
+            }
+        }
+        for (String keyword : SCHEMA_KEYWORDS) {
+            collected.addAll(collectReferences(base, root, node.path(keyword), fragments));
+        }
+        JsonNode items = node.path(ITEMS);
+        if (items.isArray()) {
+            for (JsonNode child : items) {
+                collected.addAll(collectReferences(base, root, child, fragments));
+            }
+        }
+        return collected;
+    }
+
+    private Set<String> collectCommonReferences(URI base, JsonNode root, JsonNode branches, Set<String> fragments)
+            throws IOException {
+        Set<String> common = null;
+        for (JsonNode branch : branches) {
+            Set<String> collected = collectReferences(base, root, branch, fragments);
+            if (common == null) {
+                common = collected;
+            } else {
+                common.retainAll(collected);
+            }
+        }
+        return common == null ? Collections.emptySet() : common;
+    }
+
+    private JsonNode loadSchema(URI schema) throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(toResourcePath(schema))) {
+            return in == null ? null : Json.loadStream(in);
+        }
+    }
+
+    private static URI withoutFragment(URI uri) {
+        try {
+            return new URI(uri.getScheme(), uri.getSchemeSpecificPart(), "");
+        } catch (URISyntaxException ex) {
+            throw new IllegalArgumentException(ex);
+        }
+    }
+
+    private static Set<String> getBundledSchemas() {
+        Set<String> bundled = new LinkedHashSet<>();
+        Deque<Class<?>> types = new ArrayDeque<>();
+        types.add(SchemaConstants.class);
+        while (!types.isEmpty()) {
+            Class<?> type = types.poll();
+            Collections.addAll(types, type.getClasses());
+            for (Field field : type.getFields()) {
+                if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class) {
+                    try {
+                        String value = (String) field.get(null);
+                        if (value.startsWith(SCHEMA_PREFIX)) {
+                            bundled.add(value);
+                        }
+                    } catch (IllegalAccessException ex) {
+                        LOG.warn("Could not read schema constant {}", field, ex);
+                    }
+                }
+            }
+        }
+        return bundled;
+    }
+
+    /**
+     * Creates a configuration using message bundles that are read once. The default bundles look up the localized
+     * messages for every message that is created while validating, including the messages of the failing branches of
+     * {@code oneOf} and {@code anyOf}.
+     */
+    private static ValidationConfiguration createValidationConfiguration() {
+        try {
+            return ValidationConfiguration.newBuilder()
+                    .setSyntaxMessages(MessageBundle.withSingleSource(PropertiesMessageSource
+                            .fromResource(SYNTAX_MESSAGES)))
+                    .setValidationMessages(MessageBundle.withSingleSource(PropertiesMessageSource
+                            .fromResource(VALIDATION_MESSAGES)))
+                    .freeze();
+        } catch (IOException ex) {
+            LOG.warn("Could not load the JSON schema messages", ex);
+            return ValidationConfiguration.byDefault();
+        }
+    }
+
+    private static String toResourcePath(URI source) {
+        return String.format("%s.json", source.getPath().replace("/json", "")).substring(1);
+    }
+
     public static JSONValidator getInstance() {
         return LazyHolder.INSTANCE;
     }
@@ -80,10 +80,12 @@ public abstract class AbstractSosRequestDecoder<T extends OwsServiceRequest>
         if (node == null || node.isNull() || node.isMissingNode()) {
             return null;
         }
+        T t;
         if (validate) {
-            JSONValidator.getInstance().validateAndThrow(node, getSchemaURI());
+            t = JSONValidator.getInstance().validateAndDecode(node, getSchemaURI(), () -> decodeRequest(node));
+        } else {
+            t = decodeRequest(node);
         }
-        T t = decodeRequest(node);
         t.setService(node.path(JSONConstants.SERVICE).textValue());
         t.setVersion(node.path(JSONConstants.VERSION).textValue());
         t.setExtensions(parseExtensions(node.path(JSONConstants.EXTENSIONS)));
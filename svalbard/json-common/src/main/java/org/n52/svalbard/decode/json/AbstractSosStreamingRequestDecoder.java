@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.svalbard.decode.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.n52.janmayen.Json;
+import org.n52.janmayen.http.MediaTypes;
+import org.n52.shetland.ogc.ows.service.OwsServiceRequest;
+import org.n52.svalbard.decode.AbstractDelegatingDecoder;
+import org.n52.svalbard.decode.Decoder;
+import org.n52.svalbard.decode.DecoderKey;
+import org.n52.svalbard.decode.JsonDecoderKey;
+import org.n52.svalbard.decode.OperationDecoderKey;
+import org.n52.svalbard.decode.StreamingOperationDecoderKey;
+import org.n52.svalbard.decode.exception.DecodingException;
+import org.n52.svalbard.decode.exception.NoDecoderForKeyException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Decodes requests containing a potentially large array of elements, e.g. the observations of an
+ * {@code InsertObservation} request, from a {@link JsonParser}. The elements are read and decoded one at a time, so
+ * that only the decoded elements and the tree of the current element are held in memory.
+ * <p>
+ * All other fields of the request and the first element are decoded by the decoder of the operation that consumes
+ * the completely parsed document, which validates them against the schema of the request. The remaining elements are
+ * validated by the decoder of the element type.
+ *
+ * @param <T> the request type
+ * @param <E> the element type
+ *
+ * @since 9.9.0
+ */
+public abstract class AbstractSosStreamingRequestDecoder<T extends OwsServiceRequest, E>
+        extends AbstractDelegatingDecoder<T, JsonParser> {
+
+    private final Set<DecoderKey> keys;
+    private final OperationDecoderKey requestDecoderKey;
+    private final JsonDecoderKey elementDecoderKey;
+    private final String field;
+
+    public AbstractSosStreamingRequestDecoder(String service, String version, Enum<?> operation, String field,
+                                              Class<E> elementType) {
+        this.keys = Collections.singleton(new StreamingOperationDecoderKey(service, version, operation,
+                                                                           MediaTypes.APPLICATION_JSON));
+        this.requestDecoderKey = new OperationDecoderKey(service, version, operation, MediaTypes.APPLICATION_JSON);
+        this.elementDecoderKey = new JsonDecoderKey(elementType);
+        this.field = field;
+    }
+
+    @Override
+    public Set<DecoderKey> getKeys() {
+        return Collections.unmodifiableSet(keys);
+    }
+
+    @Override
+    public T decode(JsonParser parser) throws DecodingException {
+        Decoder<T, JsonNode> requestDecoder = getRequiredDecoder(requestDecoderKey);
+        Decoder<E, JsonNode> elementDecoder = getRequiredDecoder(elementDecoderKey);
+        ObjectNode request = Json.nodeFactory().objectNode();
+        List<E> elements = new ArrayList<>();
+        try {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new DecodingException("Expected a JSON object but found %s", parser.currentToken());
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                if (parser.nextToken() == JsonToken.START_ARRAY && name.equals(field)) {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        JsonNode element = parser.readValueAsTree();
+                        if (!request.has(field)) {
+                            // decoded and validated as part of the request
+                            request.set(field, element);
+                        } else {
+                            E decoded = elementDecoder.decode(element);
+                            if (decoded != null) {
+                                elements.add(decoded);
+                            }
+                        }
+                    }
+                } else {
+                    request.set(name, parser.readValueAsTree());
+                }
+            }
+        } catch (IOException ex) {
+            throw new DecodingException(ex, "Error while reading the request: %s", ex.getMessage());
+        }
+        T decoded = requestDecoder.decode(request);
+        if (!elements.isEmpty()) {
+            List<E> first = getElements(decoded);
+            List<E> all = new ArrayList<>(first.size() + elements.size());
+            all.addAll(first);
+            all.addAll(elements);
+            setElements(decoded, all);
+        }
+        return decoded;
+    }
+
+    /**
+     * Get the elements decoded by the decoder of the request.
+     *
+     * @param request the request
+     *
+     * @return the elements
+     */
+    protected abstract List<E> getElements(T request);
+
+    /**
+     * Sets all elements of the request.
+     *
+     * @param request  the request
+     * @param elements the elements
+     */
+    protected abstract void setElements(T request, List<E> elements);
+
+    private <X> Decoder<X, JsonNode> getRequiredDecoder(DecoderKey key) throws NoDecoderForKeyException {
+        Decoder<X, JsonNode> decoder = getDecoder(key);
+        if (decoder == null) {
+            throw new NoDecoderForKeyException(key);
+        }
+        return decoder;
+    }
+}
@@ -15,11 +15,23 @@
  */
 package org.n52.svalbard.coding.json;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.n52.janmayen.Json;
+import org.n52.svalbard.decode.exception.DecodingException;
+
+import com.fasterxml.jackson.databind.JsonNode;
 
 /**
  * TODO JavaDoc
@@ -29,10 +41,97 @@ import org.junit.jupiter.api.Test;
  * @since 1.0.0
  */
 public class JSONValidatorTest {
+    private static final String GET_OBSERVATION =
+            "{\"request\":\"GetObservation\",\"service\":\"SOS\",\"version\":\"2.0.0\"}";
+    private static final String MEASUREMENT =
+            "{\"type\":\"http://www.opengis.net/def/observationType/OGC-OM/2.0/OM_Measurement\","
+            + "\"procedure\":\"procedure\",\"observedProperty\":\"observedProperty\","
+            + "\"featureOfInterest\":\"featureOfInterest\",\"phenomenonTime\":\"2022-01-01T00:00:00Z\","
+            + "\"resultTime\":\"2022-01-01T00:00:00Z\",\"result\":{\"uom\":\"degC\",\"value\":1.0}}";
+    private final List<String> validated = new ArrayList<>();
+    private final JSONValidationListener listener = (schema, nanos, valid) -> validated.add(schema);
+
+    @BeforeEach
+    public void addListener() {
+        JSONValidator.getInstance().addListener(listener);
+    }
+
+    @AfterEach
+    public void removeListener() {
+        JSONValidator.getInstance().removeListener(listener);
+    }
+
     @Test
     public void testNonExistingSchema() throws IOException {
         assertThrows(IllegalArgumentException.class, () -> {
             JSONValidator.getInstance().isValid("{}", "htto:/x.y/z");
         });
     }
+
+    @Test
+    public void shouldCompileSchemasOnlyOnce() {
+        JSONValidator validator = JSONValidator.getInstance();
+        validator.precompile();
+        assertThat(validator.getJsonSchema(SchemaConstants.Request.GET_OBSERVATION),
+                   is(sameInstance(validator.getJsonSchema(SchemaConstants.Request.GET_OBSERVATION))));
+    }
+
+    @Test
+    public void shouldSkipReferencedSchemasWhileDecoding() throws IOException, DecodingException {
+        JSONValidator validator = JSONValidator.getInstance();
+        JsonNode request = Json.loadString(GET_OBSERVATION);
+        JsonNode invalid = Json.loadString("{}");
+        validator.validateAndDecode(request, SchemaConstants.Request.GET_OBSERVATION, () -> {
+            // part of the GetObservation schema, already validated
+            validator.validateAndThrow(invalid, SchemaConstants.Common.SPATIAL_FILTER);
+            return null;
+        });
+        assertThat(validated, contains(SchemaConstants.Request.GET_OBSERVATION));
+        assertThrows(DecodingException.class,
+                     () -> validator.validateAndThrow(invalid, SchemaConstants.Common.SPATIAL_FILTER));
+    }
+
+    @Test
+    public void shouldNotSkipUnrelatedSchemasWhileDecoding() throws IOException {
+        JSONValidator validator = JSONValidator.getInstance();
+        JsonNode request = Json.loadString(GET_OBSERVATION);
+        JsonNode invalid = Json.loadString("{}");
+        assertThrows(DecodingException.class, () -> {
+            validator.validateAndDecode(request, SchemaConstants.Request.GET_OBSERVATION, () -> {
+                validator.validateAndThrow(invalid, SchemaConstants.Observation.OBSERVATION);
+                return null;
+            });
+        });
+        assertThat(validated, contains(SchemaConstants.Request.GET_OBSERVATION,
+                                       SchemaConstants.Observation.OBSERVATION));
+    }
+
+    @Test
+    public void shouldSkipSchemasReferencedByAllBranches() throws IOException, DecodingException {
+        JSONValidator validator = JSONValidator.getInstance();
+        JsonNode request = Json.loadString(GET_OBSERVATION);
+        JsonNode invalid = Json.loadString("[]");
+        validator.validateAndDecode(request, SchemaConstants.Request.GET_OBSERVATION, () -> {
+            // the temporal filter is either a single filter or an array of filters
+            validator.validateAndThrow(invalid, SchemaConstants.Common.TEMPORAL_FILTER);
+            return null;
+        });
+        assertThat(validated, contains(SchemaConstants.Request.GET_OBSERVATION));
+    }
+
+    @Test
+    public void shouldNotSkipSchemasOfUnmatchedBranches() throws IOException {
+        JSONValidator validator = JSONValidator.getInstance();
+        JsonNode measurement = Json.loadString(MEASUREMENT);
+        JsonNode invalid = Json.loadString("{}");
+        assertThrows(DecodingException.class, () -> {
+            validator.validateAndDecode(measurement, SchemaConstants.Observation.OBSERVATION, () -> {
+                // an observation may be a category observation, but this one is a measurement
+                validator.validateAndThrow(invalid, SchemaConstants.Observation.CATEGORY_OBSERVATION);
+                return null;
+            });
+        });
+        assertThat(validated, contains(SchemaConstants.Observation.OBSERVATION,
+                                       SchemaConstants.Observation.CATEGORY_OBSERVATION));
+    }
 }
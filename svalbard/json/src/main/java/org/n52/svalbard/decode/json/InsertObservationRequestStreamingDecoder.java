@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.svalbard.decode.json;
+
+import java.util.List;
+
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.sos.Sos2Constants;
+import org.n52.shetland.ogc.sos.SosConstants;
+import org.n52.shetland.ogc.sos.request.InsertObservationRequest;
+import org.n52.svalbard.coding.json.JSONConstants;
+
+/**
+ * Decodes {@code InsertObservation} requests from a stream of tokens, one observation at a time.
+ *
+ * @since 9.9.0
+ */
+public class InsertObservationRequestStreamingDecoder
+        extends AbstractSosStreamingRequestDecoder<InsertObservationRequest, OmObservation> {
+
+    public InsertObservationRequestStreamingDecoder() {
+        super(SosConstants.SOS, Sos2Constants.SERVICEVERSION, SosConstants.Operations.InsertObservation,
+              JSONConstants.OBSERVATION, OmObservation.class);
+    }
+
+    @Override
+    protected List<OmObservation> getElements(InsertObservationRequest request) {
+        return request.getObservations();
+    }
+
+    @Override
+    protected void setElements(InsertObservationRequest request, List<OmObservation> observations) {
+        request.setObservation(observations);
+    }
+}
@@ -97,7 +97,8 @@ public class ObservationDecoder
             return null;
         }
         if (validate) {
-            JSONValidator.getInstance().validateAndThrow(node, SchemaConstants.Observation.OBSERVATION);
+            return JSONValidator.getInstance().validateAndDecode(node, SchemaConstants.Observation.OBSERVATION,
+                                                                 () -> decodeJSON(node));
         }
         return decodeJSON(node);
     }
@@ -44,12 +44,14 @@ import org.n52.shetland.ogc.om.values.SweDataArrayValue;
 import org.n52.shetland.ogc.om.values.TLVTValue;
 import org.n52.shetland.ogc.om.values.TVPValue;
 import org.n52.shetland.ogc.om.values.TextValue;
+import org.n52.shetland.ogc.om.values.TimeSeriesValue;
 import org.n52.shetland.ogc.om.values.TimeValue;
 import org.n52.shetland.ogc.om.values.TrajectoryValue;
 import org.n52.shetland.ogc.om.values.TimeRangeValue;
 import org.n52.shetland.ogc.om.values.UnknownValue;
 import org.n52.shetland.ogc.om.values.Value;
 import org.n52.shetland.ogc.om.values.XmlValue;
+import org.n52.shetland.ogc.om.values.visitor.DefaultValueVisitor;
 import org.n52.shetland.ogc.om.values.visitor.ValueVisitor;
 import org.n52.shetland.ogc.swe.SweAbstractDataComponent;
 import org.n52.shetland.ogc.swe.SweAbstractDataRecord;
@@ -61,6 +63,7 @@ import org.n52.shetland.ogc.swe.simpleType.SweCount;
 import org.n52.shetland.ogc.swe.simpleType.SweQuantity;
 import org.n52.shetland.ogc.swe.simpleType.SweText;
 import org.n52.shetland.ogc.swe.simpleType.SweTime;
+import org.n52.shetland.util.DateTimeHelper;
 import org.n52.shetland.util.OMHelper;
 import org.n52.svalbard.coding.json.JSONConstants;
 import org.n52.svalbard.encode.exception.EncodingException;
@@ -363,7 +366,29 @@ public class ObservationEncoder
 
     private JsonNode encodeTVPValue(OmObservation o)
             throws EncodingException {
-        TVPValue tvpValue = (TVPValue) o.getValue().getValue();
+        return o.getValue().getValue().accept(new DefaultValueVisitor<JsonNode, EncodingException>() {
+            @Override
+            public JsonNode visit(TimeSeriesValue value)
+                    throws EncodingException {
+                return encodeTimeSeriesValue(o, value);
+            }
+
+            @Override
+            public JsonNode visit(TVPValue value)
+                    throws EncodingException {
+                return encodeTVPValue(o, value);
+            }
+
+            @Override
+            protected JsonNode visitDefault(Value<?> value)
+                    throws EncodingException {
+                throw new UnsupportedEncoderInputException(ObservationEncoder.this, value);
+            }
+        });
+    }
+
+    private JsonNode encodeTVPValue(OmObservation o, TVPValue tvpValue)
+            throws EncodingException {
         ObjectNode result = nodeFactory().objectNode();
         List<TimeValuePair> values = tvpValue.getValue();
         if (values != null && !values.isEmpty()) {
@@ -387,6 +412,37 @@ public class ObservationEncoder
         return result;
     }
 
+    private JsonNode encodeTimeSeriesValue(OmObservation o, TimeSeriesValue timeSeries)
+            throws EncodingException {
+        ObjectNode result = nodeFactory().objectNode();
+        if (timeSeries.isSetValue()) {
+            String obsProp = o.getObservationConstellation().getObservableProperty().getIdentifier();
+            SweTime timeDef = new SweTime();
+            timeDef.setDefinition(OmConstants.PHENOMENON_TIME);
+            timeDef.setUom(OmConstants.PHEN_UOM_ISO8601);
+            SweField timeField = new SweField(OmConstants.PHENOMENON_TIME_NAME, timeDef);
+            SweField valueField = getFieldForValue(obsProp, timeSeries.getValue(0));
+
+            result.putArray(JSONConstants.FIELDS).add(encodeObjectToJson(timeField))
+                    .add(encodeObjectToJson(valueField));
+            ArrayNode jvalues = result.putArray(JSONConstants.VALUES);
+            int size = timeSeries.size();
+            for (int i = 0; i < size; i++) {
+                if (!timeSeries.isMissing(i)) {
+                    // formatted like the time instants of the time value pairs
+                    ArrayNode point = jvalues.addArray();
+                    point.add(DateTimeHelper.formatDateTime2IsoString(timeSeries.getDateTime(i)));
+                    if (timeSeries.getType() == TimeSeriesValue.Type.QUANTITY) {
+                        point.add(timeSeries.getQuantity(i));
+                    } else {
+                        point.add(timeSeries.getCount(i));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
     private JsonNode encodeQualityValue(Value<?> value) {
         QuantityValue quantityValue = (QuantityValue) value;
         ObjectNode node = nodeFactory().objectNode();
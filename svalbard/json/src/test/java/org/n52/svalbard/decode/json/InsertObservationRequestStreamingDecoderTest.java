@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2015-2022 52°North Spatial Information Research GmbH
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.n52.svalbard.decode.json;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.n52.janmayen.Json;
+import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.sos.request.InsertObservationRequest;
+import org.n52.svalbard.decode.DecoderRepository;
+import org.n52.svalbard.decode.exception.DecodingException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class InsertObservationRequestStreamingDecoderTest {
+    private static final String MULTIPLE_OBSERVATIONS =
+            "/examples/sos/InsertObservationRequest-multiple-observations.json";
+
+    private InsertObservationRequestDecoder decoder;
+    private InsertObservationRequestStreamingDecoder streamingDecoder;
+
+    @BeforeEach
+    public void before() {
+        DecoderRepository decoderRepository = new DecoderRepository();
+        this.decoder = new InsertObservationRequestDecoder();
+        this.decoder.setDecoderRepository(decoderRepository);
+        this.streamingDecoder = new InsertObservationRequestStreamingDecoder();
+        this.streamingDecoder.setDecoderRepository(decoderRepository);
+        ObservationDecoder observationDecoder = new ObservationDecoder();
+        observationDecoder.setDecoderRepository(decoderRepository);
+        decoderRepository.setDecoders(Arrays.asList(decoder, streamingDecoder, observationDecoder));
+        decoderRepository.init();
+    }
+
+    @Test
+    public void shouldDecodeLikeTheTreeDecoder() throws IOException, DecodingException {
+        InsertObservationRequest expected;
+        try (Reader reader = resource(MULTIPLE_OBSERVATIONS)) {
+            expected = decoder.decode(Json.loadReader(reader));
+        }
+        InsertObservationRequest streamed;
+        try (JsonParser parser = Json.createParser(resource(MULTIPLE_OBSERVATIONS))) {
+            streamed = streamingDecoder.decode(parser);
+        }
+        assertThat(streamed.getService(), is(expected.getService()));
+        assertThat(streamed.getVersion(), is(expected.getVersion()));
+        assertThat(streamed.getOfferings(), is(expected.getOfferings()));
+        assertThat(streamed.getObservations(), hasSize(2));
+        assertThat(identifiers(streamed), is(identifiers(expected)));
+    }
+
+    @Test
+    public void shouldKeepTheOrderOfTheObservations() throws IOException, DecodingException {
+        ObjectNode request;
+        try (Reader reader = resource(MULTIPLE_OBSERVATIONS)) {
+            request = (ObjectNode) Json.loadReader(reader);
+        }
+        ArrayNode observations = (ArrayNode) request.path("observation");
+        JsonNode template = observations.get(0);
+        observations.removeAll();
+        for (int i = 0; i < 5; ++i) {
+            observations.add(((ObjectNode) template.deepCopy()).put("procedure", "procedure" + i));
+        }
+        try (JsonParser parser = Json.createParser(new StringReader(Json.print(request)))) {
+            InsertObservationRequest streamed = streamingDecoder.decode(parser);
+            assertThat(streamed.getObservations().stream()
+                               .map(o -> o.getObservationConstellation().getProcedureIdentifier())
+                               .collect(Collectors.toList()),
+                       contains("procedure0", "procedure1", "procedure2", "procedure3", "procedure4"));
+        }
+    }
+
+    @Test
+    public void shouldValidateAllObservations() throws IOException {
+        ObjectNode request;
+        try (Reader reader = resource(MULTIPLE_OBSERVATIONS)) {
+            request = (ObjectNode) Json.loadReader(reader);
+        }
+        ((ArrayNode) request.path("observation")).addObject().put("type", "invalid");
+        try (JsonParser parser = Json.createParser(new StringReader(Json.print(request)))) {
+            assertThrows(DecodingException.class, () -> streamingDecoder.decode(parser));
+        }
+    }
+
+    private static Reader resource(String name) {
+        return new InputStreamReader(InsertObservationRequestStreamingDecoderTest.class.getResourceAsStream(name),
+                                     StandardCharsets.UTF_8);
+    }
+
+    private static Object identifiers(InsertObservationRequest request) {
+        return request.getObservations().stream()
+                .map(OmObservation::getObservationConstellation)
+                .map(oc -> oc.getProcedureIdentifier() + "/" + oc.getObservablePropertyIdentifier())
+                .collect(Collectors.toList());
+    }
+}
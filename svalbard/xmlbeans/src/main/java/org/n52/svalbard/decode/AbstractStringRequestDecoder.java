@@ -15,6 +15,8 @@
  */
 package org.n52.svalbard.decode;
 
+import java.util.Optional;
+
 import javax.inject.Inject;
 
 import org.apache.xmlbeans.XmlObject;
@@ -29,15 +31,23 @@ public abstract class AbstractStringRequestDecoder implements Decoder<OwsService
 
     private DecoderRepository decoderRepository;
 
+    private XmlRequestParser requestParser;
+
     @Inject
     @SuppressFBWarnings({ "EI_EXPOSE_REP2" })
     public void setDecoderRepository(DecoderRepository decoderRepository) {
         this.decoderRepository = decoderRepository;
     }
 
+    @Inject
+    @SuppressFBWarnings({ "EI_EXPOSE_REP2" })
+    public void setRequestParser(Optional<XmlRequestParser> requestParser) {
+        this.requestParser = requestParser.orElse(null);
+    }
+
     @Override
     public OwsServiceCommunicationObject decode(String string) throws DecodingException {
-        XmlObject xml = CodingHelper.readXML(string);
+        XmlObject xml = requestParser == null ? CodingHelper.readXML(string) : requestParser.parse(string);
         DecoderKey key = CodingHelper.getDecoderKey(xml);
         Decoder<OwsServiceCommunicationObject, XmlObject> decoder = decoderRepository.getDecoder(key);
         if (decoder == null) {
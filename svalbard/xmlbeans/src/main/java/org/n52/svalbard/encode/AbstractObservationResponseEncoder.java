@@ -16,12 +16,28 @@
 package org.n52.svalbard.encode;
 
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import javax.inject.Inject;
 
 import org.apache.xmlbeans.XmlObject;
+import org.n52.shetland.ogc.gml.AbstractFeature;
+import org.n52.shetland.ogc.om.ObservationStream;
 import org.n52.shetland.ogc.om.OmObservation;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.shetland.ogc.sos.response.AbstractObservationResponse;
+import org.n52.svalbard.encode.EncodingExecutor.EncodingTask;
 import org.n52.svalbard.encode.exception.EncodingException;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
 /**
  * TODO JavaDoc
  *
@@ -33,10 +49,129 @@ import org.n52.svalbard.encode.exception.EncodingException;
 public abstract class AbstractObservationResponseEncoder<T extends AbstractObservationResponse>
         extends AbstractSosResponseEncoder<T> {
 
+    private EncodingExecutor encodingExecutor;
+
+    private ObservationMerger observationMerger;
+
     public AbstractObservationResponseEncoder(String operation, Class<T> responseType) {
         super(operation, responseType);
     }
 
+    @Inject
+    @SuppressFBWarnings({ "EI_EXPOSE_REP2" })
+    public void setEncodingExecutor(Optional<EncodingExecutor> encodingExecutor) {
+        this.encodingExecutor = encodingExecutor.orElse(null);
+    }
+
+    @Inject
+    @SuppressFBWarnings({ "EI_EXPOSE_REP2" })
+    public void setObservationMerger(Optional<ObservationMerger> observationMerger) {
+        this.observationMerger = observationMerger.orElse(null);
+    }
+
+    /**
+     * @return the merger for observations of encoders that require merged observations, may be {@code null}
+     */
+    public ObservationMerger getObservationMerger() {
+        return observationMerger;
+    }
+
+    /**
+     * Merge the observations with the same observation constellation, using the {@link ObservationMerger} if it is
+     * available.
+     *
+     * @param observations the observations
+     *
+     * @return the merged observations
+     *
+     * @throws OwsExceptionReport if the observations can not be retrieved or merged
+     */
+    protected ObservationStream merge(ObservationStream observations) throws OwsExceptionReport {
+        return observationMerger == null ? observations.merge() : observationMerger.merge(observations);
+    }
+
+    /**
+     * Encodes the observations of the stream and passes them in the order of the stream to the consumer. If an
+     * enabled {@link EncodingExecutor} is available, the observations are pulled in batches and each batch is encoded
+     * in parallel.
+     * <p>
+     * Observations of a response may share objects, whose encoding depends on the encoding order: identifiers are
+     * assigned on first use and only the first occurrence of a feature of interest is encoded inline, the others as
+     * references. Identifiers are therefore assigned sequentially and the batch is encoded in rounds: observations
+     * that would encode the same feature or nested feature inline are deferred to a later round, in which the
+     * feature is referenced.
+     *
+     * @param encoder      the observation encoder
+     * @param observations the observations
+     * @param consumer     the consumer of the encoded observations
+     *
+     * @throws EncodingException  if the encoding fails
+     * @throws OwsExceptionReport if the observations can not be retrieved
+     */
+    protected void encodeObservations(ObservationEncoder<XmlObject, OmObservation> encoder,
+                                      ObservationStream observations, Consumer<XmlObject> consumer)
+            throws EncodingException, OwsExceptionReport {
+        EncodingExecutor executor = this.encodingExecutor;
+        // AbstractOmEncoderv20 is an ObservationEncoder<XmlObject, Object>, a direct cast would not compile
+        Object omEncoder = encoder;
+        if (executor == null || !executor.isEnabled() || !(omEncoder instanceof AbstractOmEncoderv20)) {
+            while (observations.hasNext()) {
+                consumer.accept(encoder.encode(observations.next()));
+            }
+            return;
+        }
+        int batchSize = executor.getBatchSize();
+        List<OmObservation> batch = new ArrayList<>(batchSize);
+        while (observations.hasNext()) {
+            batch.clear();
+            while (batch.size() < batchSize && observations.hasNext()) {
+                OmObservation observation = observations.next();
+                ((AbstractOmEncoderv20) omEncoder).prepareObservation(observation);
+                batch.add(observation);
+            }
+            encodeBatch(executor, encoder, batch).forEach(consumer);
+        }
+    }
+
+    private List<XmlObject> encodeBatch(EncodingExecutor executor, ObservationEncoder<XmlObject, OmObservation> encoder,
+                                        List<OmObservation> batch)
+            throws EncodingException {
+        XmlObject[] encoded = new XmlObject[batch.size()];
+        List<Integer> pending = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); ++i) {
+            pending.add(i);
+        }
+        while (!pending.isEmpty()) {
+            // observations encoding (nested) features inline must not share them with others of the same round
+            Set<AbstractFeature> claimed = Collections.newSetFromMap(new IdentityHashMap<>());
+            List<Integer> round = new ArrayList<>(pending.size());
+            List<Integer> deferred = new ArrayList<>();
+            for (Integer i : pending) {
+                Set<AbstractFeature> features = EncodedObjectCache.getUnencodedFeatures(
+                        getFeatureOfInterest(batch.get(i)));
+                if (features.stream().noneMatch(claimed::contains)) {
+                    claimed.addAll(features);
+                    round.add(i);
+                } else {
+                    deferred.add(i);
+                }
+            }
+            List<EncodingTask<XmlObject>> tasks = new ArrayList<>(round.size());
+            round.forEach(i -> tasks.add(() -> encoder.encode(batch.get(i))));
+            List<XmlObject> results = executor.invokeAll(tasks);
+            for (int i = 0; i < round.size(); ++i) {
+                encoded[round.get(i)] = results.get(i);
+            }
+            pending = deferred;
+        }
+        return Arrays.asList(encoded);
+    }
+
+    private static AbstractFeature getFeatureOfInterest(OmObservation observation) {
+        return observation.getObservationConstellation() == null ? null
+                       : observation.getObservationConstellation().getFeatureOfInterest();
+    }
+
     /**
      * Finds a O&Mv2 compatible {@link ObservationEncoder}
      *
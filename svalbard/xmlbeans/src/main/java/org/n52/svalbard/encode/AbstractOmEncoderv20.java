@@ -17,7 +17,9 @@ package org.n52.svalbard.encode;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -213,6 +215,32 @@ public abstract class AbstractOmEncoderv20
         nameSpacePrefixMap.put(OmConstants.NS_OM_2, OmConstants.NS_OM_PREFIX);
     }
 
+    /**
+     * Assigns the identifiers of the observation and of its phenomenon and valid time if they are not yet set. This
+     * is part of {@link #encode(Object, EncodingContext)}, but has to be done sequentially before observations that
+     * may share these objects are encoded concurrently.
+     *
+     * @param observation the observation
+     */
+    public void prepareObservation(OmObservation observation) {
+        if (!observation.isSetObservationID()) {
+            observation.setObservationID(
+                    IdGenerator.generate(Double.toString(System.currentTimeMillis() * Math.random())));
+        }
+        String observationID = observation.getObservationID();
+        if (!observation.isSetGmlID()) {
+            observation.setGmlId(OBSERVATION_ID_PREFIX + observationID);
+        }
+        Time phenomenonTime = observation.getPhenomenonTime();
+        if (phenomenonTime != null && phenomenonTime.getGmlId() == null) {
+            phenomenonTime.setGmlId(OmConstants.PHENOMENON_TIME_NAME + "_" + observationID);
+        }
+        Time validTime = observation.getValidTime();
+        if (validTime != null && validTime.getGmlId() == null) {
+            validTime.setGmlId(OmConstants.VALID_TIME_NAME + "_" + observationID);
+        }
+    }
+
     /**
      * Method to create an O&amp;M 2.0 observation XmlBeans object
      *
@@ -227,15 +255,7 @@ public abstract class AbstractOmEncoderv20
     protected XmlObject encodeOmObservation(OmObservation sosObservation, EncodingContext context)
             throws EncodingException {
         OMObservationType xbObservation = createOmObservationType();
-
-        if (!sosObservation.isSetObservationID()) {
-            sosObservation.setObservationID(
-                    IdGenerator.generate(Double.toString(System.currentTimeMillis() * Math.random())));
-        }
-        String observationID = sosObservation.getObservationID();
-        if (!sosObservation.isSetGmlID()) {
-            sosObservation.setGmlId(OBSERVATION_ID_PREFIX + observationID);
-        }
+        prepareObservation(sosObservation);
         xbObservation.setId(generateObservationGMLId());
         setObservationIdentifier(sosObservation, xbObservation);
         setObservationName(sosObservation, xbObservation);
@@ -303,8 +323,21 @@ public abstract class AbstractOmEncoderv20
     private void setFeatureOfInterest(OmObservation observation, OMObservationType xb)
             throws EncodingException {
         AbstractFeature foi = observation.getObservationConstellation().getFeatureOfInterest();
-        XmlObject xbFoi = encodeFeatureOfInterest(foi);
-        xb.addNewFeatureOfInterest().set(xbFoi);
+        EncodedObjectCache cache = getEncodedObjectCache();
+        if (cache == null || foi.isEncoded()) {
+            xb.addNewFeatureOfInterest().set(encodeFeatureOfInterest(foi));
+        } else {
+            // the shared fragment is copied into the observation
+            String namespace = Strings.isNullOrEmpty(getDefaultFeatureEncodingNamespace())
+                    ? foi.getDefaultElementEncoding()
+                    : getDefaultFeatureEncodingNamespace();
+            XmlObject xbFoi = cache.get(foi.getIdentifier(), namespace,
+                                        EncodingContext.empty(), EncodedObjectCache.getVariant(foi),
+                                        () -> encodeFeatureOfInterest(foi));
+            // subsequent occurrences in the same response are encoded as references
+            EncodedObjectCache.markEncoded(foi, xbFoi);
+            xb.addNewFeatureOfInterest().set(xbFoi);
+        }
     }
 
     private void setObservationIdentifier(OmObservation observation, OMObservationType xb)
@@ -410,6 +443,22 @@ public abstract class AbstractOmEncoderv20
         return procedure;
     }
 
+    private XmlObject encodeProcedure(SosProcedureDescription<?> procedureDescription) throws EncodingException {
+        String namespace = procedureDescription.getDefaultElementEncoding();
+        AbstractFeature description = procedureDescription.getProcedureDescription();
+        EncodedObjectCache cache = getEncodedObjectCache();
+        if (cache == null) {
+            return encodeObjectToXml(namespace, description);
+        }
+        // the shared fragment is copied into the observation
+        List<Object> variant = Arrays.asList(description.getClass(), description.getGmlId(),
+                                             procedureDescription.getDescriptionFormat(),
+                                             procedureDescription.getValidTime(), description.getName(),
+                                             description.getDescription());
+        return cache.get(procedureDescription.getIdentifier(), namespace, EncodingContext.empty(), variant,
+                         () -> encodeObjectToXml(namespace, description));
+    }
+
     /**
      * Method that adds the procedure as reference or as encoded object to the
      * XML observation object
@@ -426,8 +475,7 @@ public abstract class AbstractOmEncoderv20
         if (!(procedureDescription instanceof SosProcedureDescriptionUnknownType)) {
             XmlObject encodedProcedure;
             if (procedureDescription instanceof SosProcedureDescription<?>) {
-                encodedProcedure = encodeObjectToXml(procedureDescription.getDefaultElementEncoding(),
-                        ((SosProcedureDescription<?>) procedureDescription).getProcedureDescription());
+                encodedProcedure = encodeProcedure((SosProcedureDescription<?>) procedureDescription);
             } else {
                 encodedProcedure = encodeObjectToXmlPropertyType(procedureDescription.getDefaultElementEncoding(),
                         procedureDescription);
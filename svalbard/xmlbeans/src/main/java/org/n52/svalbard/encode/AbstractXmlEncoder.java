@@ -15,6 +15,7 @@
  */
 package org.n52.svalbard.encode;
 
+import java.util.Optional;
 import java.util.function.Supplier;
 
 import javax.inject.Inject;
@@ -27,6 +28,8 @@ import org.n52.svalbard.encode.exception.EncodingException;
 import org.n52.svalbard.encode.exception.NoEncoderForKeyException;
 import org.n52.svalbard.util.XmlHelper;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
 /**
  *
  * @since 1.0.0
@@ -39,6 +42,8 @@ public abstract class AbstractXmlEncoder<T, S> extends AbstractDelegatingEncoder
 
     private Supplier<XmlOptions> xmlOptions;
 
+    private EncodedObjectCache encodedObjectCache;
+
     public XmlOptions getXmlOptions() {
         return xmlOptions.get();
     }
@@ -48,6 +53,19 @@ public abstract class AbstractXmlEncoder<T, S> extends AbstractDelegatingEncoder
         this.xmlOptions = xmlOptions;
     }
 
+    /**
+     * @return the cache for encoded fragments that are shared between responses, may be {@code null}
+     */
+    public EncodedObjectCache getEncodedObjectCache() {
+        return encodedObjectCache;
+    }
+
+    @Inject
+    @SuppressFBWarnings({ "EI_EXPOSE_REP2" })
+    public void setEncodedObjectCache(Optional<EncodedObjectCache> encodedObjectCache) {
+        this.encodedObjectCache = encodedObjectCache.orElse(null);
+    }
+
     @Override
     public T encode(S element) throws EncodingException {
         return encode(element, EncodingContext.empty());
@@ -64,9 +64,8 @@ public class GetObservationByIdResponseEncoder
         if (response.hasExtensions()) {
             createExtension(xbResponse, response.getExtensions());
         }
-        ObservationStream observations = getObservationsAndCheckForStreaming(response, encoder);
         HashMap<CodeWithAuthority, String> gmlID4sfIdentifier = new HashMap<>();
-        try {
+        try (ObservationStream observations = getObservationsAndCheckForStreaming(response, encoder)) {
             while (observations.hasNext()) {
                 OmObservation observation = observations.next();
                 EncodingContext codingContext = EncodingContext.empty();
@@ -96,7 +95,7 @@ public class GetObservationByIdResponseEncoder
             if (response.getObservationCollection() != null && response.getObservationCollection().hasNext()) {
 
                 if (encoder.shouldObservationsWithSameXBeMerged()) {
-                    return response.getObservationCollection().merge();
+                    return merge(response.getObservationCollection());
                 } else {
                     List<OmObservation> observations = Lists.newArrayList();
                     while (response.getObservationCollection().hasNext()) {
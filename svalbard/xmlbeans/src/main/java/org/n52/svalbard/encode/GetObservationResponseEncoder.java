@@ -23,7 +23,6 @@ import javax.xml.stream.XMLStreamException;
 
 import org.apache.xmlbeans.XmlObject;
 import org.apache.xmlbeans.XmlOptions;
-import org.n52.shetland.ogc.om.ObservationStream;
 import org.n52.shetland.ogc.om.OmObservation;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.shetland.ogc.sos.Sos2Constants;
@@ -65,12 +64,8 @@ public class GetObservationResponseEncoder extends AbstractObservationResponseEn
             if (response.hasExtensions()) {
                 createExtension(xbResponse, response.getExtensions());
             }
-            ObservationStream observationCollection = response.getObservationCollection();
-            while (observationCollection.hasNext()) {
-                xbResponse.addNewObservationData()
-                        .addNewOMObservation()
-                        .set(encoder.encode(observationCollection.next()));
-            }
+            encodeObservations(encoder, response.getObservationCollection(),
+                               o -> xbResponse.addNewObservationData().addNewOMObservation().set(o));
             // in a single observation the gml:ids must be unique
             XmlHelper.makeGmlIdsUnique(doc.getDomNode());
             return doc;
@@ -85,6 +80,8 @@ public class GetObservationResponseEncoder extends AbstractObservationResponseEn
             throws EncodingException {
         try {
             EncodingContext context = ctx.with(EncoderFlags.ENCODER_REPOSITORY, getEncoderRepository())
+                    .with(EncoderFlags.ENCODED_OBJECT_CACHE, getEncodedObjectCache())
+                    .with(EncoderFlags.OBSERVATION_MERGER, getObservationMerger())
                     .with(XmlEncoderFlags.XML_OPTIONS, (Supplier<XmlOptions>) this::getXmlOptions)
                     .with(StreamingEncoderFlags.ENCODER, this);
             new GetObservationResponseXmlStreamWriter(context, outputStream, response).write();
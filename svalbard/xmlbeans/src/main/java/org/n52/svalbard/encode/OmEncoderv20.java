@@ -233,6 +233,7 @@ public class OmEncoderv20 extends AbstractOmEncoderv20 {
             try {
                 new OmV20XmlStreamWriter(
                         ctx.with(EncoderFlags.ENCODER_REPOSITORY, getEncoderRepository())
+                                .with(EncoderFlags.ENCODED_OBJECT_CACHE, getEncodedObjectCache())
                                 .with(XmlEncoderFlags.XML_OPTIONS, (Supplier<XmlOptions>) this::getXmlOptions),
                         outputStream, (OmObservation) objectToEncode).write();
             } catch (XMLStreamException xmlse) {
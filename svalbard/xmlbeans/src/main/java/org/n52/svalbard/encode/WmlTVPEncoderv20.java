@@ -176,6 +176,7 @@ public class WmlTVPEncoderv20 extends AbstractWmlEncoderv20 {
         if (objectToEncode instanceof OmObservation) {
             try {
                 new WmlTVPEncoderv20XmlStreamWriter(ctx.with(EncoderFlags.ENCODER_REPOSITORY, getEncoderRepository())
+                        .with(EncoderFlags.ENCODED_OBJECT_CACHE, getEncodedObjectCache())
                         .with(XmlEncoderFlags.XML_OPTIONS, (Supplier<XmlOptions>) this::getXmlOptions), outputStream,
                         (OmObservation) objectToEncode).write();
             } catch (XMLStreamException xmlse) {
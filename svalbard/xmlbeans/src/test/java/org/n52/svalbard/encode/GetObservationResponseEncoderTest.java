@@ -20,9 +20,11 @@ import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Optional;
 
 import org.apache.xmlbeans.XmlException;
 import org.apache.xmlbeans.XmlObject;
@@ -30,6 +32,9 @@ import org.apache.xmlbeans.XmlOptions;
 import org.joda.time.DateTime;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
 import org.n52.shetland.ogc.gml.CodeWithAuthority;
 import org.n52.shetland.ogc.gml.time.TimeInstant;
 import org.n52.shetland.ogc.om.ObservationStream;
@@ -40,6 +45,7 @@ import org.n52.shetland.ogc.om.OmObservationConstellation;
 import org.n52.shetland.ogc.om.SingleObservationValue;
 import org.n52.shetland.ogc.om.features.samplingFeatures.SamplingFeature;
 import org.n52.shetland.ogc.om.values.QuantityValue;
+import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.shetland.ogc.ows.extension.Extension;
 import org.n52.shetland.ogc.ows.extension.Extensions;
 import org.n52.shetland.ogc.sensorML.SensorMLConstants;
@@ -55,7 +61,9 @@ import org.n52.shetland.ogc.swes.SwesExtension;
 import org.n52.svalbard.encode.exception.EncodingException;
 import org.n52.svalbard.util.SweHelper;
 
+import net.opengis.om.x20.OMObservationType;
 import net.opengis.sos.x20.GetObservationResponseDocument;
+import net.opengis.sos.x20.GetObservationResponseType.ObservationData;
 import net.opengis.swe.x20.DataArrayPropertyType;
 import net.opengis.swe.x20.DataArrayType;
 import net.opengis.swe.x20.DataRecordType;
@@ -126,11 +134,63 @@ public class GetObservationResponseEncoderTest {
         assertThat(dat.getElementType().getAbstractDataComponent(), instanceOf(DataRecordType.class));
     }
 
+    @Test
+    public void testParallelEncodingPreservesOrder() throws EncodingException, OwsExceptionReport {
+        EncodingExecutor executor = new EncodingExecutor();
+        executor.setThreads(4);
+        executor.setBatchSize(8);
+        encoder.setEncodingExecutor(Optional.of(executor));
+        try {
+            GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
+            List<SamplingFeature> features = new ArrayList<>();
+            for (int i = 0; i < 3; ++i) {
+                SamplingFeature feature = new SamplingFeature(new CodeWithAuthority("feature" + i));
+                feature.setGeometry(geometryFactory.createPoint(new Coordinate(7 + i, 52)));
+                features.add(feature);
+            }
+            List<OmObservation> observations = new ArrayList<>();
+            for (int i = 0; i < 50; ++i) {
+                OmObservation observation = createObservation(features.get(i % features.size()));
+                observation.setIdentifier("observation" + i);
+                observations.add(observation);
+            }
+            GetObservationResponse response = createResponse();
+            response.setObservationCollection(ObservationStream.of(observations));
+
+            GetObservationResponseDocument document = (GetObservationResponseDocument) encoder.encode(response);
+            ObservationData[] data = document.getGetObservationResponse().getObservationDataArray();
+            assertThat(data.length, is(50));
+            int inline = 0;
+            for (int i = 0; i < data.length; ++i) {
+                OMObservationType observation = data[i].getOMObservation();
+                assertThat(observation.getIdentifier().getStringValue(), is("observation" + i));
+                if (!observation.getFeatureOfInterest().isSetHref()) {
+                    // only the first occurrence of a feature is encoded inline
+                    assertThat(i < features.size(), is(true));
+                    ++inline;
+                }
+            }
+            assertThat(inline, is(features.size()));
+        } finally {
+            executor.destroy();
+        }
+    }
+
     private GetObservationResponse createResponse() {
         GetObservationResponse response = new GetObservationResponse();
         response.setService(SosConstants.SOS);
         response.setVersion(Sos2Constants.SERVICEVERSION);
         response.setResponseFormat(OmConstants.NS_OM_2);
+        response.setObservationCollection(
+                ObservationStream.of(createObservation(new SamplingFeature(new CodeWithAuthority("feature")))));
+
+        Extensions swesExtensions = new Extensions();
+        swesExtensions.addExtension(createExtension());
+        response.setExtensions(swesExtensions);
+        return response;
+    }
+
+    private OmObservation createObservation(SamplingFeature feature) {
         OmObservation obs = new OmObservation();
 
         OmObservationConstellation obsConst = new OmObservationConstellation();
@@ -138,7 +198,7 @@ public class GetObservationResponseEncoderTest {
         OmObservableProperty omObservableProperty = new OmObservableProperty("observable_property");
         omObservableProperty.setUnit("°C");
         obsConst.setObservableProperty(omObservableProperty);
-        obsConst.setFeatureOfInterest(new SamplingFeature(new CodeWithAuthority("feature")));
+        obsConst.setFeatureOfInterest(feature);
         obsConst.setObservationType( OmConstants.OBS_TYPE_MEASUREMENT);
         obsConst.addOffering("offering");
         obs.setObservationConstellation(obsConst);
@@ -148,12 +208,7 @@ public class GetObservationResponseEncoderTest {
         obsVal.setPhenomenonTime(new TimeInstant(DateTime.now()));
         obsVal.setValue(new QuantityValue(Double.valueOf("52.7"), "°C"));
         obs.setValue(obsVal);
-        response.setObservationCollection(ObservationStream.of(obs));
-
-        Extensions swesExtensions = new Extensions();
-        swesExtensions.addExtension(createExtension());
-        response.setExtensions(swesExtensions);
-        return response;
+        return obs;
     }
 
     private Extension<SweDataArray> createExtension() {
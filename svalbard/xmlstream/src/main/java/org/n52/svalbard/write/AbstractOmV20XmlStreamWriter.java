@@ -46,7 +46,9 @@ import org.n52.shetland.util.DateTimeFormatException;
 import org.n52.shetland.util.DateTimeHelper;
 import org.n52.shetland.util.IdGenerator;
 import org.n52.shetland.w3c.W3CConstants;
+import org.n52.svalbard.encode.EncodedObjectCache;
 import org.n52.svalbard.encode.Encoder;
+import org.n52.svalbard.encode.EncoderFlags;
 import org.n52.svalbard.encode.EncodingContext;
 import org.n52.svalbard.encode.XmlBeansEncodingFlags;
 import org.n52.svalbard.encode.XmlEncoderFlags;
@@ -399,7 +401,17 @@ public abstract class AbstractOmV20XmlStreamWriter extends XmlStreamWriter<OmObs
         if (namespace.isPresent()) {
             EncodingContext codingContext = EncodingContext.of(XmlEncoderFlags.ENCODE_NAMESPACE, namespace.get());
             Encoder<XmlObject, AbstractFeature> encoder = getEncoder(GmlConstants.NS_GML_32, foi);
-            writeXmlObject(encoder.encode(foi, codingContext), OmConstants.QN_OM_20_FEATURE_OF_INTEREST);
+            Optional<EncodedObjectCache> cache = getContext().get(EncoderFlags.ENCODED_OBJECT_CACHE);
+            if (cache.isPresent() && !foi.isEncoded()) {
+                XmlObject xmlObject = cache.get().get(foi.getIdentifier(), namespace.get(), EncodingContext.empty(),
+                                                      EncodedObjectCache.getVariant(foi),
+                                                      () -> encoder.encode(foi, codingContext));
+                // subsequent occurrences in the same response are encoded as references
+                EncodedObjectCache.markEncoded(foi, xmlObject);
+                writeXmlObject(xmlObject, OmConstants.QN_OM_20_FEATURE_OF_INTEREST);
+            } else {
+                writeXmlObject(encoder.encode(foi, codingContext), OmConstants.QN_OM_20_FEATURE_OF_INTEREST);
+            }
         } else {
             empty(OmConstants.QN_OM_20_FEATURE_OF_INTEREST);
             addXlinkHrefAttr(foi.getIdentifier());
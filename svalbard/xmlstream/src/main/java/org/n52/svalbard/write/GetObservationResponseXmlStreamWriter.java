@@ -38,8 +38,10 @@ import org.n52.shetland.ogc.swes.SwesConstants;
 import org.n52.shetland.w3c.SchemaLocation;
 import org.n52.shetland.w3c.W3CConstants;
 import org.n52.svalbard.encode.Encoder;
+import org.n52.svalbard.encode.EncoderFlags;
 import org.n52.svalbard.encode.EncodingContext;
 import org.n52.svalbard.encode.ObservationEncoder;
+import org.n52.svalbard.encode.ObservationMerger;
 import org.n52.svalbard.encode.SchemaAwareEncoder;
 import org.n52.svalbard.encode.StreamingEncoder;
 import org.n52.svalbard.encode.StreamingEncoderFlags;
@@ -94,11 +96,7 @@ public class GetObservationResponseXmlStreamWriter extends AbstractSwesXmlStream
         if (response.hasExtensions()) {
             writeExtensions(response.getExtensions());
         }
-        try {
-            ObservationStream stream = response.getObservationCollection();
-            if (encoder.shouldObservationsWithSameXBeMerged()) {
-                stream = stream.merge();
-            }
+        try (ObservationStream stream = getObservations(response, encoder)) {
             while (stream.hasNext()) {
                 OmObservation o = stream.next();
                 if (o.getValue() instanceof ObservationStream) {
@@ -120,6 +118,18 @@ public class GetObservationResponseXmlStreamWriter extends AbstractSwesXmlStream
         end(Sos2StreamingConstants.GET_OBSERVATION_RESPONSE);
     }
 
+    private ObservationStream getObservations(GetObservationResponse response,
+                                              ObservationEncoder<XmlObject, OmObservation> encoder)
+            throws OwsExceptionReport {
+        ObservationStream stream = response.getObservationCollection();
+        if (encoder.shouldObservationsWithSameXBeMerged()) {
+            // a spilling merger only removes its temporary file when the stream is closed
+            Optional<ObservationMerger> merger = getContext().get(EncoderFlags.OBSERVATION_MERGER);
+            return merger.isPresent() ? merger.get().merge(stream) : stream.merge();
+        }
+        return stream;
+    }
+
     @SuppressWarnings("unchecked")
     private void writeObservationData(EncodingContext ctx,
                                       OmObservation observation,
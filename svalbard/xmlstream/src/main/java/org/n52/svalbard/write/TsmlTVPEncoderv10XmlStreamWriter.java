@@ -44,13 +44,16 @@ import org.n52.shetland.ogc.om.values.QuantityValue;
 import org.n52.shetland.ogc.om.values.SweDataArrayValue;
 import org.n52.shetland.ogc.om.values.TVPValue;
 import org.n52.shetland.ogc.om.values.TextValue;
+import org.n52.shetland.ogc.om.values.TimeSeriesValue;
 import org.n52.shetland.ogc.om.values.Value;
+import org.n52.shetland.ogc.om.values.visitor.DefaultValueVisitor;
 import org.n52.shetland.ogc.ows.exception.OwsExceptionReport;
 import org.n52.shetland.ogc.swe.SweConstants;
 import org.n52.shetland.ogc.swe.simpleType.SweQuality;
 import org.n52.shetland.ogc.swe.simpleType.SweQualityHolder;
 import org.n52.shetland.ogc.swe.simpleType.SweQuantity;
 import org.n52.shetland.util.DateTimeFormatException;
+import org.n52.shetland.util.DateTimeHelper;
 import org.n52.shetland.w3c.W3CConstants;
 import org.n52.svalbard.encode.EncodingContext;
 import org.n52.svalbard.encode.WmlTmlHelper;
@@ -100,13 +103,36 @@ public class TsmlTVPEncoderv10XmlStreamWriter extends AbstractOmV20XmlStreamWrit
             // XML streaming to client
             MultiObservationValues<?> observationValue = (MultiObservationValues<?>) observation.getValue();
             writeDefaultPointMetadata(observationValue, observationValue.getValue().getUnit());
-            TVPValue tvpValue = (TVPValue) observationValue.getValue();
-            List<TimeValuePair> timeValuePairs = tvpValue.getValue();
-            for (TimeValuePair timeValuePair : timeValuePairs) {
-                if (timeValuePair != null) {
-                    writePoint(getTimeString(timeValuePair.getTime()), timeValuePair.getValue());
+            observationValue.getValue().accept(new DefaultValueVisitor<Void, EncodingException>() {
+                @Override
+                public Void visit(TimeSeriesValue value) throws EncodingException {
+                    try {
+                        writePoints(value);
+                    } catch (XMLStreamException e) {
+                        throw new EncodingException(e);
+                    }
+                    return null;
                 }
-            }
+
+                @Override
+                public Void visit(TVPValue value) throws EncodingException {
+                    try {
+                        for (TimeValuePair timeValuePair : value.getValue()) {
+                            if (timeValuePair != null) {
+                                writePoint(getTimeString(timeValuePair.getTime()), timeValuePair.getValue());
+                            }
+                        }
+                    } catch (XMLStreamException e) {
+                        throw new EncodingException(e);
+                    }
+                    return null;
+                }
+
+                @Override
+                protected Void visitDefault(Value<?> value) throws EncodingException {
+                    throw new EncodingException("Unsupported value type %s", value.getClass().getName());
+                }
+            });
             close();
         } else if (observation.getValue() instanceof StreamingValue) {
             // Database streaming + XML streaming to client
@@ -281,6 +307,30 @@ public class TsmlTVPEncoderv10XmlStreamWriter extends AbstractOmV20XmlStreamWrit
         }
     }
 
+    /**
+     * Write the points of a columnar time series without creating intermediate value objects
+     *
+     * @param timeSeries
+     *            the time series
+     * @throws XMLStreamException
+     *             If an error occurs when writing to stream
+     * @throws EncodingException
+     *             If an error occurs when formatting a time
+     */
+    private void writePoints(TimeSeriesValue timeSeries) throws XMLStreamException, EncodingException {
+        int size = timeSeries.size();
+        for (int i = 0; i < size; i++) {
+            String time = DateTimeHelper.formatDateTime2ResponseString(timeSeries.getDateTime(i));
+            SweQualityHolder quality = timeSeries.getQuality(i);
+            if (timeSeries.isMissing(i) && timeSeries.getType() == TimeSeriesValue.Type.QUANTITY
+                    && quality != null && quality.isSetQuality()) {
+                writePointEmptyValueWithQuality(time, quality);
+            } else {
+                writePoint(time, timeSeries.getValueAsString(i), quality);
+            }
+        }
+    }
+
     private void writePoint(String time, Value<?> value) throws XMLStreamException, EncodingException {
         if (value != null) {
             if (value instanceof QuantityValue) {